@@ -57,6 +57,7 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.config.Configuration;
 import org.neo4j.graphdb.config.Setting;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.security.UserManagerSupplier;
 import org.neo4j.kernel.configuration.BoltConnector;
 import org.neo4j.helpers.AdvertisedSocketAddress;
@@ -76,6 +77,7 @@ import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.logging.Log;
+import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.udc.UsageData;
 
 import static java.lang.String.format;
@@ -198,7 +200,7 @@ public class BoltKernelExtension extends KernelExtensionFactory<BoltKernelExtens
                     }
 
                     final Map<Long, BiFunction<Channel, Boolean, BoltProtocol>> versions =
-                            newVersions( logService, workerFactory );
+                            newVersions( logService, workerFactory, dependencies.txBridge() );
                     return new SocketTransport( listenAddress, sslCtx, requireEncryption, logService.getInternalLogProvider(), versions );
                 } )
                 .collect( toList() );
@@ -238,7 +240,7 @@ public class BoltKernelExtension extends KernelExtensionFactory<BoltKernelExtens
     }
 
     private Map<Long, BiFunction<Channel, Boolean, BoltProtocol>> newVersions(
-            LogService logging, WorkerFactory workerFactory )
+            LogService logging, WorkerFactory workerFactory, ThreadToStatementContextBridge txBridge )
     {
         Map<Long, BiFunction<Channel, Boolean, BoltProtocol>> availableVersions = new HashMap<>();
         availableVersions.put(
@@ -247,12 +249,19 @@ public class BoltKernelExtension extends KernelExtensionFactory<BoltKernelExtens
                     BoltConnectionDescriptor descriptor = new BoltConnectionDescriptor(
                             channel.remoteAddress(), channel.localAddress() );
                     BoltWorker worker = workerFactory.newWorker( descriptor, channel::close );
-                    return new BoltProtocolV1( worker, channel, logging );
+                    return new BoltProtocolV1( worker, channel, logging, () -> transactionMemoryTracker( txBridge ) );
                 }
         );
         return availableVersions;
     }
 
+    private static MemoryAllocationTracker transactionMemoryTracker( ThreadToStatementContextBridge txBridge )
+    {
+        // Results are flushed by the worker thread, which has the transaction that produces them bound to it
+        KernelTransaction transaction = txBridge.getKernelTransactionBoundToThisThread( false );
+        return transaction != null ? transaction.memoryTracker() : MemoryAllocationTracker.NONE;
+    }
+
     private KeyStoreInformation createKeyStore( Configuration config, Log log, AdvertisedSocketAddress address )
             throws GeneralSecurityException, IOException, OperatorCreationException
     {
@@ -25,6 +25,7 @@ import io.netty.channel.ChannelHandlerContext;
 
 import java.io.IOException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import org.neo4j.bolt.transport.BoltProtocol;
 import org.neo4j.bolt.v1.messaging.BoltMessageRouter;
@@ -33,6 +34,7 @@ import org.neo4j.bolt.v1.messaging.Neo4jPack;
 import org.neo4j.bolt.v1.runtime.BoltWorker;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.logging.Log;
+import org.neo4j.memory.MemoryAllocationTracker;
 
 /**
  * Implements version one of the Bolt Protocol when transported over a socket. This means this class will handle a
@@ -58,7 +60,13 @@ public class BoltProtocolV1 implements BoltProtocol
 
     public BoltProtocolV1( BoltWorker worker, Channel outputChannel, LogService logging )
     {
-        this.chunkedOutput = new ChunkedOutput( outputChannel, DEFAULT_OUTPUT_BUFFER_SIZE );
+        this( worker, outputChannel, logging, () -> MemoryAllocationTracker.NONE );
+    }
+
+    public BoltProtocolV1( BoltWorker worker, Channel outputChannel, LogService logging,
+            Supplier<MemoryAllocationTracker> memoryTracker )
+    {
+        this.chunkedOutput = new ChunkedOutput( outputChannel, DEFAULT_OUTPUT_BUFFER_SIZE, memoryTracker );
         this.packer = new BoltResponseMessageWriter( new Neo4jPack.Packer( chunkedOutput ), chunkedOutput );
         this.worker = worker;
         this.log = logging.getInternalLog( getClass() );
@@ -25,10 +25,12 @@ import io.netty.channel.Channel;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import org.neo4j.bolt.v1.messaging.BoltResponseMessageBoundaryHook;
 import org.neo4j.bolt.v1.packstream.PackOutput;
 import org.neo4j.bolt.v1.packstream.PackStream;
+import org.neo4j.memory.MemoryAllocationTracker;
 
 import static java.lang.Math.max;
 
@@ -44,6 +46,7 @@ public class ChunkedOutput implements PackOutput, BoltResponseMessageBoundaryHoo
     private final int bufferSize;
     private final int maxChunkSize;
     private final AtomicBoolean closed = new AtomicBoolean( false );
+    private final Supplier<MemoryAllocationTracker> memoryTracker;
 
     private ByteBuf buffer;
     private Channel channel;
@@ -53,8 +56,19 @@ public class ChunkedOutput implements PackOutput, BoltResponseMessageBoundaryHoo
     private boolean chunkOpen = false;
 
     public ChunkedOutput( Channel ch, int bufferSize )
+    {
+        this( ch, bufferSize, () -> MemoryAllocationTracker.NONE );
+    }
+
+    /**
+     * @param memoryTracker supplies the tracker of the transaction that is producing the output when it is flushed.
+     * Flushed chunks are accounted to that tracker until netty has written them to the socket, so that a client that
+     * reads its results slower than the database produces them is limited by the transaction memory limits.
+     */
+    public ChunkedOutput( Channel ch, int bufferSize, Supplier<MemoryAllocationTracker> memoryTracker )
     {
         this.channel = ch;
+        this.memoryTracker = memoryTracker;
         this.bufferSize = max( 16, bufferSize );
         this.maxChunkSize = this.bufferSize - CHUNK_HEADER_SIZE;
         this.buffer = channel.alloc().buffer( this.bufferSize, this.bufferSize );
@@ -73,7 +87,19 @@ public class ChunkedOutput implements PackOutput, BoltResponseMessageBoundaryHoo
             ByteBuf out = this.buffer;
             this.buffer = null;
 
-            channel.writeAndFlush( out, channel.voidPromise() );
+            MemoryAllocationTracker tracker = memoryTracker.get();
+            int bytes = out.readableBytes();
+            try
+            {
+                tracker.allocated( bytes );
+            }
+            catch ( RuntimeException e )
+            {
+                out.release();
+                newBuffer();
+                throw e;
+            }
+            channel.writeAndFlush( out ).addListener( future -> tracker.deallocated( bytes ) );
 
             newBuffer();
         }
@@ -68,7 +68,8 @@ case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo,
       taskCloser.addTask(queryContext.transactionalContext.close)
       val state = new QueryState(queryContext, externalResource, params, pipeDecorator, queryId = queryId,
                                  triadicState = mutable.Map.empty, repeatableReads = mutable.Map.empty,
-                                 typeConverter = typeConverter)
+                                 typeConverter = typeConverter,
+                                 memoryTracker = queryContext.transactionalContext.memoryTracker)
       try {
         try {
           createResults(state, planType, notificationLogger)
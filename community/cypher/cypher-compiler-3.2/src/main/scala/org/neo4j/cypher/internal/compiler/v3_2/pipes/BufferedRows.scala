@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_2.pipes
+
+import org.neo4j.cypher.internal.compiler.v3_2.ExecutionContext
+import org.neo4j.memory.MemoryAllocationTracker
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+  * Rows that a pipe has buffered, for sorting them or for evaluating eagerly. An estimate of the memory that the rows
+  * hold on to is accounted to the transaction while they are being buffered, so that a query which buffers more rows
+  * than the transaction may hold on to fails early, instead of running the database out of memory. The memory is
+  * handed back once all the rows have been consumed.
+  */
+class BufferedRows private(val rows: Array[ExecutionContext], bytes: Long, tracker: MemoryAllocationTracker) {
+
+  def iterator: Iterator[ExecutionContext] = new Iterator[ExecutionContext] {
+    private var position = 0
+    private var released = false
+
+    override def hasNext: Boolean = {
+      val more = position < rows.length
+      if (!more && !released) {
+        released = true
+        tracker.deallocated(bytes)
+      }
+      more
+    }
+
+    override def next(): ExecutionContext = {
+      val row = rows(position)
+      position += 1
+      row
+    }
+  }
+}
+
+object BufferedRows {
+  // The row itself, and the map entry and boxed value of each of its columns
+  private val ESTIMATED_ROW_SIZE = 64L
+  private val ESTIMATED_COLUMN_SIZE = 48L
+  // Account for the rows in batches, rather than for every single row
+  private val BATCH_SIZE = 64 * 1024L
+
+  def apply(input: Iterator[ExecutionContext], state: QueryState): BufferedRows = {
+    val tracker = state.memoryTracker
+    val rows = new ArrayBuffer[ExecutionContext]()
+    var bytes = 0L
+    var pending = 0L
+    input.foreach { row =>
+      pending += ESTIMATED_ROW_SIZE + row.size * ESTIMATED_COLUMN_SIZE
+      if (pending >= BATCH_SIZE) {
+        tracker.allocated(pending)
+        bytes += pending
+        pending = 0
+      }
+      rows += row
+    }
+    tracker.allocated(pending)
+    new BufferedRows(rows.toArray, bytes + pending, tracker)
+  }
+}
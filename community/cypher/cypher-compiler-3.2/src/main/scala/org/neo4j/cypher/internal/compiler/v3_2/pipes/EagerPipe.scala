@@ -26,5 +26,5 @@ case class EagerPipe(src: Pipe)(val id: Id = new Id)(implicit pipeMonitor: PipeM
   extends PipeWithSource(src, pipeMonitor) {
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
-    input.toIndexedSeq.toIterator
+    BufferedRows(input, state).iterator
 }
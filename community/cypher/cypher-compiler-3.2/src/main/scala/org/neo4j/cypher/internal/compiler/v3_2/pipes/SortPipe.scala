@@ -27,9 +27,9 @@ case class SortPipe(source: Pipe, orderBy: Seq[SortDescription])
                    (implicit monitor: PipeMonitor)
   extends PipeWithSource(source, monitor) {
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    val array = input.toArray
-    java.util.Arrays.sort(array, new InnerOrdering(orderBy)(state))
-    array.toIterator
+    val buffered = BufferedRows(input, state)
+    java.util.Arrays.sort(buffered.rows, new InnerOrdering(orderBy)(state))
+    buffered.iterator
   }
 }
 
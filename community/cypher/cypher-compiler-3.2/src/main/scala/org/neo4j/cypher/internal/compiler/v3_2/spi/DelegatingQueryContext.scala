@@ -26,6 +26,7 @@ import org.neo4j.cypher.internal.compiler.v3_2.pipes.matching.PatternNode
 import org.neo4j.cypher.internal.frontend.v3_2.SemanticDirection
 import org.neo4j.graphdb.{Node, Path, PropertyContainer, Relationship}
 import org.neo4j.cypher.internal.compiler.v3_2.IndexDescriptor
+import org.neo4j.memory.MemoryAllocationTracker
 
 import scala.collection.Iterator
 
@@ -259,4 +260,6 @@ class DelegatingQueryTransactionalContext(val inner: QueryTransactionalContext)
   override def isTopLevelTx: Boolean = inner.isTopLevelTx
 
   override def close(success: Boolean) { inner.close(success) }
+
+  override def memoryTracker: MemoryAllocationTracker = inner.memoryTracker
 }
@@ -27,6 +27,7 @@ import org.neo4j.cypher.internal.compiler.v3_2.pipes.matching.PatternNode
 import org.neo4j.cypher.internal.frontend.v3_2.SemanticDirection
 import org.neo4j.graphdb.{Node, Path, PropertyContainer, Relationship}
 import org.neo4j.kernel.api.constraints.{NodePropertyExistenceConstraint, RelationshipPropertyExistenceConstraint, UniquenessConstraint}
+import org.neo4j.memory.MemoryAllocationTracker
 import org.neo4j.cypher.internal.compiler.v3_2.IndexDescriptor
 
 import scala.collection.Iterator
@@ -222,5 +223,8 @@ trait QueryTransactionalContext {
   def close(success: Boolean)
 
   def commitAndRestartTx()
+
+  // Memory that the query holds on to, such as buffered rows, is accounted to the transaction through this tracker
+  def memoryTracker: MemoryAllocationTracker
 }
 
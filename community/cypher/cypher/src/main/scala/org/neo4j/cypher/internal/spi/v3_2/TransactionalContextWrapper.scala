@@ -29,6 +29,7 @@ import org.neo4j.kernel.api.security.SecurityContext
 import org.neo4j.kernel.api.txstate.TxStateHolder
 import org.neo4j.kernel.api.{ReadOperations, Statement}
 import org.neo4j.kernel.impl.query.TransactionalContext
+import org.neo4j.memory.MemoryAllocationTracker
 
 case class TransactionalContextWrapper(tc: TransactionalContext) extends QueryTransactionalContext {
 
@@ -61,6 +62,8 @@ case class TransactionalContextWrapper(tc: TransactionalContext) extends QueryTr
 
   override def close(success: Boolean) { tc.close(success) }
 
+  override def memoryTracker: MemoryAllocationTracker = tc.memoryTracker()
+
   def restrictCurrentTransaction(context: SecurityContext): Revertable = tc.restrictCurrentTransaction(context)
 
   def securityContext: SecurityContext = tc.securityContext
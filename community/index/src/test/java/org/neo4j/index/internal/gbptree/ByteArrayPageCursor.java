@@ -252,6 +252,12 @@ class ByteArrayPageCursor extends PageCursor
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer buffer )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public boolean checkAndClearBoundsFlag()
     {
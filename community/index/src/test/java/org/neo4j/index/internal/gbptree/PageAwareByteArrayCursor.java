@@ -21,6 +21,7 @@ package org.neo4j.index.internal.gbptree;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -139,6 +140,17 @@ class PageAwareByteArrayCursor extends PageCursor
         return bytesToCopy;
     }
 
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer buffer )
+    {
+        int bytesToCopy = Math.min( current.getCurrentPageSize() - sourceOffset, buffer.remaining() );
+        for ( int i = 0; i < bytesToCopy; i++ )
+        {
+            buffer.put( getByte( sourceOffset + i ) );
+        }
+        return bytesToCopy;
+    }
+
     private void assertPages()
     {
         if ( currentPageId >= pages.size() )
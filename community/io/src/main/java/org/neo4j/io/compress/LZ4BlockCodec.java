@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.compress;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * Compresses and decompresses memory in the LZ4 block format.
+ * <p>
+ * Memory is addressed the way {@link UnsafeUtil} does it, by a base object and an offset into it. The base is
+ * {@code null} for native memory, in which case the offset is an absolute address, or a {@code byte[]} in which case
+ * the offset is relative to {@link #BYTE_ARRAY_OFFSET}.
+ * <p>
+ * The compressor is the simple greedy variant with a single hash table probe per position, which is what gives LZ4
+ * its speed. It only needs to be good enough to squeeze the zero padding and repetitive record structure out of
+ * store file pages and serialized commands, and fast enough that decompressing is much cheaper than reading the
+ * uncompressed data from the storage device.
+ * <p>
+ * The decompressor checks every length and offset against the bounds of both buffers, and throws an
+ * {@link IOException} if the compressed data is corrupt, rather than reading or writing outside of the buffers.
+ */
+public final class LZ4BlockCodec
+{
+    public static final int HASH_TABLE_SIZE = 1 << 12;
+    public static final long BYTE_ARRAY_OFFSET = UnsafeUtil.arrayBaseOffset( byte[].class );
+
+    private static final int HASH_SHIFT = 32 - 12;
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int SKIP_TRIGGER = 6;
+    private static final int RUN_MASK = 15;
+    private static final int ML_MASK = 15;
+
+    private LZ4BlockCodec()
+    {
+    }
+
+    /**
+     * @return The size of the largest possible output of compressing the given number of bytes.
+     */
+    public static int maxCompressedLength( int length )
+    {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compress the given native memory into the given native memory buffer.
+     *
+     * @see #compress(Object, long, int, Object, long, int, int[])
+     */
+    public static int compress( long src, int srcLength, long dst, int dstCapacity, int[] hashTable )
+    {
+        return compress( null, src, srcLength, null, dst, dstCapacity, hashTable );
+    }
+
+    /**
+     * Compress the given source bytes into the given destination buffer.
+     *
+     * @param srcBase The object that holds the bytes to compress, or {@code null} for native memory.
+     * @param src The offset of the bytes to compress.
+     * @param srcLength The number of bytes to compress.
+     * @param dstBase The object that will receive the compressed bytes, or {@code null} for native memory.
+     * @param dst The offset of the buffer that will receive the compressed bytes.
+     * @param dstCapacity The size of the destination buffer.
+     * @param hashTable A scratch table of {@link #HASH_TABLE_SIZE} entries. Its contents will be overwritten.
+     * @return The length of the compressed data, or -1 if it did not fit in the destination buffer.
+     */
+    public static int compress( Object srcBase, long src, int srcLength, Object dstBase, long dst, int dstCapacity,
+            int[] hashTable )
+    {
+        int anchor = 0;
+        int op = 0;
+        if ( srcLength > MF_LIMIT )
+        {
+            Arrays.fill( hashTable, -1 );
+            int mfLimit = srcLength - MF_LIMIT;
+            int matchLimit = srcLength - LAST_LITERALS;
+            int ip = 0;
+            while ( ip <= mfLimit )
+            {
+                int sequence = readInt( srcBase, src + ip );
+                int hash = hash( sequence );
+                int ref = hashTable[hash];
+                hashTable[hash] = ip;
+                if ( ref < 0 || ip - ref > MAX_DISTANCE || readInt( srcBase, src + ref ) != sequence )
+                {
+                    // Step faster through data that does not compress, like LZ4 does.
+                    ip += 1 + ((ip - anchor) >>> SKIP_TRIGGER);
+                    continue;
+                }
+
+                while ( ip > anchor && ref > 0 && byteAt( srcBase, src, ip - 1 ) == byteAt( srcBase, src, ref - 1 ) )
+                {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while ( ip + matchLength < matchLimit &&
+                        byteAt( srcBase, src, ip + matchLength ) == byteAt( srcBase, src, ref + matchLength ) )
+                {
+                    matchLength++;
+                }
+
+                op = writeSequence( srcBase, src + anchor, ip - anchor, ip - ref, matchLength, dstBase, dst, op,
+                        dstCapacity );
+                if ( op < 0 )
+                {
+                    return -1;
+                }
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+        return writeLastLiterals( srcBase, src + anchor, srcLength - anchor, dstBase, dst, op, dstCapacity );
+    }
+
+    /**
+     * Decompress the given native memory LZ4 block into the given native memory buffer.
+     *
+     * @see #decompress(Object, long, int, Object, long, int)
+     */
+    public static int decompress( long src, int srcLength, long dst, int dstCapacity ) throws IOException
+    {
+        return decompress( null, src, srcLength, null, dst, dstCapacity );
+    }
+
+    /**
+     * Decompress the given LZ4 block into the given destination buffer.
+     *
+     * @param srcBase The object that holds the compressed data, or {@code null} for native memory.
+     * @param src The offset of the compressed data.
+     * @param srcLength The length of the compressed data.
+     * @param dstBase The object that will receive the decompressed bytes, or {@code null} for native memory.
+     * @param dst The offset of the buffer that will receive the decompressed bytes.
+     * @param dstCapacity The size of the destination buffer.
+     * @return The number of decompressed bytes.
+     * @throws IOException If the compressed data is corrupt, or would decompress to more than the given capacity.
+     */
+    public static int decompress( Object srcBase, long src, int srcLength, Object dstBase, long dst,
+            int dstCapacity ) throws IOException
+    {
+        int ip = 0;
+        int op = 0;
+        for ( ; ; )
+        {
+            if ( ip >= srcLength )
+            {
+                throw corrupt( ip );
+            }
+            int token = byteAt( srcBase, src, ip++ );
+
+            int literalLength = token >>> 4;
+            if ( literalLength == RUN_MASK )
+            {
+                int b;
+                do
+                {
+                    if ( ip >= srcLength )
+                    {
+                        throw corrupt( ip );
+                    }
+                    b = byteAt( srcBase, src, ip++ );
+                    literalLength += b;
+                }
+                while ( b == 255 );
+            }
+            if ( literalLength > srcLength - ip || literalLength > dstCapacity - op )
+            {
+                throw corrupt( ip );
+            }
+            UnsafeUtil.copyMemory( srcBase, src + ip, dstBase, dst + op, literalLength );
+            ip += literalLength;
+            op += literalLength;
+            if ( ip == srcLength )
+            {
+                return op;
+            }
+
+            if ( ip + 2 > srcLength )
+            {
+                throw corrupt( ip );
+            }
+            int offset = byteAt( srcBase, src, ip ) | (byteAt( srcBase, src, ip + 1 ) << 8);
+            ip += 2;
+            if ( offset == 0 || offset > op )
+            {
+                throw corrupt( ip );
+            }
+            int matchLength = token & ML_MASK;
+            if ( matchLength == ML_MASK )
+            {
+                int b;
+                do
+                {
+                    if ( ip >= srcLength )
+                    {
+                        throw corrupt( ip );
+                    }
+                    b = byteAt( srcBase, src, ip++ );
+                    matchLength += b;
+                }
+                while ( b == 255 );
+            }
+            matchLength += MIN_MATCH;
+            if ( matchLength > dstCapacity - op )
+            {
+                throw corrupt( ip );
+            }
+            long from = dst + op - offset;
+            long to = dst + op;
+            if ( offset >= matchLength )
+            {
+                UnsafeUtil.copyMemory( dstBase, from, dstBase, to, matchLength );
+            }
+            else
+            {
+                // Overlapping matches repeat the bytes that were just written, so they must be copied in order.
+                for ( int i = 0; i < matchLength; i++ )
+                {
+                    UnsafeUtil.putByte( dstBase, to + i, UnsafeUtil.getByte( dstBase, from + i ) );
+                }
+            }
+            op += matchLength;
+        }
+    }
+
+    private static int writeSequence( Object literalsBase, long literals, int literalLength, int offset,
+            int matchLength, Object dstBase, long dst, int op, int dstCapacity )
+    {
+        int extraMatchLength = matchLength - MIN_MATCH;
+        int required = 1 + literalLength / 255 + 1 + literalLength + 2 + extraMatchLength / 255 + 1;
+        if ( required > dstCapacity - op )
+        {
+            return -1;
+        }
+        long token = dst + op++;
+        op = writeLiterals( literalsBase, literals, literalLength, dstBase, dst, op );
+        UnsafeUtil.putByte( dstBase, dst + op++, (byte) offset );
+        UnsafeUtil.putByte( dstBase, dst + op++, (byte) (offset >>> 8) );
+        int tokenMatch;
+        if ( extraMatchLength >= ML_MASK )
+        {
+            tokenMatch = ML_MASK;
+            op = writeLength( extraMatchLength - ML_MASK, dstBase, dst, op );
+        }
+        else
+        {
+            tokenMatch = extraMatchLength;
+        }
+        int tokenLiterals = Math.min( literalLength, RUN_MASK );
+        UnsafeUtil.putByte( dstBase, token, (byte) ((tokenLiterals << 4) | tokenMatch) );
+        return op;
+    }
+
+    private static int writeLastLiterals( Object literalsBase, long literals, int literalLength, Object dstBase,
+            long dst, int op, int dstCapacity )
+    {
+        int required = 1 + literalLength / 255 + 1 + literalLength;
+        if ( required > dstCapacity - op )
+        {
+            return -1;
+        }
+        UnsafeUtil.putByte( dstBase, dst + op++, (byte) (Math.min( literalLength, RUN_MASK ) << 4) );
+        return writeLiterals( literalsBase, literals, literalLength, dstBase, dst, op );
+    }
+
+    private static int writeLiterals( Object literalsBase, long literals, int literalLength, Object dstBase,
+            long dst, int op )
+    {
+        if ( literalLength >= RUN_MASK )
+        {
+            op = writeLength( literalLength - RUN_MASK, dstBase, dst, op );
+        }
+        UnsafeUtil.copyMemory( literalsBase, literals, dstBase, dst + op, literalLength );
+        return op + literalLength;
+    }
+
+    private static int writeLength( int length, Object dstBase, long dst, int op )
+    {
+        while ( length >= 255 )
+        {
+            UnsafeUtil.putByte( dstBase, dst + op++, (byte) 255 );
+            length -= 255;
+        }
+        UnsafeUtil.putByte( dstBase, dst + op++, (byte) length );
+        return op;
+    }
+
+    private static int hash( int sequence )
+    {
+        return (sequence * -1640531535) >>> HASH_SHIFT;
+    }
+
+    private static int readInt( Object base, long offset )
+    {
+        if ( UnsafeUtil.allowUnalignedMemoryAccess )
+        {
+            return UnsafeUtil.getInt( base, offset );
+        }
+        return UnsafeUtil.getByte( base, offset ) & 0xFF |
+               (UnsafeUtil.getByte( base, offset + 1 ) & 0xFF) << 8 |
+               (UnsafeUtil.getByte( base, offset + 2 ) & 0xFF) << 16 |
+               (UnsafeUtil.getByte( base, offset + 3 ) & 0xFF) << 24;
+    }
+
+    private static int byteAt( Object base, long offset, int index )
+    {
+        return UnsafeUtil.getByte( base, offset + index ) & 0xFF;
+    }
+
+    private static IOException corrupt( int position )
+    {
+        return new IOException( "Corrupt LZ4 block at input position " + position );
+    }
+}
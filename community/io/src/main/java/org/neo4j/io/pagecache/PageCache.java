@@ -88,6 +88,23 @@ public interface PageCache extends AutoCloseable
      */
     void flushAndForce( IOLimiter limiter ) throws IOException;
 
+    /**
+     * Write out the dirty pages of all mapped files, in file offset order, without forcing them to the storage device.
+     * <p>
+     * This is meant for cleaning pages in the background, ahead of a {@link #flushAndForce(IOLimiter) flush}, so the
+     * flush has less work to do. Pages that are dirtied while this is going on might not be written.
+     * @param limiter The {@link IOLimiter} that determines if pauses or sleeps should be injected into the writing
+     * process to keep the IO rate down.
+     * @return The number of pages written.
+     */
+    long flushDirtyPages( IOLimiter limiter ) throws IOException;
+
+    /**
+     * @return An estimate of the number of dirty pages in the cache, that is, pages that have been modified since they
+     * were last written to their file.
+     */
+    long dirtyPageCount();
+
     /**
      * Close the page cache to prevent any future mapping of files.
      * This also releases any internal resources, including the {@link PageSwapperFactory} through its
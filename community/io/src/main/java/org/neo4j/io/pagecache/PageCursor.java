@@ -21,6 +21,7 @@ package org.neo4j.io.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * A PageCursor is returned from {@link org.neo4j.io.pagecache.PagedFile#io(long, int)},
@@ -301,6 +302,22 @@ public abstract class PageCursor implements AutoCloseable
      */
     public abstract int copyTo( int sourceOffset, PageCursor targetCursor, int targetOffset, int lengthInBytes );
 
+    /**
+     * Copy bytes from the given offset of this page, into the remaining space of the given buffer, and advance the
+     * position of the buffer by the number of bytes copied.
+     * <p>
+     * As many bytes are copied as are available in this page from the given offset, or as will fit in the buffer,
+     * whichever is smaller. An out-of-bounds source offset will raise the out-of-bounds flag, and copy nothing.
+     * <p>
+     * Like any other read from the page, the contents of the buffer must not be interpreted until
+     * {@link #shouldRetry()} has confirmed that the read was consistent.
+     *
+     * @param sourceOffset The offset into this page to copy from.
+     * @param buffer The buffer the data will be copied to.
+     * @return The number of bytes actually copied.
+     */
+    public abstract int copyTo( int sourceOffset, ByteBuffer buffer );
+
     /**
      * Discern whether an out-of-bounds access has occurred since the last call to {@link #next()} or
      * {@link #next(long)}, or since the last call to {@link #shouldRetry()} that returned {@code true}, or since the
@@ -70,6 +70,37 @@ public interface PageSwapperFactory
      */
     long getRequiredBufferAlignment();
 
+    /**
+     * Get the number of pages that the page cache should read ahead, in a single vectored read, when a page fault
+     * occurs during a sequential forward scan of a file. The read-ahead pages are placed in the cache without being
+     * pinned, so they will be the first to be evicted if they are not used.
+     * <p>
+     * Read-ahead is triggered when a cursor faults in the page immediately after the previous page it pinned, or when
+     * the cursor was opened with the {@link PagedFile#PF_READ_AHEAD} hint.
+     *
+     * @return The number of pages to read ahead, or zero to disable read-ahead.
+     */
+    default int getReadAheadPageCount()
+    {
+        return 0;
+    }
+
+    /**
+     * Get the maximum number of consecutive clean pages that the page cache may include in a vectored write, when
+     * flushing, in order to merge two runs of dirty pages into a single write. The clean pages must still be in
+     * memory, so they are written back with the contents they already have on the storage device.
+     * <p>
+     * Writing a few clean pages is often cheaper than doing an extra write system call, and allows the device to see
+     * larger, sequential writes.
+     *
+     * @return The number of clean pages that may be written to bridge a gap between dirty pages, or zero to only
+     * ever write dirty pages.
+     */
+    default int getWriteCombiningGapPageCount()
+    {
+        return 0;
+    }
+
     /**
      * Create a PageSwapper for the given file.
      *
@@ -63,17 +63,30 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_GROW = 1 << 2;
     /**
      * Read-ahead hint for sequential forward scanning.
+     * <p>
+     * Every page fault by the cursor will read ahead the number of pages given by
+     * {@link PageSwapperFactory#getReadAheadPageCount()}, instead of waiting for the cursor to detect that it is
+     * scanning sequentially. Has no effect if the page swapper factory does not ask for read-ahead.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
-     * Do not load in the page if it is not loaded already. Only useful with
-     * exclusive locking when you want to overwrite the whole page anyway.
+     * Do not load in the page if it is not loaded already.
+     * <p>
+     * If the page is not in memory, then the cursor will still move forward, but it will not be bound to the page.
+     * In that case {@link PageCursor#getCurrentPageId()} will return {@link PageCursor#UNBOUND_PAGE_ID}, and all
+     * accesses to the cursor will go to a dummy victim page. This is useful for finding out which pages are in
+     * memory, without disturbing the cache, for instance when profiling the cache contents.
      */
-    int PF_NO_FAULT = 1 << 4; // TBD
+    int PF_NO_FAULT = 1 << 4;
     /**
      * Do not update page access statistics.
+     * <p>
+     * Pages accessed by the cursor will not look any more recently or frequently used to the page replacement policy,
+     * than they did before. Pages that are faulted in by the cursor, and not accessed by anything else, will be among
+     * the first to be evicted. This is useful for large one-off scans, which would otherwise push the frequently used
+     * pages out of the cache.
      */
-    int PF_TRANSIENT = 1 << 5; // TBD
+    int PF_TRANSIENT = 1 << 5;
 
     /**
      * Initiate an IO interaction with the contents of the paged file.
@@ -130,6 +143,17 @@ public interface PagedFile extends AutoCloseable
      */
     PageCursor io( long pageId, int pf_flags ) throws IOException;
 
+    /**
+     * Hint that the page with the given file-page-id will be pinned soon.
+     * <p>
+     * If the page is not in memory, the page cache may start faulting it in on a background thread, so the I/O can
+     * overlap with the work the caller does until it pins the page. This is only a hint, and the page cache is free to
+     * ignore it. Page ids that are beyond the end of the file are ignored.
+     *
+     * @param pageId The file-page-id of the page that will be needed.
+     */
+    void prefetch( long pageId );
+
     /**
      * Get the size of the file-pages, in bytes.
      */
@@ -0,0 +1,423 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveIntObjectMap;
+import org.neo4j.io.compress.LZ4BlockCodec;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * An off-heap store of LZ4 compressed copies of pages that have been evicted from the page cache.
+ * <p>
+ * The tier is split into stripes, each with their own lock and their own share of the memory budget, and each stripe
+ * evicts its oldest entries first when it runs out of memory. An entry is removed when it is loaded back into the
+ * page cache, because the page cache then holds the authoritative copy of the page, and the page will be stored in
+ * the tier again when it is evicted the next time.
+ * <p>
+ * Pages that do not compress to less than {@link #MAX_COMPRESSED_FRACTION_EIGHTHS} eighths of their size are not
+ * stored, since decompressing them would save little over reading them from the file.
+ * <p>
+ * The memory budget covers the on-heap bookkeeping of each entry as well, estimated at {@link #ENTRY_OVERHEAD} bytes,
+ * since it is significant next to pages that compress well. The entries of each swapper are also linked together
+ * within a stripe, so that closing or truncating a file only visits the entries of that file.
+ */
+final class CompressedPageTier implements AutoCloseable
+{
+    static final int MAX_COMPRESSED_FRACTION_EIGHTHS = 7;
+    /**
+     * Estimated on-heap bytes per entry: the {@link Key}, the {@link Entry}, and the hash map node and table slot
+     * pointing at them.
+     */
+    static final int ENTRY_OVERHEAD = 128;
+    private static final int STRIPE_COUNT = 16;
+
+    private final Stripe[] stripes;
+    private final PageCacheTracer tracer;
+    private final AtomicInteger nextSwapperId;
+    private final ConcurrentLinkedQueue<Scratch> scratchPool;
+    private final int maxPageSize;
+
+    CompressedPageTier( long maxMemory, int maxPageSize, PageCacheTracer tracer )
+    {
+        if ( maxMemory <= 0 )
+        {
+            throw new IllegalArgumentException( "The compressed page tier must have a positive size: " + maxMemory );
+        }
+        this.tracer = tracer;
+        this.maxPageSize = maxPageSize;
+        this.nextSwapperId = new AtomicInteger();
+        this.scratchPool = new ConcurrentLinkedQueue<>();
+        stripes = new Stripe[STRIPE_COUNT];
+        long stripeMemory = Math.max( maxMemory / STRIPE_COUNT, 1 );
+        for ( int i = 0; i < STRIPE_COUNT; i++ )
+        {
+            stripes[i] = new Stripe( stripeMemory );
+        }
+    }
+
+    /**
+     * @return A new identity for a swapper, which it uses to keep its pages apart from the pages of other swappers.
+     */
+    int newSwapperId()
+    {
+        return nextSwapperId.getAndIncrement();
+    }
+
+    /**
+     * Compress and store the given page, replacing any previous copy of it.
+     *
+     * @return {@code true} if the page was stored, or {@code false} if it did not compress well enough.
+     */
+    boolean store( int swapperId, long filePageId, long address, int length )
+    {
+        if ( length > maxPageSize )
+        {
+            return false;
+        }
+        Scratch scratch = acquireScratch();
+        long entryAddress;
+        int compressedLength;
+        try
+        {
+            int limit = (length / 8) * MAX_COMPRESSED_FRACTION_EIGHTHS;
+            compressedLength = LZ4BlockCodec.compress(
+                    address, length, scratch.address, scratch.capacity, scratch.hashTable );
+            if ( compressedLength < 0 || compressedLength > limit )
+            {
+                invalidate( swapperId, filePageId );
+                return false;
+            }
+            entryAddress = UnsafeUtil.allocateMemory( compressedLength );
+            UnsafeUtil.copyMemory( scratch.address, entryAddress, compressedLength );
+        }
+        finally
+        {
+            scratchPool.offer( scratch );
+        }
+
+        Key key = new Key( swapperId, filePageId );
+        stripeFor( key ).put( new Entry( key, entryAddress, compressedLength, length ) );
+        return true;
+    }
+
+    /**
+     * Decompress the given page into the given memory, and remove it from the tier.
+     *
+     * @return {@code true} if the page was found in the tier, or {@code false} if it must be read from the file.
+     * @throws IOException If the compressed page turned out to be corrupt.
+     */
+    boolean load( int swapperId, long filePageId, long address, int length ) throws IOException
+    {
+        Key key = new Key( swapperId, filePageId );
+        Entry entry = stripeFor( key ).remove( key );
+        if ( entry == null )
+        {
+            tracer.compressedTierMiss();
+            return false;
+        }
+        try
+        {
+            if ( entry.pageSize != length )
+            {
+                tracer.compressedTierMiss();
+                return false;
+            }
+            int decompressed = LZ4BlockCodec.decompress( entry.address, entry.length, address, length );
+            if ( decompressed != length )
+            {
+                throw new IOException( "Compressed page " + filePageId + " decompressed to " + decompressed +
+                                       " bytes, but " + length + " bytes were expected" );
+            }
+            tracer.compressedTierHit();
+            return true;
+        }
+        finally
+        {
+            UnsafeUtil.free( entry.address );
+        }
+    }
+
+    /**
+     * Forget any compressed copy of the given page, because the page has been changed.
+     */
+    void invalidate( int swapperId, long filePageId )
+    {
+        Key key = new Key( swapperId, filePageId );
+        Entry entry = stripeFor( key ).remove( key );
+        if ( entry != null )
+        {
+            UnsafeUtil.free( entry.address );
+        }
+    }
+
+    /**
+     * Forget all of the pages of the given swapper, because its file has been closed or truncated.
+     */
+    void invalidateAll( int swapperId )
+    {
+        for ( Stripe stripe : stripes )
+        {
+            stripe.removeAll( swapperId );
+        }
+    }
+
+    /**
+     * @return The number of bytes of compressed pages currently held by the tier, including their estimated on-heap
+     * overhead.
+     */
+    long memoryUsed()
+    {
+        long sum = 0;
+        for ( Stripe stripe : stripes )
+        {
+            sum += stripe.memoryUsed();
+        }
+        return sum;
+    }
+
+    @Override
+    public void close()
+    {
+        for ( Stripe stripe : stripes )
+        {
+            stripe.clear();
+        }
+        Scratch scratch;
+        while ( (scratch = scratchPool.poll()) != null )
+        {
+            UnsafeUtil.free( scratch.address );
+        }
+    }
+
+    private Stripe stripeFor( Key key )
+    {
+        return stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPE_COUNT];
+    }
+
+    private Scratch acquireScratch()
+    {
+        Scratch scratch = scratchPool.poll();
+        return scratch != null ? scratch : new Scratch( LZ4BlockCodec.maxCompressedLength( maxPageSize ) );
+    }
+
+    private static final class Stripe
+    {
+        private final LinkedHashMap<Key,Entry> entries;
+        /** The newest entry of each swapper, from which its entries in this stripe are linked, newest to oldest. */
+        private final PrimitiveIntObjectMap<Entry> newestBySwapper;
+        private final long maxMemory;
+        private long memoryUsed;
+
+        Stripe( long maxMemory )
+        {
+            this.maxMemory = maxMemory;
+            this.entries = new LinkedHashMap<>();
+            this.newestBySwapper = Primitive.intObjectMap();
+        }
+
+        synchronized void put( Entry entry )
+        {
+            Entry previous = entries.remove( entry.key );
+            if ( previous != null )
+            {
+                release( previous );
+            }
+            if ( entry.footprint() > maxMemory )
+            {
+                UnsafeUtil.free( entry.address );
+                return;
+            }
+            entries.put( entry.key, entry );
+            link( entry );
+            memoryUsed += entry.footprint();
+            Iterator<Entry> oldest = entries.values().iterator();
+            while ( memoryUsed > maxMemory )
+            {
+                Entry evicted = oldest.next();
+                oldest.remove();
+                release( evicted );
+            }
+        }
+
+        synchronized Entry remove( Key key )
+        {
+            Entry entry = entries.remove( key );
+            if ( entry != null )
+            {
+                memoryUsed -= entry.footprint();
+                unlink( entry );
+            }
+            return entry;
+        }
+
+        /**
+         * Remove all entries of the given swapper.
+         */
+        synchronized void removeAll( int swapperId )
+        {
+            Entry entry = newestBySwapper.remove( swapperId );
+            while ( entry != null )
+            {
+                Entry older = entry.olderOfSwapper;
+                entries.remove( entry.key );
+                memoryUsed -= entry.footprint();
+                UnsafeUtil.free( entry.address );
+                entry = older;
+            }
+        }
+
+        synchronized void clear()
+        {
+            for ( Entry entry : entries.values() )
+            {
+                UnsafeUtil.free( entry.address );
+            }
+            entries.clear();
+            newestBySwapper.clear();
+            memoryUsed = 0;
+        }
+
+        synchronized long memoryUsed()
+        {
+            return memoryUsed;
+        }
+
+        private void release( Entry entry )
+        {
+            memoryUsed -= entry.footprint();
+            unlink( entry );
+            UnsafeUtil.free( entry.address );
+        }
+
+        private void link( Entry entry )
+        {
+            Entry newest = newestBySwapper.put( entry.key.swapperId, entry );
+            entry.olderOfSwapper = newest;
+            if ( newest != null )
+            {
+                newest.newerOfSwapper = entry;
+            }
+        }
+
+        private void unlink( Entry entry )
+        {
+            Entry newer = entry.newerOfSwapper;
+            Entry older = entry.olderOfSwapper;
+            if ( newer != null )
+            {
+                newer.olderOfSwapper = older;
+            }
+            else if ( older != null )
+            {
+                newestBySwapper.put( entry.key.swapperId, older );
+            }
+            else
+            {
+                newestBySwapper.remove( entry.key.swapperId );
+            }
+            if ( older != null )
+            {
+                older.newerOfSwapper = newer;
+            }
+            entry.newerOfSwapper = null;
+            entry.olderOfSwapper = null;
+        }
+    }
+
+    private static final class Key
+    {
+        private final int swapperId;
+        private final long filePageId;
+
+        Key( int swapperId, long filePageId )
+        {
+            this.swapperId = swapperId;
+            this.filePageId = filePageId;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+            Key key = (Key) o;
+            return swapperId == key.swapperId && filePageId == key.filePageId;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = swapperId;
+            result = 31 * result + (int) (filePageId ^ (filePageId >>> 32));
+            return result * -1640531535;
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Key key;
+        private final long address;
+        private final int length;
+        private final int pageSize;
+        private Entry newerOfSwapper;
+        private Entry olderOfSwapper;
+
+        Entry( Key key, long address, int length, int pageSize )
+        {
+            this.key = key;
+            this.address = address;
+            this.length = length;
+            this.pageSize = pageSize;
+        }
+
+        long footprint()
+        {
+            return length + ENTRY_OVERHEAD;
+        }
+    }
+
+    private static final class Scratch
+    {
+        private final long address;
+        private final int capacity;
+        private final int[] hashTable;
+
+        Scratch( int capacity )
+        {
+            this.address = UnsafeUtil.allocateMemory( capacity );
+            this.capacity = capacity;
+            this.hashTable = new int[LZ4BlockCodec.HASH_TABLE_SIZE];
+        }
+    }
+}
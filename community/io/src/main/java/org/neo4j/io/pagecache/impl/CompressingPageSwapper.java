@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.Page;
+import org.neo4j.io.pagecache.PageSwapper;
+
+/**
+ * A PageSwapper that keeps compressed copies of evicted pages in a {@link CompressedPageTier}, and serves page faults
+ * from there when it can, before falling back to reading from the file through the swapper it decorates.
+ * <p>
+ * Evicted pages have already been flushed, so the tier only ever holds clean copies of what is in the file. Writes
+ * invalidate the compressed copy of the page they write, and closing or truncating the file invalidates all of them.
+ */
+final class CompressingPageSwapper implements PageSwapper
+{
+    private final PageSwapper delegate;
+    private final CompressedPageTier tier;
+    private final int swapperId;
+    private final int filePageSize;
+    private volatile boolean closed;
+
+    CompressingPageSwapper( PageSwapper delegate, CompressedPageTier tier, int filePageSize )
+    {
+        this.delegate = delegate;
+        this.tier = tier;
+        this.swapperId = tier.newSwapperId();
+        this.filePageSize = filePageSize;
+    }
+
+    @Override
+    public long read( long filePageId, Page page ) throws IOException
+    {
+        if ( loadFromTier( filePageId, page ) )
+        {
+            return filePageSize;
+        }
+        return delegate.read( filePageId, page );
+    }
+
+    @Override
+    public long read( long startFilePageId, Page[] pages, int arrayOffset, int length ) throws IOException
+    {
+        long bytesRead = 0;
+        int missStart = -1;
+        for ( int i = 0; i < length; i++ )
+        {
+            Page page = pages[arrayOffset + i];
+            if ( loadFromTier( startFilePageId + i, page ) )
+            {
+                bytesRead += filePageSize;
+                if ( missStart != -1 )
+                {
+                    bytesRead += readRun( startFilePageId, pages, arrayOffset, missStart, i );
+                    missStart = -1;
+                }
+            }
+            else if ( missStart == -1 )
+            {
+                missStart = i;
+            }
+        }
+        if ( missStart != -1 )
+        {
+            bytesRead += readRun( startFilePageId, pages, arrayOffset, missStart, length );
+        }
+        return bytesRead;
+    }
+
+    private boolean loadFromTier( long filePageId, Page page ) throws IOException
+    {
+        return page.size() >= filePageSize && tier.load( swapperId, filePageId, page.address(), filePageSize );
+    }
+
+    private long readRun( long startFilePageId, Page[] pages, int arrayOffset, int from, int to ) throws IOException
+    {
+        return delegate.read( startFilePageId + from, pages, arrayOffset + from, to - from );
+    }
+
+    @Override
+    public long write( long filePageId, Page page ) throws IOException
+    {
+        tier.invalidate( swapperId, filePageId );
+        return delegate.write( filePageId, page );
+    }
+
+    @Override
+    public long write( long startFilePageId, Page[] pages, int arrayOffset, int length ) throws IOException
+    {
+        for ( int i = 0; i < length; i++ )
+        {
+            tier.invalidate( swapperId, startFilePageId + i );
+        }
+        return delegate.write( startFilePageId, pages, arrayOffset, length );
+    }
+
+    @Override
+    public void evicted( long pageId, Page page )
+    {
+        // Store the page before the eviction callback unbinds it from the file, so the next fault will find it.
+        if ( !closed && page.size() >= filePageSize &&
+             tier.store( swapperId, pageId, page.address(), filePageSize ) && closed )
+        {
+            tier.invalidate( swapperId, pageId );
+        }
+        delegate.evicted( pageId, page );
+    }
+
+    @Override
+    public File file()
+    {
+        return delegate.file();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        tier.invalidateAll( swapperId );
+        delegate.close();
+    }
+
+    @Override
+    public void closeAndDelete() throws IOException
+    {
+        closed = true;
+        tier.invalidateAll( swapperId );
+        delegate.closeAndDelete();
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        delegate.force();
+    }
+
+    @Override
+    public long getLastPageId() throws IOException
+    {
+        return delegate.getLastPageId();
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        tier.invalidateAll( swapperId );
+        delegate.truncate();
+        tier.invalidateAll( swapperId );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CompressingPageSwapper[" + delegate + "]";
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.stream.Stream;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.FileHandle;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+
+/**
+ * A PageSwapperFactory that decorates the swappers of another factory, with a second page cache tier that keeps
+ * pages evicted from the page cache in LZ4 compressed form in off-heap memory. Page faults for those pages then only
+ * have to decompress them, instead of reading them from the storage device.
+ * <p>
+ * This is useful when the store is larger than the page cache, but its pages compress well, and the storage device is
+ * slow compared to decompression. Hits and misses in the tier are reported to the {@link PageCacheTracer}.
+ *
+ * @see CompressingPageSwapper
+ */
+public class CompressingPageSwapperFactory implements PageSwapperFactory
+{
+    private final PageSwapperFactory delegate;
+    private final CompressedPageTier tier;
+
+    /**
+     * @param delegate The factory of the swappers that read from and write to the files.
+     * @param maxMemory The maximum number of bytes of compressed pages to keep in memory, counting the on-heap
+     * bookkeeping of each page as well.
+     * @param maxPageSize The largest file page size that will be compressed. Larger pages bypass the tier.
+     * @param tracer The tracer that is told about hits and misses in the tier.
+     */
+    public CompressingPageSwapperFactory(
+            PageSwapperFactory delegate, long maxMemory, int maxPageSize, PageCacheTracer tracer )
+    {
+        this.delegate = delegate;
+        this.tier = new CompressedPageTier( maxMemory, maxPageSize, tracer );
+    }
+
+    @Override
+    public void setFileSystemAbstraction( FileSystemAbstraction fs )
+    {
+        delegate.setFileSystemAbstraction( fs );
+    }
+
+    @Override
+    public String implementationName()
+    {
+        return delegate.implementationName();
+    }
+
+    @Override
+    public int getCachePageSizeHint()
+    {
+        return delegate.getCachePageSizeHint();
+    }
+
+    @Override
+    public boolean isCachePageSizeHintStrict()
+    {
+        return delegate.isCachePageSizeHintStrict();
+    }
+
+    @Override
+    public long getRequiredBufferAlignment()
+    {
+        return delegate.getRequiredBufferAlignment();
+    }
+
+    @Override
+    public int getReadAheadPageCount()
+    {
+        return delegate.getReadAheadPageCount();
+    }
+
+    @Override
+    public int getWriteCombiningGapPageCount()
+    {
+        return delegate.getWriteCombiningGapPageCount();
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file, int filePageSize, PageEvictionCallback onEviction, boolean createIfNotExist ) throws IOException
+    {
+        PageSwapper swapper = delegate.createPageSwapper( file, filePageSize, onEviction, createIfNotExist );
+        return new CompressingPageSwapper( swapper, tier, filePageSize );
+    }
+
+    @Override
+    public void syncDevice() throws IOException
+    {
+        delegate.syncDevice();
+    }
+
+    @Override
+    public Stream<FileHandle> streamFilesRecursive( File directory ) throws IOException
+    {
+        return delegate.streamFilesRecursive( directory );
+    }
+
+    /**
+     * @return The number of bytes of compressed pages that are currently held in memory, including their on-heap
+     * bookkeeping.
+     */
+    public long compressedMemoryUsed()
+    {
+        return tier.memoryUsed();
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            delegate.close();
+        }
+        finally
+        {
+            tier.close();
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.neo4j.io.pagecache.impl;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.neo4j.io.pagecache.CursorException;
 import org.neo4j.io.pagecache.PageCursor;
@@ -44,6 +45,12 @@ public class DelegatingPageCursor extends PageCursor
         return delegate.copyTo( sourceOffset, targetCursor, targetOffset, lengthInBytes );
     }
 
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer buffer )
+    {
+        return delegate.copyTo( sourceOffset, buffer );
+    }
+
     @Override
     public void putInt( int value )
     {
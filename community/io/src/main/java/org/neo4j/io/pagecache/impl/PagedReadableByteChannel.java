@@ -40,7 +40,7 @@ public final class PagedReadableByteChannel implements ReadableByteChannel
 
     public PagedReadableByteChannel( PagedFile pagedFile ) throws IOException
     {
-        cursor = pagedFile.io( 0, PagedFile.PF_SHARED_READ_LOCK | PagedFile.PF_READ_AHEAD );
+        cursor = pagedFile.io( 0, PagedFile.PF_SHARED_READ_LOCK | PagedFile.PF_READ_AHEAD | PagedFile.PF_TRANSIENT );
     }
 
     @Override
@@ -62,18 +62,24 @@ public final class PagedReadableByteChannel implements ReadableByteChannel
             }
         }
         int position = dst.position();
+        int limit = dst.limit();
         int remaining = Math.min( dst.remaining(), bytesLeftInCurrentPage );
         int offset = cursor.getOffset();
-        do
+        dst.limit( position + remaining );
+        try
         {
-            dst.position( position );
-            cursor.setOffset( offset );
-            for ( int i = 0; i < remaining; i++ )
+            do
             {
-                dst.put( cursor.getByte() );
+                dst.position( position );
+                cursor.copyTo( offset, dst );
             }
+            while ( cursor.shouldRetry() );
         }
-        while ( cursor.shouldRetry() );
+        finally
+        {
+            dst.limit( limit );
+        }
+        cursor.setOffset( offset + remaining );
         bytesLeftInCurrentPage -= remaining;
         return remaining;
     }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A contiguous range of the pages in the {@link MuninnPageCache}, with its own freelist and its own background
+ * eviction thread.
+ * <p>
+ * Page faulting threads prefer to take free pages from the stripe they are associated with, which spreads the
+ * contention on the freelists, and lets the eviction work scale with the number of stripes.
+ * See the comment on the {@link #freelist} field for how the freelist works.
+ */
+final class EvictionStripe
+{
+    // The field offset to unsafely access the freelist field.
+    private static final long freelistOffset = UnsafeUtil.getFieldOffset( EvictionStripe.class, "freelist" );
+
+    final int index;
+    // The index of the first page in this stripe.
+    final int startPage;
+    // The index of the page immediately after the last page in this stripe.
+    final int endPage;
+    // Keep this many pages free and ready for use in faulting, in this stripe.
+    final int keepFree;
+
+    // The freelist is a thread-safe linked-list of 2 types of objects. A link
+    // can either be a MuninnPage or a FreePage.
+    // Initially, most of the links are MuninnPages that are ready for the
+    // taking. Then towards the end, we have the last bunch of pages linked
+    // through FreePage objects. We make this transition because, once a
+    // MuninnPage has been removed from the list, it cannot be added back. The
+    // reason is that the MuninnPages are reused, and adding them back into the
+    // freelist would expose us to the ABA-problem, which can cause cycles to
+    // form. The FreePage objects, however, are single-use such that they don't
+    // exhibit the ABA-problem. In other words, eviction will never add
+    // MuninnPages to the freelist; it will only add free pages through a new
+    // FreePage object.
+    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
+    private volatile Object freelist;
+
+    // The thread that runs the eviction algorithm for this stripe. We unpark this when we've run out of free pages to
+    // grab.
+    volatile Thread evictionThread;
+    // True if the eviction thread is currently parked, without someone having
+    // signalled it to wake up. This is used as a weak guard for unparking the
+    // eviction thread, because calling unpark too much (from many page
+    // faulting threads) can cause contention on the locks protecting that
+    // threads scheduling meta-data in the OS kernel.
+    private volatile boolean evictorParked;
+
+    EvictionStripe( int index, int startPage, int endPage, int keepFree )
+    {
+        this.index = index;
+        this.startPage = startPage;
+        this.endPage = endPage;
+        this.keepFree = keepFree;
+    }
+
+    Object getFreelistHead()
+    {
+        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
+    }
+
+    void setFreelistHead( Object newFreelistHead )
+    {
+        UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
+    }
+
+    boolean compareAndSetFreelistHead( Object expected, Object update )
+    {
+        return UnsafeUtil.compareAndSwapObject( this, freelistOffset, expected, update );
+    }
+
+    Object getAndSetFreelistHead( Object newFreelistHead )
+    {
+        return UnsafeUtil.getAndSetObject( this, freelistOffset, newFreelistHead );
+    }
+
+    void unparkEvictor()
+    {
+        if ( evictorParked )
+        {
+            evictorParked = false;
+            LockSupport.unpark( evictionThread );
+        }
+    }
+
+    void parkEvictor( long parkNanos )
+    {
+        // Only called from the background eviction thread of this stripe!
+        evictorParked = true;
+        LockSupport.parkNanos( this, parkNanos );
+        evictorParked = false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EvictionStripe[" + index + ": " + startPage + " to " + endPage + "]";
+    }
+}
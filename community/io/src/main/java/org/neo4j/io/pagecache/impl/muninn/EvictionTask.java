@@ -20,22 +20,32 @@
 package org.neo4j.io.pagecache.impl.muninn;
 
 /**
- * This Runnable runs the eviction algorithm. Only one is expected for each page cache.
+ * This Runnable runs the eviction algorithm for a single {@link EvictionStripe}. One is expected for each eviction
+ * stripe in the page cache.
  *
  * Interrupting the thread running this runnable, will be interpreted as a shutdown signal.
  *
- * @see MuninnPageCache#continuouslySweepPages()
+ * @see MuninnPageCache#continuouslySweepPages(EvictionStripe)
  */
 final class EvictionTask extends BackgroundTask
 {
-    public EvictionTask( MuninnPageCache pageCache )
+    private final EvictionStripe stripe;
+
+    public EvictionTask( MuninnPageCache pageCache, EvictionStripe stripe )
     {
         super( pageCache );
+        this.stripe = stripe;
+    }
+
+    @Override
+    protected String taskName()
+    {
+        return super.taskName() + "-" + stripe.index;
     }
 
     @Override
     protected void run( MuninnPageCache pageCache )
     {
-        pageCache.continuouslySweepPages();
+        pageCache.continuouslySweepPages( stripe );
     }
 }
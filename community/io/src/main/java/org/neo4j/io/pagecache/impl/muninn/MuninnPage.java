@@ -20,6 +20,7 @@
 package org.neo4j.io.pagecache.impl.muninn;
 
 import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.neo4j.io.pagecache.Page;
 import org.neo4j.io.pagecache.PageCursor;
@@ -36,10 +37,20 @@ import static java.lang.String.format;
 final class MuninnPage extends SequenceLock implements Page
 {
     private static final long usageStampOffset = UnsafeUtil.getFieldOffset( MuninnPage.class, "usageStamp" );
+    private static final long dirtyOffset = UnsafeUtil.getFieldOffset( MuninnPage.class, "dirty" );
 
-    // The sign bit is used as a dirty flag for the page.
-    // The other 7 bits are used as an exponent for computing the cache page size (as a power of two).
-    private byte cachePageHeader;
+    // The exponent for computing the cache page size (as a power of two).
+    private final byte cachePageHeader;
+
+    // 1 if the page has been modified since it was last written to its file, otherwise 0.
+    // Only changed with compare-and-swap, so that the dirty page count of the cache is only updated when the page
+    // actually goes from clean to dirty, or from dirty to clean.
+    // accessed through unsafe
+    @SuppressWarnings( "unused" )
+    private volatile int dirty;
+
+    // The dirty page count of the whole cache, shared by all of its pages.
+    private final LongAdder dirtyPageCount;
 
     // We keep this reference to prevent the MemoryManager from becoming
     // finalizable until all our pages are finalizable or collected.
@@ -54,16 +65,17 @@ final class MuninnPage extends SequenceLock implements Page
 
     // Next pointer in the freelist of available pages. This is either a
     // MuninnPage object, or a FreePage object. See the comment on the
-    // MuninnPageCache.freelist field.
+    // EvictionStripe.freelist field.
     public Object nextFree;
 
     private PageSwapper swapper;
     private long filePageId = PageCursor.UNBOUND_PAGE_ID;
 
-    public MuninnPage( int cachePageSize, MemoryManager memoryManager )
+    public MuninnPage( int cachePageSize, MemoryManager memoryManager, LongAdder dirtyPageCount )
     {
         this.cachePageHeader = (byte) (31 - Integer.numberOfLeadingZeros( cachePageSize ));
         this.memoryManager = memoryManager;
+        this.dirtyPageCount = dirtyPageCount;
         getCachePageId(); // initialize our identity hashCode
     }
 
@@ -75,7 +87,7 @@ final class MuninnPage extends SequenceLock implements Page
     @Override
     public int size()
     {
-        return 1 << (cachePageHeader & 0x7F);
+        return 1 << cachePageHeader;
     }
 
     @Override
@@ -89,17 +101,30 @@ final class MuninnPage extends SequenceLock implements Page
      */
     boolean isDirty()
     {
-        return (cachePageHeader & ~0x7F) != 0;
+        return dirty != 0;
     }
 
     public void markAsDirty()
     {
-        cachePageHeader |= ~0x7F;
+        // Hot pages are written to over and over while they are already dirty, so we read the flag before we try to
+        // change it, to keep the cache line shared between the cores that write to the page.
+        if ( dirty == 0 && UnsafeUtil.compareAndSwapInt( this, dirtyOffset, 0, 1 ) )
+        {
+            dirtyPageCount.increment();
+        }
     }
 
-    public void markAsClean()
+    /**
+     * @return {@code true} if this call changed the page from dirty to clean.
+     */
+    public boolean markAsClean()
     {
-        cachePageHeader &= 0x7F;
+        if ( dirty != 0 && UnsafeUtil.compareAndSwapInt( this, dirtyOffset, 1, 0 ) )
+        {
+            dirtyPageCount.decrement();
+            return true;
+        }
+        return false;
     }
 
     /** Increment the usage stamp to at most 4. */
@@ -126,11 +151,17 @@ final class MuninnPage extends SequenceLock implements Page
         return usage == 0;
     }
 
-    private byte getUsageCounter()
+    byte getUsageCounter()
     {
         return UnsafeUtil.getByteVolatile( this, usageStampOffset );
     }
 
+    /** Set the usage stamp. Only for use by the {@link PageReplacementPolicy}. */
+    void setUsageCounter( byte usage )
+    {
+        UnsafeUtil.putByteVolatile( this, usageStampOffset, usage );
+    }
+
     /**
      * NOTE: This method must be called while holding an exclusive lock on the page.
      */
@@ -195,6 +226,47 @@ final class MuninnPage extends SequenceLock implements Page
         this.swapper = swapper; // Page now considered isBoundTo( swapper, filePageId )
     }
 
+    /**
+     * Fault the given consecutive file pages into the given cache pages, with a single vectored read.
+     * <p>
+     * NOTE: This method MUST be called while holding the exclusive page lock on all of the given pages.
+     */
+    static void fault(
+            PageSwapper swapper,
+            long startFilePageId,
+            MuninnPage[] pages,
+            int length,
+            PageFaultEvent faultEvent ) throws IOException
+    {
+        for ( int i = 0; i < length; i++ )
+        {
+            MuninnPage page = pages[i];
+            if ( page.swapper != null || page.filePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                String msg = format(
+                        "Cannot fault page {filePageId = %s, swapper = %s} into " +
+                        "cache page %s. Already bound to {filePageId = " +
+                        "%s, swapper = %s}.",
+                        startFilePageId + i, swapper, page.getCachePageId(), page.filePageId, page.swapper );
+                throw new IllegalStateException( msg );
+            }
+        }
+
+        // Like in the single page fault above, the pages are considered loaded before we swap them in, and they are
+        // only bound to the file pages once the swapping-in has succeeded.
+        for ( int i = 0; i < length; i++ )
+        {
+            pages[i].filePageId = startFilePageId + i;
+        }
+        long bytesRead = swapper.read( startFilePageId, pages, 0, length );
+        faultEvent.addBytesRead( bytesRead );
+        faultEvent.setCachePageId( pages[0].getCachePageId() );
+        for ( int i = 0; i < length; i++ )
+        {
+            pages[i].swapper = swapper;
+        }
+    }
+
     /**
      * NOTE: This method MUST be called while holding the page write lock.
      */
@@ -208,6 +280,8 @@ final class MuninnPage extends SequenceLock implements Page
 
         flush( evictionEvent.flushEventOpportunity() );
         this.filePageId = PageCursor.UNBOUND_PAGE_ID;
+        // The next file page to be faulted into this cache page must not inherit any usage from this one.
+        setUsageCounter( (byte) 0 );
 
         this.swapper = null;
         if ( swapper != null )
@@ -24,14 +24,16 @@ import java.io.IOException;
 import java.nio.file.CopyOption;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Stream;
 
 import org.neo4j.io.pagecache.FileHandle;
@@ -47,6 +49,7 @@ import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.unsafe.impl.internal.dragons.MemoryAllocator;
 import org.neo4j.unsafe.impl.internal.dragons.MemoryManager;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
@@ -118,15 +121,20 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // The default number of eviction stripes that the pages are divided into. Each stripe has its own freelist and
+    // its own background eviction thread.
+    private static final int defaultEvictionStripes = getInteger(
+            MuninnPageCache.class, "evictionStripes", 1 );
+
+    // The default policy for deciding which pages to evict.
+    private static final PageReplacementPolicy defaultReplacementPolicy = flag(
+            MuninnPageCache.class, "replacementPolicy", PageReplacementPolicy.CLOCK );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
             "OutOfMemoryError encountered in the page cache background eviction thread" );
 
-    // The field offset to unsafely access the freelist field.
-    private static final long freelistOffset =
-            UnsafeUtil.getFieldOffset( MuninnPageCache.class, "freelist" );
-
     // This is used as a poison-pill signal in the freelist, to inform any
     // page faulting thread that it is now no longer possible to queue up and
     // wait for more pages to be evicted, because the page cache has been shut
@@ -144,46 +152,40 @@ public class MuninnPageCache implements PageCache
     // thread factories, etc.
     private static final Executor backgroundThreadExecutor = BackgroundThreadExecutor.INSTANCE;
 
+    // The number of prefetch hints that can be queued up, rounded up to a power of two, before further hints are
+    // dropped.
+    private static final int prefetchQueueSize = getInteger(
+            MuninnPageCache.class, "prefetchQueueSize", 1024 );
+
+    // The smallest number of pages that a page cache, or an eviction stripe, can have.
+    private static final int MINIMUM_PAGE_COUNT = 2;
+
     private static final List<OpenOption> ignoredOpenOptions = Arrays.asList( (OpenOption) StandardOpenOption.APPEND,
             StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.SPARSE );
 
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
-    private final int keepFree;
     private final PageCacheTracer tracer;
+    // The number of pages to read ahead when faulting during sequential scans, as hinted by the swapper factory.
+    final int readAheadPageCount;
+    // The number of clean pages that flushing may write to bridge a gap between dirty pages.
+    final int writeCombiningGapPageCount;
+    final PageReplacementPolicy replacementPolicy;
+    // Faults in pages hinted by MuninnPagedFile.prefetch, or null if prefetching is disabled.
+    final PagePrefetcher prefetcher;
     private final MuninnPage[] pages;
+    // The pages are divided into stripes, each with their own freelist and eviction thread.
+    private final EvictionStripe[] stripes;
+    // The number of dirty pages, kept up to date by the pages themselves as they are dirtied and flushed.
+    private final LongAdder dirtyPages = new LongAdder();
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we can do branch-free
     // bounds checking of page accesses without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of 2 types of objects. A link
-    // can either be a MuninnPage or a FreePage.
-    // Initially, most of the links are MuninnPages that are ready for the
-    // taking. Then towards the end, we have the last bunch of pages linked
-    // through FreePage objects. We make this transition because, once a
-    // MuninnPage has been removed from the list, it cannot be added back. The
-    // reason is that the MuninnPages are reused, and adding them back into the
-    // freelist would expose us to the ABA-problem, which can cause cycles to
-    // form. The FreePage objects, however, are single-use such that they don't
-    // exhibit the ABA-problem. In other words, eviction will never add
-    // MuninnPages to the freelist; it will only add free pages through a new
-    // FreePage object.
-    @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
-    private volatile Object freelist;
-
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
-    // The thread that runs the eviction algorithm. We unpark this when we've run out of
-    // free pages to grab.
-    private volatile Thread evictionThread;
-    // True if the eviction thread is currently parked, without someone having
-    // signalled it to wake up. This is used as a weak guard for unparking the
-    // eviction thread, because calling unpark too much (from many page
-    // faulting threads) can cause contention on the locks protecting that
-    // threads scheduling meta-data in the OS kernel.
-    private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
@@ -200,28 +202,164 @@ public class MuninnPageCache implements PageCache
             int maxPages,
             int cachePageSize,
             PageCacheTracer tracer )
+    {
+        this( swapperFactory, maxPages, cachePageSize, tracer, defaultEvictionStripes, defaultReplacementPolicy );
+    }
+
+    /**
+     * Create a page cache where the pages are divided into the given number of eviction stripes. Each stripe gets its
+     * own freelist and its own background eviction thread, and page faulting threads will prefer to take free pages
+     * from the stripe associated with their thread. The number of stripes is reduced if there are too few pages to
+     * go around.
+     * <p>
+     * The given {@link PageReplacementPolicy} decides which pages to evict.
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            int maxPages,
+            int cachePageSize,
+            PageCacheTracer tracer,
+            int evictionStripes,
+            PageReplacementPolicy replacementPolicy )
+    {
+        this( swapperFactory, maxPages, cachePageSize, tracer, evictionStripes, replacementPolicy,
+                MemoryAllocator.malloc(), false, 0 );
+    }
+
+    /**
+     * Create a page cache that takes the memory for its pages from the given {@link MemoryAllocator}, which can for
+     * instance back the pages with huge pages.
+     * <p>
+     * If {@code preTouch} is {@code true}, then all the memory for the pages is allocated up front, and every
+     * operating system page of it is touched in parallel, on at most one background thread per processor, so no page
+     * fault will have to wait for the operating system to map in the memory.
+     *
+     * <p>
+     * Up to {@code prefetchThreads} background threads will fault in the pages that are hinted with
+     * {@link org.neo4j.io.pagecache.PagedFile#prefetch(long)}. Prefetching is disabled if this is zero.
+     *
+     * @see #MuninnPageCache(PageSwapperFactory, int, int, PageCacheTracer, int, PageReplacementPolicy)
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            int maxPages,
+            int cachePageSize,
+            PageCacheTracer tracer,
+            int evictionStripes,
+            PageReplacementPolicy replacementPolicy,
+            MemoryAllocator memoryAllocator,
+            boolean preTouch,
+            int prefetchThreads )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
         verifyMinimumPageCount( maxPages, cachePageSize );
+        verifyEvictionStripeCount( evictionStripes );
 
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
-        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
         this.tracer = tracer;
+        this.readAheadPageCount = Math.max( 0, swapperFactory.getReadAheadPageCount() );
+        this.writeCombiningGapPageCount = Math.max( 0, swapperFactory.getWriteCombiningGapPageCount() );
+        this.replacementPolicy = replacementPolicy;
+        this.prefetcher = prefetchThreads > 0
+                          ? new PagePrefetcher( this, backgroundThreadExecutor, prefetchThreads, prefetchQueueSize )
+                          : null;
         this.pages = new MuninnPage[maxPages];
         this.printExceptionsOnClose = true;
 
         long alignment = swapperFactory.getRequiredBufferAlignment();
         long expectedMaxMemory = ((long) maxPages) * cachePageSize; // cast to long prevents overflow
-        MemoryManager memoryManager = new MemoryManager( expectedMaxMemory, alignment );
+        MemoryManager memoryManager = new MemoryManager( expectedMaxMemory, alignment, memoryAllocator );
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize );
+
+        // Every stripe must have at least the minimum number of pages.
+        int stripeCount = Math.max( 1, Math.min( evictionStripes, maxPages / MINIMUM_PAGE_COUNT ) );
+        this.stripes = new EvictionStripe[stripeCount];
+        for ( int i = 0; i < stripeCount; i++ )
+        {
+            int startPage = (int) (((long) maxPages) * i / stripeCount);
+            int endPage = (int) (((long) maxPages) * (i + 1) / stripeCount);
+            int keepFree = Math.min( pagesToKeepFree, (endPage - startPage) / 2 );
+            stripes[i] = new EvictionStripe( i, startPage, endPage, keepFree );
+            initialiseFreelist( stripes[i], memoryManager );
+        }
+
+        if ( preTouch )
+        {
+            preTouchPages();
+        }
+    }
+
+    private void preTouchPages()
+    {
+        // All the pages are still exclusively locked in the freelists, so we are allowed to initialise their buffers.
+        // The memory manager hands out memory under a lock, so we do that in one go, and only touch it in parallel.
+        for ( MuninnPage page : pages )
+        {
+            page.initBuffer();
+        }
+        // The touching runs on our own background threads, rather than the common fork join pool, which is shared
+        // with whatever else the database does while starting up.
+        int workers = Math.max( 1, Math.min( pages.length, Runtime.getRuntime().availableProcessors() ) );
+        CountDownLatch touched = new CountDownLatch( workers );
+        for ( int i = 0; i < workers; i++ )
+        {
+            int startPage = (int) (((long) pages.length) * i / workers);
+            int endPage = (int) (((long) pages.length) * (i + 1) / workers);
+            backgroundThreadExecutor.execute( () ->
+            {
+                try
+                {
+                    preTouchPages( startPage, endPage );
+                }
+                finally
+                {
+                    touched.countDown();
+                }
+            } );
+        }
+        // The pages must not be handed out while they are being touched, so wait for it even if we are interrupted.
+        boolean interrupted = false;
+        while ( true )
+        {
+            try
+            {
+                touched.await();
+                break;
+            }
+            catch ( InterruptedException e )
+            {
+                interrupted = true;
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void preTouchPages( int startPage, int endPage )
+    {
+        int osPageSize = UnsafeUtil.pageSize();
+        for ( int i = startPage; i < endPage; i++ )
+        {
+            long address = pages[i].address();
+            for ( int offset = 0; offset < cachePageSize; offset += osPageSize )
+            {
+                UnsafeUtil.putByte( address + offset, (byte) 0 );
+            }
+        }
+    }
+
+    private void initialiseFreelist( EvictionStripe stripe, MemoryManager memoryManager )
+    {
         Object pageList = null;
-        int pageIndex = maxPages;
-        while ( pageIndex --> 0 )
+        int pageIndex = stripe.endPage;
+        while ( pageIndex --> stripe.startPage )
         {
-            MuninnPage page = new MuninnPage( cachePageSize, memoryManager );
+            MuninnPage page = new MuninnPage( cachePageSize, memoryManager, dirtyPages );
             page.tryExclusiveLock(); // All pages in the free-list are exclusively locked, and unlocked by page fault.
             pages[pageIndex] = page;
 
@@ -232,7 +370,7 @@ public class MuninnPageCache implements PageCache
                 pageList = freePage;
             }
             else if ( pageList instanceof FreePage
-                    && ((FreePage) pageList).count < keepFree )
+                    && ((FreePage) pageList).count < stripe.keepFree )
             {
                 FreePage freePage = new FreePage( page );
                 freePage.setNext( (FreePage) pageList );
@@ -244,7 +382,7 @@ public class MuninnPageCache implements PageCache
                 pageList = page;
             }
         }
-        UnsafeUtil.putObjectVolatile( this, freelistOffset, pageList );
+        stripe.setFreelistHead( pageList );
     }
 
     private static void verifyHacks()
@@ -265,12 +403,20 @@ public class MuninnPageCache implements PageCache
 
     private static void verifyMinimumPageCount( int maxPages, int cachePageSize )
     {
-        int minimumPageCount = 2;
-        if ( maxPages < minimumPageCount )
+        if ( maxPages < MINIMUM_PAGE_COUNT )
         {
             throw new IllegalArgumentException( String.format(
                     "Page cache must have at least %s pages (%s bytes of memory), but was given %s pages.",
-                    minimumPageCount, minimumPageCount * cachePageSize, maxPages ) );
+                    MINIMUM_PAGE_COUNT, MINIMUM_PAGE_COUNT * cachePageSize, maxPages ) );
+        }
+    }
+
+    private static void verifyEvictionStripeCount( int evictionStripes )
+    {
+        if ( evictionStripes < 1 )
+        {
+            throw new IllegalArgumentException(
+                    "Page cache must have at least one eviction stripe, but was given " + evictionStripes + "." );
         }
     }
 
@@ -476,7 +622,10 @@ public class MuninnPageCache implements PageCache
 
         try
         {
-            backgroundThreadExecutor.execute( new EvictionTask( this ) );
+            for ( EvictionStripe stripe : stripes )
+            {
+                backgroundThreadExecutor.execute( new EvictionTask( this, stripe ) );
+            }
         }
         catch ( Exception e )
         {
@@ -592,13 +741,69 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    @Override
+    public long flushDirtyPages( IOLimiter limiter ) throws IOException
+    {
+        if ( limiter == null )
+        {
+            throw new IllegalArgumentException( "IOPSLimiter cannot be null" );
+        }
+
+        // We don't want to hold the monitor lock while writing, since that would block mapping and unmapping for the
+        // duration. Instead, we take a reference to all the mapped files, so they stay mapped until we are done.
+        List<MuninnPagedFile> files = new ArrayList<>();
+        synchronized ( this )
+        {
+            assertNotClosed();
+            for ( FileMapping fileMapping = mappedFiles; fileMapping != null; fileMapping = fileMapping.next )
+            {
+                fileMapping.pagedFile.incrementRefCount();
+                files.add( fileMapping.pagedFile );
+            }
+        }
+
+        long pagesWritten = 0;
+        try ( MajorFlushEvent cacheFlush = tracer.beginCacheFlush() )
+        {
+            FlushEventOpportunity flushOpportunity = cacheFlush.flushEventOpportunity();
+            for ( MuninnPagedFile file : files )
+            {
+                pagesWritten += file.flushInternal( flushOpportunity, false, limiter );
+            }
+        }
+        finally
+        {
+            for ( MuninnPagedFile file : files )
+            {
+                unmap( file );
+            }
+        }
+        return pagesWritten;
+    }
+
+    @Override
+    public long dirtyPageCount()
+    {
+        return dirtyPages.sum();
+    }
+
     void syncDevice() throws IOException
     {
         swapperFactory.syncDevice();
     }
 
     @Override
-    public synchronized void close()
+    public void close()
+    {
+        // The prefetch workers may hold references to files, which can only be released without the monitor.
+        if ( prefetcher != null )
+        {
+            prefetcher.close();
+        }
+        closeCache();
+    }
+
+    private synchronized void closeCache()
     {
         if ( closed )
         {
@@ -629,8 +834,11 @@ public class MuninnPageCache implements PageCache
             pages[i] = null;
         }
 
-        interrupt( evictionThread );
-        evictionThread = null;
+        for ( EvictionStripe stripe : stripes )
+        {
+            interrupt( stripe.evictionThread );
+            stripe.evictionThread = null;
+        }
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -686,10 +894,72 @@ public class MuninnPageCache implements PageCache
         return pageCacheId;
     }
 
+    int evictionStripeCount()
+    {
+        return stripes.length;
+    }
+
     MuninnPage grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
-        // this part of the code.
+        // Review the comment on the EvictionStripe.freelist field before making changes to this part of the code.
+        // We first look for a free page in the stripe that is associated with our thread, and then in the other
+        // stripes, if there are any. If all the freelists are empty, then we do our own eviction to get a free page.
+        EvictionStripe localStripe = stripes[localStripeIndex()];
+        for (;;)
+        {
+            assertHealthy();
+            MuninnPage page = tryGrabFreePage( localStripe );
+            if ( page != null )
+            {
+                return page;
+            }
+            page = cooperativelyEvict( localStripe, faultEvent );
+            if ( page != null )
+            {
+                return page;
+            }
+        }
+    }
+
+    /**
+     * Grab a free page, but only if one is readily available on the freelists, since this method will never evict
+     * any pages. Returns {@code null} if there are no free pages.
+     */
+    MuninnPage tryGrabFreeAndExclusivelyLockedPage()
+    {
+        return tryGrabFreePage( stripes[localStripeIndex()] );
+    }
+
+    private MuninnPage tryGrabFreePage( EvictionStripe localStripe )
+    {
+        MuninnPage page = grabFreePage( localStripe );
+        if ( page != null )
+        {
+            return page;
+        }
+        // Our local freelist is empty, so make sure its evictor is working on it, while we look elsewhere.
+        localStripe.unparkEvictor();
+        for ( int i = 1; i < stripes.length; i++ )
+        {
+            page = grabFreePage( stripes[(localStripe.index + i) % stripes.length] );
+            if ( page != null )
+            {
+                return page;
+            }
+        }
+        return null;
+    }
+
+    private int localStripeIndex()
+    {
+        return stripes.length == 1 ? 0 : (int) (Thread.currentThread().getId() % stripes.length);
+    }
+
+    /**
+     * Try to take a page from the freelist of the given stripe, and return {@code null} if the freelist is empty.
+     */
+    private MuninnPage grabFreePage( EvictionStripe stripe )
+    {
         // Whatever the case, we're going to the head-pointer of the freelist,
         // and in doing so, we can discover a number of things.
         // We can discover a MuninnPage object, in which case we can try to
@@ -702,8 +972,7 @@ public class MuninnPageCache implements PageCache
         // We can discover a null-pointer, in which case the freelist has just
         // been emptied for whatever it contained before. New FreePage objects
         // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
+        // going to wait around for that to happen.
         // If we find a FreePage object on the freelist, then it is important
         // to check and see if it is the shutdownSignal instance. If that's the
         // case, then the page cache has been shut down, and we should throw an
@@ -711,20 +980,15 @@ public class MuninnPageCache implements PageCache
         Object current;
         for (;;)
         {
-            assertHealthy();
-            current = getFreelistHead();
+            current = stripe.getFreelistHead();
             if ( current == null )
             {
-                unparkEvictor();
-                MuninnPage page = cooperativelyEvict( faultEvent );
-                if ( page != null ) {
-                    return page;
-                }
+                return null;
             }
             else if ( current instanceof MuninnPage )
             {
                 MuninnPage page = (MuninnPage) current;
-                if ( compareAndSetFreelistHead( page, page.nextFree ) )
+                if ( stripe.compareAndSetFreelistHead( page, page.nextFree ) )
                 {
                     return page;
                 }
@@ -737,7 +1001,7 @@ public class MuninnPageCache implements PageCache
                     throw new IllegalStateException( "The PageCache has been shut down." );
                 }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+                if ( stripe.compareAndSetFreelistHead( freePage, freePage.next ) )
                 {
                     return freePage.page;
                 }
@@ -745,7 +1009,7 @@ public class MuninnPageCache implements PageCache
         }
     }
 
-    private MuninnPage cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
+    private MuninnPage cooperativelyEvict( EvictionStripe localStripe, PageFaultEvent faultEvent ) throws IOException
     {
         int iterations = 0;
         int clockArm = ThreadLocalRandom.current().nextInt( pages.length );
@@ -754,7 +1018,7 @@ public class MuninnPageCache implements PageCache
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            if ( localStripe.getFreelistHead() != null )
             {
                 return null;
             }
@@ -776,7 +1040,7 @@ public class MuninnPageCache implements PageCache
                         "The PageCache has been shut down" );
             }
 
-            if ( page.isLoaded() && page.decrementUsage() )
+            if ( page.isLoaded() && replacementPolicy.sweep( page ) )
             {
                 if ( page.tryExclusiveLock() )
                 {
@@ -815,40 +1079,6 @@ public class MuninnPageCache implements PageCache
                 "your database." );
     }
 
-    private void unparkEvictor()
-    {
-        if ( evictorParked )
-        {
-            evictorParked = false;
-            LockSupport.unpark( evictionThread );
-        }
-    }
-
-    private void parkEvictor( long parkNanos )
-    {
-        // Only called from the background eviction thread!
-        evictorParked = true;
-        LockSupport.parkNanos( this, parkNanos );
-        evictorParked = false;
-    }
-
-    private Object getFreelistHead()
-    {
-        return UnsafeUtil.getObjectVolatile( this, freelistOffset );
-    }
-
-    private boolean compareAndSetFreelistHead( Object expected, Object update )
-    {
-        return UnsafeUtil.compareAndSwapObject(
-                this, freelistOffset, expected, update );
-    }
-
-    private Object getAndSetFreelistHead( Object newFreelistHead )
-    {
-        return UnsafeUtil.getAndSetObject(
-                this, freelistOffset, newFreelistHead );
-    }
-
     /**
      * Scan through all the pages, one by one, and decrement their usage stamps.
      * If a usage reaches zero, we try-write-locking it, and if we get that lock,
@@ -856,39 +1086,39 @@ public class MuninnPageCache implements PageCache
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
-    void continuouslySweepPages()
+    void continuouslySweepPages( EvictionStripe stripe )
     {
-        evictionThread = Thread.currentThread();
-        int clockArm = 0;
+        stripe.evictionThread = Thread.currentThread();
+        int clockArm = stripe.startPage;
 
         while ( !closed )
         {
-            int pageCountToEvict = parkUntilEvictionRequired( keepFree );
+            int pageCountToEvict = parkUntilEvictionRequired( stripe, stripe.keepFree );
             try ( EvictionRunEvent evictionRunEvent = tracer.beginPageEvictions( pageCountToEvict ) )
             {
-                clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
+                clockArm = evictPages( stripe, pageCountToEvict, clockArm, evictionRunEvent );
             }
         }
 
         // The last thing we do, is signalling the shutdown of the cache via
         // the freelist. This signal is looked out for in grabFreePage.
-        getAndSetFreelistHead( shutdownSignal );
+        stripe.getAndSetFreelistHead( shutdownSignal );
     }
 
-    private int parkUntilEvictionRequired( int keepFree )
+    private int parkUntilEvictionRequired( EvictionStripe stripe, int keepFree )
     {
         // Park until we're either interrupted, or the number of free pages drops
         // bellow keepFree.
         long parkNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
         for (;;)
         {
-            parkEvictor( parkNanos );
+            stripe.parkEvictor( parkNanos );
             if ( Thread.interrupted() || closed )
             {
                 return 0;
             }
 
-            Object freelistHead = getFreelistHead();
+            Object freelistHead = stripe.getFreelistHead();
 
             if ( freelistHead == null )
             {
@@ -906,12 +1136,18 @@ public class MuninnPageCache implements PageCache
     }
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
+    {
+        return evictPages( stripes[0], pageCountToEvict, clockArm, evictionRunEvent );
+    }
+
+    private int evictPages( EvictionStripe stripe, int pageCountToEvict, int clockArm,
+            EvictionRunEvent evictionRunEvent )
     {
         while ( pageCountToEvict > 0 && !closed )
         {
-            if ( clockArm == pages.length )
+            if ( clockArm == stripe.endPage )
             {
-                clockArm = 0;
+                clockArm = stripe.startPage;
             }
             MuninnPage page = pages[clockArm];
 
@@ -921,7 +1157,7 @@ public class MuninnPageCache implements PageCache
                 return 0;
             }
 
-            if ( page.isLoaded() && page.decrementUsage() )
+            if ( page.isLoaded() && replacementPolicy.sweep( page ) )
             {
                 if ( page.tryExclusiveLock() )
                 {
@@ -947,10 +1183,10 @@ public class MuninnPageCache implements PageCache
                             FreePage freePage = new FreePage( page );
                             do
                             {
-                                current = getFreelistHead();
+                                current = stripe.getFreelistHead();
                                 freePage.setNext( (FreePage) current );
                             }
-                            while ( !compareAndSetFreelistHead(
+                            while ( !stripe.compareAndSetFreelistHead(
                                     current, freePage ) );
                         }
                     }
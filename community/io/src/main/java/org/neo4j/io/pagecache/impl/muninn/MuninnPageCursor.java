@@ -21,6 +21,7 @@ package org.neo4j.io.pagecache.impl.muninn;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 import org.neo4j.concurrent.BinaryLatch;
@@ -28,11 +29,15 @@ import org.neo4j.io.pagecache.CursorException;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.flag;
 
 abstract class MuninnPageCursor extends PageCursor
@@ -55,6 +60,9 @@ abstract class MuninnPageCursor extends PageCursor
     protected MuninnPagedFile pagedFile;
     protected PageSwapper swapper;
     protected PageCacheTracer tracer;
+    private PageReplacementPolicy replacementPolicy;
+    private PageCursorCounters fileCounters;
+    private PageCursorCounters threadCounters;
     protected MuninnPage page;
     protected PinEvent pinEvent;
     protected long pageId;
@@ -62,6 +70,9 @@ abstract class MuninnPageCursor extends PageCursor
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
+    // The file page id that this cursor was last asked to pin, used for detecting sequential scans.
+    private long lastPinnedPageId;
+    private boolean sequentialPin;
     private long pointer;
     private int pageSize;
     private int filePageSize;
@@ -71,6 +82,11 @@ abstract class MuninnPageCursor extends PageCursor
     // CursorExceptionWithPreciseStackTrace with the message and stack trace pointing more or less directly at the
     // offending code.
     private Object cursorException;
+    // Scratch space for the pages of a read-ahead fault, allocated on the first one, and reused by the later ones.
+    // The latches of the read-ahead pages are cleared once they are released.
+    private MuninnPage[] readAheadPages;
+    private BinaryLatch[] readAheadLatches;
+    private long[] readAheadOffsets;
 
     MuninnPageCursor( long victimPage )
     {
@@ -82,6 +98,10 @@ abstract class MuninnPageCursor extends PageCursor
     {
         this.swapper = pagedFile.swapper;
         this.tracer = pagedFile.tracer;
+        this.replacementPolicy = pagedFile.pageCache.replacementPolicy;
+        this.fileCounters = pagedFile.fileCounters;
+        // Cursors are pooled per thread, so the cursor will be used by the thread that is initialising it.
+        this.threadCounters = tracer.countersForCurrentThread();
     }
 
     final void initialiseFlags( MuninnPagedFile pagedFile, long pageId, int pf_flags )
@@ -90,6 +110,7 @@ abstract class MuninnPageCursor extends PageCursor
         this.pageId = pageId;
         this.pf_flags = pf_flags;
         this.filePageSize = pagedFile.filePageSize;
+        this.lastPinnedPageId = UNBOUND_PAGE_ID;
     }
 
     @Override
@@ -203,6 +224,8 @@ abstract class MuninnPageCursor extends PageCursor
 
     /**
      * Pin the desired file page to this cursor, page faulting it into memory if it isn't there already.
+     * If the cursor was opened with {@link org.neo4j.io.pagecache.PagedFile#PF_NO_FAULT}, and the page is not in
+     * memory, then the cursor will be left without a page.
      * @param filePageId The file page id we want to pin this cursor to.
      * @param writeLock 'true' if we will be taking a write lock on the page as part of the pin.
      * @throws IOException if anything goes wrong with the pin, most likely during a page fault.
@@ -210,6 +233,8 @@ abstract class MuninnPageCursor extends PageCursor
     protected void pin( long filePageId, boolean writeLock ) throws IOException
     {
         pinEvent = tracer.beginPin( writeLock, filePageId, swapper );
+        sequentialPin = lastPinnedPageId != UNBOUND_PAGE_ID && filePageId == lastPinnedPageId + 1;
+        lastPinnedPageId = filePageId;
         int chunkId = MuninnPagedFile.computeChunkId( filePageId );
         // The chunkOffset is the addressing offset into the chunk array object for the relevant array slot. Using
         // this, we can access the array slot with Unsafe.
@@ -242,6 +267,9 @@ abstract class MuninnPageCursor extends PageCursor
                 if ( locked & page.isBoundTo( swapper, filePageId ) )
                 {
                     pinCursorToPage( page, filePageId, swapper );
+                    recordAccess( page, false );
+                    fileCounters.hit();
+                    threadCounters.hit();
                     return;
                 }
                 if ( locked )
@@ -250,13 +278,31 @@ abstract class MuninnPageCursor extends PageCursor
                 }
                 item = null;
             }
+            else if ( item == null && (pf_flags & PF_NO_FAULT) != 0 )
+            {
+                // The page is not in memory, and we have been asked not to fault it in. The cursor is left unbound.
+                pinEvent.done();
+                return;
+            }
             else
             {
                 item = uncommonPin( item, filePageId, chunkOffset, chunk );
             }
         }
         while ( item == null );
-        pinCursorToPage( (MuninnPage) item, filePageId, swapper );
+        MuninnPage faultedPage = (MuninnPage) item;
+        pinCursorToPage( faultedPage, filePageId, swapper );
+        recordAccess( faultedPage, true );
+        fileCounters.fault();
+        threadCounters.fault();
+    }
+
+    private void recordAccess( MuninnPage page, boolean faulted )
+    {
+        if ( (pf_flags & PF_TRANSIENT) == 0 )
+        {
+            replacementPolicy.accessed( page, faulted );
+        }
     }
 
     private Object[][] expandTranslationTableCapacity( int chunkId )
@@ -329,15 +375,15 @@ abstract class MuninnPageCursor extends PageCursor
             abortPageFault( throwable, chunk, chunkOffset, latch, faultEvent );
             throw throwable;
         }
+        long lastPageId;
         try
         {
             // Check if we're racing with unmapping. We have the page lock
             // here, so the unmapping would have already happened. We do this
             // check before page.fault(), because that would otherwise reopen
             // the file channel.
-            assertPagedFileStillMappedAndGetIdOfLastPage();
+            lastPageId = assertPagedFileStillMappedAndGetIdOfLastPage();
             page.initBuffer();
-            page.fault( swapper, filePageId, faultEvent );
         }
         catch ( Throwable throwable )
         {
@@ -347,6 +393,27 @@ abstract class MuninnPageCursor extends PageCursor
             abortPageFault( throwable, chunk, chunkOffset, latch, faultEvent );
             throw throwable;
         }
+
+        int readAheadPageCount = computeReadAheadPageCount( filePageId, lastPageId );
+        if ( readAheadPageCount > 0 )
+        {
+            pageFaultWithReadAhead( filePageId, page, chunk, chunkOffset, latch, readAheadPageCount, faultEvent );
+        }
+        else
+        {
+            try
+            {
+                page.fault( swapper, filePageId, faultEvent );
+            }
+            catch ( Throwable throwable )
+            {
+                // Make sure to unlock the page, so the eviction thread can pick up our trash.
+                page.unlockExclusive();
+                // Make sure to unstuck the page fault latch.
+                abortPageFault( throwable, chunk, chunkOffset, latch, faultEvent );
+                throw throwable;
+            }
+        }
         // Put the page in the translation table before we undo the exclusive lock, as we could otherwise race with
         // eviction, and the onEvict callback expects to find a MuninnPage object in the table.
         UnsafeUtil.putObjectVolatile( chunk, chunkOffset, page );
@@ -358,6 +425,118 @@ abstract class MuninnPageCursor extends PageCursor
         return page;
     }
 
+    /**
+     * Compute how many pages after the given file page we should read ahead, as part of faulting it in. We only read
+     * ahead when the cursor appears to be scanning the file sequentially, or it has been given the
+     * {@link org.neo4j.io.pagecache.PagedFile#PF_READ_AHEAD} hint. We never read ahead beyond the end of the file, or
+     * beyond the translation table chunk of the faulting page.
+     */
+    private int computeReadAheadPageCount( long filePageId, long lastPageId )
+    {
+        int readAheadPageCount = pagedFile.pageCache.readAheadPageCount;
+        if ( readAheadPageCount == 0 || !(sequentialPin || (pf_flags & PF_READ_AHEAD) != 0) )
+        {
+            return 0;
+        }
+        long pagesLeftInChunk = MuninnPagedFile.pagesLeftInChunk( filePageId );
+        return (int) Math.max( 0, Math.min( readAheadPageCount, Math.min( lastPageId - filePageId, pagesLeftInChunk ) ) );
+    }
+
+    /**
+     * Fault in the given page, together with as many as possible of the subsequent pages, up to the given read-ahead
+     * count, in a single vectored read. The read-ahead stops at the first subsequent page that is already in memory,
+     * or is being faulted in by someone else, or for which we cannot get a free page. The read-ahead pages are
+     * published to the translation table unlocked, while the page being faulted is returned still exclusively locked,
+     * just like after a normal page fault.
+     */
+    private void pageFaultWithReadAhead( long filePageId, MuninnPage page, Object[] chunk, long chunkOffset,
+            BinaryLatch latch, int readAheadPageCount, PageFaultEvent faultEvent ) throws IOException
+    {
+        if ( readAheadPages == null || readAheadPages.length <= readAheadPageCount )
+        {
+            int capacity = 1 + Math.max( readAheadPageCount, pagedFile.pageCache.readAheadPageCount );
+            readAheadPages = new MuninnPage[capacity];
+            readAheadLatches = new BinaryLatch[capacity];
+            readAheadOffsets = new long[capacity];
+        }
+        MuninnPage[] pages = readAheadPages;
+        BinaryLatch[] latches = readAheadLatches;
+        long[] offsets = readAheadOffsets;
+        pages[0] = page;
+        offsets[0] = chunkOffset;
+        int length = 1;
+        while ( length <= readAheadPageCount )
+        {
+            long offset = MuninnPagedFile.computeChunkOffset( filePageId + length );
+            BinaryLatch readAheadLatch = new BinaryLatch();
+            if ( !UnsafeUtil.compareAndSwapObject( chunk, offset, null, readAheadLatch ) )
+            {
+                break;
+            }
+            // We only read ahead into pages that are already free. Evicting pages for the sake of read-ahead could
+            // otherwise starve concurrent page faults, since we hold the read-ahead pages exclusively locked.
+            MuninnPage readAheadPage = null;
+            try
+            {
+                readAheadPage = pagedFile.tryGrabFreeAndExclusivelyLockedPage();
+                if ( readAheadPage != null )
+                {
+                    readAheadPage.initBuffer();
+                }
+            }
+            catch ( Throwable ignore )
+            {
+                // Read-ahead is only opportunistic, so we just stop here, and let the normal page fault proceed.
+                // If the page cache is broken, then that page fault will find out soon enough.
+                if ( readAheadPage != null )
+                {
+                    // Make sure to unlock the page, so the eviction thread can pick up our trash.
+                    readAheadPage.unlockExclusive();
+                    readAheadPage = null;
+                }
+            }
+            if ( readAheadPage == null )
+            {
+                UnsafeUtil.putObjectVolatile( chunk, offset, null );
+                readAheadLatch.release();
+                break;
+            }
+            pages[length] = readAheadPage;
+            latches[length] = readAheadLatch;
+            offsets[length] = offset;
+            length++;
+        }
+
+        try
+        {
+            MuninnPage.fault( swapper, filePageId, pages, length, faultEvent );
+        }
+        catch ( Throwable throwable )
+        {
+            for ( int i = 1; i < length; i++ )
+            {
+                pages[i].unlockExclusive();
+                UnsafeUtil.putObjectVolatile( chunk, offsets[i], null );
+                latches[i].release();
+                latches[i] = null;
+            }
+            // Make sure to unlock the page, so the eviction thread can pick up our trash.
+            page.unlockExclusive();
+            // Make sure to unstuck the page fault latch.
+            abortPageFault( throwable, chunk, chunkOffset, latch, faultEvent );
+            throw throwable;
+        }
+
+        // The read-ahead pages are published just like normal page faults, except we don't keep any locks on them.
+        for ( int i = 1; i < length; i++ )
+        {
+            UnsafeUtil.putObjectVolatile( chunk, offsets[i], pages[i] );
+            pages[i].unlockExclusive();
+            latches[i].release();
+            latches[i] = null;
+        }
+    }
+
     private void abortPageFault( Throwable throwable, Object[] chunk, long chunkOffset,
                                  BinaryLatch latch,
                                  PageFaultEvent faultEvent ) throws IOException
@@ -695,6 +874,33 @@ abstract class MuninnPageCursor extends PageCursor
         return 0;
     }
 
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer buffer )
+    {
+        int pageSize = getCurrentPageSize();
+        if ( sourceOffset >= 0 & sourceOffset < pageSize )
+        {
+            int bytes = Math.min( pageSize - sourceOffset, buffer.remaining() );
+            int position = buffer.position();
+            if ( buffer.isDirect() && !buffer.isReadOnly() )
+            {
+                long target = UnsafeUtil.getDirectByteBufferAddress( buffer ) + position;
+                UnsafeUtil.copyMemory( pointer + sourceOffset, target, bytes );
+                buffer.position( position + bytes );
+            }
+            else
+            {
+                for ( int i = 0; i < bytes; i++ )
+                {
+                    buffer.put( UnsafeUtil.getByte( pointer + sourceOffset + i ) );
+                }
+            }
+            return bytes;
+        }
+        outOfBounds = true;
+        return 0;
+    }
+
     @Override
     public void setOffset( int offset )
     {
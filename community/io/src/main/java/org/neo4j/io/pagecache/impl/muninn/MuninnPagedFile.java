@@ -37,6 +37,7 @@ import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
@@ -59,6 +60,7 @@ final class MuninnPagedFile implements PagedFile, Flushable
     final MuninnPageCache pageCache;
     final int filePageSize;
     final PageCacheTracer tracer;
+    final PageCursorCounters fileCounters;
 
     // This is the table where we translate file-page-ids to cache-page-ids. Only one thread can perform a resize at
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
@@ -103,6 +105,7 @@ final class MuninnPagedFile implements PagedFile, Flushable
         this.filePageSize = filePageSize;
         this.cursorPool = new CursorPool( this );
         this.tracer = tracer;
+        this.fileCounters = tracer.countersForFile( file );
 
         // The translation table is an array of arrays of references to either null, MuninnPage objects, or Latch
         // objects. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -186,6 +189,24 @@ final class MuninnPagedFile implements PagedFile, Flushable
         return (lastPageId + 1) * pageSize();
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+        PagePrefetcher prefetcher = pageCache.prefetcher;
+        if ( prefetcher == null || pageId < 0 || pageId > getLastPageId() )
+        {
+            return;
+        }
+        Object[][] tt = translationTable;
+        int chunkId = computeChunkId( pageId );
+        if ( chunkId < tt.length && UnsafeUtil.getObjectVolatile( tt[chunkId], computeChunkOffset( pageId ) ) != null )
+        {
+            // The page is already in memory, or is being faulted in.
+            return;
+        }
+        prefetcher.prefetch( this, pageId );
+    }
+
     File file()
     {
         return swapper.file();
@@ -257,16 +278,31 @@ final class MuninnPagedFile implements PagedFile, Flushable
             throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
+        flushInternal( flushOpportunity, forClosing, limiter );
+        swapper.force();
+    }
+
+    /**
+     * Write out all the dirty pages of this file, in file page id order, but without forcing the file.
+     * @return The number of pages written, including any clean pages that were written to combine the writes.
+     */
+    long flushInternal( FlushEventOpportunity flushOpportunity, boolean forClosing, IOLimiter limiter )
+            throws IOException
+    {
         MuninnPage[] pages = new MuninnPage[translationTableChunkSize];
+        boolean[] cleaned = new boolean[translationTableChunkSize];
         long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
         long limiterStamp = IOLimiter.INITIAL_STAMP;
+        long pagesWritten = 0;
+        int writeCombiningGapPageCount = pageCache.writeCombiningGapPageCount;
         Object[][] tt = this.translationTable;
         for ( Object[] chunk : tt )
         {
-            // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
-            // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
-            // TODO garbage to the file.
+            // We tolerate flushing a few clean pages, if it means we can use larger vectors. The clean pages in
+            // question must still be loaded and bound to this file, though. Otherwise we'll end up writing garbage to
+            // the file. The gap pages are only ever written if they are followed by a dirty page.
             int pagesGrabbed = 0;
+            int gapPagesGrabbed = 0;
             chunkLoop:for ( int i = 0; i < chunk.length; i++ )
             {
                 filePageId++;
@@ -283,6 +319,19 @@ final class MuninnPagedFile implements PagedFile, Flushable
                         long stamp = page.tryOptimisticReadLock();
                         if ( (!page.isDirty()) && page.validateReadLock( stamp ) )
                         {
+                            if ( pagesGrabbed > 0 && gapPagesGrabbed < writeCombiningGapPageCount
+                                 && (forClosing? page.tryExclusiveLock() : page.tryFlushLock()) )
+                            {
+                                if ( page.isBoundTo( swapper, filePageId ) )
+                                {
+                                    // A loaded page in between dirty pages, which we might write along with them.
+                                    pages[pagesGrabbed] = page;
+                                    pagesGrabbed++;
+                                    gapPagesGrabbed++;
+                                    continue chunkLoop;
+                                }
+                                unlockForFlush( page, forClosing );
+                            }
                             break;
                         }
 
@@ -297,39 +346,68 @@ final class MuninnPagedFile implements PagedFile, Flushable
                             // So we add it to our IO vector.
                             pages[pagesGrabbed] = page;
                             pagesGrabbed++;
+                            gapPagesGrabbed = 0;
                             continue chunkLoop;
                         }
-                        else if ( forClosing )
-                        {
-                            page.unlockExclusive();
-                        }
-                        else
-                        {
-                            page.unlockFlush();
-                        }
+                        unlockForFlush( page, forClosing );
                     }
                     break;
                 }
                 if ( pagesGrabbed > 0 )
                 {
-                    vectoredFlush( pages, pagesGrabbed, flushOpportunity, forClosing );
+                    pagesGrabbed = releaseTrailingGapPages( pages, pagesGrabbed, gapPagesGrabbed, forClosing );
+                    vectoredFlush( pages, cleaned, pagesGrabbed, flushOpportunity, forClosing );
+                    pagesWritten += pagesGrabbed;
                     limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
                     pagesGrabbed = 0;
+                    gapPagesGrabbed = 0;
                 }
             }
             if ( pagesGrabbed > 0 )
             {
-                vectoredFlush( pages, pagesGrabbed, flushOpportunity, forClosing );
+                pagesGrabbed = releaseTrailingGapPages( pages, pagesGrabbed, gapPagesGrabbed, forClosing );
+                vectoredFlush( pages, cleaned, pagesGrabbed, flushOpportunity, forClosing );
+                pagesWritten += pagesGrabbed;
                 limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
             }
         }
+        return pagesWritten;
+    }
 
-        swapper.force();
+    private static void unlockForFlush( MuninnPage page, boolean forClosing )
+    {
+        if ( forClosing )
+        {
+            page.unlockExclusive();
+        }
+        else
+        {
+            page.unlockFlush();
+        }
     }
 
-    private void vectoredFlush(
-            MuninnPage[] pages, int pagesGrabbed, FlushEventOpportunity flushOpportunity, boolean forClosing )
-            throws IOException
+    /**
+     * Unlock the clean gap pages at the end of the IO vector, since there are no dirty pages after them that they can
+     * help merge into the write.
+     * @return The number of pages left in the IO vector.
+     */
+    private static int releaseTrailingGapPages(
+            MuninnPage[] pages, int pagesGrabbed, int gapPagesGrabbed, boolean forClosing )
+    {
+        for ( int j = pagesGrabbed - gapPagesGrabbed; j < pagesGrabbed; j++ )
+        {
+            unlockForFlush( pages[j], forClosing );
+        }
+        return pagesGrabbed - gapPagesGrabbed;
+    }
+
+    /**
+     * Write the given pages, which are locked for flushing, and mark them as clean.
+     * @param cleaned Scratch space for remembering which of the pages this flush changed from dirty to clean, so only
+     * those are marked as dirty again if the write fails. The clean gap pages must stay clean.
+     */
+    private void vectoredFlush( MuninnPage[] pages, boolean[] cleaned, int pagesGrabbed,
+            FlushEventOpportunity flushOpportunity, boolean forClosing ) throws IOException
     {
         FlushEvent flush = null;
         try
@@ -343,7 +421,7 @@ final class MuninnPagedFile implements PagedFile, Flushable
             for ( int j = 0; j < pagesGrabbed; j++ )
             {
                 // If the flush fails, we'll undo this
-                pages[j].markAsClean();
+                cleaned[j] = pages[j].markAsClean();
             }
 
             flush = flushOpportunity.beginFlush( startFilePageId, firstPage.getCachePageId(), swapper );
@@ -361,7 +439,10 @@ final class MuninnPagedFile implements PagedFile, Flushable
             // Undo marking the pages as clean
             for ( int j = 0; j < pagesGrabbed; j++ )
             {
-                pages[j].markAsDirty();
+                if ( cleaned[j] )
+                {
+                    pages[j].markAsDirty();
+                }
             }
             if ( flush != null )
             {
@@ -374,14 +455,7 @@ final class MuninnPagedFile implements PagedFile, Flushable
             // Always unlock all the pages in the vector
             for ( int j = 0; j < pagesGrabbed; j++ )
             {
-                if ( forClosing )
-                {
-                    pages[j].unlockExclusive();
-                }
-                else
-                {
-                    pages[j].unlockFlush();
-                }
+                unlockForFlush( pages[j], forClosing );
             }
         }
     }
@@ -475,6 +549,51 @@ final class MuninnPagedFile implements PagedFile, Flushable
         while ( !UnsafeUtil.compareAndSwapLong( this, headerStateOffset, current, update ) );
     }
 
+    /**
+     * Atomically increment the reference count, unless the file has already been unmapped.
+     *
+     * @return {@code false} if the reference count was zero, and the file can no longer be used.
+     */
+    boolean tryIncrementRefCount()
+    {
+        long current, update;
+        do
+        {
+            current = getHeaderState();
+            long count = refCountOf( current );
+            if ( count == 0 || count == headerStateRefCountMax )
+            {
+                return false;
+            }
+            update = (current & headerStateLastPageIdMask) + ((count + 1) << headerStateRefCountShift);
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, headerStateOffset, current, update ) );
+        return true;
+    }
+
+    /**
+     * Atomically decrement the reference count, unless this is the last reference. The last reference must be
+     * released through {@link MuninnPageCache#unmap(MuninnPagedFile)}, which removes the mapping.
+     *
+     * @return {@code false} if this is the last reference, and the reference count was left unchanged.
+     */
+    boolean tryDecrementRefCount()
+    {
+        long current, update;
+        do
+        {
+            current = getHeaderState();
+            long count = refCountOf( current );
+            if ( count <= 1 )
+            {
+                return false;
+            }
+            update = (current & headerStateLastPageIdMask) + ((count - 1) << headerStateRefCountShift);
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, headerStateOffset, current, update ) );
+        return true;
+    }
+
     /**
      * Atomically decrement the reference count. Returns true if this was the
      * last reference.
@@ -521,6 +640,11 @@ final class MuninnPagedFile implements PagedFile, Flushable
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    MuninnPage tryGrabFreeAndExclusivelyLockedPage()
+    {
+        return pageCache.tryGrabFreeAndExclusivelyLockedPage();
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -570,6 +694,14 @@ final class MuninnPagedFile implements PagedFile, Flushable
         return (int) (filePageId >>> translationTableChunkSizePower);
     }
 
+    /**
+     * The number of file pages that come after the given file page, within the same translation table chunk.
+     */
+    static int pagesLeftInChunk( long filePageId )
+    {
+        return (int) (translationTableChunkSizeMask - (filePageId & translationTableChunkSizeMask));
+    }
+
     static long computeChunkOffset( long filePageId )
     {
         int index = (int) (filePageId & translationTableChunkSizeMask);
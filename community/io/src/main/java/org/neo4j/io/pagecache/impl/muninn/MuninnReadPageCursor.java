@@ -58,7 +58,8 @@ final class MuninnReadPageCursor extends MuninnPageCursor
             return false;
         }
         pin( nextPageId, false );
-        currentPageId = nextPageId;
+        // The page is null if we didn't fault it in because of PF_NO_FAULT.
+        currentPageId = page == null ? UNBOUND_PAGE_ID : nextPageId;
         nextPageId++;
         return true;
     }
@@ -79,7 +80,6 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( MuninnPage page, long filePageId, PageSwapper swapper )
     {
         reset( page );
-        page.incrementUsage();
     }
 
     @Override
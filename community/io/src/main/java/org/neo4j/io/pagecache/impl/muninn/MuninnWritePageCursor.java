@@ -70,7 +70,8 @@ final class MuninnWritePageCursor extends MuninnPageCursor
             }
         }
         pin( nextPageId, true );
-        currentPageId = nextPageId;
+        // The page is null if we didn't fault it in because of PF_NO_FAULT.
+        currentPageId = page == null ? UNBOUND_PAGE_ID : nextPageId;
         nextPageId++;
         return true;
     }
@@ -99,7 +100,6 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         // after the reset() call, which means that if we throw, the cursor will
         // be closed and the page lock will be released.
         assertPagedFileStillMappedAndGetIdOfLastPage();
-        page.incrementUsage();
     }
 
     @Override
@@ -0,0 +1,261 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+
+/**
+ * Faults in the pages that have been hinted by {@link MuninnPagedFile#prefetch(long)}, on a small number of
+ * background threads, so the I/O can overlap with whatever the hinting thread does until it needs the pages.
+ * <p>
+ * Hints are best effort: they are dropped when the ring is full, and any failure to fault in a page is ignored,
+ * since the thread that eventually pins the page will fault it in, and see the failure, itself.
+ * <p>
+ * Hints are kept in a preallocated, lock-free ring of file and page id slots, so hinting neither allocates nor takes
+ * a lock. A hint for the same page as the most recently queued hint is dropped, since it is already on its way.
+ * Each slot has a sequence number, which tells producers when the slot is free, and workers when it holds a hint.
+ * <p>
+ * Queued hints do not hold references to their paged files, so hinting costs no more than claiming a slot.
+ * Instead, a worker takes a reference to a file when it gets to the first of a run of hints for it, and keeps it
+ * until it gets to a hint for another file or runs out of hints. Hints for files that have been unmapped in the mean
+ * time are dropped. References are released without the page cache monitor, unless it is the last one, so workers
+ * do not stall behind a check point that holds the monitor while flushing.
+ * <p>
+ * The workers are only started when there are hints to process, and return their threads to the
+ * {@link BackgroundThreadExecutor} when the ring is empty.
+ */
+final class PagePrefetcher
+{
+    private final MuninnPageCache pageCache;
+    private final Executor executor;
+    private final int maxWorkers;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final MuninnPagedFile[] files;
+    private final long[] filePageIds;
+    // The position of the next hint to queue, and of the next hint to process.
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicInteger workers = new AtomicInteger();
+    private volatile boolean closed;
+
+    PagePrefetcher( MuninnPageCache pageCache, Executor executor, int maxWorkers, int queueSize )
+    {
+        this.pageCache = pageCache;
+        this.executor = executor;
+        this.maxWorkers = maxWorkers;
+        int capacity = Integer.highestOneBit( Math.max( queueSize, 2 ) - 1 ) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray( capacity );
+        this.files = new MuninnPagedFile[capacity];
+        this.filePageIds = new long[capacity];
+        for ( int i = 0; i < capacity; i++ )
+        {
+            sequences.set( i, i );
+        }
+    }
+
+    /**
+     * Queue up the given page for prefetching.
+     */
+    void prefetch( MuninnPagedFile file, long filePageId )
+    {
+        if ( closed || !offer( file, filePageId ) )
+        {
+            return;
+        }
+        startWorkerIfNeeded();
+    }
+
+    private boolean offer( MuninnPagedFile file, long filePageId )
+    {
+        long position = tail.get();
+        if ( isLastQueued( position, file, filePageId ) )
+        {
+            return false;
+        }
+        int index;
+        for ( ; ; )
+        {
+            index = (int) (position & mask);
+            long available = sequences.get( index ) - position;
+            if ( available == 0 && tail.compareAndSet( position, position + 1 ) )
+            {
+                break;
+            }
+            if ( available < 0 )
+            {
+                // The ring is full.
+                return false;
+            }
+            position = tail.get();
+        }
+        files[index] = file;
+        filePageIds[index] = filePageId;
+        sequences.lazySet( index, position + 1 );
+        return true;
+    }
+
+    private boolean isLastQueued( long tailPosition, MuninnPagedFile file, long filePageId )
+    {
+        // Racy, but a wrongly dropped or duplicated hint only costs a fault in the hinting thread, or a redundant one.
+        long position = tailPosition - 1;
+        int index = (int) (position & mask);
+        return position >= 0 && sequences.get( index ) == position + 1 &&
+               filePageIds[index] == filePageId && files[index] == file;
+    }
+
+    /**
+     * Claim the oldest queued hint.
+     *
+     * @return the position of the claimed hint, or -1 if the ring is empty.
+     */
+    private long poll()
+    {
+        long position = head.get();
+        for ( ; ; )
+        {
+            long available = sequences.get( (int) (position & mask) ) - (position + 1);
+            if ( available == 0 && head.compareAndSet( position, position + 1 ) )
+            {
+                return position;
+            }
+            if ( available < 0 )
+            {
+                return -1;
+            }
+            position = head.get();
+        }
+    }
+
+    private void releaseSlot( long position )
+    {
+        int index = (int) (position & mask);
+        files[index] = null;
+        sequences.lazySet( index, position + mask + 1 );
+    }
+
+    private boolean isEmpty()
+    {
+        return head.get() >= tail.get();
+    }
+
+    private void startWorkerIfNeeded()
+    {
+        int count;
+        while ( !isEmpty() && (count = workers.get()) < maxWorkers )
+        {
+            if ( workers.compareAndSet( count, count + 1 ) )
+            {
+                executor.execute( this::processHints );
+                return;
+            }
+        }
+    }
+
+    private void processHints()
+    {
+        MuninnPagedFile pinned = null;
+        try
+        {
+            long position;
+            while ( !closed && (position = poll()) != -1 )
+            {
+                int index = (int) (position & mask);
+                MuninnPagedFile file = files[index];
+                long filePageId = filePageIds[index];
+                releaseSlot( position );
+                if ( file != pinned )
+                {
+                    release( pinned );
+                    pinned = file.tryIncrementRefCount() ? file : null;
+                }
+                if ( pinned != null )
+                {
+                    faultIn( pinned, filePageId );
+                }
+            }
+        }
+        finally
+        {
+            try
+            {
+                release( pinned );
+            }
+            finally
+            {
+                workers.decrementAndGet();
+            }
+        }
+        // A hint may have been queued after our last poll, but before the hinting thread could see that we stopped.
+        if ( !closed )
+        {
+            startWorkerIfNeeded();
+        }
+    }
+
+    private void release( MuninnPagedFile file )
+    {
+        if ( file != null && !file.tryDecrementRefCount() )
+        {
+            // The file was unmapped while we were prefetching from it, so ours is the last reference.
+            pageCache.unmap( file );
+        }
+    }
+
+    private static void faultIn( MuninnPagedFile file, long filePageId )
+    {
+        try ( PageCursor cursor = file.io( filePageId, PF_SHARED_READ_LOCK ) )
+        {
+            cursor.next();
+        }
+        catch ( Exception ignore )
+        {
+            // The thread that needs the page will fault it in again, and deal with any failure.
+        }
+    }
+
+    /**
+     * Stop accepting hints, drop the queued hints, and wait for the running workers to finish. This must not be called
+     * while holding the monitor lock on the page cache, since a worker may need it to release the last reference to
+     * a file.
+     */
+    void close()
+    {
+        closed = true;
+        while ( workers.get() > 0 )
+        {
+            LockSupport.parkNanos( 100_000 );
+        }
+        long position;
+        while ( (position = poll()) != -1 )
+        {
+            releaseSlot( position );
+        }
+    }
+}
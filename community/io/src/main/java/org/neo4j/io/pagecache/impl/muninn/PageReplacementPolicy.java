@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The policy that decides which pages the {@link MuninnPageCache} evicts, when it needs free pages.
+ * <p>
+ * All policies are variations of the CLOCK algorithm: The eviction sweeps over the pages in a circular fashion,
+ * asking the policy for each loaded page whether it should be evicted, and the page cursors tell the policy whenever
+ * they access a page. The policies keep their state in the usage stamp of the pages, and are allowed to update it in
+ * a benignly racy manner.
+ * <p>
+ * Accesses by cursors that are opened with the {@link org.neo4j.io.pagecache.PagedFile#PF_TRANSIENT} flag are not
+ * reported to the policy, so pages that are only touched by such cursors will be evicted as soon as possible.
+ */
+public enum PageReplacementPolicy
+{
+    /**
+     * The classic CLOCK policy. Every access raises the usage stamp of the page, up to a limit, and every eviction
+     * sweep lowers it. Pages are evicted when their usage stamp reaches zero.
+     * <p>
+     * This policy treats the pages of a one-off sequential scan the same as frequently accessed pages, so a large scan
+     * can push the entire working set out of the cache.
+     */
+    CLOCK
+            {
+                @Override
+                void accessed( MuninnPage page, boolean faulted )
+                {
+                    page.incrementUsage();
+                }
+
+                @Override
+                boolean sweep( MuninnPage page )
+                {
+                    return page.decrementUsage();
+                }
+            },
+
+    /**
+     * A scan resistant variation of CLOCK, inspired by 2Q and CLOCK-Pro, where pages are either cold or hot.
+     * <p>
+     * Pages start out cold when they are faulted in, and the page fault itself does not count as an access. A cold
+     * page is only promoted to hot, if it is accessed both before and after the eviction sweep has passed over it.
+     * Any number of accesses in between two sweeps count as one, so a scan that accesses the same page many times in
+     * a short burst, will not promote the page. Cold pages that are not accessed again after the sweep has passed
+     * over them are evicted. Hot pages keep a usage stamp, just like with the {@link #CLOCK} policy, and are demoted
+     * to cold when it reaches zero, instead of being evicted. A demoted page is promoted again if it is accessed
+     * before the sweep comes back around.
+     * <p>
+     * This means that pages that are only used for a short while, as by a sequential scan, are the first to be
+     * evicted, while the pages that are used over and over stay in memory.
+     */
+    SCAN_RESISTANT
+            {
+                @Override
+                void accessed( MuninnPage page, boolean faulted )
+                {
+                    byte usage = page.getUsageCounter();
+                    byte update;
+                    if ( faulted )
+                    {
+                        update = COLD;
+                    }
+                    else if ( (usage & HOT) != 0 )
+                    {
+                        int counter = usage & COUNTER_MASK;
+                        update = (byte) (HOT | Math.min( (counter << 1) + 1, COUNTER_MASK ));
+                    }
+                    else if ( usage == COLD_TESTED )
+                    {
+                        // The page was accessed again after the sweep passed over it, so it is not a one-off.
+                        update = HOT | 1;
+                    }
+                    else
+                    {
+                        update = COLD_REFERENCED;
+                    }
+                    if ( usage != update ) // avoid cache sloshing by not doing a write if nothing changed
+                    {
+                        page.setUsageCounter( update );
+                    }
+                }
+
+                @Override
+                boolean sweep( MuninnPage page )
+                {
+                    byte usage = page.getUsageCounter();
+                    if ( (usage & HOT) != 0 )
+                    {
+                        int counter = (usage & COUNTER_MASK) >>> 1;
+                        page.setUsageCounter( counter == 0 ? COLD_TESTED : (byte) (HOT | counter) );
+                        return false;
+                    }
+                    if ( usage == COLD_REFERENCED )
+                    {
+                        page.setUsageCounter( COLD_TESTED );
+                        return false;
+                    }
+                    return true;
+                }
+            };
+
+    private static final byte COLD = 0;
+    private static final byte COLD_REFERENCED = 1;
+    private static final byte COLD_TESTED = 2;
+    private static final byte HOT = 0x10;
+    private static final byte COUNTER_MASK = 0x07;
+
+    /**
+     * Called by a page cursor when it has pinned the given page.
+     * @param page The page that was accessed.
+     * @param faulted {@code true} if the page was faulted into memory as part of this access.
+     */
+    abstract void accessed( MuninnPage page, boolean faulted );
+
+    /**
+     * Called by the eviction when it sweeps past the given page. The page is loaded, but not necessarily locked.
+     * @param page The page the eviction is looking at.
+     * @return {@code true} if the page should be evicted, otherwise {@code false}.
+     */
+    abstract boolean sweep( MuninnPage page );
+}
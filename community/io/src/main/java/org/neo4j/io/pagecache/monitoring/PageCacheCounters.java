@@ -19,6 +19,11 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import java.io.File;
+import java.util.Map;
+
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -74,4 +79,24 @@ public interface PageCacheCounters
      * @return The number of page evictions that have thrown exceptions thus far.
      */
     long evictionExceptions();
+
+    /**
+     * @return The number of pages that have been loaded into memory by page cache warmup thus far.
+     */
+    long warmedUpPages();
+
+    /**
+     * @return The number of page faults that were served from the compressed page tier thus far.
+     */
+    long compressedTierHits();
+
+    /**
+     * @return The number of page faults that did not find their page in the compressed page tier thus far.
+     */
+    long compressedTierMisses();
+
+    /**
+     * @return The page hit, fault and eviction counters of every file that is currently mapped, by file.
+     */
+    Map<File,PageCursorCounters> fileCounters();
 }
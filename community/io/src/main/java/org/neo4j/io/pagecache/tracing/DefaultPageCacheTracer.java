@@ -25,6 +25,10 @@ import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
 import java.lang.invoke.SwitchPoint;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.PageSwapper;
@@ -92,6 +96,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final AtomicLong filesMapped = new AtomicLong();
     protected final AtomicLong filesUnmapped = new AtomicLong();
     protected final AtomicLong evictionExceptions = new AtomicLong();
+    protected final AtomicLong warmedUpPages = new AtomicLong();
+    protected final AtomicLong compressedTierHits = new AtomicLong();
+    protected final AtomicLong compressedTierMisses = new AtomicLong();
+    protected final ConcurrentMap<File,PageCursorCounters> fileCounters = new ConcurrentHashMap<>();
+    protected final ThreadLocal<PageCursorCounters> threadCounters =
+            ThreadLocal.withInitial( ThreadPageCursorCounters::new );
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -138,6 +148,11 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         @Override
         public void setSwapper( PageSwapper swapper )
         {
+            PageCursorCounters counters = swapper == null ? null : fileCounters.get( swapper.file() );
+            if ( counters != null )
+            {
+                counters.eviction();
+            }
         }
 
         @Override
@@ -201,6 +216,8 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         @Override
         public EvictionEvent beginEviction()
         {
+            // This is a cooperative eviction, performed by the page faulting thread itself.
+            threadCounters.get().eviction();
             return evictionEvent;
         }
 
@@ -273,6 +290,37 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     public void unmappedFile( File file )
     {
         filesUnmapped.getAndIncrement();
+        fileCounters.remove( file );
+    }
+
+    @Override
+    public void pagesWarmedUp( File file, long pageCount )
+    {
+        warmedUpPages.getAndAdd( pageCount );
+    }
+
+    @Override
+    public void compressedTierHit()
+    {
+        compressedTierHits.getAndIncrement();
+    }
+
+    @Override
+    public void compressedTierMiss()
+    {
+        compressedTierMisses.getAndIncrement();
+    }
+
+    @Override
+    public PageCursorCounters countersForFile( File file )
+    {
+        return fileCounters.computeIfAbsent( file, f -> new StripedPageCursorCounters() );
+    }
+
+    @Override
+    public PageCursorCounters countersForCurrentThread()
+    {
+        return threadCounters.get();
     }
 
     @Override
@@ -384,4 +432,28 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         return evictionExceptions.get();
     }
+
+    @Override
+    public long warmedUpPages()
+    {
+        return warmedUpPages.get();
+    }
+
+    @Override
+    public long compressedTierHits()
+    {
+        return compressedTierHits.get();
+    }
+
+    @Override
+    public long compressedTierMisses()
+    {
+        return compressedTierMisses.get();
+    }
+
+    @Override
+    public Map<File,PageCursorCounters> fileCounters()
+    {
+        return Collections.unmodifiableMap( fileCounters );
+    }
 }
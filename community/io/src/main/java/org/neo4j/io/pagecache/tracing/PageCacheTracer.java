@@ -20,6 +20,8 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.Map;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
@@ -46,6 +48,21 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void pagesWarmedUp( File file, long pageCount )
+        {
+        }
+
+        @Override
+        public void compressedTierHit()
+        {
+        }
+
+        @Override
+        public void compressedTierMiss()
+        {
+        }
+
         @Override
         public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
         {
@@ -130,6 +147,42 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long warmedUpPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long compressedTierHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long compressedTierMisses()
+        {
+            return 0;
+        }
+
+        @Override
+        public Map<File,PageCursorCounters> fileCounters()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public PageCursorCounters countersForFile( File file )
+        {
+            return PageCursorCounters.NULL;
+        }
+
+        @Override
+        public PageCursorCounters countersForCurrentThread()
+        {
+            return PageCursorCounters.NULL;
+        }
+
         @Override
         public String toString()
         {
@@ -147,6 +200,37 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void unmappedFile( File file );
 
+    /**
+     * The given number of pages from the given file have been loaded into memory by a page cache warmup.
+     * This may be called concurrently from multiple warmup threads, and multiple times for the same file.
+     */
+    void pagesWarmedUp( File file, long pageCount );
+
+    /**
+     * A page fault was served from the compressed page tier, without reading from the file.
+     */
+    void compressedTierHit();
+
+    /**
+     * A page fault looked in the compressed page tier, but did not find the page there, and had to read it from the
+     * file.
+     */
+    void compressedTierMiss();
+
+    /**
+     * Get the counters that page cursors should use for attributing their page hits and page faults to the given
+     * file. This is called when the file is mapped. The counters may be dropped when the last mapping of the file
+     * is {@link #unmappedFile(File) unmapped}, in which case a later mapping of the file starts counting from zero.
+     * The counters will be updated concurrently by many threads.
+     */
+    PageCursorCounters countersForFile( File file );
+
+    /**
+     * Get the counters that page cursors should use for attributing their page hits and page faults to the current
+     * thread. The counters will only be updated by the current thread, but they may be read by any thread.
+     */
+    PageCursorCounters countersForCurrentThread();
+
     /**
      * A background eviction has begun. Called from the background eviction thread.
      *
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+/**
+ * PageCursorCounters count the page hits, page faults and page evictions that can be attributed to either a
+ * particular mapped file, or to a particular thread, and thereby to the query that thread is executing.
+ * <p>
+ * The counters are updated by the page cursors on every pin, so implementations must be very cheap to update, while
+ * reading the counters is allowed to be comparatively expensive.
+ */
+public interface PageCursorCounters
+{
+    /**
+     * PageCursorCounters that ignore all updates, and always report zero.
+     */
+    PageCursorCounters NULL = new PageCursorCounters()
+    {
+        @Override
+        public void hit()
+        {
+        }
+
+        @Override
+        public void fault()
+        {
+        }
+
+        @Override
+        public void eviction()
+        {
+        }
+
+        @Override
+        public long hits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long faults()
+        {
+            return 0;
+        }
+
+        @Override
+        public long evictions()
+        {
+            return 0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return PageCursorCounters.class.getName() + ".NULL";
+        }
+    };
+
+    /**
+     * A page cursor pinned a page that was already in memory.
+     */
+    void hit();
+
+    /**
+     * A page cursor had to fault in the page it wanted to pin.
+     */
+    void fault();
+
+    /**
+     * A page was evicted.
+     */
+    void eviction();
+
+    /**
+     * @return The number of pins that found their page in memory thus far.
+     */
+    long hits();
+
+    /**
+     * @return The number of pins that had to fault in their page thus far.
+     */
+    long faults();
+
+    /**
+     * @return The number of page evictions thus far.
+     */
+    long evictions();
+}
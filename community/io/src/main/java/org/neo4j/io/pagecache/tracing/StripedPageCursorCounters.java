@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PageCursorCounters that can be updated by many threads concurrently, such as the counters for a mapped file.
+ * <p>
+ * The counts are kept in {@link LongAdder LongAdders}, which spread contended updates over a number of cells, and only
+ * add them up when the counters are read.
+ */
+final class StripedPageCursorCounters implements PageCursorCounters
+{
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Override
+    public void hit()
+    {
+        hits.increment();
+    }
+
+    @Override
+    public void fault()
+    {
+        faults.increment();
+    }
+
+    @Override
+    public void eviction()
+    {
+        evictions.increment();
+    }
+
+    @Override
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    @Override
+    public long faults()
+    {
+        return faults.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater;
+
+/**
+ * PageCursorCounters that are only ever updated by a single thread, but can be read by any thread.
+ * <p>
+ * Since there is only a single writer, the counters can be updated with ordered stores, instead of the atomic
+ * read-modify-write instructions that would otherwise be needed.
+ */
+final class ThreadPageCursorCounters implements PageCursorCounters
+{
+    private static final AtomicLongFieldUpdater<ThreadPageCursorCounters> HITS = newUpdater(
+            ThreadPageCursorCounters.class, "hits" );
+    private static final AtomicLongFieldUpdater<ThreadPageCursorCounters> FAULTS = newUpdater(
+            ThreadPageCursorCounters.class, "faults" );
+    private static final AtomicLongFieldUpdater<ThreadPageCursorCounters> EVICTIONS = newUpdater(
+            ThreadPageCursorCounters.class, "evictions" );
+
+    /** Updated through {@link #HITS} */
+    @SuppressWarnings( "unused" )
+    private volatile long hits;
+    /** Updated through {@link #FAULTS} */
+    @SuppressWarnings( "unused" )
+    private volatile long faults;
+    /** Updated through {@link #EVICTIONS} */
+    @SuppressWarnings( "unused" )
+    private volatile long evictions;
+
+    @Override
+    public void hit()
+    {
+        HITS.lazySet( this, hits + 1 );
+    }
+
+    @Override
+    public void fault()
+    {
+        FAULTS.lazySet( this, faults + 1 );
+    }
+
+    @Override
+    public void eviction()
+    {
+        EVICTIONS.lazySet( this, evictions + 1 );
+    }
+
+    @Override
+    public long hits()
+    {
+        return hits;
+    }
+
+    @Override
+    public long faults()
+    {
+        return faults;
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions;
+    }
+}
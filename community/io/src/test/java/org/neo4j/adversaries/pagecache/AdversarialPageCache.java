@@ -97,6 +97,19 @@ public class AdversarialPageCache implements PageCache
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public long flushDirtyPages( IOLimiter limiter ) throws IOException
+    {
+        adversary.injectFailure( IOException.class, SecurityException.class );
+        return delegate.flushDirtyPages( limiter );
+    }
+
+    @Override
+    public long dirtyPageCount()
+    {
+        return delegate.dirtyPageCount();
+    }
+
     @Override
     public void close()
     {
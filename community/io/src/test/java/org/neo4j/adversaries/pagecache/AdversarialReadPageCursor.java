@@ -24,6 +24,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -424,6 +425,22 @@ class AdversarialReadPageCursor extends DelegatingPageCursor
         return lengthInBytes;
     }
 
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer buffer )
+    {
+        state.injectFailure( IndexOutOfBoundsException.class );
+        int position = buffer.position();
+        int bytes = delegate.copyTo( sourceOffset, buffer );
+        ByteBuffer copied = buffer.duplicate();
+        copied.position( position );
+        byte[] data = new byte[bytes];
+        copied.get( data );
+        inconsistently( data );
+        copied.position( position );
+        copied.put( data );
+        return bytes;
+    }
+
     @Override
     public boolean checkAndClearBoundsFlag()
     {
@@ -22,6 +22,7 @@ package org.neo4j.adversaries.pagecache;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 
 import org.neo4j.adversaries.Adversary;
@@ -271,6 +272,13 @@ class AdversarialWritePageCursor extends DelegatingPageCursor
         return delegate.copyTo( sourceOffset, targetCursor, targetOffset, lengthInBytes );
     }
 
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer buffer )
+    {
+        adversary.injectFailure( IndexOutOfBoundsException.class );
+        return delegate.copyTo( sourceOffset, buffer );
+    }
+
     @Override
     public boolean checkAndClearBoundsFlag()
     {
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.compress;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class LZ4BlockCodecTest
+{
+    private static final int SIZE = 8192;
+
+    private final int[] hashTable = new int[LZ4BlockCodec.HASH_TABLE_SIZE];
+    private long source;
+    private long compressed;
+    private long decompressed;
+    private int compressedCapacity;
+
+    @Before
+    public void allocate()
+    {
+        compressedCapacity = LZ4BlockCodec.maxCompressedLength( SIZE );
+        source = UnsafeUtil.allocateMemory( SIZE );
+        compressed = UnsafeUtil.allocateMemory( compressedCapacity );
+        decompressed = UnsafeUtil.allocateMemory( SIZE );
+    }
+
+    @After
+    public void free()
+    {
+        UnsafeUtil.free( source );
+        UnsafeUtil.free( compressed );
+        UnsafeUtil.free( decompressed );
+    }
+
+    @Test
+    public void mustRoundTripZeros() throws Exception
+    {
+        UnsafeUtil.setMemory( source, SIZE, (byte) 0 );
+        int length = roundTrip( SIZE );
+        assertThat( length, lessThan( 64 ) );
+    }
+
+    @Test
+    public void mustRoundTripRandomBytes() throws Exception
+    {
+        Random random = new Random( 42 );
+        for ( int i = 0; i < SIZE; i++ )
+        {
+            UnsafeUtil.putByte( source + i, (byte) random.nextInt() );
+        }
+        int length = roundTrip( SIZE );
+        assertThat( length, lessThanOrEqualTo( compressedCapacity ) );
+    }
+
+    @Test
+    public void mustRoundTripRecordLikeData() throws Exception
+    {
+        // Fixed size records with a few changing fields, and an empty tail, like a partially filled store page.
+        UnsafeUtil.setMemory( source, SIZE, (byte) 0 );
+        Random random = new Random( 42 );
+        int recordSize = 15;
+        for ( int offset = 0; offset + recordSize < SIZE * 3 / 4; offset += recordSize )
+        {
+            UnsafeUtil.putByte( source + offset, (byte) 1 );
+            UnsafeUtil.putByte( source + offset + 1, (byte) random.nextInt( 4 ) );
+            UnsafeUtil.putByte( source + offset + 5, (byte) (offset / recordSize) );
+        }
+        int length = roundTrip( SIZE );
+        assertThat( length, lessThan( SIZE / 2 ) );
+    }
+
+    @Test
+    public void mustRoundTripHeapArrays() throws Exception
+    {
+        byte[] data = new byte[SIZE];
+        for ( int i = 0; i < SIZE; i++ )
+        {
+            data[i] = (byte) (i % 13);
+        }
+        byte[] compressedData = new byte[compressedCapacity];
+        byte[] decompressedData = new byte[SIZE];
+        long offset = LZ4BlockCodec.BYTE_ARRAY_OFFSET;
+
+        int length = LZ4BlockCodec.compress( data, offset, SIZE, compressedData, offset, compressedCapacity, hashTable );
+        assertThat( length, lessThan( SIZE / 2 ) );
+        int decompressedLength = LZ4BlockCodec.decompress( compressedData, offset, length, decompressedData, offset, SIZE );
+        assertThat( decompressedLength, is( SIZE ) );
+        assertArrayEquals( data, decompressedData );
+    }
+
+    @Test
+    public void mustRoundTripAllSmallLengths() throws Exception
+    {
+        Random random = new Random( 42 );
+        for ( int length = 0; length < 300; length++ )
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                UnsafeUtil.putByte( source + i, (byte) random.nextInt( 3 ) );
+            }
+            roundTrip( length );
+        }
+    }
+
+    @Test
+    public void compressMustFailWhenOutputDoesNotFit() throws Exception
+    {
+        Random random = new Random( 42 );
+        for ( int i = 0; i < SIZE; i++ )
+        {
+            UnsafeUtil.putByte( source + i, (byte) random.nextInt() );
+        }
+        assertThat( LZ4BlockCodec.compress( source, SIZE, compressed, SIZE / 2, hashTable ), is( -1 ) );
+    }
+
+    @Test
+    public void decompressMustRejectCorruptInput() throws Exception
+    {
+        UnsafeUtil.setMemory( source, SIZE, (byte) 0 );
+        int length = LZ4BlockCodec.compress( source, SIZE, compressed, compressedCapacity, hashTable );
+
+        // A match offset that points before the start of the output.
+        UnsafeUtil.putByte( compressed + 2, (byte) 0xFF );
+        UnsafeUtil.putByte( compressed + 3, (byte) 0xFF );
+        assertCorrupt( length, SIZE );
+    }
+
+    @Test
+    public void decompressMustRejectTruncatedInput() throws Exception
+    {
+        UnsafeUtil.setMemory( source, SIZE, (byte) 7 );
+        int length = LZ4BlockCodec.compress( source, SIZE, compressed, compressedCapacity, hashTable );
+        assertCorrupt( length - 1, SIZE );
+    }
+
+    @Test
+    public void decompressMustRejectOutputThatDoesNotFit() throws Exception
+    {
+        UnsafeUtil.setMemory( source, SIZE, (byte) 7 );
+        int length = LZ4BlockCodec.compress( source, SIZE, compressed, compressedCapacity, hashTable );
+        assertCorrupt( length, SIZE - 1 );
+    }
+
+    private int roundTrip( int length ) throws IOException
+    {
+        int compressedLength = LZ4BlockCodec.compress( source, length, compressed, compressedCapacity, hashTable );
+        assertThat( compressedLength, lessThanOrEqualTo( LZ4BlockCodec.maxCompressedLength( length ) ) );
+        UnsafeUtil.setMemory( decompressed, SIZE, (byte) 0xA5 );
+        int decompressedLength = LZ4BlockCodec.decompress( compressed, compressedLength, decompressed, SIZE );
+        assertThat( decompressedLength, is( length ) );
+        for ( int i = 0; i < length; i++ )
+        {
+            assertThat( "byte " + i, UnsafeUtil.getByte( decompressed + i ), is( UnsafeUtil.getByte( source + i ) ) );
+        }
+        return compressedLength;
+    }
+
+    private void assertCorrupt( int compressedLength, int capacity )
+    {
+        try
+        {
+            LZ4BlockCodec.decompress( compressed, compressedLength, decompressed, capacity );
+            fail( "Expected decompression to fail" );
+        }
+        catch ( IOException e )
+        {
+            // Good
+        }
+    }
+}
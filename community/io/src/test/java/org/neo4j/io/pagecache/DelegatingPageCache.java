@@ -71,6 +71,18 @@ public class DelegatingPageCache implements PageCache
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public long flushDirtyPages( IOLimiter limiter ) throws IOException
+    {
+        return delegate.flushDirtyPages( limiter );
+    }
+
+    @Override
+    public long dirtyPageCount()
+    {
+        return delegate.dirtyPageCount();
+    }
+
     public void flushAndForce() throws IOException
     {
         delegate.flushAndForce();
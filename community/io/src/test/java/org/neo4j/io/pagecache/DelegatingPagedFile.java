@@ -47,6 +47,12 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+        delegate.prefetch( pageId );
+    }
+
     public int pageSize()
     {
         return delegate.pageSize();
@@ -71,6 +71,7 @@ import org.neo4j.io.pagecache.randomharness.Record;
 import org.neo4j.io.pagecache.randomharness.StandardRecordFormat;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 import org.neo4j.test.rule.RepeatRule;
 
@@ -510,6 +511,72 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
         }
     }
 
+    @Test
+    public void flushDirtyPagesMustWriteDirtyPagesWithoutForcingChannels() throws Exception
+    {
+        final AtomicInteger writeCounter = new AtomicInteger();
+        final AtomicInteger forceCounter = new AtomicInteger();
+        FileSystemAbstraction fs = writeAndForceCountingFs( writeCounter, forceCounter );
+
+        getPageCache( fs, maxPages, pageCachePageSize, PageCacheTracer.NULL );
+
+        try ( PagedFile pagedFileA = pageCache.map( existingFile( "a" ), filePageSize );
+              PagedFile pagedFileB = pageCache.map( existingFile( "b" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFileA.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( 1 );
+                assertTrue( cursor.next() );
+                cursor.putInt( 1 );
+            }
+            try ( PageCursor cursor = pagedFileB.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( 1 );
+            }
+            assertThat( pageCache.dirtyPageCount(), is( 3L ) );
+
+            long pagesWritten = pageCache.flushDirtyPages( IOLimiter.unlimited() );
+
+            assertThat( pagesWritten, is( 3L ) );
+            assertThat( pageCache.dirtyPageCount(), is( 0L ) );
+            assertThat( writeCounter.get(), greaterThanOrEqualTo( 2 ) ); // writes to each file can be vectored
+            assertThat( forceCounter.get(), is( 0 ) );
+        }
+    }
+
+    @Test( timeout = SHORT_TIMEOUT_MILLIS )
+    public void dirtyPageCountMustCountEachDirtyPageOnceUntilItIsFlushed() throws Exception
+    {
+        getPageCache( fs, maxPages, pageCachePageSize, PageCacheTracer.NULL );
+
+        try ( PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            for ( int i = 0; i < 3; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putInt( i );
+                }
+            }
+            assertThat( pageCache.dirtyPageCount(), is( 1L ) );
+
+            pagedFile.flushAndForce();
+            assertThat( pageCache.dirtyPageCount(), is( 0L ) );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( 3 );
+            }
+            assertThat( pageCache.dirtyPageCount(), is( 1L ) );
+        }
+        // unmapping the file flushes its pages
+        assertThat( pageCache.dirtyPageCount(), is( 0L ) );
+    }
+
     @Test
     public void channelsMustBeForcedAfterPageCacheFlushAndForce() throws Exception
     {
@@ -1554,6 +1621,38 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
         assertThat( pagesChecked, is( initialPages ) );
     }
 
+    @Test( timeout = SHORT_TIMEOUT_MILLIS )
+    public void noFaultCursorMustOnlyBindToPagesThatAreAlreadyInMemory() throws IOException
+    {
+        int initialPages = 3;
+        generateFileWithRecords( file( "a" ), recordsPerFilePage * initialPages, recordSize );
+
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        getPageCache( fs, maxPages, pageCachePageSize, tracer );
+
+        try ( PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            long faults = tracer.faults();
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                assertTrue( cursor.next() );
+                assertThat( cursor.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+                assertTrue( cursor.next() );
+                assertThat( cursor.getCurrentPageId(), is( 1L ) );
+                verifyRecordsMatchExpected( cursor );
+                assertTrue( cursor.next() );
+                assertThat( cursor.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+                assertFalse( cursor.next() );
+            }
+            assertThat( tracer.faults(), is( faults ) );
+        }
+    }
+
     // This test has an internal timeout in that it tries to verify 1000 reads within SHORT_TIMEOUT_MILLIS,
     // although this is a soft limit in that it may abort if number of verifications isn't reached.
     // This is so because on some machines this test takes a very long time to run. Verifying in the end
@@ -2164,6 +2263,64 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
                         .and( lessThanOrEqualTo( countedPages + faults ) ) );
     }
 
+    @Test( timeout = SHORT_TIMEOUT_MILLIS )
+    public void tracerMustAttributePageHitsAndFaultsToFilesAndThreads() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        generateFileWithRecords( file( "a" ), recordsPerFilePage * 2, recordSize );
+        generateFileWithRecords( file( "b" ), recordsPerFilePage * 2, recordSize );
+
+        getPageCache( fs, maxPages, pageCachePageSize, tracer );
+
+        PageCursorCounters threadCounters = tracer.countersForCurrentThread();
+        try ( PagedFile pfA = pageCache.map( file( "a" ), filePageSize );
+              PagedFile pfB = pageCache.map( file( "b" ), filePageSize ) )
+        {
+            for ( int i = 0; i < 3; i++ )
+            {
+                try ( PageCursor cursor = pfA.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            executor.submit( () ->
+            {
+                try ( PageCursor cursor = pfB.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                    assertTrue( cursor.next() );
+                }
+                return null;
+            } ).get();
+
+            PageCursorCounters countersA = tracer.fileCounters().get( file( "a" ) );
+            PageCursorCounters countersB = tracer.fileCounters().get( file( "b" ) );
+            assertThat( "file a hits", countersA.hits(), is( 2L ) );
+            assertThat( "file a faults", countersA.faults(), is( 1L ) );
+            assertThat( "file b hits", countersB.hits(), is( 0L ) );
+            assertThat( "file b faults", countersB.faults(), is( 2L ) );
+
+            // The pins of file b were made by another thread.
+            assertThat( "thread hits", threadCounters.hits(), is( 2L ) );
+            assertThat( "thread faults", threadCounters.faults(), is( 1L ) );
+        }
+    }
+
+    @Test( timeout = SHORT_TIMEOUT_MILLIS )
+    public void tracerMustDropFileCountersWhenLastMappingIsUnmapped() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        getPageCache( fs, maxPages, pageCachePageSize, tracer );
+
+        PagedFile first = pageCache.map( file( "a" ), filePageSize );
+        PagedFile second = pageCache.map( file( "a" ), filePageSize );
+        first.close();
+        assertTrue( tracer.fileCounters().containsKey( file( "a" ) ) );
+
+        second.close();
+        assertFalse( tracer.fileCounters().containsKey( file( "a" ) ) );
+    }
+
     @Test( timeout = SHORT_TIMEOUT_MILLIS )
     public void tracerMustBeNotifiedAboutPinUnpinFaultFlushAndEvictionEventsWhenWriting() throws IOException
     {
@@ -4054,6 +4211,48 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
         }
     }
 
+    @Test
+    public void mustCopyIntoByteBuffers() throws Exception
+    {
+        configureStandardPageCache();
+        int pageSize = 16;
+        try ( PagedFile pf = pageCache.map( file( "a" ), pageSize );
+              PageCursor cursor = pf.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+            for ( int i = 0; i < pageSize; i++ )
+            {
+                cursor.putByte( (byte) (i + 1) );
+            }
+            for ( ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate( pageSize ),
+                    ByteBuffer.allocateDirect( pageSize )} )
+            {
+                buffer.position( 2 );
+                assertThat( cursor.copyTo( 4, buffer ), is( pageSize - 4 ) );
+                assertThat( buffer.position(), is( pageSize - 2 ) );
+                for ( int i = 0; i < pageSize - 4; i++ )
+                {
+                    assertThat( buffer.get( 2 + i ), is( (byte) (i + 5) ) );
+                }
+
+                // Smaller buffer
+                buffer.clear();
+                buffer.limit( 3 );
+                assertThat( cursor.copyTo( 0, buffer ), is( 3 ) );
+                assertThat( buffer.get( 2 ), is( (byte) 3 ) );
+                assertFalse( cursor.checkAndClearBoundsFlag() );
+
+                // Out of bounds
+                buffer.clear();
+                assertThat( cursor.copyTo( pageSize, buffer ), is( 0 ) );
+                assertTrue( cursor.checkAndClearBoundsFlag() );
+                assertThat( cursor.copyTo( -1, buffer ), is( 0 ) );
+                assertTrue( cursor.checkAndClearBoundsFlag() );
+                assertThat( buffer.position(), is( 0 ) );
+            }
+        }
+    }
+
     @Test( timeout = SHORT_TIMEOUT_MILLIS )
     public void readCursorsCanOpenLinkedCursor() throws Exception
     {
@@ -25,6 +25,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
@@ -35,6 +36,7 @@ import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 
@@ -86,6 +88,36 @@ public class RecordingPageCacheTracer implements PageCacheTracer
         // we currently do not record these
     }
 
+    @Override
+    public void pagesWarmedUp( File file, long pageCount )
+    {
+        // we currently do not record these
+    }
+
+    @Override
+    public void compressedTierHit()
+    {
+        // we currently do not record these
+    }
+
+    @Override
+    public void compressedTierMiss()
+    {
+        // we currently do not record these
+    }
+
+    @Override
+    public PageCursorCounters countersForFile( File file )
+    {
+        return PageCursorCounters.NULL;
+    }
+
+    @Override
+    public PageCursorCounters countersForCurrentThread()
+    {
+        return PageCursorCounters.NULL;
+    }
+
     @Override
     public void unmappedFile( File file )
     {
@@ -234,6 +266,30 @@ public class RecordingPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long warmedUpPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedTierHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedTierMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public Map<File,PageCursorCounters> fileCounters()
+    {
+        return Collections.emptyMap();
+    }
+
     public <T extends Event> T observe( Class<T> type ) throws InterruptedException
     {
         return type.cast( record.take() );
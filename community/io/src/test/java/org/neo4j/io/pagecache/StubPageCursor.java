@@ -130,6 +130,17 @@ public class StubPageCursor extends PageCursor
         return 0;
     }
 
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer buffer )
+    {
+        int bytes = Math.min( pageSize - sourceOffset, buffer.remaining() );
+        for ( int i = 0; i < bytes; i++ )
+        {
+            buffer.put( getByte( sourceOffset + i ) );
+        }
+        return bytes;
+    }
+
     @Override
     public boolean checkAndClearBoundsFlag()
     {
@@ -47,6 +47,11 @@ public class StubPagedFile implements PagedFile
     {
     }
 
+    @Override
+    public void prefetch( long pageId )
+    {
+    }
+
     @Override
     public int pageSize()
     {
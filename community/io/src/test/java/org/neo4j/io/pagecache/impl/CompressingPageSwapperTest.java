@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.Page;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Runs the page swapper test suite against swappers decorated with a compressed page tier, and then checks that
+ * evicted pages are served from the tier, and never become stale.
+ */
+public class CompressingPageSwapperTest extends SingleFilePageSwapperTest
+{
+    private static final long TIER_SIZE = 16 * 1024;
+
+    private DefaultPageCacheTracer tracer;
+
+    @Before
+    public void setUpTracer()
+    {
+        tracer = new DefaultPageCacheTracer();
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory()
+    {
+        return new CompressingPageSwapperFactory( super.swapperFactory(), TIER_SIZE, cachePageSize(), tracer );
+    }
+
+    @Test
+    public void evictedPagesMustBeReadFromTheTierInsteadOfTheFile() throws Exception
+    {
+        PageSwapper swapper = createSwapperAndFile( createSwapperFactory(), getFile() );
+        ByteBufferPage page = createPage();
+        page.putInt( 42, 0 );
+        swapper.write( 0, page );
+        swapper.evicted( 0, page );
+
+        overwriteFileBehindTheSwappersBack();
+        clear( page );
+        assertThat( swapper.read( 0, page ), is( (long) cachePageSize() ) );
+        assertThat( page.getInt( 0 ), is( 42 ) );
+        assertThat( tracer.compressedTierHits(), is( 1L ) );
+
+        // The page has been moved back into the cache, so the next read must come from the file.
+        assertThat( swapper.read( 0, page ), is( (long) cachePageSize() ) );
+        assertThat( page.getInt( 0 ), is( 0x01010101 ) );
+        assertThat( tracer.compressedTierMisses(), is( 1L ) );
+    }
+
+    @Test
+    public void writesMustInvalidateCompressedPages() throws Exception
+    {
+        PageSwapper swapper = createSwapperAndFile( createSwapperFactory(), getFile() );
+        ByteBufferPage page = createPage();
+        page.putInt( 1, 0 );
+        swapper.write( 0, page );
+        swapper.evicted( 0, page );
+        page.putInt( 2, 0 );
+        swapper.write( 0, page );
+
+        clear( page );
+        swapper.read( 0, page );
+        assertThat( page.getInt( 0 ), is( 2 ) );
+        assertThat( tracer.compressedTierHits(), is( 0L ) );
+    }
+
+    @Test
+    public void vectoredWritesMustInvalidateCompressedPages() throws Exception
+    {
+        PageSwapper swapper = createSwapperAndFile( createSwapperFactory(), getFile() );
+        ByteBufferPage pageA = createPage();
+        ByteBufferPage pageB = createPage();
+        pageA.putInt( 1, 0 );
+        pageB.putInt( 2, 0 );
+        swapper.write( 0, new Page[] {pageA, pageB}, 0, 2 );
+        swapper.evicted( 0, pageA );
+        swapper.evicted( 1, pageB );
+        pageB.putInt( 3, 0 );
+        swapper.write( 1, new Page[] {pageB}, 0, 1 );
+
+        clear( pageA );
+        clear( pageB );
+        swapper.read( 0, new Page[] {pageA, pageB}, 0, 2 );
+        assertThat( pageA.getInt( 0 ), is( 1 ) );
+        assertThat( pageB.getInt( 0 ), is( 3 ) );
+        assertThat( tracer.compressedTierHits(), is( 1L ) );
+        assertThat( tracer.compressedTierMisses(), is( 1L ) );
+    }
+
+    @Test
+    public void vectoredReadsMustMixPagesFromTheTierAndTheFile() throws Exception
+    {
+        PageSwapper swapper = createSwapperAndFile( createSwapperFactory(), getFile() );
+        ByteBufferPage[] pages = new ByteBufferPage[4];
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            pages[i] = createPage();
+            pages[i].putInt( i + 1, 0 );
+            swapper.write( i, pages[i] );
+        }
+        swapper.evicted( 1, pages[1] );
+        swapper.evicted( 3, pages[3] );
+
+        for ( ByteBufferPage page : pages )
+        {
+            clear( page );
+        }
+        long bytesRead = swapper.read( 0, pages, 0, pages.length );
+        assertThat( bytesRead, is( (long) cachePageSize() * pages.length ) );
+        for ( int i = 0; i < pages.length; i++ )
+        {
+            assertThat( pages[i].getInt( 0 ), is( i + 1 ) );
+        }
+        assertThat( tracer.compressedTierHits(), is( 2L ) );
+        assertThat( tracer.compressedTierMisses(), is( 2L ) );
+    }
+
+    @Test
+    public void truncateMustInvalidateCompressedPages() throws Exception
+    {
+        PageSwapper swapper = createSwapperAndFile( createSwapperFactory(), getFile() );
+        ByteBufferPage page = createPage();
+        page.putInt( 1, 0 );
+        swapper.write( 0, page );
+        swapper.evicted( 0, page );
+        swapper.truncate();
+
+        page.putInt( 1, 0 );
+        assertThat( swapper.read( 0, page ), is( 0L ) );
+        assertThat( page.getInt( 0 ), is( 0 ) );
+        assertThat( tracer.compressedTierHits(), is( 0L ) );
+    }
+
+    @Test
+    public void closingSwapperMustReleaseItsCompressedPages() throws Exception
+    {
+        CompressingPageSwapperFactory factory = (CompressingPageSwapperFactory) createSwapperFactory();
+        PageSwapper swapper = createSwapperAndFile( factory, getFile() );
+        ByteBufferPage page = createPage();
+        swapper.write( 0, page );
+        swapper.evicted( 0, page );
+        assertThat( factory.compressedMemoryUsed() > 0, is( true ) );
+
+        swapper.close();
+        assertThat( factory.compressedMemoryUsed(), is( 0L ) );
+    }
+
+    @Test
+    public void closingSwapperMustKeepTheCompressedPagesOfOtherSwappers() throws Exception
+    {
+        CompressingPageSwapperFactory factory = (CompressingPageSwapperFactory) createSwapperFactory();
+        PageSwapper swapper = createSwapperAndFile( factory, getFile() );
+        PageSwapper other = createSwapperAndFile( factory, new File( getFile().getParentFile(), "other" ) );
+        ByteBufferPage page = createPage();
+        for ( int i = 0; i < 4; i++ )
+        {
+            page.putInt( i + 1, 0 );
+            swapper.evicted( i, page );
+            other.evicted( i, page );
+        }
+
+        swapper.close();
+        clear( page );
+        assertThat( other.read( 2, page ), is( (long) cachePageSize() ) );
+        assertThat( page.getInt( 0 ), is( 3 ) );
+        assertThat( tracer.compressedTierHits(), is( 1L ) );
+
+        other.close();
+        assertThat( factory.compressedMemoryUsed(), is( 0L ) );
+    }
+
+    @Test
+    public void incompressiblePagesMustNotBeStored() throws Exception
+    {
+        CompressingPageSwapperFactory factory = (CompressingPageSwapperFactory) createSwapperFactory();
+        PageSwapper swapper = createSwapperAndFile( factory, getFile() );
+        ByteBufferPage page = createPage();
+        byte[] noise = new byte[cachePageSize()];
+        ThreadLocalRandom.current().nextBytes( noise );
+        page.putBytes( noise, 0, 0, noise.length );
+        swapper.write( 0, page );
+        swapper.evicted( 0, page );
+
+        assertThat( factory.compressedMemoryUsed(), is( 0L ) );
+    }
+
+    @Test
+    public void tierMustStayWithinItsMemoryLimit() throws Exception
+    {
+        CompressingPageSwapperFactory factory = (CompressingPageSwapperFactory) createSwapperFactory();
+        PageSwapper swapper = createSwapperAndFile( factory, getFile() );
+        ByteBufferPage page = createPage();
+        for ( int i = 0; i < 10_000; i++ )
+        {
+            page.putInt( i, 0 );
+            swapper.evicted( i, page );
+            assertThat( factory.compressedMemoryUsed(), lessThanOrEqualTo( TIER_SIZE ) );
+        }
+    }
+
+    private void overwriteFileBehindTheSwappersBack() throws IOException
+    {
+        File file = getFile();
+        byte[] bytes = new byte[cachePageSize()];
+        Arrays.fill( bytes, (byte) 1 );
+        try ( StoreChannel channel = getFs().open( file, "rw" ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( bytes ), 0 );
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.CompressingPageSwapperFactory;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Measures random page reads from a file that is several times larger than the page cache, with and without the
+ * compressed page tier below the page cache. The pages hold fixed size records in the first half of the page, like a
+ * partially filled store file, so they compress well.
+ * <p>
+ * The file lives on the real file system, but it is small enough to fit in the OS page cache, so the plain swapper
+ * only pays for the system calls and copying. Increase {@link #FILE_PAGES} beyond the size of physical memory to see
+ * the difference that the tier makes when the plain swapper has to go to the storage device.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class CompressedPageTierBenchmark
+{
+    private static final int PAGE_SIZE = 8192;
+    private static final int CACHE_PAGES = 2_000;
+    private static final int FILE_PAGES = CACHE_PAGES * 8;
+    private static final long TIER_SIZE = (long) FILE_PAGES * PAGE_SIZE / 2;
+    private static final int RECORD_SIZE = 15;
+    private static final long RUN_MILLIS = TimeUnit.SECONDS.toMillis( 10 );
+
+    @Rule
+    public final TestDirectory testDirectory = TestDirectory.testDirectory();
+
+    @Test
+    public void randomReadsFromWorkingSetLargerThanPageCache() throws Exception
+    {
+        DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+        File file = testDirectory.file( "store" );
+        SingleFilePageSwapperFactory plain = new SingleFilePageSwapperFactory();
+        plain.setFileSystemAbstraction( fs );
+        System.out.printf( "plain swapper:      %,d reads/s%n", measureReadsPerSecond( plain, file ) );
+
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        SingleFilePageSwapperFactory delegate = new SingleFilePageSwapperFactory();
+        delegate.setFileSystemAbstraction( fs );
+        PageSwapperFactory compressing = new CompressingPageSwapperFactory( delegate, TIER_SIZE, PAGE_SIZE, tracer );
+        System.out.printf( "compressing swapper: %,d reads/s (tier hits %,d, misses %,d)%n",
+                measureReadsPerSecond( compressing, file ), tracer.compressedTierHits(),
+                tracer.compressedTierMisses() );
+        fs.close();
+    }
+
+    private long measureReadsPerSecond( PageSwapperFactory swapperFactory, File file ) throws IOException
+    {
+        try ( MuninnPageCache pageCache = new MuninnPageCache(
+                swapperFactory, CACHE_PAGES, PAGE_SIZE, PageCacheTracer.NULL );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, CREATE ) )
+        {
+            fill( pagedFile );
+            // Warm up, so that pages that fall out of the page cache have had a chance to end up in the tier.
+            readRandomPages( pagedFile, TimeUnit.SECONDS.toMillis( 2 ) );
+            return readRandomPages( pagedFile, RUN_MILLIS ) * 1000 / RUN_MILLIS;
+        }
+    }
+
+    private static void fill( PagedFile pagedFile ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int pageId = 0; pageId < FILE_PAGES; pageId++ )
+            {
+                cursor.next();
+                for ( int offset = 0; offset + RECORD_SIZE <= PAGE_SIZE / 2; offset += RECORD_SIZE )
+                {
+                    cursor.putByte( offset, (byte) 1 );
+                    cursor.putInt( offset + 1, pageId );
+                    cursor.putInt( offset + 5, offset );
+                }
+            }
+        }
+        pagedFile.flushAndForce();
+    }
+
+    private static long readRandomPages( PagedFile pagedFile, long millis ) throws IOException
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        long deadline = System.currentTimeMillis() + millis;
+        long reads = 0;
+        long sum = 0;
+        while ( System.currentTimeMillis() < deadline )
+        {
+            for ( int i = 0; i < 1000; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( rng.nextInt( FILE_PAGES ), PF_SHARED_READ_LOCK ) )
+                {
+                    cursor.next();
+                    sum += cursor.getInt( 1 );
+                }
+            }
+            reads += 1000;
+        }
+        return sum == -1 ? 0 : reads;
+    }
+}
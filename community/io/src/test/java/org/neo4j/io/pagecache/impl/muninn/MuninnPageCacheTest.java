@@ -24,8 +24,11 @@ import org.junit.Test;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
 import org.neo4j.graphdb.mockfs.DelegatingStoreChannel;
@@ -33,12 +36,16 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.RecordingPageCacheTracer;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.unsafe.impl.internal.dragons.MemoryAllocator;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertFalse;
@@ -48,7 +55,10 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.io.pagecache.RecordingPageCacheTracer.Evict;
 import static org.neo4j.io.pagecache.RecordingPageCacheTracer.Fault;
 
@@ -104,6 +114,42 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         assertNotNull( tracer.observe( Evict.class ) );
     }
 
+    @Test
+    public void transientCursorsMustNotPromotePages() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        RecordingPageCacheTracer tracer = new RecordingPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 3, 8, blockCacheFlush( tracer ) );
+              PagedFile pagedFile = pageCache.map( file( "a" ), 8 ) )
+        {
+            for ( int i = 0; i < 3; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            for ( int i = 0; i < 3; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK | PF_TRANSIENT ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+
+            pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                assertTrue( cursor.next() );
+                assertThat( cursor.getCurrentPageId(), is( 0L ) );
+                assertTrue( cursor.next() );
+                assertThat( cursor.getCurrentPageId(), is( PageCursor.UNBOUND_PAGE_ID ) );
+            }
+        }
+    }
+
     private void writeInitialDataTo( File file ) throws IOException
     {
         StoreChannel channel = fs.create( file );
@@ -318,4 +364,320 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
             }
         }
     }
+
+    @Test
+    public void mustLimitEvictionStripesToKeepMinimumPagesPerStripe() throws Exception
+    {
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        try ( MuninnPageCache pageCache = new MuninnPageCache(
+                swapperFactory, 5, pageCachePageSize, PageCacheTracer.NULL, 8, PageReplacementPolicy.CLOCK ) )
+        {
+            assertThat( pageCache.evictionStripeCount(), is( 2 ) );
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void mustThrowOnNonPositiveEvictionStripeCount() throws Exception
+    {
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        new MuninnPageCache(
+                swapperFactory, maxPages, pageCachePageSize, PageCacheTracer.NULL, 0, PageReplacementPolicy.CLOCK );
+    }
+
+    @Test( timeout = SEMI_LONG_TIMEOUT_MILLIS )
+    public void concurrentPageFaultsMustEvictFromAllEvictionStripes() throws Exception
+    {
+        generateFileWithRecords( file( "a" ), recordCount, recordSize );
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        try ( MuninnPageCache pageCache = new MuninnPageCache(
+                swapperFactory, maxPages, pageCachePageSize, PageCacheTracer.NULL, 4, PageReplacementPolicy.CLOCK );
+              PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            assertThat( pageCache.evictionStripeCount(), is( 4 ) );
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0; i < 8; i++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    // Every thread reads the entire file, which is much larger than the page cache.
+                    try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+                    {
+                        while ( cursor.next() )
+                        {
+                            verifyRecordsMatchExpected( cursor );
+                        }
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+    }
+
+    @Test
+    public void pageFaultsMustReadAheadWhenSwapperFactoryAsksForIt() throws Exception
+    {
+        generateFileWithRecords( file( "a" ), recordCount, recordSize );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache(
+                vectoredSwapperFactory( 3, 0 ), maxPages, pageCachePageSize, tracer );
+
+        try ( PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+        {
+            for ( int i = 0; i < 8; i++ )
+            {
+                assertTrue( cursor.next() );
+                verifyRecordsMatchExpected( cursor );
+            }
+        }
+        // Page 0 faults and reads ahead pages 1 to 3, then page 4 faults and reads ahead pages 5 to 7.
+        assertThat( tracer.faults(), is( 2L ) );
+        assertThat( tracer.bytesRead(), is( 8L * filePageSize ) );
+    }
+
+    @Test
+    public void sequentialScanMustBeDetectedForReadAhead() throws Exception
+    {
+        generateFileWithRecords( file( "a" ), recordCount, recordSize );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache(
+                vectoredSwapperFactory( 3, 0 ), maxPages, pageCachePageSize, tracer );
+
+        try ( PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            for ( int i = 0; i < 9; i++ )
+            {
+                assertTrue( cursor.next() );
+                verifyRecordsMatchExpected( cursor );
+            }
+        }
+        // Page 0 faults without read-ahead. Page 1 is then a sequential fault, reading ahead pages 2 to 4, and then
+        // page 5 faults and reads ahead pages 6 to 8.
+        assertThat( tracer.faults(), is( 3L ) );
+    }
+
+    @Test
+    public void flushMustWriteCleanPagesInSmallGapsBetweenDirtyPages() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache(
+                vectoredSwapperFactory( 0, 2 ), maxPages, pageCachePageSize, tracer );
+
+        try ( PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i < 6; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+            pagedFile.flushAndForce();
+            long flushesBefore = tracer.flushes();
+            long bytesWrittenBefore = tracer.bytesWritten();
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( long pageId : new long[]{0, 2, 5} )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    cursor.putLong( 8, pageId );
+                }
+            }
+            pagedFile.flushAndForce();
+
+            // Page 1 bridges the gap between page 0 and 2, and pages 3 and 4 bridge the gap between pages 2 and 5.
+            assertThat( tracer.flushes() - flushesBefore, is( 1L ) );
+            assertThat( tracer.bytesWritten() - bytesWrittenBefore, is( 6L * filePageSize ) );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int i = 0; i < 6; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    long first;
+                    long second;
+                    do
+                    {
+                        first = cursor.getLong();
+                        second = cursor.getLong();
+                    }
+                    while ( cursor.shouldRetry() );
+                    assertThat( first, is( (long) i ) );
+                    assertThat( second, is( i == 0 || i == 2 || i == 5 ? (long) i : 0L ) );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void flushMustNotWriteCleanPagesAfterTheLastDirtyPage() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        MuninnPageCache pageCache = createPageCache(
+                vectoredSwapperFactory( 0, 4 ), maxPages, pageCachePageSize, tracer );
+
+        try ( PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i < 6; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+            pagedFile.flushAndForce();
+            long bytesWrittenBefore = tracer.bytesWritten();
+
+            try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 1 );
+            }
+            pagedFile.flushAndForce();
+
+            assertThat( tracer.bytesWritten() - bytesWrittenBefore, is( (long) filePageSize ) );
+        }
+    }
+
+    @Test
+    public void preTouchMustAllocateAllPageMemoryUpFront() throws Exception
+    {
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        AtomicLong allocatedBytes = new AtomicLong();
+        MemoryAllocator allocator = new MemoryAllocator()
+        {
+            @Override
+            public long slabSize()
+            {
+                return MemoryAllocator.malloc().slabSize();
+            }
+
+            @Override
+            public long allocate( long bytes )
+            {
+                allocatedBytes.addAndGet( bytes );
+                return MemoryAllocator.malloc().allocate( bytes );
+            }
+
+            @Override
+            public void free( long pointer )
+            {
+                MemoryAllocator.malloc().free( pointer );
+            }
+        };
+
+        try ( MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, maxPages, pageCachePageSize,
+                PageCacheTracer.NULL, 2, PageReplacementPolicy.CLOCK, allocator, true, 0 );
+              PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize ) )
+        {
+            long bytesAfterConstruction = allocatedBytes.get();
+            assertThat( bytesAfterConstruction >= ((long) maxPages) * pageCachePageSize, is( true ) );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i < maxPages * 2; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int i = 0; i < maxPages * 2; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    long value;
+                    do
+                    {
+                        value = cursor.getLong( 0 );
+                    }
+                    while ( cursor.shouldRetry() );
+                    assertThat( value, is( (long) i ) );
+                }
+            }
+            assertThat( allocatedBytes.get(), is( bytesAfterConstruction ) );
+        }
+    }
+
+    @Test( timeout = 30000 )
+    public void prefetchMustFaultInHintedPagesInTheBackground() throws Exception
+    {
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, maxPages, pageCachePageSize,
+                tracer, 1, PageReplacementPolicy.CLOCK, MemoryAllocator.malloc(), false, 2 ) )
+        {
+            try ( PagedFile pagedFile = pageCache.map( file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( int i = 0; i < maxPages * 2; i++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( i );
+                    }
+                }
+                long faultsBefore = tracer.faults();
+                // The first pages have long since been evicted. Page ids beyond the end of the file are ignored.
+                pagedFile.prefetch( 1 );
+                pagedFile.prefetch( maxPages * 3 );
+                while ( tracer.faults() == faultsBefore )
+                {
+                    Thread.sleep( 1 );
+                }
+
+                try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                    long value;
+                    do
+                    {
+                        value = cursor.getLong( 0 );
+                    }
+                    while ( cursor.shouldRetry() );
+                    assertThat( value, is( 1L ) );
+                }
+                assertThat( tracer.faults(), is( faultsBefore + 1 ) );
+
+                // Hints that are still queued must not keep the file mapped, when the page cache is closed.
+                for ( int i = 0; i < maxPages; i++ )
+                {
+                    pagedFile.prefetch( i );
+                }
+            }
+        }
+    }
+
+    private PageSwapperFactory vectoredSwapperFactory( int readAheadPageCount, int writeCombiningGapPageCount )
+    {
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory()
+        {
+            @Override
+            public int getReadAheadPageCount()
+            {
+                return readAheadPageCount;
+            }
+
+            @Override
+            public int getWriteCombiningGapPageCount()
+            {
+                return writeCombiningGapPageCount;
+            }
+        };
+        swapperFactory.setFileSystemAbstraction( fs );
+        return swapperFactory;
+    }
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+import org.neo4j.unsafe.impl.internal.dragons.MemoryAllocator;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Measures the throughput of {@link PageCursor#next(long)} when randomly pinning pages in a page cache that holds the
+ * entire file, with the page memory in regular operating system pages, and in transparent huge pages, each with and
+ * without pre-touching the memory. Random pins over a large cache are dominated by TLB misses, which is what huge
+ * pages are meant to reduce.
+ * <p>
+ * Set the {@code hugetlbfs.mount} system property to the directory of a hugetlbfs mount, with at least
+ * {@link #CACHE_PAGES} times {@link #PAGE_SIZE} bytes of huge pages reserved, to also measure explicit huge pages.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class PageCursorPinBenchmark
+{
+    private static final int CACHE_PAGES = 32_768; // 256 MiB of 8 KiB pages
+    private static final int PAGE_SIZE = 8192;
+    private static final long HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+    private static final long WARMUP_MILLIS = TimeUnit.SECONDS.toMillis( 5 );
+    private static final long RUN_MILLIS = TimeUnit.SECONDS.toMillis( 10 );
+
+    @Rule
+    public final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+
+    @Test
+    public void pinThroughputWithRegularAndHugePages() throws Exception
+    {
+        for ( boolean preTouch : new boolean[]{false, true} )
+        {
+            report( "regular pages", preTouch, measurePinsPerSecond( MemoryAllocator.malloc(), preTouch ) );
+            report( "transparent huge pages", preTouch,
+                    measurePinsPerSecond( MemoryAllocator.transparentHugePages( HUGE_PAGE_SIZE ), preTouch ) );
+            String mount = System.getProperty( "hugetlbfs.mount" );
+            if ( mount != null )
+            {
+                report( "hugetlbfs pages", preTouch, measurePinsPerSecond(
+                        MemoryAllocator.hugetlbfs( new File( mount ), HUGE_PAGE_SIZE ), preTouch ) );
+            }
+        }
+    }
+
+    private static void report( String mode, boolean preTouch, double pinsPerSecond )
+    {
+        System.out.printf( "%s%s: %.0f pins/s%n", mode, preTouch ? ", pre-touched" : "", pinsPerSecond );
+    }
+
+    private double measurePinsPerSecond( MemoryAllocator allocator, boolean preTouch ) throws Exception
+    {
+        FileSystemAbstraction fs = fsRule.get();
+        File file = new File( "pins" );
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+        long startTime = System.nanoTime();
+        try ( MuninnPageCache pageCache = new MuninnPageCache( swapperFactory, CACHE_PAGES, PAGE_SIZE,
+                PageCacheTracer.NULL, 1, PageReplacementPolicy.CLOCK, allocator, preTouch, 0 );
+              PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, CREATE ) )
+        {
+            // Leave a few pages free, so the pins never have to fault.
+            int filePages = CACHE_PAGES - 100;
+            fill( pagedFile, filePages );
+            System.out.printf( "startup and load in %d ms%n",
+                    TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startTime ) );
+
+            runPins( executor, pagedFile, filePages, WARMUP_MILLIS );
+            return runPins( executor, pagedFile, filePages, RUN_MILLIS ) * 1000.0 / RUN_MILLIS;
+        }
+        finally
+        {
+            executor.shutdown();
+            fs.deleteFile( file );
+        }
+    }
+
+    private static long runPins( ExecutorService executor, PagedFile pagedFile, int filePages, long millis )
+            throws Exception
+    {
+        AtomicBoolean stopped = new AtomicBoolean();
+        Future<?>[] futures = new Future<?>[THREADS];
+        for ( int i = 0; i < THREADS; i++ )
+        {
+            futures[i] = executor.submit( () -> pinRandomPages( pagedFile, filePages, stopped ) );
+        }
+        Thread.sleep( millis );
+        stopped.set( true );
+        long pins = 0;
+        for ( Future<?> future : futures )
+        {
+            pins += (Long) future.get();
+        }
+        return pins;
+    }
+
+    private static void fill( PagedFile pagedFile, int pageCount ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                cursor.next();
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    private static Long pinRandomPages( PagedFile pagedFile, int filePages, AtomicBoolean stopped )
+            throws IOException
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        long pins = 0;
+        long sum = 0;
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            while ( !stopped.get() )
+            {
+                for ( int i = 0; i < 1000; i++ )
+                {
+                    cursor.next( rng.nextInt( filePages ) );
+                    // Read at a random offset, so we touch the page memory, and not just the page meta-data.
+                    sum += cursor.getByte( rng.nextInt( PAGE_SIZE ) );
+                }
+                pins += 1000;
+            }
+        }
+        // Use the sum, so the reads cannot be optimised away.
+        return sum == Long.MIN_VALUE ? 0 : pins;
+    }
+}
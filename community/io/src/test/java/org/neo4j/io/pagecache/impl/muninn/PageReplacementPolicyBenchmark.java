@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+/**
+ * Measures the hit ratio of an OLTP-like workload, that randomly reads pages from a working set that fits in the page
+ * cache, while a concurrent analytical query repeatedly scans through a file that is much larger than the cache.
+ * The scan reads its pages a record at a time, like the record stores do, so every page is pinned several times in a
+ * short burst.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class PageReplacementPolicyBenchmark
+{
+    private static final int CACHE_PAGES = 2_000;
+    private static final int PAGE_SIZE = 8192;
+    private static final int HOT_PAGES = CACHE_PAGES / 2;
+    private static final int SCAN_PAGES = CACHE_PAGES * 10;
+    private static final int RECORDS_PER_PAGE = 8;
+    private static final int OLTP_THREADS = 4;
+    private static final long RUN_MILLIS = TimeUnit.SECONDS.toMillis( 10 );
+
+    @Rule
+    public final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+
+    @Test
+    public void hitRatioOfOltpWorkloadDuringConcurrentScan() throws Exception
+    {
+        for ( PageReplacementPolicy policy : PageReplacementPolicy.values() )
+        {
+            System.out.printf( "%s without scan: %.4f%n", policy, measureHitRatio( policy, false ) );
+            System.out.printf( "%s with scan:    %.4f%n", policy, measureHitRatio( policy, true ) );
+        }
+    }
+
+    private double measureHitRatio( PageReplacementPolicy policy, boolean concurrentScan ) throws Exception
+    {
+        FileSystemAbstraction fs = fsRule.get();
+        File hotFile = new File( "hot" );
+        File scanFile = new File( "scan" );
+        PageSwapperFactory swapperFactory = new SingleFilePageSwapperFactory();
+        swapperFactory.setFileSystemAbstraction( fs );
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try ( MuninnPageCache pageCache = new MuninnPageCache(
+                swapperFactory, CACHE_PAGES, PAGE_SIZE, PageCacheTracer.NULL, 1, policy );
+              PagedFile hot = pageCache.map( hotFile, PAGE_SIZE, CREATE );
+              PagedFile scan = pageCache.map( scanFile, PAGE_SIZE, CREATE ) )
+        {
+            fill( hot, HOT_PAGES );
+            fill( scan, SCAN_PAGES );
+
+            AtomicBoolean stopped = new AtomicBoolean();
+            LongAdder hits = new LongAdder();
+            LongAdder misses = new LongAdder();
+            Future<?> scanner = concurrentScan ? executor.submit( () -> scanUntilStopped( scan, stopped ) ) : null;
+
+            // Warm up the working set before we start measuring.
+            readRandomPages( hot, new AtomicBoolean(), HOT_PAGES * 10, new LongAdder(), new LongAdder() );
+
+            Future<?>[] readers = new Future<?>[OLTP_THREADS];
+            for ( int i = 0; i < OLTP_THREADS; i++ )
+            {
+                readers[i] = executor.submit( () -> readRandomPages( hot, stopped, Long.MAX_VALUE, hits, misses ) );
+            }
+            Thread.sleep( RUN_MILLIS );
+            stopped.set( true );
+            for ( Future<?> reader : readers )
+            {
+                reader.get();
+            }
+            if ( scanner != null )
+            {
+                scanner.get();
+            }
+            return hits.doubleValue() / (hits.sum() + misses.sum());
+        }
+        finally
+        {
+            executor.shutdown();
+            fs.deleteFile( hotFile );
+            fs.deleteFile( scanFile );
+        }
+    }
+
+    private static void fill( PagedFile pagedFile, int pageCount ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                cursor.next();
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    private static Void readRandomPages( PagedFile pagedFile, AtomicBoolean stopped, long count, LongAdder hits,
+            LongAdder misses ) throws IOException
+    {
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        for ( long i = 0; i < count && !stopped.get(); i++ )
+        {
+            long pageId = rng.nextInt( HOT_PAGES );
+            // We first look without faulting, to find out if the page is in memory.
+            try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+            {
+                cursor.next();
+                if ( cursor.getCurrentPageId() == pageId )
+                {
+                    hits.increment();
+                    continue;
+                }
+            }
+            misses.increment();
+            try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK ) )
+            {
+                cursor.next();
+            }
+        }
+        return null;
+    }
+
+    private static Void scanUntilStopped( PagedFile pagedFile, AtomicBoolean stopped ) throws IOException
+    {
+        while ( !stopped.get() )
+        {
+            for ( long pageId = 0; pageId < SCAN_PAGES && !stopped.get(); pageId++ )
+            {
+                for ( int record = 0; record < RECORDS_PER_PAGE; record++ )
+                {
+                    try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK ) )
+                    {
+                        cursor.next();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
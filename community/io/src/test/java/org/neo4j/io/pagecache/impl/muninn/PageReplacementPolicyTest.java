@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.unsafe.impl.internal.dragons.MemoryManager;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.io.pagecache.impl.muninn.PageReplacementPolicy.CLOCK;
+import static org.neo4j.io.pagecache.impl.muninn.PageReplacementPolicy.SCAN_RESISTANT;
+
+public class PageReplacementPolicyTest
+{
+    private final MuninnPage page = new MuninnPage( 8192, new MemoryManager( 8192, 1 ), new LongAdder() );
+
+    @Test
+    public void clockMustEvictPageThatWasOnlyFaultedIn() throws Exception
+    {
+        CLOCK.accessed( page, true );
+        assertTrue( CLOCK.sweep( page ) );
+    }
+
+    @Test
+    public void clockMustKeepFrequentlyAccessedPageForMoreSweeps() throws Exception
+    {
+        CLOCK.accessed( page, true );
+        CLOCK.accessed( page, false );
+        CLOCK.accessed( page, false );
+        assertFalse( CLOCK.sweep( page ) );
+        assertFalse( CLOCK.sweep( page ) );
+        assertTrue( CLOCK.sweep( page ) );
+    }
+
+    @Test
+    public void scanResistantMustEvictPageThatWasOnlyFaultedIn() throws Exception
+    {
+        SCAN_RESISTANT.accessed( page, true );
+        assertTrue( SCAN_RESISTANT.sweep( page ) );
+    }
+
+    @Test
+    public void scanResistantMustNotPromotePageAccessedManyTimesBetweenSweeps() throws Exception
+    {
+        SCAN_RESISTANT.accessed( page, true );
+        for ( int i = 0; i < 10; i++ )
+        {
+            SCAN_RESISTANT.accessed( page, false );
+        }
+        assertFalse( SCAN_RESISTANT.sweep( page ) );
+        assertTrue( SCAN_RESISTANT.sweep( page ) );
+    }
+
+    @Test
+    public void scanResistantMustPromotePageAccessedAcrossSweepAndDemoteItBeforeEviction() throws Exception
+    {
+        SCAN_RESISTANT.accessed( page, true );
+        SCAN_RESISTANT.accessed( page, false );
+        assertFalse( SCAN_RESISTANT.sweep( page ) );
+        SCAN_RESISTANT.accessed( page, false ); // Promoted to hot.
+        SCAN_RESISTANT.accessed( page, false );
+        SCAN_RESISTANT.accessed( page, false );
+        assertFalse( SCAN_RESISTANT.sweep( page ) );
+        assertFalse( SCAN_RESISTANT.sweep( page ) );
+        assertFalse( SCAN_RESISTANT.sweep( page ) ); // Demoted to cold.
+        assertTrue( SCAN_RESISTANT.sweep( page ) );
+    }
+
+    @Test
+    public void scanResistantMustPromoteDemotedPageWhenAccessedAgain() throws Exception
+    {
+        SCAN_RESISTANT.accessed( page, true );
+        SCAN_RESISTANT.accessed( page, false );
+        assertFalse( SCAN_RESISTANT.sweep( page ) );
+        SCAN_RESISTANT.accessed( page, false ); // Promoted to hot.
+        assertFalse( SCAN_RESISTANT.sweep( page ) ); // Demoted to cold.
+        SCAN_RESISTANT.accessed( page, false ); // Promoted to hot again.
+        assertFalse( SCAN_RESISTANT.sweep( page ) );
+        assertTrue( SCAN_RESISTANT.sweep( page ) );
+    }
+}
@@ -20,6 +20,7 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.Map;
 
 import org.neo4j.io.pagecache.PageSwapper;
 
@@ -92,11 +93,56 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.unmappedFile( file );
     }
 
+    public void pagesWarmedUp( File file, long pageCount )
+    {
+        delegate.pagesWarmedUp( file, pageCount );
+    }
+
+    public void compressedTierHit()
+    {
+        delegate.compressedTierHit();
+    }
+
+    public void compressedTierMiss()
+    {
+        delegate.compressedTierMiss();
+    }
+
+    public PageCursorCounters countersForFile( File file )
+    {
+        return delegate.countersForFile( file );
+    }
+
+    public PageCursorCounters countersForCurrentThread()
+    {
+        return delegate.countersForCurrentThread();
+    }
+
     public long evictionExceptions()
     {
         return delegate.evictionExceptions();
     }
 
+    public long warmedUpPages()
+    {
+        return delegate.warmedUpPages();
+    }
+
+    public long compressedTierHits()
+    {
+        return delegate.compressedTierHits();
+    }
+
+    public long compressedTierMisses()
+    {
+        return delegate.compressedTierMisses();
+    }
+
+    public Map<File,PageCursorCounters> fileCounters()
+    {
+        return delegate.fileCounters();
+    }
+
     public long filesMapped()
     {
         return delegate.filesMapped();
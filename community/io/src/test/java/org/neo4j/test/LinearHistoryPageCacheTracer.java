@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.StringReader;
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -41,6 +42,7 @@ import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.PinEvent;
 
@@ -540,6 +542,33 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         add( new UnmappedFileHEvent() ).file = file;
     }
 
+    @Override
+    public void pagesWarmedUp( File file, long pageCount )
+    {
+    }
+
+    @Override
+    public void compressedTierHit()
+    {
+    }
+
+    @Override
+    public void compressedTierMiss()
+    {
+    }
+
+    @Override
+    public PageCursorCounters countersForFile( File file )
+    {
+        return PageCursorCounters.NULL;
+    }
+
+    @Override
+    public PageCursorCounters countersForCurrentThread()
+    {
+        return PageCursorCounters.NULL;
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -624,6 +653,30 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long warmedUpPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedTierHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedTierMisses()
+    {
+        return 0;
+    }
+
+    @Override
+    public Map<File,PageCursorCounters> fileCounters()
+    {
+        return Collections.emptyMap();
+    }
+
     private class HistoryPrinter implements Consumer<HEvent>
     {
         private final List<HEvent> concurrentIntervals;
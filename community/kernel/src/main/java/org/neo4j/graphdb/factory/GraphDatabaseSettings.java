@@ -29,6 +29,7 @@ import org.neo4j.graphdb.config.Setting;
 import org.neo4j.helpers.AdvertisedSocketAddress;
 import org.neo4j.helpers.ListenSocketAddress;
 import org.neo4j.io.ByteUnit;
+import org.neo4j.io.pagecache.impl.muninn.PageReplacementPolicy;
 import org.neo4j.kernel.configuration.BoltConnectorValidator;
 import org.neo4j.kernel.configuration.ConfigurationMigrator;
 import org.neo4j.kernel.configuration.GraphDatabaseConfigurationMigrator;
@@ -229,6 +230,42 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Long> lock_acquisition_timeout = setting( "dbms.lock.acquisition.timeout", DURATION,
             String.valueOf( UNSPECIFIED_TIMEOUT ) );
 
+    public enum TransactionStateMemoryAllocation
+    {
+        ON_HEAP,
+        OFF_HEAP
+    }
+
+    @Description( "Where to keep the bulk of the state of transactions that are being built up. ON_HEAP keeps it on " +
+                  "the Java heap. OFF_HEAP keeps the ids of created and deleted nodes and relationships, the label " +
+                  "changes and the string property values in native memory instead, which relieves the garbage " +
+                  "collector of large write transactions. The native memory used by each transaction is limited " +
+                  "by `dbms.tx_state.max_off_heap_memory`." )
+    public static final Setting<TransactionStateMemoryAllocation> tx_state_memory_allocation =
+            setting( "dbms.tx_state.memory_allocation", options( TransactionStateMemoryAllocation.class ),
+                    TransactionStateMemoryAllocation.ON_HEAP.name() );
+
+    @Description( "The maximum amount of native memory, in bytes, that the state of a single transaction may use " +
+                  "when `dbms.tx_state.memory_allocation` is OFF_HEAP. Transactions that need more than this fail " +
+                  "with a Neo.ClientError.Transaction.TransactionMemoryLimit error." )
+    public static final Setting<Long> tx_state_max_off_heap_memory =
+            setting( "dbms.tx_state.max_off_heap_memory", BYTES, "2g", min( 1024 * 1024L ) );
+
+    @Description( "The maximum amount of memory, in bytes, that a single transaction may use. This covers the state of " +
+                  "the transaction, rows that queries buffer for sorting or eager evaluation, and results that are " +
+                  "waiting to be sent to Bolt clients. Heap usage is estimated. A transaction that goes over the " +
+                  "limit is terminated with a Neo.ClientError.Transaction.TransactionMemoryLimit error. " +
+                  "Zero means no limit." )
+    public static final Setting<Long> transaction_max_memory =
+            setting( "dbms.memory.transaction.max_size", BYTES, "0", min( 0L ) );
+
+    @Description( "The maximum amount of memory, in bytes, that all running transactions together may use, as " +
+                  "accounted for by `dbms.memory.transaction.max_size`. A transaction that needs more memory when " +
+                  "the limit has been reached is terminated, which protects the other transactions from running the " +
+                  "database out of memory. Zero means no limit." )
+    public static final Setting<Long> transaction_global_max_memory =
+            setting( "dbms.memory.transaction.global_max_size", BYTES, "0", min( 0L ) );
+
     @Description( "The maximum amount of time to wait for running transactions to complete before allowing "
                   + "initiated database shutdown to continue" )
     public static final Setting<Long> shutdown_transaction_end_timeout =
@@ -296,6 +333,27 @@ public class GraphDatabaseSettings implements LoadableConfig
                   "Set this to -1 to disable the IOPS limit.")
     public static final Setting<Integer> check_point_iops_limit = setting( "dbms.checkpoint.iops.limit", INTEGER, "300" );
 
+    @Description( "The number of threads that recovery uses to apply the recovered transactions to the store files. " +
+                  "Consecutive transactions that change disjoint sets of records are applied concurrently, while " +
+                  "index updates, counts and the last committed transaction id are still updated in commit order. " +
+                  "This can shorten recovery considerably when there are many transactions to recover, for instance " +
+                  "with long check-point intervals. The default of '1' applies the transactions one at a time." )
+    public static final Setting<Integer> recovery_threads = setting( "dbms.recovery.threads", INTEGER, "1", min( 1 ) );
+
+    @Description( "Continuously write dirty pages to the store files in the background, in between check points, " +
+                  "so that each check point has less data to flush. This spreads the write IO out over time, " +
+                  "instead of having it come in bursts at every check point. The background writes are paced " +
+                  "towards the next time-based check point, and are subject to `dbms.checkpoint.iops.limit`." )
+    public static final Setting<Boolean> check_point_background_flush_enabled =
+            setting( "dbms.checkpoint.background_flush.enabled", BOOLEAN, FALSE );
+
+    @Description( "The amount of time that the store flush of a check point should ideally take, when background " +
+                  "flushing is enabled. The background flushing aims to leave no more dirty pages at the time of " +
+                  "the next check point, than what the check point can flush within this duration, going by how " +
+                  "fast the previous check point flushed." )
+    public static final Setting<Long> check_point_background_flush_target_duration =
+            setting( "dbms.checkpoint.background_flush.target_duration", DURATION, "10s" );
+
     // Auto Indexing
     @Description("Controls the auto indexing feature for nodes. Setting it to `false` shuts it down, " +
             "while `true` enables it by default for properties listed in the dbms.auto_index.nodes.keys setting.")
@@ -365,6 +423,13 @@ public class GraphDatabaseSettings implements LoadableConfig
                   "`0` means that no rotation will automatically occur based on file size. " )
     public static final Setting<Long> logical_log_rotation_threshold = setting( "dbms.tx_log.rotation.size", BYTES, "250M", min( 1024*1024L /*1Mb*/ ) );
 
+    @Description( "Compress the commands of each transaction that is written to the transaction log, with LZ4. " +
+                  "This makes the transaction logs considerably smaller for most workloads, at the cost of some " +
+                  "CPU time when committing and recovering. Transaction logs written with compression enabled can " +
+                  "not be read by versions of Neo4j that do not support it." )
+    public static final Setting<Boolean> tx_log_compression =
+            setting( "dbms.tx_log.compression", BOOLEAN, FALSE );
+
     @Description("Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities.")
     @Internal
@@ -392,6 +457,92 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<String> pagecache_swapper =
             setting( "dbms.memory.pagecache.swapper", STRING, (String) null );
 
+    @Description( "The number of pages that the 'vectored' page swapper reads ahead, in a single vectored read, when " +
+                  "a page fault occurs during a sequential scan of a store file. Zero disables read-ahead." )
+    public static final Setting<Integer> pagecache_swapper_vectored_read_ahead =
+            setting( "dbms.memory.pagecache.swapper.vectored.read_ahead", INTEGER, "8", min( 0 ) );
+
+    @Description( "The number of clean pages that the 'vectored' page swapper may write along with the dirty pages " +
+                  "when flushing, in order to merge two runs of dirty pages into a single vectored write. " +
+                  "Zero means that only dirty pages are written." )
+    public static final Setting<Integer> pagecache_swapper_vectored_write_combining_gap =
+            setting( "dbms.memory.pagecache.swapper.vectored.write_combining_gap", INTEGER, "4", min( 0 ) );
+
+    @Description( "Page cache can be configured to periodically record which pages are in memory, and to load " +
+                  "those pages back into memory when the database starts, before it begins serving requests. " +
+                  "This shortens the period after a restart where the cache is cold and reads are slow." )
+    public static final Setting<Boolean> pagecache_warmup_enabled =
+            setting( "dbms.memory.pagecache.warmup.enable", BOOLEAN, FALSE );
+
+    @Description( "The interval at which the page cache warmup records which pages are currently in memory." )
+    public static final Setting<Long> pagecache_warmup_profiling_interval =
+            setting( "dbms.memory.pagecache.warmup.profile.interval", DURATION, "1m" );
+
+    @Description( "The number of threads used for loading pages back into memory during page cache warmup." )
+    public static final Setting<Integer> pagecache_warmup_parallelism =
+            setting( "dbms.memory.pagecache.warmup.parallelism", INTEGER, "4", min( 1 ) );
+
+    @Description( "The number of eviction stripes that the page cache memory is divided into. Each stripe has its " +
+                  "own list of free pages and its own background eviction thread, and page faulting threads prefer " +
+                  "to take free pages from one particular stripe. More stripes can help page cache throughput on " +
+                  "machines with many cores and a high page fault rate." )
+    @Internal
+    public static final Setting<Integer> pagecache_eviction_stripes =
+            setting( "unsupported.dbms.memory.pagecache.eviction_stripes", INTEGER, "1", min( 1 ) );
+
+    @Description( "The policy that the page cache uses for deciding which pages to evict. CLOCK treats all page " +
+                  "accesses the same, while SCAN_RESISTANT protects frequently accessed pages from being pushed out " +
+                  "of the cache by large scans that only touch each page once." )
+    @Internal
+    public static final Setting<PageReplacementPolicy> pagecache_replacement_policy =
+            setting( "unsupported.dbms.memory.pagecache.replacement_policy", options( PageReplacementPolicy.class ),
+                    PageReplacementPolicy.CLOCK.name() );
+
+    public enum HugePages
+    {
+        OFF,
+        TRANSPARENT,
+        HUGETLBFS
+    }
+
+    @Description( "Back the page cache memory with huge pages, which reduces the TLB pressure of random page cache " +
+                  "accesses over large caches. OFF uses regular operating system pages. TRANSPARENT allocates the " +
+                  "memory in large slabs that are aligned to the huge page size, and relies on transparent huge " +
+                  "pages being enabled system-wide by the operating system. HUGETLBFS maps the memory from files in " +
+                  "the mounted hugetlbfs file system given by `dbms.memory.pagecache.huge_pages.mount`, which must " +
+                  "have enough huge pages reserved to hold the entire page cache." )
+    public static final Setting<HugePages> pagecache_huge_pages =
+            setting( "dbms.memory.pagecache.huge_pages", options( HugePages.class ), HugePages.OFF.name() );
+
+    @Description( "The size of the huge pages used for backing the page cache memory, when huge pages are enabled." )
+    public static final Setting<Long> pagecache_huge_page_size =
+            setting( "dbms.memory.pagecache.huge_pages.size", BYTES, "2m", min( 4096L ) );
+
+    @Description( "The directory where a hugetlbfs file system is mounted, for backing the page cache memory with " +
+                  "huge pages when `dbms.memory.pagecache.huge_pages` is HUGETLBFS." )
+    public static final Setting<File> pagecache_huge_pages_mount =
+            setting( "dbms.memory.pagecache.huge_pages.mount", PATH, "/dev/hugepages" );
+
+    @Description( "Allocate all of the page cache memory when the database starts, and touch it in parallel, so the " +
+                  "operating system maps it in up front instead of when each page is first used. This makes startup " +
+                  "slower, but avoids latency spikes while the page cache is filling up." )
+    public static final Setting<Boolean> pagecache_pretouch =
+            setting( "dbms.memory.pagecache.pretouch", BOOLEAN, FALSE );
+
+    @Description( "The number of background threads that fault in the pages that traversals expect to need next, such " +
+                  "as the pages of the next relationships in a relationship chain. This hides storage latency when " +
+                  "the store does not fit in the page cache, particularly on devices that handle many concurrent " +
+                  "reads well, such as NVMe drives and network block devices. Zero disables prefetching." )
+    public static final Setting<Integer> pagecache_prefetch_threads =
+            setting( "dbms.memory.pagecache.prefetch_threads", INTEGER, "0", min( 0 ) );
+
+    @Description( "The amount of off-heap memory, in bytes, to use for a second page cache tier that keeps pages " +
+                  "evicted from the page cache in compressed form. Page faults for pages in this tier decompress " +
+                  "them instead of reading them from the store files. This helps when the store is larger than the " +
+                  "page cache, its pages compress well, and the storage device is slow. Zero disables the tier." )
+    public static final Setting<Long> pagecache_compressed_tier_size =
+            setting( "dbms.memory.pagecache.compressed_tier.size", BYTES, "0", min( 0L ) );
+
     /**
      * Block size properties values depends from selected record format.
      * We can't figured out record format until it will be selected by corresponding edition.
@@ -467,6 +618,12 @@ public class GraphDatabaseSettings implements LoadableConfig
                  "provided query logging is enabled. Defaults to 0 seconds, that is all queries are logged.")
     public static final Setting<Long> log_queries_threshold = setting("dbms.logs.query.threshold", DURATION, "0s");
 
+    @Description( "If the commit of a transaction takes more time than this threshold, the time it spent in each " +
+                  "phase of the commit is logged - provided query logging is enabled. Defaults to 0 seconds, which " +
+                  "disables the logging of slow commits." )
+    public static final Setting<Long> log_queries_commit_threshold =
+            setting( "dbms.logs.query.commit_threshold", DURATION, "0s" );
+
     @Description( "The file size in bytes at which the query log will auto-rotate. If set to zero then no rotation " +
             "will occur. Accepts a binary suffix `k`, `m` or `g`." )
     public static final Setting<Long> log_queries_rotation_threshold = setting("dbms.logs.query.rotation.size",
@@ -26,6 +26,7 @@ import org.neo4j.kernel.impl.transaction.log.PhysicalLogFiles;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointer;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
+import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
 import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
 import org.neo4j.kernel.impl.util.Dependencies;
 import org.neo4j.kernel.impl.util.SynchronizedArrayIdOrderingQueue;
@@ -38,12 +39,13 @@ class NeoStoreTransactionLogModule
     private final LogFile logFile;
     private final LogRotation logRotation;
     private final CheckPointerImpl checkPointer;
+    private final LogPruning logPruning;
     private final TransactionAppender appender;
     private final SynchronizedArrayIdOrderingQueue legacyIndexTransactionOrdering;
 
     NeoStoreTransactionLogModule( LogicalTransactionStore logicalTransactionStore,
             LogFileInformation logFileInformation, PhysicalLogFiles logFiles, LogFile logFile, LogRotation logRotation,
-            CheckPointerImpl checkPointer, TransactionAppender appender,
+            CheckPointerImpl checkPointer, LogPruning logPruning, TransactionAppender appender,
             SynchronizedArrayIdOrderingQueue legacyIndexTransactionOrdering )
     {
         this.logicalTransactionStore = logicalTransactionStore;
@@ -52,6 +54,7 @@ class NeoStoreTransactionLogModule
         this.logFile = logFile;
         this.logRotation = logRotation;
         this.checkPointer = checkPointer;
+        this.logPruning = logPruning;
         this.appender = appender;
         this.legacyIndexTransactionOrdering = legacyIndexTransactionOrdering;
     }
@@ -79,6 +82,7 @@ class NeoStoreTransactionLogModule
     public void satisfyDependencies( Dependencies dependencies )
     {
         dependencies.satisfyDependencies( checkPointer,
+                                          logPruning,
                                           logFile,
                                           logFileInformation,
                                           logFiles,
@@ -90,6 +90,40 @@ public interface DataWriteOperations
 
     Property graphRemoveProperty( int propertyKeyId );
 
+    //===========================================
+    //== BATCH DATA OPERATIONS ==================
+    //===========================================
+
+    /**
+     * Creates a relationship of the given type from each of the start nodes to the end node at the same index,
+     * with the same effect as calling {@link #relationshipCreate(int, long, long)} for each pair of nodes. The locks
+     * of all the nodes are taken at once, in order, and the checks that do not depend on the individual nodes are
+     * only done once for the whole batch.
+     *
+     * @return the ids of the created relationships, in the order of the given pairs of nodes.
+     * @throws IllegalArgumentException if there are not as many end nodes as start nodes.
+     */
+    long[] relationshipsCreate( int relationshipTypeId, long[] startNodeIds, long[] endNodeIds )
+            throws RelationshipTypeIdNotFoundKernelException, EntityNotFoundException;
+
+    /**
+     * Labels each of the given nodes, with the same effect as calling {@link #nodeAddLabel(long, int)} for each
+     * node, but taking the locks of all the nodes at once, in order, and looking up the constraints of the label
+     * only once.
+     *
+     * @return the number of nodes that did not already have the label.
+     */
+    int nodesAddLabel( long[] nodeIds, int labelId )
+            throws EntityNotFoundException, ConstraintValidationKernelException;
+
+    /**
+     * Sets the property on each of the given nodes, with the same effect as calling
+     * {@link #nodeSetProperty(long, DefinedProperty)} for each node, but taking the locks of all the nodes at once,
+     * in order, and looking up the constraints of the property only once.
+     */
+    void nodesSetProperty( long[] nodeIds, DefinedProperty property )
+            throws EntityNotFoundException, ConstraintValidationKernelException, AutoIndexingKernelException, InvalidTransactionTypeKernelException;
+
     /**
      * Creates a legacy index in a separate transaction if not yet available.
      */
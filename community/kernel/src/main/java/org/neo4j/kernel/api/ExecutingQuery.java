@@ -28,6 +28,7 @@ import java.util.function.LongSupplier;
 
 import org.apache.commons.lang3.builder.ToStringBuilder;
 
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.kernel.impl.locking.ActiveLock;
 import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.locking.LockWaitEvent;
@@ -109,9 +110,13 @@ public class ExecutingQuery
     private long planningDone;
     private final Thread threadExecutingTheQuery;
     private final LongSupplier activeLockCount;
+    private final LongSupplier allocatedBytes;
     private final SystemNanoClock clock;
     private final CpuClock cpuClock;
     private final long cpuTimeNanosWhenQueryStarted;
+    private final PageCursorCounters pageCursorCounters;
+    private final long pageHitsWhenQueryStarted;
+    private final long pageFaultsWhenQueryStarted;
     private final Map<String,Object> metaData;
     /** Uses write barrier of {@link #status}. */
     private PlannerInfo plannerInfo;
@@ -128,9 +133,11 @@ public class ExecutingQuery
             Map<String,Object> queryParameters,
             Map<String,Object> metaData,
             LongSupplier activeLockCount,
+            LongSupplier allocatedBytes,
             Thread threadExecutingTheQuery,
             SystemNanoClock clock,
-            CpuClock cpuClock )
+            CpuClock cpuClock,
+            PageCursorCounters pageCursorCounters )
     {
         this.queryId = queryId;
         this.clientConnection = clientConnection;
@@ -138,12 +145,16 @@ public class ExecutingQuery
         this.queryText = queryText;
         this.queryParameters = queryParameters;
         this.activeLockCount = activeLockCount;
+        this.allocatedBytes = allocatedBytes;
         this.clock = clock;
         this.startTime = clock.millis();
         this.metaData = metaData;
         this.threadExecutingTheQuery = threadExecutingTheQuery;
         this.cpuClock = cpuClock;
         this.cpuTimeNanosWhenQueryStarted = cpuClock.cpuTimeNanos( threadExecutingTheQuery );
+        this.pageCursorCounters = pageCursorCounters;
+        this.pageHitsWhenQueryStarted = pageCursorCounters.hits();
+        this.pageFaultsWhenQueryStarted = pageCursorCounters.faults();
     }
 
     public void planningCompleted( PlannerInfo plannerInfo )
@@ -243,6 +254,22 @@ public class ExecutingQuery
         return NANOSECONDS.toMillis( waitTimeNanos + status.waitTimeNanos( clock ) );
     }
 
+    /**
+     * @return the number of page cache pins made by the query, that found their page in memory.
+     */
+    public long pageHits()
+    {
+        return pageCursorCounters.hits() - pageHitsWhenQueryStarted;
+    }
+
+    /**
+     * @return the number of page cache pins made by the query, that had to fault their page into memory.
+     */
+    public long pageFaults()
+    {
+        return pageCursorCounters.faults() - pageFaultsWhenQueryStarted;
+    }
+
     @Override
     public String toString()
     {
@@ -264,6 +291,14 @@ public class ExecutingQuery
         return activeLockCount.getAsLong();
     }
 
+    /**
+     * @return the number of bytes of memory that the transaction which executes this query currently uses.
+     */
+    public long allocatedBytes()
+    {
+        return allocatedBytes.getAsLong();
+    }
+
     public Map<String,Object> status()
     {
         return status.toMap( clock );
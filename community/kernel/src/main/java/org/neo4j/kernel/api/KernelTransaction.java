@@ -25,6 +25,7 @@ import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.api.security.SecurityContext;
 import org.neo4j.kernel.impl.api.Kernel;
+import org.neo4j.memory.MemoryAllocationTracker;
 
 /**
  * Represents a transaction of changes to the underlying graph.
@@ -214,6 +215,15 @@ public interface KernelTransaction extends AutoCloseable
      */
     long getCommitTime();
 
+    /**
+     * Memory that is held on to on behalf of this transaction, such as rows buffered by a query or results waiting to
+     * be sent to a client, should be accounted to this tracker. Allocations that take the transaction over its memory
+     * limit terminate the transaction.
+     *
+     * @return the tracker of the memory used by this transaction.
+     */
+    MemoryAllocationTracker memoryTracker();
+
     Revertable overrideWith( SecurityContext context );
 
     @FunctionalInterface
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.exceptions;
+
+/**
+ * Thrown when a transaction tries to use more memory than it is allowed to. This is a runtime exception, since it
+ * can happen as part of any operation that adds to the state of a transaction.
+ */
+public class MemoryLimitExceededException extends RuntimeException implements Status.HasStatus
+{
+    public MemoryLimitExceededException( long allocation, long limit, long used )
+    {
+        this( "The allocation of " + allocation + " bytes would use more than the limit of " + limit +
+              " bytes, since " + used + " bytes are already in use." );
+    }
+
+    public MemoryLimitExceededException( String message )
+    {
+        super( message );
+    }
+
+    @Override
+    public Status status()
+    {
+        return Status.Transaction.TransactionMemoryLimit;
+    }
+}
@@ -96,8 +96,8 @@ public abstract class DefinedProperty extends Property
             DefinedProperty that = (DefinedProperty) o;
             if ( this.propertyKeyId == that.propertyKeyId )
             {
-                if ( o instanceof LazyProperty )
-                { // the cost of boxing is small compared to what LazyProperty does
+                if ( o instanceof LazyProperty || o instanceof OffHeapStringProperty )
+                { // the cost of boxing is small compared to what LazyProperty and OffHeapStringProperty do
                     return that.valueEquals( value() );
                 }
                 else
@@ -117,7 +117,10 @@ public abstract class DefinedProperty extends Property
 
     abstract int valueHash();
 
-    /** We never pass {@link LazyProperty} to this method, since we check for it in {@link #equals(Object)}. */
+    /**
+     * We never pass {@link LazyProperty} or {@link OffHeapStringProperty} to this method, since we check for them in
+     * {@link #equals(Object)}.
+     */
     abstract boolean hasEqualValue( DefinedProperty that );
 
     @Override
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.properties;
+
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A string property whose characters are kept in native memory, which is owned by someone else. The string is decoded
+ * every time the value is asked for, so that it is never retained on the heap.
+ */
+final class OffHeapStringProperty extends DefinedProperty implements DefinedProperty.WithStringValue
+{
+    private static final long CHAR_ARRAY_OFFSET = UnsafeUtil.arrayBaseOffset( char[].class );
+
+    private final long address;
+    private final int length;
+
+    OffHeapStringProperty( int propertyKeyId, long address, int length )
+    {
+        super( propertyKeyId );
+        this.address = address;
+        this.length = length;
+    }
+
+    @Override
+    public boolean valueEquals( Object other )
+    {
+        return StringProperty.valueEquals( value(), other );
+    }
+
+    @Override
+    public String value()
+    {
+        char[] chars = new char[length];
+        UnsafeUtil.copyMemory( null, address, chars, CHAR_ARRAY_OFFSET, (long) length * Character.BYTES );
+        return new String( chars );
+    }
+
+    @Override
+    int valueHash()
+    {
+        return value().hashCode();
+    }
+
+    @Override
+    boolean hasEqualValue( DefinedProperty that )
+    {
+        return that.valueEquals( value() );
+    }
+
+    @Override
+    public String stringValue()
+    {
+        return value();
+    }
+}
@@ -27,6 +27,9 @@ import org.neo4j.storageengine.api.StorageProperty;
 
 public abstract class Property implements StorageProperty
 {
+    // The property object, and a boxed value or the header of an array or string
+    private static final long ESTIMATED_PROPERTY_OVERHEAD = 48;
+
     public static Property noNodeProperty( long nodeId, int propertyKeyId )
     {
         return noProperty( propertyKeyId, EntityType.NODE, nodeId );
@@ -93,6 +96,15 @@ public abstract class Property implements StorageProperty
         return new StringProperty( propertyKeyId, value );
     }
 
+    /**
+     * @return a string property whose {@code length} characters are kept at the given native memory address, which
+     * must stay allocated for as long as the property is in use.
+     */
+    public static DefinedProperty offHeapStringProperty( int propertyKeyId, long address, int length )
+    {
+        return new OffHeapStringProperty( propertyKeyId, address, length );
+    }
+
     public static DefinedProperty lazyStringProperty( int propertyKeyId, Callable<String> producer )
     {
         return new LazyStringProperty( propertyKeyId, producer );
@@ -217,4 +229,29 @@ public abstract class Property implements StorageProperty
     {
         return new ShortArrayProperty( propertyKeyId, value );
     }
+
+    /**
+     * @return a rough estimate of the number of bytes of heap that the given property holds on to. Values that are
+     * kept outside of the heap are not counted.
+     */
+    public static long estimatedHeapSize( DefinedProperty property )
+    {
+        long size = ESTIMATED_PROPERTY_OVERHEAD;
+        if ( property instanceof StringProperty )
+        {
+            size += (long) ((StringProperty) property).stringValue().length() * Character.BYTES;
+        }
+        else if ( property instanceof ArrayValue )
+        {
+            size += (long) ((ArrayValue) property).length() * Long.BYTES;
+        }
+        else if ( property instanceof StringArrayProperty )
+        {
+            for ( String value : ((StringArrayProperty) property).value )
+            {
+                size += ESTIMATED_PROPERTY_OVERHEAD + (long) value.length() * Character.BYTES;
+            }
+        }
+        return size;
+    }
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps track of the oldest epoch that transactions may still be active in, so that telling whether all transactions
+ * active at some point in time have closed takes constant time, no matter how many transactions there are.
+ * <p>
+ * Transactions join the current epoch in {@link #begin()} and leave it in {@link #end(long)}. Each epoch counts its
+ * active transactions in a {@link LongAdder}, which is striped over the processors, so that transactions beginning
+ * and ending on different processors do not contend with each other. A new epoch is started by {@link #newEpoch()},
+ * whenever something needs to know when the transactions active right now have closed. The low watermark, the oldest
+ * epoch with active transactions, is moved forward past epochs whose transactions have all ended when it is asked
+ * for, which costs time in proportion to the number of epochs passed, but not to the number of transactions.
+ * <p>
+ * The epochs share a fixed number of counters. A new epoch is only started when the counter it would get has been
+ * passed by the low watermark, otherwise the current epoch is kept, making the answer conservative rather than wrong.
+ */
+public class ActiveTransactionTracker
+{
+    private static final int EPOCHS = 64;
+    private static final int EPOCH_MASK = EPOCHS - 1;
+
+    private final LongAdder[] activeTransactions = new LongAdder[EPOCHS];
+    private volatile long currentEpoch;
+    // Guarded by this
+    private long oldestActiveEpoch;
+
+    public ActiveTransactionTracker()
+    {
+        for ( int i = 0; i < EPOCHS; i++ )
+        {
+            activeTransactions[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return the epoch that a transaction beginning now is active in, to be handed to {@link #end(long)} when
+     * the transaction is done.
+     */
+    public long begin()
+    {
+        while ( true )
+        {
+            long epoch = currentEpoch;
+            LongAdder active = activeTransactions[(int) (epoch & EPOCH_MASK)];
+            active.increment();
+            // Re-check, since the low watermark may have been moved past this epoch before it was joined
+            if ( currentEpoch == epoch )
+            {
+                return epoch;
+            }
+            active.decrement();
+        }
+    }
+
+    /**
+     * Marks a transaction as done, given the epoch that {@link #begin()} returned for it. Must be called exactly once
+     * for every call to {@link #begin()}.
+     */
+    public void end( long epoch )
+    {
+        activeTransactions[(int) (epoch & EPOCH_MASK)].decrement();
+    }
+
+    /**
+     * Starts a new epoch, unless there are active transactions in the epoch that would have to share counter with
+     * the new one.
+     *
+     * @return the epoch that all transactions active right now are active in, or older.
+     */
+    public synchronized long newEpoch()
+    {
+        long epoch = currentEpoch;
+        if ( epoch + 1 - advanceOldestActiveEpoch() < EPOCHS )
+        {
+            currentEpoch = epoch + 1;
+        }
+        return epoch;
+    }
+
+    /**
+     * @return the oldest epoch that transactions may still be active in. All transactions that were active in older
+     * epochs have ended.
+     */
+    public synchronized long oldestActiveEpoch()
+    {
+        return advanceOldestActiveEpoch();
+    }
+
+    private long advanceOldestActiveEpoch()
+    {
+        long epoch = currentEpoch;
+        while ( oldestActiveEpoch < epoch && activeTransactions[(int) (oldestActiveEpoch & EPOCH_MASK)].sum() == 0 )
+        {
+            oldestActiveEpoch++;
+        }
+        return oldestActiveEpoch;
+    }
+}
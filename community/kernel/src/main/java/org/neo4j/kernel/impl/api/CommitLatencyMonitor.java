@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.neo4j.kernel.impl.util.LatencyHistogram;
+
+/**
+ * Breaks the latency of committing transactions down into the {@link CommitPhase phases} of the commit. Only commits
+ * that write to the transaction log are counted.
+ */
+public interface CommitLatencyMonitor
+{
+    /**
+     * @return the histogram of the time that commits have spent in the given phase.
+     */
+    LatencyHistogram latencies( CommitPhase phase );
+
+    /**
+     * Have the given listener notified of every commit that takes at least the given time.
+     */
+    void addSlowCommitListener( long thresholdNanos, SlowCommitListener listener );
+
+    void removeSlowCommitListener( SlowCommitListener listener );
+
+    interface SlowCommitListener
+    {
+        /**
+         * Called by the committing thread, when the commit has completed.
+         *
+         * @param phaseNanos the time in nanoseconds that the commit spent in each phase, indexed by
+         * {@link CommitPhase#ordinal()}. The array is reused by the next commit on the same thread, so it must be
+         * copied to be kept beyond this call.
+         */
+        void slowCommit( long[] phaseNanos );
+    }
+
+    CommitLatencyMonitor NULL = new CommitLatencyMonitor()
+    {
+        private final LatencyHistogram empty = new LatencyHistogram();
+
+        @Override
+        public LatencyHistogram latencies( CommitPhase phase )
+        {
+            return empty;
+        }
+
+        @Override
+        public void addSlowCommitListener( long thresholdNanos, SlowCommitListener listener )
+        {
+        }
+
+        @Override
+        public void removeSlowCommitListener( SlowCommitListener listener )
+        {
+        }
+    };
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+/**
+ * The phases of committing a transaction, that {@link CommitLatencyMonitor} breaks the commit latency down into.
+ */
+public enum CommitPhase
+{
+    /**
+     * Acquiring the locks that have been deferred until commit.
+     */
+    LOCKS( "locks" ),
+    /**
+     * Converting the transaction state into commands.
+     */
+    COMMANDS( "commands" ),
+    /**
+     * Serializing the commands, and writing them to the transaction log.
+     */
+    LOG_WRITE( "log_write" ),
+    /**
+     * Waiting for the transaction log to be forced to disk, either by this transaction or by another one.
+     */
+    LOG_FORCE( "log_force" ),
+    /**
+     * Applying the commands to the stores, excluding the time spent in {@link #INDEX_UPDATES}.
+     */
+    STORE_APPLY( "store_apply" ),
+    /**
+     * Applying the updates to the label scan store and the schema indexes.
+     */
+    INDEX_UPDATES( "index_updates" ),
+    /**
+     * The whole commit, including the time in between the other phases.
+     */
+    TOTAL( "total" );
+
+    private final String metricName;
+
+    CommitPhase( String metricName )
+    {
+        this.metricName = metricName;
+    }
+
+    /**
+     * @return the name of this phase, as used in metrics and in the log.
+     */
+    public String metricName()
+    {
+        return metricName;
+    }
+}
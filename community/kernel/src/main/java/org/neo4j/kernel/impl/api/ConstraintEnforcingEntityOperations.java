@@ -20,14 +20,17 @@
 package org.neo4j.kernel.impl.api;
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.cursor.Cursor;
 import org.neo4j.helpers.Strings;
 import org.neo4j.helpers.collection.CastingIterator;
+import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.kernel.api.constraints.NodePropertyConstraint;
 import org.neo4j.kernel.api.constraints.NodePropertyExistenceConstraint;
+import org.neo4j.kernel.api.constraints.PropertyConstraint;
 import org.neo4j.kernel.api.constraints.RelationshipPropertyConstraint;
 import org.neo4j.kernel.api.constraints.RelationshipPropertyExistenceConstraint;
 import org.neo4j.kernel.api.constraints.UniquenessConstraint;
@@ -66,6 +69,7 @@ import org.neo4j.storageengine.api.RelationshipItem;
 
 import static org.neo4j.kernel.api.StatementConstants.NO_SUCH_NODE;
 import static org.neo4j.kernel.impl.locking.ResourceTypes.INDEX_ENTRY;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.LABEL;
 import static org.neo4j.kernel.impl.locking.ResourceTypes.indexEntryResourceId;
 
 public class ConstraintEnforcingEntityOperations implements EntityOperations, SchemaWriteOperations
@@ -139,6 +143,74 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations, Sc
         return entityWriteOperations.nodeSetProperty( state, nodeId, property );
     }
 
+    @Override
+    public int nodesAddLabel( KernelStatement state, long[] nodeIds, int labelId )
+            throws ConstraintValidationKernelException, EntityNotFoundException
+    {
+        Iterator<UniquenessConstraint> constraints =
+                uniquePropertyConstraints( schemaReadOperations.constraintsGetForLabel( state, labelId ) );
+        if ( !constraints.hasNext() )
+        {
+            return entityWriteOperations.nodesAddLabel( state, nodeIds, labelId );
+        }
+
+        // Each node must be validated against what the nodes before it in the batch have written,
+        // so validate and write one node at a time, reusing the constraints looked up above
+        List<UniquenessConstraint> labelConstraints = Iterators.asList( constraints );
+        int added = 0;
+        for ( long nodeId : nodeIds )
+        {
+            try ( Cursor<NodeItem> cursor = nodeCursorById( state, nodeId ) )
+            {
+                NodeItem node = cursor.get();
+                for ( UniquenessConstraint constraint : labelConstraints )
+                {
+                    Object propertyValue = node.getProperty( constraint.descriptor().getPropertyKeyId() );
+                    if ( propertyValue != null )
+                    {
+                        validateNoExistingNodeWithLabelAndProperty( state, constraint, propertyValue, node.id() );
+                    }
+                }
+            }
+            if ( entityWriteOperations.nodeAddLabel( state, nodeId, labelId ) )
+            {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public void nodesSetProperty( KernelStatement state, long[] nodeIds, DefinedProperty property )
+            throws ConstraintValidationKernelException, EntityNotFoundException, AutoIndexingKernelException, InvalidTransactionTypeKernelException
+    {
+        if ( !hasUniquePropertyConstraint( state, property.propertyKeyId() ) )
+        {
+            entityWriteOperations.nodesSetProperty( state, nodeIds, property );
+            return;
+        }
+
+        for ( long nodeId : nodeIds )
+        {
+            nodeSetProperty( state, nodeId, property );
+        }
+    }
+
+    private boolean hasUniquePropertyConstraint( KernelStatement state, int propertyKeyId )
+    {
+        Iterator<PropertyConstraint> constraints = schemaReadOperations.constraintsGetAll( state );
+        while ( constraints.hasNext() )
+        {
+            PropertyConstraint constraint = constraints.next();
+            if ( constraint instanceof UniquenessConstraint &&
+                 ((UniquenessConstraint) constraint).descriptor().getPropertyKeyId() == propertyKeyId )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void validateNoExistingNodeWithLabelAndProperty( KernelStatement state,  UniquenessConstraint constraint,
             Object value, long modifiedNode ) throws ConstraintValidationKernelException
     {
@@ -147,9 +219,9 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations, Sc
             // TODO: Support composite constraints
             IndexDescriptor index = constraint.indexDescriptor();
             assertIndexOnline( state, IndexBoundary.map( index ) );
-            state.locks().optimistic().acquireExclusive( state.lockTracer(), INDEX_ENTRY,
-                    indexEntryResourceId( index.getLabelId(), index.getPropertyKeyId(), Strings.prettyPrint( value
-                    ) ) );
+            state.locks().optimistic().acquireExclusiveWithin( state.lockTracer(), LABEL, index.getLabelId(),
+                    INDEX_ENTRY, indexEntryResourceId( index.getLabelId(), index.getPropertyKeyId(),
+                            Strings.prettyPrint( value ) ) );
 
             long existing = entityReadOperations.nodeGetFromUniqueIndexSeek( state, IndexBoundary.map( index ), value );
             if ( existing != NO_SUCH_NODE && existing != modifiedNode )
@@ -208,6 +280,16 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations, Sc
         return entityWriteOperations.relationshipCreate( statement, relationshipTypeId, startNodeId, endNodeId );
     }
 
+    @Override
+    public long[] relationshipsCreate( KernelStatement statement,
+            int relationshipTypeId,
+            long[] startNodeIds,
+            long[] endNodeIds )
+            throws EntityNotFoundException
+    {
+        return entityWriteOperations.relationshipsCreate( statement, relationshipTypeId, startNodeIds, endNodeIds );
+    }
+
     @Override
     public void relationshipDelete( KernelStatement state, long relationshipId )
             throws EntityNotFoundException, AutoIndexingKernelException, InvalidTransactionTypeKernelException
@@ -331,20 +413,22 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations, Sc
         LockTracer lockTracer = state.lockTracer();
         long indexEntryId = indexEntryResourceId( labelId, propertyKeyId, stringVal );
 
-        locks.acquireShared( lockTracer, INDEX_ENTRY, indexEntryId );
+        // Index entries are locked within their label, such that a transaction holding the label exclusively
+        // covers all of them.
+        locks.acquireSharedWithin( lockTracer, LABEL, labelId, INDEX_ENTRY, indexEntryId );
 
         long nodeId = entityReadOperations.nodeGetFromUniqueIndexSeek( state, index, value );
         if ( NO_SUCH_NODE == nodeId )
         {
-            locks.releaseShared( INDEX_ENTRY, indexEntryId );
-            locks.acquireExclusive( lockTracer, INDEX_ENTRY, indexEntryId );
+            locks.releaseSharedWithin( LABEL, labelId, INDEX_ENTRY, indexEntryId );
+            locks.acquireExclusiveWithin( lockTracer, LABEL, labelId, INDEX_ENTRY, indexEntryId );
 
             nodeId = entityReadOperations.nodeGetFromUniqueIndexSeek( state, index, value );
             if ( NO_SUCH_NODE != nodeId ) // we found it under the exclusive lock
             {
                 // downgrade to a shared lock
-                locks.acquireShared( lockTracer, INDEX_ENTRY, indexEntryId );
-                locks.releaseExclusive( INDEX_ENTRY, indexEntryId );
+                locks.acquireSharedWithin( lockTracer, LABEL, labelId, INDEX_ENTRY, indexEntryId );
+                locks.releaseExclusiveWithin( LABEL, labelId, INDEX_ENTRY, indexEntryId );
             }
         }
         return nodeId;
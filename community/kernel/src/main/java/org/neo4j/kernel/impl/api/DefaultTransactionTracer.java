@@ -19,10 +19,15 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CreateCommandsEvent;
+import org.neo4j.kernel.impl.transaction.tracing.IndexUpdatesEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
@@ -32,16 +37,27 @@ import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
 import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.LatencyHistogram;
 import org.neo4j.time.Clocks;
 import org.neo4j.time.SystemNanoClock;
 
-public class DefaultTransactionTracer implements TransactionTracer, LogRotationMonitor
+import static org.neo4j.kernel.impl.api.CommitPhase.COMMANDS;
+import static org.neo4j.kernel.impl.api.CommitPhase.INDEX_UPDATES;
+import static org.neo4j.kernel.impl.api.CommitPhase.LOCKS;
+import static org.neo4j.kernel.impl.api.CommitPhase.LOG_FORCE;
+import static org.neo4j.kernel.impl.api.CommitPhase.LOG_WRITE;
+import static org.neo4j.kernel.impl.api.CommitPhase.STORE_APPLY;
+import static org.neo4j.kernel.impl.api.CommitPhase.TOTAL;
+
+public class DefaultTransactionTracer implements TransactionTracer, LogRotationMonitor, CommitLatencyMonitor
 {
     public interface Monitor
     {
         void lastLogRotationEventDuration( long millis );
     }
 
+    private static final CommitPhase[] PHASES = CommitPhase.values();
+
     private final SystemNanoClock clock;
     private final Monitor monitor;
     private final JobScheduler jobScheduler;
@@ -51,6 +67,11 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
 
     private long startTimeNanos;
 
+    private final LatencyHistogram[] phaseLatencies = new LatencyHistogram[PHASES.length];
+    private final CopyOnWriteArrayList<SlowCommitListenerEntry> slowCommitListeners = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<CommitTrace> commitTraces = ThreadLocal.withInitial( CommitTrace::new );
+    private volatile long slowCommitThresholdNanos = Long.MAX_VALUE;
+
     private final LogRotateEvent logRotateEvent = new LogRotateEvent()
     {
         @Override
@@ -60,65 +81,6 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         }
     };
 
-    private final LogAppendEvent logAppendEvent = new LogAppendEvent()
-    {
-        @Override
-        public void close()
-        {
-        }
-
-        @Override
-        public void setLogRotated( boolean logRotated )
-        {
-
-        }
-
-        @Override
-        public LogRotateEvent beginLogRotate()
-        {
-            startTimeNanos = clock.nanos();
-            return logRotateEvent;
-        }
-
-        @Override
-        public SerializeTransactionEvent beginSerializeTransaction()
-        {
-            return SerializeTransactionEvent.NULL;
-        }
-
-        @Override
-        public LogForceWaitEvent beginLogForceWait()
-        {
-            return LogForceWaitEvent.NULL;
-        }
-
-        @Override
-        public LogForceEvent beginLogForce()
-        {
-            return LogForceEvent.NULL;
-        }
-    };
-
-    private final CommitEvent commitEvent = new CommitEvent()
-    {
-        @Override
-        public void close()
-        {
-        }
-
-        @Override
-        public LogAppendEvent beginLogAppend()
-        {
-            return logAppendEvent;
-        }
-
-        @Override
-        public StoreApplyEvent beginStoreApply()
-        {
-            return StoreApplyEvent.NULL;
-        }
-    };
-
     private final TransactionEvent transactionEvent = new TransactionEvent()
     {
 
@@ -135,7 +97,7 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         @Override
         public CommitEvent beginCommitEvent()
         {
-            return commitEvent;
+            return commitTraces.get().begin();
         }
 
         @Override
@@ -164,6 +126,10 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         this.clock = clock;
         this.monitor = monitor;
         this.jobScheduler = jobScheduler;
+        for ( int i = 0; i < phaseLatencies.length; i++ )
+        {
+            phaseLatencies[i] = new LatencyHistogram();
+        }
     }
 
     @Override
@@ -184,6 +150,36 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
         return TimeUnit.NANOSECONDS.toMillis( accumulatedTotalTimeNanos.get() );
     }
 
+    @Override
+    public LatencyHistogram latencies( CommitPhase phase )
+    {
+        return phaseLatencies[phase.ordinal()];
+    }
+
+    @Override
+    public synchronized void addSlowCommitListener( long thresholdNanos, SlowCommitListener listener )
+    {
+        slowCommitListeners.add( new SlowCommitListenerEntry( thresholdNanos, listener ) );
+        updateSlowCommitThreshold();
+    }
+
+    @Override
+    public synchronized void removeSlowCommitListener( SlowCommitListener listener )
+    {
+        slowCommitListeners.removeIf( entry -> entry.listener == listener );
+        updateSlowCommitThreshold();
+    }
+
+    private void updateSlowCommitThreshold()
+    {
+        long threshold = Long.MAX_VALUE;
+        for ( SlowCommitListenerEntry entry : slowCommitListeners )
+        {
+            threshold = Math.min( threshold, entry.thresholdNanos );
+        }
+        slowCommitThresholdNanos = threshold;
+    }
+
     private void updateCountersAndNotifyListeners()
     {
         counter.incrementAndGet();
@@ -194,4 +190,206 @@ public class DefaultTransactionTracer implements TransactionTracer, LogRotationM
             monitor.lastLogRotationEventDuration( millis );
         } );
     }
+
+    private void commitCompleted( long[] phaseNanos )
+    {
+        for ( int i = 0; i < phaseNanos.length; i++ )
+        {
+            phaseLatencies[i].record( phaseNanos[i] );
+        }
+        if ( phaseNanos[TOTAL.ordinal()] >= slowCommitThresholdNanos )
+        {
+            for ( SlowCommitListenerEntry entry : slowCommitListeners )
+            {
+                if ( phaseNanos[TOTAL.ordinal()] >= entry.thresholdNanos )
+                {
+                    entry.listener.slowCommit( phaseNanos );
+                }
+            }
+        }
+    }
+
+    private static class SlowCommitListenerEntry
+    {
+        final long thresholdNanos;
+        final SlowCommitListener listener;
+
+        SlowCommitListenerEntry( long thresholdNanos, SlowCommitListener listener )
+        {
+            this.thresholdNanos = thresholdNanos;
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Times the phases of a single commit. All the events of a commit happen on the committing thread, so each thread
+     * reuses its trace and the phase events in it from one commit to the next, and the always-on timing allocates
+     * nothing per commit. A commit that starts on a thread while another commit on it is still open gets a trace of
+     * its own.
+     */
+    private class CommitTrace implements CommitEvent
+    {
+        private final long[] phaseNanos = new long[PHASES.length];
+        private final PhaseEvent[] phaseEvents = new PhaseEvent[PHASES.length];
+        private final StoreApplyTrace storeApplyTrace = new StoreApplyTrace();
+        private final LogAppendTrace logAppendTrace = new LogAppendTrace();
+        private long startNanos;
+        private boolean appended;
+        private boolean open;
+
+        CommitTrace()
+        {
+            for ( CommitPhase phase : PHASES )
+            {
+                phaseEvents[phase.ordinal()] = new PhaseEvent( phase );
+            }
+        }
+
+        CommitTrace begin()
+        {
+            if ( open )
+            {
+                return new CommitTrace().begin();
+            }
+            open = true;
+            appended = false;
+            Arrays.fill( phaseNanos, 0 );
+            startNanos = clock.nanos();
+            return this;
+        }
+
+        @Override
+        public void close()
+        {
+            if ( appended )
+            {
+                phaseNanos[TOTAL.ordinal()] = clock.nanos() - startNanos;
+                commitCompleted( phaseNanos );
+            }
+            open = false;
+        }
+
+        @Override
+        public CommitLocksEvent beginCommitLocks()
+        {
+            return beginPhase( LOCKS );
+        }
+
+        @Override
+        public CreateCommandsEvent beginCreateCommands()
+        {
+            return beginPhase( COMMANDS );
+        }
+
+        @Override
+        public LogAppendEvent beginLogAppend()
+        {
+            appended = true;
+            return logAppendTrace;
+        }
+
+        @Override
+        public StoreApplyEvent beginStoreApply()
+        {
+            return storeApplyTrace.begin();
+        }
+
+        private PhaseEvent beginPhase( CommitPhase phase )
+        {
+            return phaseEvents[phase.ordinal()].begin();
+        }
+
+        private class PhaseEvent implements CommitLocksEvent, CreateCommandsEvent, SerializeTransactionEvent,
+                LogForceWaitEvent, IndexUpdatesEvent
+        {
+            private final CommitPhase phase;
+            private long phaseStartNanos;
+
+            PhaseEvent( CommitPhase phase )
+            {
+                this.phase = phase;
+            }
+
+            PhaseEvent begin()
+            {
+                phaseStartNanos = clock.nanos();
+                return this;
+            }
+
+            @Override
+            public void close()
+            {
+                phaseNanos[phase.ordinal()] += clock.nanos() - phaseStartNanos;
+            }
+        }
+
+        private class StoreApplyTrace extends PhaseEvent implements StoreApplyEvent
+        {
+            private long indexNanosBefore;
+
+            StoreApplyTrace()
+            {
+                super( STORE_APPLY );
+            }
+
+            @Override
+            StoreApplyTrace begin()
+            {
+                indexNanosBefore = phaseNanos[INDEX_UPDATES.ordinal()];
+                super.begin();
+                return this;
+            }
+
+            @Override
+            public void close()
+            {
+                super.close();
+                phaseNanos[STORE_APPLY.ordinal()] -= phaseNanos[INDEX_UPDATES.ordinal()] - indexNanosBefore;
+            }
+
+            @Override
+            public IndexUpdatesEvent beginIndexUpdates()
+            {
+                return beginPhase( INDEX_UPDATES );
+            }
+        }
+
+        private class LogAppendTrace implements LogAppendEvent
+        {
+            @Override
+            public void close()
+            {
+            }
+
+            @Override
+            public void setLogRotated( boolean logRotated )
+            {
+            }
+
+            @Override
+            public LogRotateEvent beginLogRotate()
+            {
+                startTimeNanos = clock.nanos();
+                return logRotateEvent;
+            }
+
+            @Override
+            public SerializeTransactionEvent beginSerializeTransaction()
+            {
+                return beginPhase( LOG_WRITE );
+            }
+
+            @Override
+            public LogForceWaitEvent beginLogForceWait()
+            {
+                return beginPhase( LOG_FORCE );
+            }
+
+            @Override
+            public LogForceEvent beginLogForce()
+            {
+                return LogForceEvent.NULL;
+            }
+        }
+    }
 }
@@ -161,6 +161,33 @@ public class GuardingStatementOperations implements
         return entityWriteDelegate.graphRemoveProperty( statement, propertyKeyId );
     }
 
+    @Override
+    public long[] relationshipsCreate( KernelStatement statement,
+            int relationshipTypeId,
+            long[] startNodeIds,
+            long[] endNodeIds ) throws EntityNotFoundException
+    {
+        guard.check( statement );
+        return entityWriteDelegate.relationshipsCreate( statement, relationshipTypeId, startNodeIds, endNodeIds );
+    }
+
+    @Override
+    public int nodesAddLabel( KernelStatement statement, long[] nodeIds, int labelId )
+            throws ConstraintValidationKernelException, EntityNotFoundException
+    {
+        guard.check( statement );
+        return entityWriteDelegate.nodesAddLabel( statement, nodeIds, labelId );
+    }
+
+    @Override
+    public void nodesSetProperty( KernelStatement statement, long[] nodeIds, DefinedProperty property )
+            throws ConstraintValidationKernelException, EntityNotFoundException, AutoIndexingKernelException,
+            InvalidTransactionTypeKernelException
+    {
+        guard.check( statement );
+        entityWriteDelegate.nodesSetProperty( statement, nodeIds, property );
+    }
+
     @Override
     public PrimitiveLongIterator nodesGetForLabel( KernelStatement statement, int labelId )
     {
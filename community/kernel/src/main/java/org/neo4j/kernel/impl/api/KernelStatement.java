@@ -74,6 +74,12 @@ public class KernelStatement implements TxStateHolder, Statement
     private int referenceCount;
     private volatile ExecutingQueryList executingQueryList;
     private final LockTracer systemLockTracer;
+    /**
+     * The {@link #systemLockTracer} combined with the lock tracers of the queries in {@link #lockTracerQueries}, kept
+     * such that combining them, which allocates, is only done when the executing queries change.
+     */
+    private LockTracer lockTracer;
+    private ExecutingQueryList lockTracerQueries;
 
     public KernelStatement( KernelTransactionImplementation transaction,
                             TxStateHolder txStateHolder,
@@ -196,7 +202,13 @@ public class KernelStatement implements TxStateHolder, Statement
 
     public LockTracer lockTracer()
     {
-        return executingQueryList.reduce( systemLockTracer, ExecutingQuery::lockTracer, LockTracer::combine );
+        ExecutingQueryList queries = executingQueryList;
+        if ( queries != lockTracerQueries )
+        {
+            lockTracer = queries.reduce( systemLockTracer, ExecutingQuery::lockTracer, LockTracer::combine );
+            lockTracerQueries = queries;
+        }
+        return lockTracer;
     }
 
     public final void acquire()
@@ -60,8 +60,13 @@ import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CreateCommandsEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
+import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StorageStatement;
@@ -95,8 +100,12 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private final StatementOperationContainer operationContainer;
     private final StorageEngine storageEngine;
     private final TransactionTracer transactionTracer;
+    private final LockTracer lockTracer;
     private final Pool<KernelTransactionImplementation> pool;
     private final Supplier<LegacyIndexTransactionState> legacyIndexTxStateSupplier;
+    private final CollectionsFactorySupplier collectionsFactorySupplier;
+    private final TransactionMemoryPool memoryPool;
+    private final ActiveTransactionTracker activeTransactions;
 
     // For committing
     private final TransactionHeaderInformationFactory headerInformationFactory;
@@ -108,6 +117,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     // State that needs to be reset between uses. Most of these should be cleared or released in #release(),
     // whereas others, such as timestamp or txId when transaction starts, even locks, needs to be set in #initialize().
     private TransactionState txState;
+    private CollectionsFactory collectionsFactory;
+    private volatile TransactionMemoryTracker memoryTracker;
     private LegacyIndexTransactionState legacyIndexTransactionState;
     private TransactionWriteState writeState;
     private TransactionHooks.TransactionHooksState hooksState;
@@ -132,6 +143,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private long transactionId;
     private long commitTime;
     private volatile int reuseCount;
+    private long activeTransactionEpoch;
     private volatile Map<String,Object> userMetaData;
 
     /**
@@ -157,7 +169,10 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
                                             TransactionTracer transactionTracer,
                                             LockTracer lockTracer,
                                             StorageEngine storageEngine,
-                                            AccessCapability accessCapability )
+                                            AccessCapability accessCapability,
+                                            CollectionsFactorySupplier collectionsFactorySupplier,
+                                            TransactionMemoryPool memoryPool,
+                                            ActiveTransactionTracker activeTransactions )
     {
         this.operationContainer = operationContainer;
         this.schemaWriteGuard = schemaWriteGuard;
@@ -169,9 +184,13 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.storeLayer = storageEngine.storeReadLayer();
         this.storageEngine = storageEngine;
         this.legacyIndexTxStateSupplier = legacyIndexTxStateSupplier;
+        this.collectionsFactorySupplier = collectionsFactorySupplier;
+        this.memoryPool = memoryPool;
+        this.activeTransactions = activeTransactions;
         this.pool = pool;
         this.clock = clock;
         this.transactionTracer = transactionTracer;
+        this.lockTracer = lockTracer;
         this.storageStatement = storeLayer.newStatement();
         this.currentStatement =
                 new KernelStatement( this, this, storageStatement, procedures, accessCapability, lockTracer );
@@ -202,10 +221,12 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.transactionEvent = transactionTracer.beginTransaction();
         assert transactionEvent != null : "transactionEvent was null!";
         this.securityContext = frozenSecurityContext;
+        this.memoryTracker = memoryPool.newTracker( this );
         this.transactionId = NOT_COMMITTED_TRANSACTION_ID;
         this.commitTime = NOT_COMMITTED_TRANSACTION_COMMIT_TIME;
         this.currentTransactionOperations = timeoutMillis > 0 ? operationContainer.guardedParts() : operationContainer.nonGuarderParts();
         this.currentStatement.initialize( statementLocks, currentTransactionOperations );
+        this.activeTransactionEpoch = activeTransactions.begin();
         return this;
     }
 
@@ -371,7 +392,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         if ( txState == null )
         {
             transactionMonitor.upgradeToWriteTransaction();
-            txState = new TxState();
+            collectionsFactory = collectionsFactorySupplier.create( memoryTracker );
+            txState = new TxState( collectionsFactory, memoryTracker );
         }
         return txState;
     }
@@ -539,22 +561,29 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             // Convert changes into commands and commit
             if ( hasChanges() )
             {
-                // grab all optimistic locks now, locks can't be deferred any further
-                statementLocks.prepareForCommit();
+                try ( CommitLocksEvent commitLocksEvent = commitEvent.beginCommitLocks() )
+                {
+                    // grab all optimistic locks now, locks can't be deferred any further
+                    statementLocks.prepareForCommit();
+                }
                 // use pessimistic locks for the rest of the commit process, locks can't be deferred any further
                 Locks.Client commitLocks = statementLocks.pessimistic();
 
                 // Gather up commands from the various sources
                 Collection<StorageCommand> extractedCommands = new ArrayList<>();
-                storageEngine.createCommands(
-                        extractedCommands,
-                        txState,
-                        storageStatement,
-                        commitLocks,
-                        lastTransactionIdWhenStarted );
-                if ( hasLegacyIndexChanges() )
+                try ( CreateCommandsEvent createCommandsEvent = commitEvent.beginCreateCommands() )
                 {
-                    legacyIndexTransactionState.extractCommands( extractedCommands );
+                    storageEngine.createCommands(
+                            extractedCommands,
+                            txState,
+                            storageStatement,
+                            commitLocks,
+                            lockTracer,
+                            lastTransactionIdWhenStarted );
+                    if ( hasLegacyIndexChanges() )
+                    {
+                        legacyIndexTransactionState.extractCommands( extractedCommands );
+                    }
                 }
 
                 /* Here's the deal: we track a quick-to-access hasChanges in transaction state which is true
@@ -704,11 +733,18 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             transactionEvent = null;
             legacyIndexTransactionState = null;
             txState = null;
+            if ( collectionsFactory != null )
+            {
+                collectionsFactory.release();
+                collectionsFactory = null;
+            }
+            memoryTracker.close();
             hooksState = null;
             currentTransactionOperations = null;
             closeListeners.clear();
             reuseCount++;
             userMetaData = Collections.emptyMap();
+            activeTransactions.end( activeTransactionEpoch );
             pool.release( this );
         }
         finally
@@ -761,6 +797,12 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         return transactionId;
     }
 
+    @Override
+    public MemoryAllocationTracker memoryTracker()
+    {
+        return memoryTracker;
+    }
+
     @Override
     public long getCommitTime()
     {
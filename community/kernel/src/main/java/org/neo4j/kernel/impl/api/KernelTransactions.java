@@ -27,6 +27,7 @@ import java.util.function.Supplier;
 
 import org.neo4j.collection.pool.LinkedQueuePool;
 import org.neo4j.collection.pool.MarshlandPool;
+import org.neo4j.collection.pool.Pool;
 import org.neo4j.function.Factory;
 import org.neo4j.graphdb.DatabaseShutdownException;
 import org.neo4j.kernel.AvailabilityGuard;
@@ -47,6 +48,7 @@ import org.neo4j.kernel.impl.store.TransactionId;
 import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.kernel.monitoring.tracing.Tracers;
 import org.neo4j.storageengine.api.StorageEngine;
@@ -78,6 +80,8 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
     private final Procedures procedures;
     private final TransactionIdStore transactionIdStore;
     private final AccessCapability accessCapability;
+    private final CollectionsFactorySupplier collectionsFactorySupplier;
+    private final TransactionMemoryPool memoryPool;
     private final Supplier<LegacyIndexTransactionState> legacyIndexTxStateSupplier;
     private final Clock clock;
     private final ReentrantReadWriteLock newTransactionsLock = new ReentrantReadWriteLock();
@@ -95,10 +99,17 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
      */
     private final Set<KernelTransactionImplementation> allTransactions = newSetFromMap( new ConcurrentHashMap<>() );
 
+    /**
+     * Tracks the oldest transaction still running, so that {@link #get() snapshots} can tell when the transactions
+     * running at the time they were taken have closed without enumerating them.
+     */
+    private final ActiveTransactionTracker activeTransactionTracker = new ActiveTransactionTracker();
+
     // This is the factory that actually builds brand-new instances.
     private final Factory<KernelTransactionImplementation> factory = new KernelTransactionImplementationFactory( allTransactions );
-    // Global pool of transactions, wrapped by the thread-local marshland pool and so is not used directly.
-    private final LinkedQueuePool<KernelTransactionImplementation> globalTxPool = new GlobalKernelTransactionPool( allTransactions, factory );
+    // Global pool of transactions, striped to keep threads from contending on it. It is wrapped by the thread-local
+    // marshland pool and so is not used directly.
+    private final StripedKernelTransactionPool globalTxPool = new StripedKernelTransactionPool( allTransactions, factory );
     // Pool of unused transactions.
     private final MarshlandPool<KernelTransactionImplementation> localTxPool = new MarshlandPool<>( globalTxPool );
 
@@ -117,7 +128,9 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
                                StorageEngine storageEngine,
                                Procedures procedures,
                                TransactionIdStore transactionIdStore,
-                               Clock clock, AccessCapability accessCapability )
+                               Clock clock, AccessCapability accessCapability,
+                               CollectionsFactorySupplier collectionsFactorySupplier,
+                               TransactionMemoryPool memoryPool )
     {
         this.statementLocksFactory = statementLocksFactory;
         this.constraintIndexCreator = constraintIndexCreator;
@@ -133,6 +146,8 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
         this.procedures = procedures;
         this.transactionIdStore = transactionIdStore;
         this.accessCapability = accessCapability;
+        this.collectionsFactorySupplier = collectionsFactorySupplier;
+        this.memoryPool = memoryPool;
         this.legacyIndexTxStateSupplier = () -> new CachingLegacyIndexTransactionState(
                 new LegacyIndexTransactionStateImpl( indexConfigStore, legacyIndexProviderLookup ) );
         this.clock = clock;
@@ -225,7 +240,7 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
     @Override
     public KernelTransactionsSnapshot get()
     {
-        return new KernelTransactionsSnapshot( activeTransactions(), clock.millis() );
+        return new KernelTransactionsSnapshot( activeTransactionTracker, clock.millis() );
     }
 
     /**
@@ -311,13 +326,61 @@ public class KernelTransactions extends LifecycleAdapter implements Supplier<Ker
                     new KernelTransactionImplementation( statementOperations, schemaWriteGuard, hooks,
                             constraintIndexCreator, procedures, transactionHeaderInformationFactory,
                             transactionCommitProcess, transactionMonitor, legacyIndexTxStateSupplier, localTxPool,
-                            clock, tracers.transactionTracer, tracers.lockTracer, storageEngine, accessCapability );
+                            clock, tracers.transactionTracer, tracers.lockTracer, storageEngine, accessCapability,
+                            collectionsFactorySupplier, memoryPool, activeTransactionTracker );
 
             this.transactions.add( tx );
             return tx;
         }
     }
 
+    /**
+     * One {@link GlobalKernelTransactionPool} per stripe, where the stripe is picked by the id of the calling thread
+     * and the number of stripes is the number of processors, rounded up to a power of two.
+     */
+    private class StripedKernelTransactionPool implements Pool<KernelTransactionImplementation>
+    {
+        private final GlobalKernelTransactionPool[] stripes;
+        private final int stripeMask;
+
+        StripedKernelTransactionPool( Set<KernelTransactionImplementation> transactions,
+                Factory<KernelTransactionImplementation> factory )
+        {
+            int stripeCount = Integer.highestOneBit( Runtime.getRuntime().availableProcessors() * 2 - 1 );
+            this.stripes = new GlobalKernelTransactionPool[stripeCount];
+            for ( int i = 0; i < stripeCount; i++ )
+            {
+                stripes[i] = new GlobalKernelTransactionPool( transactions, factory );
+            }
+            this.stripeMask = stripeCount - 1;
+        }
+
+        @Override
+        public KernelTransactionImplementation acquire()
+        {
+            return stripe().acquire();
+        }
+
+        @Override
+        public void release( KernelTransactionImplementation tx )
+        {
+            stripe().release( tx );
+        }
+
+        void disposeAll()
+        {
+            for ( GlobalKernelTransactionPool stripe : stripes )
+            {
+                stripe.disposeAll();
+            }
+        }
+
+        private GlobalKernelTransactionPool stripe()
+        {
+            return stripes[(int) Thread.currentThread().getId() & stripeMask];
+        }
+    }
+
     private class GlobalKernelTransactionPool extends LinkedQueuePool<KernelTransactionImplementation>
     {
         private Set<KernelTransactionImplementation> transactions;
@@ -19,81 +19,34 @@
  */
 package org.neo4j.kernel.impl.api;
 
-import java.util.Set;
-
-import org.neo4j.kernel.api.KernelTransactionHandle;
-
 /**
  * An instance of this class can get a snapshot of all currently running transactions and be able to tell
  * later if all transactions which were running when it was constructed have closed.
  * <p>
- * Creating a snapshot creates a list and one additional book keeping object per open transaction.
- * No thread doing normal transaction work should create snapshots, only threads that monitor transactions.
+ * Creating a snapshot starts a new epoch in the {@link ActiveTransactionTracker}. All transactions which were running
+ * are active in the epoch before it, or in older ones, and so they have all closed once the oldest epoch with active
+ * transactions is newer than that.
  */
 public class KernelTransactionsSnapshot
 {
-    private Tx relevantTransactions;
+    private final ActiveTransactionTracker activeTransactions;
+    private final long epoch;
     private final long snapshotTime;
 
-    public KernelTransactionsSnapshot( Set<KernelTransactionHandle> allTransactions, long snapshotTime )
+    public KernelTransactionsSnapshot( ActiveTransactionTracker activeTransactions, long snapshotTime )
     {
-        Tx head = null;
-        for ( KernelTransactionHandle tx : allTransactions )
-        {
-            if ( tx.isOpen() )
-            {
-                Tx current = new Tx( tx );
-                if ( head != null )
-                {
-                    current.next = head;
-                    head = current;
-                }
-                else
-                {
-                    head = current;
-                }
-            }
-        }
-        relevantTransactions = head;
+        this.activeTransactions = activeTransactions;
+        this.epoch = activeTransactions.newEpoch();
         this.snapshotTime = snapshotTime;
     }
 
     public boolean allClosed()
     {
-        while ( relevantTransactions != null )
-        {
-            if ( !relevantTransactions.haveClosed() )
-            {
-                // At least one transaction hasn't closed yet
-                return false;
-            }
-
-            // This transaction has been closed, unlink so we don't have to check it the next time
-            relevantTransactions = relevantTransactions.next;
-        }
-
-        // All transactions have been closed
-        return true;
+        return activeTransactions.oldestActiveEpoch() > epoch;
     }
 
     public long snapshotTime()
     {
         return snapshotTime;
     }
-
-    private static class Tx
-    {
-        private final KernelTransactionHandle transaction;
-        private Tx next;
-
-        Tx( KernelTransactionHandle tx )
-        {
-            this.transaction = tx;
-        }
-
-        boolean haveClosed()
-        {
-            return !transaction.isOpen();
-        }
-    }
 }
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.api;
 
 import org.apache.commons.lang3.mutable.MutableInt;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -118,6 +119,19 @@ public class LockingStatementOperations implements
         return entityWriteDelegate.nodeAddLabel( state, nodeId, labelId );
     }
 
+    @Override
+    public int nodesAddLabel( KernelStatement state, long[] nodeIds, int labelId )
+            throws ConstraintValidationKernelException, EntityNotFoundException
+    {
+        // See nodeAddLabel for why the schema lock is taken here
+        acquireSharedSchemaLock( state );
+
+        acquireExclusiveNodeLocks( state, nodeIds );
+        state.assertOpen();
+
+        return entityWriteDelegate.nodesAddLabel( state, nodeIds, labelId );
+    }
+
     @Override
     public boolean nodeRemoveLabel( KernelStatement state, long nodeId, int labelId ) throws EntityNotFoundException
     {
@@ -333,6 +347,28 @@ public class LockingStatementOperations implements
         entityWriteDelegate.relationshipDelete(state, relationshipId);
     }
 
+    @Override
+    public long[] relationshipsCreate( KernelStatement state,
+            int relationshipTypeId,
+            long[] startNodeIds,
+            long[] endNodeIds )
+            throws EntityNotFoundException
+    {
+        // Checked before any locks are taken, since the nodes to lock are paired up by index
+        if ( startNodeIds.length != endNodeIds.length )
+        {
+            throw new IllegalArgumentException( "Got " + startNodeIds.length + " start nodes but " +
+                    endNodeIds.length + " end nodes" );
+        }
+        acquireSharedSchemaLock( state );
+        long[] nodeIds = new long[startNodeIds.length + endNodeIds.length];
+        System.arraycopy( startNodeIds, 0, nodeIds, 0, startNodeIds.length );
+        System.arraycopy( endNodeIds, 0, nodeIds, startNodeIds.length, endNodeIds.length );
+        acquireExclusiveNodeLocks( state, nodeIds );
+        state.assertOpen();
+        return entityWriteDelegate.relationshipsCreate( state, relationshipTypeId, startNodeIds, endNodeIds );
+    }
+
     private void lockRelationshipNodes( KernelStatement state, long startNodeId, long endNodeId )
     {
         // Order the locks to lower the risk of deadlocks with other threads creating/deleting rels concurrently
@@ -454,6 +490,18 @@ public class LockingStatementOperations implements
         return entityWriteDelegate.nodeSetProperty( state, nodeId, property );
     }
 
+    @Override
+    public void nodesSetProperty( KernelStatement state, long[] nodeIds, DefinedProperty property )
+            throws ConstraintValidationKernelException, EntityNotFoundException, AutoIndexingKernelException, InvalidTransactionTypeKernelException
+    {
+        // See nodeSetProperty for why the schema lock is taken here
+        acquireSharedSchemaLock( state );
+
+        acquireExclusiveNodeLocks( state, nodeIds );
+        state.assertOpen();
+        entityWriteDelegate.nodesSetProperty( state, nodeIds, property );
+    }
+
     @Override
     public Property nodeRemoveProperty( KernelStatement state, long nodeId, int propertyKeyId )
             throws EntityNotFoundException, AutoIndexingKernelException, InvalidTransactionTypeKernelException
@@ -543,6 +591,34 @@ public class LockingStatementOperations implements
         }
     }
 
+    /**
+     * Locks all the given nodes, apart from the ones created in this transaction, in a single call to the lock
+     * client. The nodes are locked in ascending id order, like in {@link #lockRelationshipNodes}, so that concurrent
+     * batches touching the same nodes cannot deadlock with each other.
+     */
+    private void acquireExclusiveNodeLocks( KernelStatement state, long[] nodeIds )
+    {
+        long[] sorted = nodeIds.clone();
+        Arrays.sort( sorted );
+        boolean checkTxState = state.hasTxStateWithChanges();
+        int count = 0;
+        for ( int i = 0; i < sorted.length; i++ )
+        {
+            long nodeId = sorted[i];
+            if ( (count > 0 && sorted[count - 1] == nodeId) ||
+                 (checkTxState && state.txState().nodeIsAddedInThisTx( nodeId )) )
+            {
+                continue;
+            }
+            sorted[count++] = nodeId;
+        }
+        if ( count > 0 )
+        {
+            state.locks().optimistic().acquireExclusive( state.lockTracer(), ResourceTypes.NODE,
+                    count == sorted.length ? sorted : Arrays.copyOf( sorted, count ) );
+        }
+    }
+
     private void acquireExclusiveRelationshipLock( KernelStatement state, long relationshipId )
     {
         if ( !state.hasTxStateWithChanges() || !state.txState().relationshipIsAddedInThisTx( relationshipId ) )
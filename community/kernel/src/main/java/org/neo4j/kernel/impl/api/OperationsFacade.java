@@ -1005,6 +1005,35 @@ public class OperationsFacade
         return dataWrite().relationshipSetProperty( statement, relationshipId, property );
     }
 
+    @Override
+    public long[] relationshipsCreate( int relationshipTypeId, long[] startNodeIds, long[] endNodeIds )
+            throws RelationshipTypeIdNotFoundKernelException, EntityNotFoundException
+    {
+        statement.assertOpen();
+        if ( startNodeIds.length != endNodeIds.length )
+        {
+            throw new IllegalArgumentException( "Got " + startNodeIds.length + " start nodes but " +
+                    endNodeIds.length + " end nodes" );
+        }
+        return dataWrite().relationshipsCreate( statement, relationshipTypeId, startNodeIds, endNodeIds );
+    }
+
+    @Override
+    public int nodesAddLabel( long[] nodeIds, int labelId )
+            throws EntityNotFoundException, ConstraintValidationKernelException
+    {
+        statement.assertOpen();
+        return dataWrite().nodesAddLabel( statement, nodeIds, labelId );
+    }
+
+    @Override
+    public void nodesSetProperty( long[] nodeIds, DefinedProperty property )
+            throws EntityNotFoundException, ConstraintValidationKernelException, AutoIndexingKernelException, InvalidTransactionTypeKernelException
+    {
+        statement.assertOpen();
+        dataWrite().nodesSetProperty( statement, nodeIds, property );
+    }
+
     @Override
     public Property graphSetProperty( DefinedProperty property )
     {
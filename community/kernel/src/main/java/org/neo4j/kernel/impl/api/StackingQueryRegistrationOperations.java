@@ -22,10 +22,12 @@ package org.neo4j.kernel.impl.api;
 import java.util.Map;
 import java.util.stream.Stream;
 
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.api.ExecutingQuery;
 import org.neo4j.kernel.impl.api.operations.QueryRegistrationOperations;
 import org.neo4j.kernel.impl.query.clientconnection.ClientConnectionInfo;
 import org.neo4j.kernel.impl.util.MonotonicCounter;
+import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.time.CpuClock;
 import org.neo4j.time.SystemNanoClock;
 
@@ -33,10 +35,12 @@ public class StackingQueryRegistrationOperations implements QueryRegistrationOpe
 {
     private final MonotonicCounter lastQueryId = MonotonicCounter.newAtomicMonotonicCounter();
     private final SystemNanoClock clock;
+    private final PageCacheTracer pageCacheTracer;
 
-    public StackingQueryRegistrationOperations( SystemNanoClock clock )
+    public StackingQueryRegistrationOperations( SystemNanoClock clock, PageCacheTracer pageCacheTracer )
     {
         this.clock = clock;
+        this.pageCacheTracer = pageCacheTracer;
     }
 
     @Override
@@ -61,9 +65,12 @@ public class StackingQueryRegistrationOperations implements QueryRegistrationOpe
     {
         long queryId = lastQueryId.incrementAndGet();
         Thread thread = Thread.currentThread();
+        MemoryAllocationTracker memoryTracker = statement.getTransaction().memoryTracker();
         ExecutingQuery executingQuery =
                 new ExecutingQuery( queryId, clientConnection, statement.username(), queryText, queryParameters,
-                        statement.getTransaction().getMetaData(), statement.locks()::activeLockCount, thread, clock, CpuClock.CPU_CLOCK );
+                        statement.getTransaction().getMetaData(), statement.locks()::activeLockCount,
+                        memoryTracker::usedMemory, thread, clock, CpuClock.CPU_CLOCK,
+                        pageCacheTracer.countersForCurrentThread() );
         registerExecutingQuery( statement, executingQuery );
         return executingQuery;
     }
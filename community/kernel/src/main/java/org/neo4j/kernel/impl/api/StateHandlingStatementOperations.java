@@ -997,6 +997,45 @@ public class StateHandlingStatementOperations implements
         return Property.noGraphProperty( propertyKeyId );
     }
 
+    @Override
+    public long[] relationshipsCreate( KernelStatement state,
+            int relationshipTypeId,
+            long[] startNodeIds,
+            long[] endNodeIds )
+            throws EntityNotFoundException
+    {
+        long[] relationshipIds = new long[startNodeIds.length];
+        for ( int i = 0; i < startNodeIds.length; i++ )
+        {
+            relationshipIds[i] = relationshipCreate( state, relationshipTypeId, startNodeIds[i], endNodeIds[i] );
+        }
+        return relationshipIds;
+    }
+
+    @Override
+    public int nodesAddLabel( KernelStatement state, long[] nodeIds, int labelId ) throws EntityNotFoundException
+    {
+        int added = 0;
+        for ( long nodeId : nodeIds )
+        {
+            if ( nodeAddLabel( state, nodeId, labelId ) )
+            {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    @Override
+    public void nodesSetProperty( KernelStatement state, long[] nodeIds, DefinedProperty property )
+            throws EntityNotFoundException, InvalidTransactionTypeKernelException, AutoIndexingKernelException
+    {
+        for ( long nodeId : nodeIds )
+        {
+            nodeSetProperty( state, nodeId, property );
+        }
+    }
+
     private void indexesUpdateProperty( KernelStatement state, NodeItem node, int propertyKey, DefinedProperty before,
             DefinedProperty after )
     {
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.exceptions.MemoryLimitExceededException;
+import org.neo4j.kernel.configuration.Config;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.transaction_global_max_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.transaction_max_memory;
+
+/**
+ * Accounts for the memory used by all running transactions, and hands out a {@link TransactionMemoryTracker} to each
+ * of them. Both the limit per transaction and the global limit are disabled when set to zero, and when both are
+ * disabled no memory is accounted at all.
+ * <p>
+ * Transactions reserve memory from the pool in chunks, so the memory in use by the pool is that reserved by the
+ * running transactions, which is a little more than they actually use.
+ */
+public class TransactionMemoryPool
+{
+    private final long transactionLimit;
+    private final long globalLimit;
+    private final AtomicLong usedMemory = new AtomicLong();
+
+    public TransactionMemoryPool( long transactionLimit, long globalLimit )
+    {
+        this.transactionLimit = transactionLimit;
+        this.globalLimit = globalLimit;
+    }
+
+    public static TransactionMemoryPool fromConfig( Config config )
+    {
+        return new TransactionMemoryPool( config.get( transaction_max_memory ), config.get( transaction_global_max_memory ) );
+    }
+
+    public static TransactionMemoryPool unlimited()
+    {
+        return new TransactionMemoryPool( 0, 0 );
+    }
+
+    TransactionMemoryTracker newTracker( KernelTransaction transaction )
+    {
+        return new TransactionMemoryTracker( this, transactionLimit, transactionLimit > 0 || globalLimit > 0,
+                transaction );
+    }
+
+    void reserve( long bytes )
+    {
+        if ( globalLimit == 0 )
+        {
+            usedMemory.addAndGet( bytes );
+            return;
+        }
+        long used;
+        do
+        {
+            used = usedMemory.get();
+            if ( used + bytes > globalLimit )
+            {
+                throw new MemoryLimitExceededException( "The allocation of " + bytes + " bytes would make the " +
+                        "running transactions use more than the global limit of " + globalLimit + " bytes, since " +
+                        used + " bytes are already in use." );
+            }
+        }
+        while ( !usedMemory.compareAndSet( used, used + bytes ) );
+    }
+
+    void release( long bytes )
+    {
+        usedMemory.addAndGet( -bytes );
+    }
+
+    /**
+     * @return the number of bytes that all running transactions currently have reserved.
+     */
+    public long usedMemory()
+    {
+        return usedMemory.get();
+    }
+}
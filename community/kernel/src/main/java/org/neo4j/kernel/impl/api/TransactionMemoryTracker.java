@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.exceptions.MemoryLimitExceededException;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.memory.MemoryAllocationTracker;
+
+/**
+ * Accounts for the memory used by a single transaction, against the limit for each transaction and against the
+ * global limit of the {@link TransactionMemoryPool}. An allocation that would exceed either of them marks the
+ * transaction for termination, and fails with a {@link MemoryLimitExceededException}.
+ * <p>
+ * Nothing is accounted when neither limit is set, which is the default. Otherwise memory is reserved from the pool
+ * in chunks of {@link #POOL_CHUNK_SIZE}, so that most allocations only touch the tracker of their own transaction.
+ * <p>
+ * Memory may be freed by other threads than the one executing the transaction, for instance when the results that a
+ * Bolt client was waiting for have been written out. Freeing memory after the tracker has been {@link #close() closed}
+ * does nothing, since all of its memory was handed back to the pool when it was closed.
+ */
+class TransactionMemoryTracker implements MemoryAllocationTracker
+{
+    static final long POOL_CHUNK_SIZE = ByteUnit.kibiBytes( 64 );
+
+    private final TransactionMemoryPool pool;
+    private final long limit;
+    private final boolean tracked;
+    private final KernelTransaction transaction;
+    private long usedMemory;
+    private long reservedMemory;
+    private boolean closed;
+
+    TransactionMemoryTracker( TransactionMemoryPool pool, long limit, boolean tracked, KernelTransaction transaction )
+    {
+        this.pool = pool;
+        this.limit = limit;
+        this.tracked = tracked;
+        this.transaction = transaction;
+    }
+
+    @Override
+    public void allocated( long bytes )
+    {
+        if ( !tracked )
+        {
+            return;
+        }
+        MemoryLimitExceededException exceeded = reserve( bytes );
+        if ( exceeded != null )
+        {
+            transaction.markForTermination( Status.Transaction.TransactionMemoryLimit );
+            throw exceeded;
+        }
+    }
+
+    private synchronized MemoryLimitExceededException reserve( long bytes )
+    {
+        if ( closed )
+        {
+            return null;
+        }
+        if ( limit > 0 && usedMemory + bytes > limit )
+        {
+            return new MemoryLimitExceededException( bytes, limit, usedMemory );
+        }
+        long needed = usedMemory + bytes - reservedMemory;
+        if ( needed > 0 )
+        {
+            try
+            {
+                reservedMemory += reserveFromPool( needed );
+            }
+            catch ( MemoryLimitExceededException e )
+            {
+                return e;
+            }
+        }
+        usedMemory += bytes;
+        return null;
+    }
+
+    private long reserveFromPool( long needed )
+    {
+        if ( needed < POOL_CHUNK_SIZE )
+        {
+            try
+            {
+                pool.reserve( POOL_CHUNK_SIZE );
+                return POOL_CHUNK_SIZE;
+            }
+            catch ( MemoryLimitExceededException e )
+            {
+                // The pool may still have room for what is actually needed
+            }
+        }
+        pool.reserve( needed );
+        return needed;
+    }
+
+    @Override
+    public void deallocated( long bytes )
+    {
+        if ( tracked )
+        {
+            release( bytes );
+        }
+    }
+
+    private synchronized void release( long bytes )
+    {
+        if ( !closed )
+        {
+            usedMemory -= bytes;
+            // Keep a chunk in reserve for the allocations to come, and hand the rest back to the pool
+            long excess = reservedMemory - usedMemory - POOL_CHUNK_SIZE;
+            if ( excess > 0 )
+            {
+                pool.release( excess );
+                reservedMemory -= excess;
+            }
+        }
+    }
+
+    @Override
+    public synchronized long usedMemory()
+    {
+        return usedMemory;
+    }
+
+    /**
+     * Hand all the memory of the transaction back to the pool, when the transaction has ended.
+     */
+    synchronized void close()
+    {
+        if ( !closed )
+        {
+            closed = true;
+            pool.release( reservedMemory );
+            reservedMemory = 0;
+            usedMemory = 0;
+        }
+    }
+}
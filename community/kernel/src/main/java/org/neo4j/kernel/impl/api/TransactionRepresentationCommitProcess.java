@@ -75,7 +75,7 @@ public class TransactionRepresentationCommitProcess implements TransactionCommit
     {
         try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
         {
-            storageEngine.apply( batch, mode );
+            storageEngine.apply( batch, mode, storeApplyEvent );
         }
         catch ( Throwable cause )
         {
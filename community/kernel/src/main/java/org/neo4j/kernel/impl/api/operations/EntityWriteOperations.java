@@ -87,4 +87,15 @@ public interface EntityWriteOperations
             throws EntityNotFoundException, AutoIndexingKernelException, InvalidTransactionTypeKernelException;
 
     Property graphRemoveProperty( KernelStatement state, int propertyKeyId );
+
+    long[] relationshipsCreate( KernelStatement statement,
+            int relationshipTypeId,
+            long[] startNodeIds,
+            long[] endNodeIds ) throws EntityNotFoundException;
+
+    int nodesAddLabel( KernelStatement state, long[] nodeIds, int labelId )
+            throws ConstraintValidationKernelException, EntityNotFoundException;
+
+    void nodesSetProperty( KernelStatement state, long[] nodeIds, DefinedProperty property )
+            throws ConstraintValidationKernelException, EntityNotFoundException, AutoIndexingKernelException, InvalidTransactionTypeKernelException;
 }
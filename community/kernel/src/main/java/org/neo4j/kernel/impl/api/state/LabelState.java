@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.api.state;
 
 import org.neo4j.kernel.api.constraints.NodePropertyConstraint;
 import org.neo4j.kernel.api.schema_new.index.NewIndexDescriptor;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
 import org.neo4j.kernel.impl.util.diffsets.DiffSets;
 import org.neo4j.storageengine.api.txstate.ReadableDiffSets;
 
@@ -49,10 +50,12 @@ public abstract class LabelState
         private DiffSets<NewIndexDescriptor> indexChanges;
         private DiffSets<NodePropertyConstraint> nodeConstraintsChanges;
         private final int labelId;
+        private final CollectionsFactory collectionsFactory;
 
-        private Mutable( int labelId )
+        private Mutable( int labelId, CollectionsFactory collectionsFactory )
         {
             this.labelId = labelId;
+            this.collectionsFactory = collectionsFactory;
         }
 
         public int getLabelId()
@@ -70,7 +73,7 @@ public abstract class LabelState
         {
             if ( nodeDiffSets == null )
             {
-                nodeDiffSets = new DiffSets<>();
+                nodeDiffSets = collectionsFactory.newLongDiffSets();
             }
             return nodeDiffSets;
         }
@@ -111,7 +114,7 @@ public abstract class LabelState
         @Override
         Mutable createValue( Integer key, TxState state )
         {
-            return new Mutable( key );
+            return new Mutable( key, state.collectionsFactory() );
         }
 
         @Override
@@ -42,6 +42,9 @@ import static org.neo4j.collection.primitive.Primitive.intSet;
 
 public class NodeStateImpl extends PropertyContainerStateImpl implements NodeState
 {
+    // The state object, its entry in the node state map, and its property, label and relationship change sets
+    static final long ESTIMATED_HEAP_SIZE = 320;
+
     private DiffSets<Integer> labelDiffSets;
     private RelationshipChangesForNode relationshipsAdded;
     private RelationshipChangesForNode relationshipsRemoved;
@@ -236,6 +239,7 @@ public class NodeStateImpl extends PropertyContainerStateImpl implements NodeSta
         @Override
         final NodeStateImpl createValue( Long id, TxState state )
         {
+            state.memoryTracker().allocated( ESTIMATED_HEAP_SIZE );
             return new NodeStateImpl( id, state );
         }
 
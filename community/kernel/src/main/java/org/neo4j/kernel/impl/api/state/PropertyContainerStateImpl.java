@@ -80,14 +80,17 @@ public class PropertyContainerStateImpl implements PropertyContainerState
         }
     }
 
-    public void changeProperty( DefinedProperty property )
+    /**
+     * @return the value this transaction had previously added or changed the property to, which this change replaces,
+     * or {@code null} if there was none.
+     */
+    public StorageProperty changeProperty( DefinedProperty property )
     {
         if ( addedProperties != null )
         {
             if ( addedProperties.containsKey( property.propertyKeyId() ) )
             {
-                addedProperties.put( property.propertyKeyId(), property );
-                return;
+                return addedProperties.put( property.propertyKeyId(), property );
             }
         }
 
@@ -95,14 +98,19 @@ public class PropertyContainerStateImpl implements PropertyContainerState
         {
             changedProperties = new VersionedHashMap<>();
         }
-        changedProperties.put( property.propertyKeyId(), property );
+        StorageProperty replaced = changedProperties.put( property.propertyKeyId(), property );
         if ( removedProperties != null )
         {
             removedProperties.remove( property.propertyKeyId() );
         }
+        return replaced;
     }
 
-    public void addProperty( DefinedProperty property )
+    /**
+     * @return the value this transaction had previously added or changed the property to, which this addition
+     * replaces, or {@code null} if there was none.
+     */
+    public StorageProperty addProperty( DefinedProperty property )
     {
         if ( removedProperties != null )
         {
@@ -111,24 +119,28 @@ public class PropertyContainerStateImpl implements PropertyContainerState
             {
                 // This indicates the user did remove+add as two discrete steps, which should be translated to
                 // a single change operation.
-                changeProperty( property );
-                return;
+                return changeProperty( property );
             }
         }
         if ( addedProperties == null )
         {
             addedProperties = new VersionedHashMap<>();
         }
-        addedProperties.put( property.propertyKeyId(), property );
+        return addedProperties.put( property.propertyKeyId(), property );
     }
 
-    public void removeProperty( DefinedProperty property )
+    /**
+     * @return the value this transaction had previously added or changed the property to, which is now dropped,
+     * or {@code null} if there was none.
+     */
+    public StorageProperty removeProperty( DefinedProperty property )
     {
         if ( addedProperties != null )
         {
-            if ( addedProperties.remove( property.propertyKeyId() ) != null )
+            StorageProperty added = addedProperties.remove( property.propertyKeyId() );
+            if ( added != null )
             {
-                return;
+                return added;
             }
         }
         if ( removedProperties == null )
@@ -138,8 +150,9 @@ public class PropertyContainerStateImpl implements PropertyContainerState
         removedProperties.put( property.propertyKeyId(), property );
         if ( changedProperties != null )
         {
-            changedProperties.remove( property.propertyKeyId() );
+            return changedProperties.remove( property.propertyKeyId() );
         }
+        return null;
     }
 
     @Override
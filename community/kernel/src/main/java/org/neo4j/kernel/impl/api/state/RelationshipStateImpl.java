@@ -28,6 +28,9 @@ import org.neo4j.storageengine.api.txstate.RelationshipState;
 
 public class RelationshipStateImpl extends PropertyContainerStateImpl implements RelationshipState
 {
+    // The state object, its entry in the relationship state map, and its property change sets
+    static final long ESTIMATED_HEAP_SIZE = 160;
+
     private long startNode = -1;
     private long endNode = -1;
     private int type = -1;
@@ -60,6 +63,7 @@ public class RelationshipStateImpl extends PropertyContainerStateImpl implements
         @Override
         RelationshipStateImpl createValue( Long id, TxState state )
         {
+            state.memoryTracker().allocated( ESTIMATED_HEAP_SIZE );
             return new RelationshipStateImpl( id );
         }
 
@@ -58,8 +58,11 @@ import org.neo4j.kernel.impl.api.cursor.TxSinglePropertyCursor;
 import org.neo4j.kernel.impl.api.cursor.TxSingleRelationshipCursor;
 import org.neo4j.kernel.impl.api.store.RelationshipIterator;
 import org.neo4j.kernel.impl.util.InstanceCache;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactory;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
 import org.neo4j.kernel.impl.util.diffsets.DiffSets;
 import org.neo4j.kernel.impl.util.diffsets.RelationshipDiffSets;
+import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.storageengine.api.Direction;
 import org.neo4j.storageengine.api.NodeItem;
 import org.neo4j.storageengine.api.PropertyItem;
@@ -147,8 +150,6 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     private DiffSets<NewIndexDescriptor> indexChanges;
     private DiffSets<PropertyConstraint> constraintsChanges;
 
-    private PropertyChanges propertyChangesForNodes;
-
     // Tracks added and removed nodes, not modified nodes
     private DiffSets<Long> nodes;
 
@@ -176,8 +177,23 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
 
     private boolean hasChanges, hasDataChanges;
 
+    private final CollectionsFactory collectionsFactory;
+    private final MemoryAllocationTracker memoryTracker;
+
     public TxState()
     {
+        this( OnHeapCollectionsFactory.INSTANCE, MemoryAllocationTracker.NONE );
+    }
+
+    /**
+     * @param collectionsFactory creates the collections that hold the state, and decides where it is kept.
+     * @param memoryTracker tracker that the estimated heap usage of the state is accounted to. Native memory is
+     * accounted by the collections factory itself.
+     */
+    public TxState( CollectionsFactory collectionsFactory, MemoryAllocationTracker memoryTracker )
+    {
+        this.collectionsFactory = collectionsFactory;
+        this.memoryTracker = memoryTracker;
         singleNodeCursor = new InstanceCache<TxSingleNodeCursor>()
         {
             @Override
@@ -221,6 +237,16 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
         };
     }
 
+    CollectionsFactory collectionsFactory()
+    {
+        return collectionsFactory;
+    }
+
+    MemoryAllocationTracker memoryTracker()
+    {
+        return memoryTracker;
+    }
+
     @Override
     public void accept( final TxStateVisitor visitor )
             throws ConstraintValidationKernelException, CreateConstraintFailureException
@@ -631,17 +657,14 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void nodeDoReplaceProperty( long nodeId, Property replacedProperty, DefinedProperty newProperty )
     {
+        newProperty = storeProperty( newProperty );
         if ( replacedProperty.isDefined() )
         {
-            getOrCreateNodeState( nodeId ).changeProperty( newProperty );
-            nodePropertyChanges().changeProperty( nodeId, replacedProperty.propertyKeyId(),
-                    ((DefinedProperty) replacedProperty).value(), newProperty.value() );
+            releaseProperty( getOrCreateNodeState( nodeId ).changeProperty( newProperty ) );
         }
         else
         {
-            NodeStateImpl nodeState = getOrCreateNodeState( nodeId );
-            nodeState.addProperty( newProperty );
-            nodePropertyChanges().addProperty( nodeId, newProperty.propertyKeyId(), newProperty.value() );
+            releaseProperty( getOrCreateNodeState( nodeId ).addProperty( newProperty ) );
         }
         dataChanged();
     }
@@ -651,17 +674,36 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
             Property replacedProperty,
             DefinedProperty newProperty )
     {
+        newProperty = storeProperty( newProperty );
         if ( replacedProperty.isDefined() )
         {
-            getOrCreateRelationshipState( relationshipId ).changeProperty( newProperty );
+            releaseProperty( getOrCreateRelationshipState( relationshipId ).changeProperty( newProperty ) );
         }
         else
         {
-            getOrCreateRelationshipState( relationshipId ).addProperty( newProperty );
+            releaseProperty( getOrCreateRelationshipState( relationshipId ).addProperty( newProperty ) );
         }
         dataChanged();
     }
 
+    private DefinedProperty storeProperty( DefinedProperty property )
+    {
+        DefinedProperty stored = collectionsFactory.storeProperty( property );
+        memoryTracker.allocated( Property.estimatedHeapSize( stored ) );
+        return stored;
+    }
+
+    /**
+     * Give back the memory of a value that this transaction had stored, and that has now been replaced or removed.
+     */
+    private void releaseProperty( StorageProperty replaced )
+    {
+        if ( replaced instanceof DefinedProperty )
+        {
+            memoryTracker.deallocated( Property.estimatedHeapSize( (DefinedProperty) replaced ) );
+        }
+    }
+
     @Override
     public void graphDoReplaceProperty( Property replacedProperty, DefinedProperty newProperty )
     {
@@ -679,16 +721,14 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     @Override
     public void nodeDoRemoveProperty( long nodeId, DefinedProperty removedProperty )
     {
-        getOrCreateNodeState( nodeId ).removeProperty( removedProperty );
-        nodePropertyChanges().removeProperty( nodeId, removedProperty.propertyKeyId(),
-                removedProperty.value() );
+        releaseProperty( getOrCreateNodeState( nodeId ).removeProperty( removedProperty ) );
         dataChanged();
     }
 
     @Override
     public void relationshipDoRemoveProperty( long relationshipId, DefinedProperty removedProperty )
     {
-        getOrCreateRelationshipState( relationshipId ).removeProperty( removedProperty );
+        releaseProperty( getOrCreateRelationshipState( relationshipId ).removeProperty( removedProperty ) );
         dataChanged();
     }
 
@@ -888,7 +928,7 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     {
         if ( nodes == null )
         {
-            nodes = new DiffSets<>();
+            nodes = collectionsFactory.newLongDiffSets();
         }
         return nodes;
     }
@@ -921,7 +961,7 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     {
         if ( relationships == null )
         {
-            relationships = new RelationshipDiffSets<>( this );
+            relationships = collectionsFactory.newRelationshipDiffSets( this );
         }
         return relationships;
     }
@@ -1407,12 +1447,6 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
         return nodeStatesMap != null && nodeStatesMap.containsKey( nodeId );
     }
 
-    private PropertyChanges nodePropertyChanges()
-    {
-        return propertyChangesForNodes == null ?
-                propertyChangesForNodes = new PropertyChanges() : propertyChangesForNodes;
-    }
-
     @Override
     public PrimitiveLongIterator augmentNodesGetAll( PrimitiveLongIterator committed )
     {
@@ -1441,7 +1475,7 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     {
         if ( nodesDeletedInTx == null )
         {
-            nodesDeletedInTx = Primitive.longSet();
+            nodesDeletedInTx = collectionsFactory.newLongSet();
         }
         nodesDeletedInTx.add( id );
     }
@@ -1450,7 +1484,7 @@ public final class TxState implements TransactionState, RelationshipVisitor.Home
     {
         if ( relationshipsDeletedInTx == null )
         {
-            relationshipsDeletedInTx = Primitive.longSet();
+            relationshipsDeletedInTx = collectionsFactory.newLongSet();
         }
         relationshipsDeletedInTx.add( id );
     }
@@ -37,7 +37,8 @@ public class AllNodeIterator extends HighIdAwareIterator<NodeStore>
         {
             try
             {
-                if ( store.isInUse( currentId ) )
+                // Only the probe is transient, the node that is returned is read by the caller as usual
+                if ( store.isInUseDuringScan( currentId ) )
                 {
                     return next( currentId );
                 }
@@ -103,6 +103,7 @@ public class StoreNodeRelationshipCursor extends StoreAbstractRelationshipCursor
         while ( relationshipId != NO_NEXT_RELATIONSHIP.intValue() )
         {
             relationshipRecordCursor.next( relationshipId, relationshipRecord, FORCE );
+            boolean found = false;
 
             // If we end up on a relationship record that isn't in use there's a good chance there
             // have been a concurrent transaction deleting this record under our feet. Since we don't
@@ -145,6 +146,7 @@ public class StoreNodeRelationshipCursor extends StoreAbstractRelationshipCursor
                     {
                         continue;
                     }
+                    found = true;
                     return true;
                 }
             }
@@ -176,6 +178,12 @@ public class StoreNodeRelationshipCursor extends StoreAbstractRelationshipCursor
                 {
                     relationshipId = nextChainStart();
                 }
+
+                // Let the next hop be faulted in while the caller looks at this relationship
+                if ( found )
+                {
+                    relationshipRecordCursor.prefetch( relationshipId );
+                }
             }
         }
 
@@ -203,9 +211,9 @@ public class StoreNodeRelationshipCursor extends StoreAbstractRelationshipCursor
                     {
                         GroupChain groupChain = GROUP_CHAINS[groupChainIndex++];
                         long chainStart = groupChain.chainStart( groupRecord );
-                        if ( !NULL_REFERENCE.is( chainStart )
-                             && (direction == Direction.BOTH || groupChain.matchesDirection( direction )) )
+                        if ( !NULL_REFERENCE.is( chainStart ) && matchesDirection( groupChain ) )
                         {
+                            prefetchRemainingChainStarts();
                             return chainStart;
                         }
                     }
@@ -229,6 +237,27 @@ public class StoreNodeRelationshipCursor extends StoreAbstractRelationshipCursor
         return NULL_REFERENCE.intValue();
     }
 
+    private boolean matchesDirection( GroupChain groupChain )
+    {
+        return direction == Direction.BOTH || groupChain.matchesDirection( direction );
+    }
+
+    /**
+     * The chains that come after the one we are about to traverse, will be traversed from their start once the
+     * current chain is exhausted, and so will the next group.
+     */
+    private void prefetchRemainingChainStarts()
+    {
+        for ( int i = groupChainIndex; i < GROUP_CHAINS.length; i++ )
+        {
+            if ( matchesDirection( GROUP_CHAINS[i] ) )
+            {
+                relationshipRecordCursor.prefetch( GROUP_CHAINS[i].chainStart( groupRecord ) );
+            }
+        }
+        cursors.relationshipGroup().prefetch( groupRecord.getNext() );
+    }
+
     private boolean checkType( int type )
     {
         if ( relTypes != null )
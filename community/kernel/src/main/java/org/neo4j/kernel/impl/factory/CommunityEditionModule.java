@@ -61,6 +61,7 @@ import org.neo4j.kernel.impl.store.id.configuration.CommunityIdTypeConfiguration
 import org.neo4j.kernel.impl.store.id.configuration.IdTypeConfigurationProvider;
 import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.state.DataSourceManager;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.internal.DefaultKernelData;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.kernel.internal.KernelData;
@@ -92,7 +93,8 @@ public class CommunityEditionModule extends EditionModule
 
         GraphDatabaseFacade graphDatabaseFacade = platformModule.graphDatabaseFacade;
 
-        lockManager = dependencies.satisfyDependency( createLockManager( config, platformModule.clock, logging ) );
+        lockManager = dependencies.satisfyDependency( createLockManager( config, platformModule.clock,
+                platformModule.jobScheduler, logging ) );
         statementLocksFactory = createStatementLocksFactory( lockManager, config, logging );
 
         idTypeConfigurationProvider = createIdTypeConfigurationProvider( config );
@@ -201,7 +203,8 @@ public class CommunityEditionModule extends EditionModule
         return new DefaultIdGeneratorFactory( fs, idTypeConfigurationProvider );
     }
 
-    public static Locks createLockManager( Config config, Clock clock, LogService logging )
+    public static Locks createLockManager( Config config, Clock clock, JobScheduler jobScheduler,
+            LogService logging )
     {
         String key = config.get( GraphDatabaseFacadeFactory.Configuration.lock_manager );
         for ( Locks.Factory candidate : Service.load( Locks.Factory.class ) )
@@ -209,13 +212,15 @@ public class CommunityEditionModule extends EditionModule
             String candidateId = candidate.getKeys().iterator().next();
             if ( key.equals( candidateId ) )
             {
-                return candidate.newInstance( config, clock, ResourceTypes.values() );
+                return candidate.newInstance( config, clock, ResourceTypes.values(), jobScheduler,
+                        logging.getInternalLogProvider() );
             }
             else if ( key.equals( "" ) )
             {
                 logging.getInternalLog( CommunityEditionModule.class )
                         .info( "No locking implementation specified, defaulting to '" + candidateId + "'" );
-                return candidate.newInstance( config, clock, ResourceTypes.values() );
+                return candidate.newInstance( config, clock, ResourceTypes.values(), jobScheduler,
+                        logging.getInternalLogProvider() );
             }
         }
 
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * A resource that clients have waited to lock, as counted by a space-saving sketch: only a fixed number of resources
+ * are tracked, and a resource that is not tracked takes the place of the tracked resource with the fewest waits,
+ * inheriting its count. The {@link #waits()} of a resource are therefore an overestimate, by at most
+ * {@link #overestimate()}, but any resource that has been waited for more often than the sketch has room for
+ * resources is sure to be tracked.
+ */
+public class ContendedResource
+{
+    private final ResourceType resourceType;
+    private final long resourceId;
+    private final long waits;
+    private final long overestimate;
+    private final long waitNanos;
+
+    public ContendedResource( ResourceType resourceType, long resourceId, long waits, long overestimate,
+            long waitNanos )
+    {
+        this.resourceType = resourceType;
+        this.resourceId = resourceId;
+        this.waits = waits;
+        this.overestimate = overestimate;
+        this.waitNanos = waitNanos;
+    }
+
+    public ResourceType resourceType()
+    {
+        return resourceType;
+    }
+
+    public long resourceId()
+    {
+        return resourceId;
+    }
+
+    /**
+     * @return how many times clients have waited for this resource, give or take {@link #overestimate()}.
+     */
+    public long waits()
+    {
+        return waits;
+    }
+
+    /**
+     * @return by how much {@link #waits()} may be too high.
+     */
+    public long overestimate()
+    {
+        return overestimate;
+    }
+
+    /**
+     * @return how long clients have waited for this resource in total, in nanoseconds, since it was last taken into
+     * the sketch.
+     */
+    public long waitNanos()
+    {
+        return waitNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ContendedResource[" + resourceType + "(" + resourceId + "), waits=" + waits +
+               ", overestimate=" + overestimate + ", waitNanos=" + waitNanos + "]";
+    }
+}
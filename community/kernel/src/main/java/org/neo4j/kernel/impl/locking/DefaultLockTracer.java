@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.kernel.impl.util.LatencyHistogram;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * The lock tracer of the default tracer implementation. It records how long clients wait for locks, per
+ * {@link ResourceType}, and which resources they wait for the most, and makes that available as a
+ * {@link LockContentionMonitor}.
+ * <p>
+ * Lock managers only ask their tracer for an event when a client has to wait for a lock, so acquiring a lock without
+ * contention costs nothing extra.
+ */
+public class DefaultLockTracer implements LockTracer, LockContentionMonitor
+{
+    /** How many resources to keep track of, when looking for the most contended ones. */
+    static final int CONTENDED_RESOURCES_TRACKED = 64;
+    /**
+     * How many sketches the resources are spread over. Each sketch tracks twice its share of the resources, so that
+     * the most contended ones are still found when they happen to share a sketch.
+     */
+    private static final int SKETCH_STRIPES = 8;
+
+    private final LatencyHistogram[] waitTimes;
+    private final LatencyHistogram otherWaitTimes = new LatencyHistogram();
+    private final SpaceSavingSketch[] mostContended = new SpaceSavingSketch[SKETCH_STRIPES];
+
+    public DefaultLockTracer()
+    {
+        int maxTypeId = 0;
+        for ( ResourceTypes type : ResourceTypes.values() )
+        {
+            maxTypeId = Math.max( maxTypeId, type.typeId() );
+        }
+        waitTimes = new LatencyHistogram[maxTypeId + 1];
+        for ( int i = 0; i < waitTimes.length; i++ )
+        {
+            waitTimes[i] = new LatencyHistogram();
+        }
+        for ( int i = 0; i < SKETCH_STRIPES; i++ )
+        {
+            mostContended[i] = new SpaceSavingSketch( 2 * CONTENDED_RESOURCES_TRACKED / SKETCH_STRIPES );
+        }
+    }
+
+    @Override
+    public LockWaitEvent waitForLock( boolean exclusive, ResourceType resourceType, long... resourceIds )
+    {
+        return new WaitEvent( resourceType, resourceIds, System.nanoTime() );
+    }
+
+    @Override
+    public LatencyHistogram waitTimes( ResourceType resourceType )
+    {
+        int typeId = resourceType.typeId();
+        // Resource types that the kernel does not know of, such as those of tests, are counted together
+        return typeId >= 0 && typeId < waitTimes.length ? waitTimes[typeId] : otherWaitTimes;
+    }
+
+    @Override
+    public List<ContendedResource> mostContendedResources()
+    {
+        List<ContendedResource> resources = new ArrayList<>();
+        for ( SpaceSavingSketch sketch : mostContended )
+        {
+            resources.addAll( sketch.mostContended() );
+        }
+        resources.sort( ( a, b ) -> Long.compare( b.waits(), a.waits() ) );
+        return resources.size() > CONTENDED_RESOURCES_TRACKED
+               ? new ArrayList<>( resources.subList( 0, CONTENDED_RESOURCES_TRACKED ) ) : resources;
+    }
+
+    private SpaceSavingSketch sketchFor( ResourceType resourceType, long resourceId )
+    {
+        int hash = 31 * Long.hashCode( resourceId ) + resourceType.typeId();
+        hash ^= hash >>> 16;
+        return mostContended[hash & (SKETCH_STRIPES - 1)];
+    }
+
+    private class WaitEvent implements LockWaitEvent
+    {
+        private final ResourceType resourceType;
+        private final long[] resourceIds;
+        private final long startNanos;
+
+        WaitEvent( ResourceType resourceType, long[] resourceIds, long startNanos )
+        {
+            this.resourceType = resourceType;
+            this.resourceIds = resourceIds;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close()
+        {
+            long nanos = System.nanoTime() - startNanos;
+            waitTimes( resourceType ).record( nanos );
+            for ( long resourceId : resourceIds )
+            {
+                sketchFor( resourceType, resourceId ).waited( resourceType, resourceId, nanos );
+            }
+        }
+    }
+}
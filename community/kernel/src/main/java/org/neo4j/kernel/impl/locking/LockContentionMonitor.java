@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.neo4j.kernel.impl.util.LatencyHistogram;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * Tells which locks transactions wait for, and for how long: the wait times per {@link ResourceType}, and the
+ * resources that have been waited for the most. Only acquisitions that had to wait are counted.
+ */
+public interface LockContentionMonitor
+{
+    /**
+     * @return the histogram of the time, in nanoseconds, that clients have waited for locks of the given type.
+     */
+    LatencyHistogram waitTimes( ResourceType resourceType );
+
+    /**
+     * @return the resources that clients have waited for the most, most waited for first. The counts are
+     * estimates, see {@link ContendedResource}.
+     */
+    List<ContendedResource> mostContendedResources();
+
+    LockContentionMonitor NULL = new LockContentionMonitor()
+    {
+        private final LatencyHistogram empty = new LatencyHistogram();
+
+        @Override
+        public LatencyHistogram waitTimes( ResourceType resourceType )
+        {
+            return empty;
+        }
+
+        @Override
+        public List<ContendedResource> mostContendedResources()
+        {
+            return Collections.emptyList();
+        }
+    };
+}
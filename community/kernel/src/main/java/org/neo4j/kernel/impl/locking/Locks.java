@@ -24,6 +24,8 @@ import java.util.stream.Stream;
 
 import org.neo4j.helpers.Service;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.logging.LogProvider;
 import org.neo4j.storageengine.api.lock.AcquireLockTimeoutException;
 import org.neo4j.storageengine.api.lock.ResourceLocker;
 import org.neo4j.storageengine.api.lock.ResourceType;
@@ -47,6 +49,20 @@ import org.neo4j.storageengine.api.lock.WaitStrategy;
  *
  * Each call to acquire a lock must be accompanied by a call to release that same lock. A user can call acquire on the
  * same lock multiple times, thus requiring an equal number of calls to release those locks.
+ *
+ * ## Hierarchical locks
+ *
+ * Some resources belong to a parent resource, such as the index entries that belong to a label. Locks on them are
+ * taken with {@link Client#acquireSharedWithin(LockTracer, ResourceType, long, ResourceType, long)} and
+ * {@link Client#acquireExclusiveWithin(LockTracer, ResourceType, long, ResourceType, long)}. By default these only
+ * lock the resource itself. A lock manager that escalates locks to their parent, first takes an intention lock on
+ * the parent, in the form of a shared lock. Intention locks do not conflict with each other, so clients locking
+ * different resources of the same parent do not block each other. An exclusive lock on the parent conflicts with all
+ * intention locks on it, and so covers every resource of that parent: a client holding it does not need to lock the
+ * resources themselves. Resources that belong to a parent must only be locked and released through these methods.
+ * <p>
+ * Lock clients that wrap or forward to another lock client, such as the HA slave client, keep the default
+ * implementations, and never lock the parent resources.
  */
 public interface Locks
 {
@@ -57,7 +73,8 @@ public interface Locks
             super( key, altKeys );
         }
 
-        public abstract Locks newInstance( Config config, Clock clocks, ResourceType[] resourceTypes );
+        public abstract Locks newInstance( Config config, Clock clocks, ResourceType[] resourceTypes,
+                JobScheduler jobScheduler, LogProvider logProvider );
     }
 
     /** For introspection and debugging. */
@@ -104,6 +121,50 @@ public interface Locks
         /** Release a set of exclusive locks */
         void releaseExclusive( ResourceType resourceType, long resourceId );
 
+        /**
+         * Grab a shared lock on a resource that belongs to the given parent resource. Lock managers that escalate
+         * locks to the parent grab an intention lock on the parent first, and may skip locking the resource itself,
+         * if this client holds the parent exclusively. See "Hierarchical locks" in {@link Locks}.
+         *
+         * @param tracer a tracer for listening on lock events.
+         * @param parentType type of the parent resource, such as {@link ResourceTypes#LABEL}.
+         * @param parentId id of the parent resource.
+         * @param resourceType type of resource to lock.
+         * @param resourceId id of resource to lock.
+         */
+        default void acquireSharedWithin( LockTracer tracer, ResourceType parentType, long parentId,
+                ResourceType resourceType, long resourceId ) throws AcquireLockTimeoutException
+        {
+            acquireShared( tracer, resourceType, resourceId );
+        }
+
+        /**
+         * Grab an exclusive lock on a resource that belongs to the given parent resource.
+         *
+         * @see #acquireSharedWithin(LockTracer, ResourceType, long, ResourceType, long)
+         */
+        default void acquireExclusiveWithin( LockTracer tracer, ResourceType parentType, long parentId,
+                ResourceType resourceType, long resourceId ) throws AcquireLockTimeoutException
+        {
+            acquireExclusive( tracer, resourceType, resourceId );
+        }
+
+        /** Release a shared lock grabbed with {@link #acquireSharedWithin}, and any intention lock on the parent */
+        default void releaseSharedWithin( ResourceType parentType, long parentId, ResourceType resourceType,
+                long resourceId )
+        {
+            releaseShared( resourceType, resourceId );
+        }
+
+        /**
+         * Release an exclusive lock grabbed with {@link #acquireExclusiveWithin}, and any intention lock on the parent
+         */
+        default void releaseExclusiveWithin( ResourceType parentType, long parentId, ResourceType resourceType,
+                long resourceId )
+        {
+            releaseExclusive( resourceType, resourceId );
+        }
+
         /**
          * Stop all active lock waiters and release them. All already held locks remains.
          * All new attempts to acquire any locks will cause exceptions.
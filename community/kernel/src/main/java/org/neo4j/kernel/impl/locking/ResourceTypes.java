@@ -39,6 +39,17 @@ public enum ResourceTypes implements ResourceType
     INDEX_ENTRY (4, LockWaitStrategies.INCREMENTAL_BACKOFF),
 
     LEGACY_INDEX(5, LockWaitStrategies.INCREMENTAL_BACKOFF),
+
+    /**
+     * Parent of the {@link #INDEX_ENTRY} locks of the indexes on a label, by label id. Shared locks on it are
+     * intention locks, taken by {@link Locks.Client#acquireSharedWithin} and
+     * {@link Locks.Client#acquireExclusiveWithin} before locking an index entry, but only by lock managers that
+     * escalate locks, which is off by default. An exclusive lock on it covers all index entries of the label at once.
+     * <p>
+     * Locks of this type are never sent to an HA master, since the slave lock client does not take intention locks,
+     * and HA masters run without lock escalation. Masters of older versions do not know this type.
+     */
+    LABEL       (6, LockWaitStrategies.INCREMENTAL_BACKOFF),
     ;
 
     private static final Map<Integer, ResourceType> idToType = new HashMap<>();
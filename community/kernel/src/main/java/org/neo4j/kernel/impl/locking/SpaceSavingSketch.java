@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * Finds the resources that are waited for the most, in a fixed amount of memory, with the space-saving algorithm of
+ * Metwally et al. See {@link ContendedResource} for what the counts mean.
+ * <p>
+ * The sketch is only updated when a client has finished waiting for a lock, so it is simply synchronized, and looks
+ * resources up by scanning its few slots. {@link DefaultLockTracer} spreads the resources over several small sketches,
+ * so that waits for different resources rarely update the same one.
+ */
+class SpaceSavingSketch
+{
+    private final ResourceType[] resourceTypes;
+    private final long[] resourceIds;
+    private final long[] waits;
+    private final long[] overestimates;
+    private final long[] waitNanos;
+    private int size;
+
+    SpaceSavingSketch( int capacity )
+    {
+        resourceTypes = new ResourceType[capacity];
+        resourceIds = new long[capacity];
+        waits = new long[capacity];
+        overestimates = new long[capacity];
+        waitNanos = new long[capacity];
+    }
+
+    synchronized void waited( ResourceType resourceType, long resourceId, long nanos )
+    {
+        int slot = -1;
+        int fewestWaits = 0;
+        for ( int i = 0; i < size; i++ )
+        {
+            if ( resourceIds[i] == resourceId && resourceTypes[i] == resourceType )
+            {
+                slot = i;
+                break;
+            }
+            if ( waits[i] < waits[fewestWaits] )
+            {
+                fewestWaits = i;
+            }
+        }
+
+        if ( slot == -1 )
+        {
+            if ( size < resourceTypes.length )
+            {
+                slot = size++;
+                waits[slot] = 0;
+                overestimates[slot] = 0;
+            }
+            else
+            {
+                // Take the place of the resource with the fewest waits, since this one may have been waited for as
+                // often as that, before it was tracked
+                slot = fewestWaits;
+                overestimates[slot] = waits[slot];
+            }
+            resourceTypes[slot] = resourceType;
+            resourceIds[slot] = resourceId;
+            waitNanos[slot] = 0;
+        }
+
+        waits[slot]++;
+        waitNanos[slot] += nanos;
+    }
+
+    /**
+     * @return the tracked resources, most waited for first.
+     */
+    synchronized List<ContendedResource> mostContended()
+    {
+        List<ContendedResource> resources = new ArrayList<>( size );
+        for ( int i = 0; i < size; i++ )
+        {
+            resources.add( new ContendedResource( resourceTypes[i], resourceIds[i], waits[i], overestimates[i],
+                    waitNanos[i] ) );
+        }
+        resources.sort( ( a, b ) -> Long.compare( b.waits(), a.waits() ) );
+        return resources;
+    }
+}
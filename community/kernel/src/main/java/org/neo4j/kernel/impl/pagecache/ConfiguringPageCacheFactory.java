@@ -19,20 +19,32 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import java.io.File;
+
 import org.neo4j.helpers.Service;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.impl.CompressingPageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.util.OsBeanUtil;
 import org.neo4j.logging.Log;
+import org.neo4j.unsafe.impl.internal.dragons.MemoryAllocator;
 
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_compressed_tier_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_eviction_stripes;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_pages;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_pages_mount;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_prefetch_threads;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_pretouch;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_replacement_policy;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.kernel.configuration.Settings.BYTES;
 import static org.neo4j.unsafe.impl.internal.dragons.FeatureToggles.getInteger;
@@ -49,7 +61,8 @@ public class ConfiguringPageCacheFactory
     public ConfiguringPageCacheFactory(
             FileSystemAbstraction fs, Config config, PageCacheTracer tracer, Log log )
     {
-        this.swapperFactory = createAndConfigureSwapperFactory( fs, config, log );
+        PageSwapperFactory factory = createAndConfigureSwapperFactory( fs, config, log );
+        this.swapperFactory = addCompressedTier( factory, config, tracer, log );
         this.config = config;
         this.tracer = tracer;
         this.log = log;
@@ -83,6 +96,18 @@ public class ConfiguringPageCacheFactory
         return factory;
     }
 
+    private PageSwapperFactory addCompressedTier(
+            PageSwapperFactory factory, Config config, PageCacheTracer tracer, Log log )
+    {
+        long tierSize = config.get( pagecache_compressed_tier_size );
+        if ( tierSize == 0 )
+        {
+            return factory;
+        }
+        log.info( "Keeping up to %s bytes of compressed evicted pages in the compressed page cache tier", tierSize );
+        return new CompressingPageSwapperFactory( factory, tierSize, calculatePageSize( config, factory ), tracer );
+    }
+
     public synchronized PageCache getOrCreatePageCache()
     {
         if ( pageCache == null )
@@ -100,7 +125,29 @@ public class ConfiguringPageCacheFactory
                 swapperFactory,
                 maxPages,
                 cachePageSize,
-                tracer );
+                tracer,
+                config.get( pagecache_eviction_stripes ),
+                config.get( pagecache_replacement_policy ),
+                createMemoryAllocator( config ),
+                config.get( pagecache_pretouch ),
+                config.get( pagecache_prefetch_threads ) );
+    }
+
+    private MemoryAllocator createMemoryAllocator( Config config )
+    {
+        long hugePageSize = config.get( pagecache_huge_page_size );
+        switch ( config.get( pagecache_huge_pages ) )
+        {
+        case TRANSPARENT:
+            log.info( "Allocating page cache memory in slabs aligned to %s byte transparent huge pages", hugePageSize );
+            return MemoryAllocator.transparentHugePages( hugePageSize );
+        case HUGETLBFS:
+            File mount = config.get( pagecache_huge_pages_mount );
+            log.info( "Mapping page cache memory from %s byte huge pages in hugetlbfs mount %s", hugePageSize, mount );
+            return MemoryAllocator.hugetlbfs( mount, hugePageSize );
+        default:
+            return MemoryAllocator.malloc();
+        }
     }
 
     public int calculateMaxPages( Config config, int cachePageSize )
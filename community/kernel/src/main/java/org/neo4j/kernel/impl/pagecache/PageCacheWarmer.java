@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.FileHandle;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
+import static org.neo4j.kernel.impl.util.JobScheduler.Groups.pageCacheWarmup;
+
+/**
+ * The page cache warmer periodically records which pages of the mapped store files are in memory, into profile files
+ * in the {@value #PROFILE_DIRECTORY} directory of the store. When the database is started again, the warmer reads
+ * those profiles and loads the recorded pages back into the page cache, before the database starts serving requests.
+ * <p>
+ * A profile is a gzip compressed bitmap, with one bit per file page, where a raised bit means the page was in memory.
+ * Profiles are written to a temporary file, and then atomically moved in place, so a crash in the middle of profiling
+ * will never leave a broken profile behind.
+ * <p>
+ * The pages are loaded by a number of threads in parallel. Each thread takes a chunk of a file at a time, and faults
+ * in the recorded pages of that chunk in file order, so the storage sees a few concurrent sequential streams of reads,
+ * rather than random access.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    public static final String PROFILE_DIRECTORY = "profiles";
+    static final String SUFFIX_CACHEPROF = ".cacheprof";
+
+    // The number of file pages in each unit of work that the warmup threads take.
+    private static final int WARMUP_CHUNK_PAGES = 4096;
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final File storeDir;
+    private final File profileDir;
+    private final PageCacheTracer tracer;
+    private final Log log;
+    private final long profilingIntervalMillis;
+    private final int parallelism;
+
+    private volatile boolean stopped;
+    private volatile JobScheduler.JobHandle profileHandle;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File storeDir,
+            PageCacheTracer tracer, Log log, long profilingIntervalMillis, int parallelism )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.storeDir = storeDir;
+        this.profileDir = new File( storeDir, PROFILE_DIRECTORY );
+        this.tracer = tracer;
+        this.log = log;
+        this.profilingIntervalMillis = profilingIntervalMillis;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public void start() throws Throwable
+    {
+        stopped = false;
+        long startNanos = System.nanoTime();
+        long pagesLoaded = reheat();
+        if ( pagesLoaded > 0 )
+        {
+            log.info( "Page cache warmup loaded %d pages in %d ms.", pagesLoaded,
+                    TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - startNanos ) );
+        }
+        profileHandle = scheduler.scheduleRecurring( pageCacheWarmup, this::profileQuietly,
+                profilingIntervalMillis, profilingIntervalMillis, TimeUnit.MILLISECONDS );
+    }
+
+    @Override
+    public void stop() throws Throwable
+    {
+        stopped = true;
+        JobScheduler.JobHandle handle = profileHandle;
+        if ( handle != null )
+        {
+            handle.cancel( false );
+            profileHandle = null;
+        }
+        // Record the final state of the cache, so the next start can warm up from it.
+        profile();
+    }
+
+    /**
+     * Load the pages recorded in the profiles of all the currently mapped files, back into the page cache.
+     *
+     * @return the number of pages that were loaded.
+     */
+    public long reheat() throws IOException
+    {
+        if ( !fs.fileExists( profileDir ) )
+        {
+            return 0;
+        }
+
+        List<PagedFile> mappedFiles = new ArrayList<>();
+        ConcurrentLinkedQueue<WarmupChunk> chunks = new ConcurrentLinkedQueue<>();
+        try
+        {
+            for ( FileHandle handle : listStoreFiles() )
+            {
+                Optional<PagedFile> mapping = pageCache.getExistingMapping( handle.getFile() );
+                if ( mapping.isPresent() )
+                {
+                    PagedFile pagedFile = mapping.get();
+                    mappedFiles.add( pagedFile );
+                    addChunks( pagedFile, handle.getFile(), profileFile( handle ), chunks );
+                }
+            }
+            return loadChunks( chunks );
+        }
+        finally
+        {
+            closeAll( mappedFiles );
+        }
+    }
+
+    private void addChunks( PagedFile pagedFile, File file, File profile, ConcurrentLinkedQueue<WarmupChunk> chunks )
+            throws IOException
+    {
+        if ( !fs.fileExists( profile ) )
+        {
+            return;
+        }
+        byte[] bitmap;
+        try ( InputStream input = new GZIPInputStream( fs.openAsInputStream( profile ) ) )
+        {
+            bitmap = readFully( input );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Ignoring unreadable page cache profile " + profile, e );
+            return;
+        }
+
+        long lastPageId = pagedFile.getLastPageId();
+        long pageCount = Math.min( lastPageId + 1, bitmap.length * (long) Byte.SIZE );
+        for ( long start = 0; start < pageCount; start += WARMUP_CHUNK_PAGES )
+        {
+            long end = Math.min( start + WARMUP_CHUNK_PAGES, pageCount );
+            chunks.add( new WarmupChunk( pagedFile, file, bitmap, start, end ) );
+        }
+    }
+
+    private long loadChunks( ConcurrentLinkedQueue<WarmupChunk> chunks ) throws IOException
+    {
+        if ( chunks.isEmpty() )
+        {
+            return 0;
+        }
+        int threads = Math.min( parallelism, chunks.size() );
+        WarmupWorker[] workers = new WarmupWorker[threads];
+        JobScheduler.JobHandle[] handles = new JobScheduler.JobHandle[threads];
+        for ( int i = 0; i < threads; i++ )
+        {
+            workers[i] = new WarmupWorker( chunks );
+            handles[i] = scheduler.schedule( pageCacheWarmup, workers[i] );
+        }
+
+        long pagesLoaded = 0;
+        IOException failure = null;
+        for ( int i = 0; i < threads; i++ )
+        {
+            try
+            {
+                handles[i].waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                failure = addSuppressed( failure, new IOException( "Interrupted during page cache warmup", e ) );
+            }
+            catch ( ExecutionException e )
+            {
+                failure = addSuppressed( failure, new IOException( e.getCause() ) );
+            }
+            pagesLoaded += workers[i].pagesLoaded;
+            if ( workers[i].failure != null )
+            {
+                failure = addSuppressed( failure, workers[i].failure );
+            }
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+        return pagesLoaded;
+    }
+
+    private static IOException addSuppressed( IOException failure, IOException exception )
+    {
+        if ( failure == null )
+        {
+            return exception;
+        }
+        failure.addSuppressed( exception );
+        return failure;
+    }
+
+    private void profileQuietly()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Failed to record page cache profile.", e );
+        }
+    }
+
+    /**
+     * Record which pages of the currently mapped files are in memory, and write that down in the profile files.
+     */
+    public synchronized void profile() throws IOException
+    {
+        fs.mkdirs( profileDir );
+        for ( FileHandle handle : listStoreFiles() )
+        {
+            Optional<PagedFile> mapping = pageCache.getExistingMapping( handle.getFile() );
+            if ( mapping.isPresent() )
+            {
+                try ( PagedFile pagedFile = mapping.get() )
+                {
+                    profile( pagedFile, profileFile( handle ) );
+                }
+            }
+        }
+    }
+
+    private void profile( PagedFile pagedFile, File profile ) throws IOException
+    {
+        File tmpProfile = new File( profile.getPath() + ".tmp" );
+        fs.mkdirs( profile.getParentFile() );
+        try ( OutputStream output = new GZIPOutputStream( fs.openAsOutputStream( tmpProfile, false ) );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT | PF_TRANSIENT ) )
+        {
+            int bits = 0;
+            int bitCount = 0;
+            while ( cursor.next() )
+            {
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                {
+                    bits |= 1 << bitCount;
+                }
+                bitCount++;
+                if ( bitCount == Byte.SIZE )
+                {
+                    output.write( bits );
+                    bits = 0;
+                    bitCount = 0;
+                }
+            }
+            if ( bitCount > 0 )
+            {
+                output.write( bits );
+            }
+        }
+        fs.renameFile( tmpProfile, profile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    private List<FileHandle> listStoreFiles() throws IOException
+    {
+        try ( Stream<FileHandle> files = pageCache.streamFilesRecursive( storeDir ) )
+        {
+            return files.filter( this::isStoreFile ).collect( Collectors.toList() );
+        }
+    }
+
+    private boolean isStoreFile( FileHandle handle )
+    {
+        return !handle.getRelativeFile().getPath().startsWith( PROFILE_DIRECTORY + File.separator );
+    }
+
+    private File profileFile( FileHandle handle )
+    {
+        return new File( profileDir, handle.getRelativeFile().getPath() + SUFFIX_CACHEPROF );
+    }
+
+    private static byte[] readFully( InputStream input ) throws IOException
+    {
+        byte[] buffer = new byte[8192];
+        int length = 0;
+        int read;
+        while ( (read = input.read( buffer, length, buffer.length - length )) != -1 )
+        {
+            length += read;
+            if ( length == buffer.length )
+            {
+                byte[] larger = new byte[buffer.length * 2];
+                System.arraycopy( buffer, 0, larger, 0, length );
+                buffer = larger;
+            }
+        }
+        byte[] result = new byte[length];
+        System.arraycopy( buffer, 0, result, 0, length );
+        return result;
+    }
+
+    private static void closeAll( List<PagedFile> pagedFiles ) throws IOException
+    {
+        IOException failure = null;
+        for ( PagedFile pagedFile : pagedFiles )
+        {
+            try
+            {
+                pagedFile.close();
+            }
+            catch ( IOException e )
+            {
+                failure = addSuppressed( failure, e );
+            }
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+
+    private static final class WarmupChunk
+    {
+        final PagedFile pagedFile;
+        final File file;
+        final byte[] bitmap;
+        final long startPageId;
+        final long endPageId;
+
+        WarmupChunk( PagedFile pagedFile, File file, byte[] bitmap, long startPageId, long endPageId )
+        {
+            this.pagedFile = pagedFile;
+            this.file = file;
+            this.bitmap = bitmap;
+            this.startPageId = startPageId;
+            this.endPageId = endPageId;
+        }
+
+        boolean isRecorded( long pageId )
+        {
+            return (bitmap[(int) (pageId >>> 3)] & (1 << (pageId & 7))) != 0;
+        }
+    }
+
+    private final class WarmupWorker implements Runnable
+    {
+        private final ConcurrentLinkedQueue<WarmupChunk> chunks;
+        long pagesLoaded;
+        IOException failure;
+
+        WarmupWorker( ConcurrentLinkedQueue<WarmupChunk> chunks )
+        {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public void run()
+        {
+            WarmupChunk chunk;
+            while ( !stopped && (chunk = chunks.poll()) != null )
+            {
+                try
+                {
+                    long loaded = load( chunk );
+                    pagesLoaded += loaded;
+                    tracer.pagesWarmedUp( chunk.file, loaded );
+                }
+                catch ( IOException e )
+                {
+                    failure = e;
+                    return;
+                }
+            }
+        }
+
+        private long load( WarmupChunk chunk ) throws IOException
+        {
+            long loaded = 0;
+            try ( PageCursor cursor = chunk.pagedFile.io( chunk.startPageId, PF_SHARED_READ_LOCK ) )
+            {
+                for ( long pageId = chunk.startPageId; pageId < chunk.endPageId; pageId++ )
+                {
+                    if ( chunk.isRecorded( pageId ) && cursor.next( pageId ) )
+                    {
+                        loaded++;
+                    }
+                }
+            }
+            return loaded;
+        }
+    }
+}
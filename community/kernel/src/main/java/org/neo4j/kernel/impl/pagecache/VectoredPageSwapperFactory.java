@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.kernel.configuration.Config;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper_vectored_read_ahead;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper_vectored_write_combining_gap;
+
+/**
+ * A page swapper factory that creates the same swappers as the {@link SingleFilePageSwapperFactory}, but tells the
+ * page cache to make more use of their vectored IO capabilities: Page faults during sequential scans read ahead a
+ * number of pages with a single vectored read, and flushing bridges small gaps of clean pages between dirty pages, so
+ * they can be written with a single vectored write.
+ * <p>
+ * Select it by setting <code>dbms.memory.pagecache.swapper=vectored</code>. It is configured through the
+ * <code>dbms.memory.pagecache.swapper.vectored.*</code> settings.
+ */
+public class VectoredPageSwapperFactory extends SingleFilePageSwapperFactory implements ConfigurablePageSwapperFactory
+{
+    public static final String IMPLEMENTATION_NAME = "vectored";
+
+    private int readAheadPageCount = Config.empty().get( pagecache_swapper_vectored_read_ahead );
+    private int writeCombiningGapPageCount = Config.empty().get( pagecache_swapper_vectored_write_combining_gap );
+
+    @Override
+    public void configure( Config config )
+    {
+        readAheadPageCount = config.get( pagecache_swapper_vectored_read_ahead );
+        writeCombiningGapPageCount = config.get( pagecache_swapper_vectored_write_combining_gap );
+    }
+
+    @Override
+    public String implementationName()
+    {
+        return IMPLEMENTATION_NAME;
+    }
+
+    @Override
+    public int getReadAheadPageCount()
+    {
+        return readAheadPageCount;
+    }
+
+    @Override
+    public int getWriteCombiningGapPageCount()
+    {
+        return writeCombiningGapPageCount;
+    }
+}
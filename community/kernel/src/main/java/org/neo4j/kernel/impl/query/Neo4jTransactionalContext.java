@@ -34,6 +34,7 @@ import org.neo4j.kernel.impl.api.KernelStatement;
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.coreapi.PropertyContainerLocker;
+import org.neo4j.memory.MemoryAllocationTracker;
 
 public class Neo4jTransactionalContext implements TransactionalContext
 {
@@ -267,6 +268,12 @@ public class Neo4jTransactionalContext implements TransactionalContext
         return securityContext;
     }
 
+    @Override
+    public MemoryAllocationTracker memoryTracker()
+    {
+        return ((KernelStatement) statement).getTransaction().memoryTracker();
+    }
+
     interface Creator {
         Neo4jTransactionalContext create(
             Supplier<Statement> statementSupplier,
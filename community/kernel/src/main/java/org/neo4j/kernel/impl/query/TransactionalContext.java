@@ -29,6 +29,7 @@ import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.dbms.DbmsOperations;
 import org.neo4j.kernel.api.security.SecurityContext;
 import org.neo4j.kernel.api.txstate.TxStateHolder;
+import org.neo4j.memory.MemoryAllocationTracker;
 
 public interface TransactionalContext
 {
@@ -78,4 +79,10 @@ public interface TransactionalContext
     SecurityContext securityContext();
 
     KernelTransaction.Revertable restrictCurrentTransaction( SecurityContext context );
+
+    /**
+     * @return the tracker of the memory used by the current transaction, that memory held on to by the query, such
+     * as buffered rows, is accounted to.
+     */
+    MemoryAllocationTracker memoryTracker();
 }
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.kernel.impl.api.BatchTransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionApplierFacade;
+import org.neo4j.kernel.impl.locking.LockGroup;
+import org.neo4j.kernel.impl.transaction.command.CommandRecordKeys;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.storageengine.api.CommandsToApply;
+
+/**
+ * Applies a batch of recovered transactions with several threads.
+ * <p>
+ * The batch is cut into waves of consecutive transactions that write to disjoint sets of records, as decided by
+ * {@link CommandRecordKeys}. The record store changes of the transactions in a wave are applied concurrently, and
+ * once they are all in place, the rest of the appliers, which maintain the indexes, the counts store and the high ids,
+ * see the transactions of the wave one at a time, in commit order. Transactions that cannot be ordered by their
+ * records alone, such as schema and token changes, form a wave of their own, and are applied by the full applier
+ * chain in one go, exactly as they would be without parallel recovery.
+ * <p>
+ * The recovering thread applies store changes itself, helped by up to {@code threads - 1} jobs in the
+ * {@link JobScheduler.Groups#recoveryApply} group, so the threads are those of the job scheduler, which outlive
+ * recovery and are shut down with the database.
+ */
+class ParallelRecoveryApplier
+{
+    private static final int MAX_WAVE_SIZE = 1024;
+
+    private final int threads;
+    private final JobScheduler scheduler;
+
+    ParallelRecoveryApplier( int threads, JobScheduler scheduler )
+    {
+        this.threads = threads;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Apply the given batch of transactions.
+     *
+     * @param batch The first transaction in the batch.
+     * @param storeApplier The applier of the record store changes, which may be called concurrently for independent
+     * transactions.
+     * @param orderedApplier The appliers that must see every transaction in commit order.
+     */
+    void apply( CommandsToApply batch, BatchTransactionApplier storeApplier, BatchTransactionApplier orderedApplier )
+            throws Exception
+    {
+        List<CommandsToApply> wave = new ArrayList<>();
+        try ( PrimitiveLongSet waveKeys = Primitive.longSet();
+              PrimitiveLongSet transactionKeys = Primitive.longSet() )
+        {
+            while ( batch != null )
+            {
+                transactionKeys.clear();
+                if ( !CommandRecordKeys.collect( batch, transactionKeys ) )
+                {
+                    applyWave( wave, storeApplier, orderedApplier );
+                    waveKeys.clear();
+                    applyAlone( batch, storeApplier, orderedApplier );
+                }
+                else
+                {
+                    if ( wave.size() == MAX_WAVE_SIZE || overlaps( waveKeys, transactionKeys ) )
+                    {
+                        applyWave( wave, storeApplier, orderedApplier );
+                        waveKeys.clear();
+                    }
+                    wave.add( batch );
+                    waveKeys.addAll( transactionKeys.iterator() );
+                }
+                batch = batch.next();
+            }
+            applyWave( wave, storeApplier, orderedApplier );
+        }
+    }
+
+    private static boolean overlaps( PrimitiveLongSet waveKeys, PrimitiveLongSet transactionKeys )
+    {
+        PrimitiveLongIterator keys = transactionKeys.iterator();
+        while ( keys.hasNext() )
+        {
+            if ( waveKeys.contains( keys.next() ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void applyWave( List<CommandsToApply> wave, BatchTransactionApplier storeApplier,
+            BatchTransactionApplier orderedApplier ) throws Exception
+    {
+        if ( wave.isEmpty() )
+        {
+            return;
+        }
+
+        AtomicInteger nextTransaction = new AtomicInteger();
+        int helpers = Math.min( threads, wave.size() ) - 1;
+        List<FutureTask<Void>> tasks = new ArrayList<>( helpers );
+        List<JobScheduler.JobHandle> handles = new ArrayList<>( helpers );
+        for ( int i = 0; i < helpers; i++ )
+        {
+            FutureTask<Void> task = new FutureTask<>( () -> applyStoreChanges( wave, nextTransaction, storeApplier ) );
+            tasks.add( task );
+            handles.add( scheduler.schedule( JobScheduler.Groups.recoveryApply, task ) );
+        }
+        Throwable failure = null;
+        try
+        {
+            applyStoreChanges( wave, nextTransaction, storeApplier );
+        }
+        catch ( Throwable e )
+        {
+            failure = e;
+        }
+        for ( int i = 0; i < helpers; i++ )
+        {
+            try
+            {
+                tasks.get( i ).get();
+            }
+            catch ( ExecutionException e )
+            {
+                failure = chain( failure, e.getCause() );
+            }
+            // The job has ended, cancelling it only stops the scheduler from tracking it
+            handles.get( i ).cancel( false );
+        }
+        if ( failure != null )
+        {
+            throwUnchecked( failure );
+        }
+
+        for ( CommandsToApply transaction : wave )
+        {
+            apply( transaction, orderedApplier );
+        }
+        wave.clear();
+    }
+
+    private static Void applyStoreChanges( List<CommandsToApply> wave, AtomicInteger nextTransaction,
+            BatchTransactionApplier storeApplier ) throws Exception
+    {
+        int index;
+        while ( (index = nextTransaction.getAndIncrement()) < wave.size() )
+        {
+            apply( wave.get( index ), storeApplier );
+        }
+        return null;
+    }
+
+    private static void apply( CommandsToApply transaction, BatchTransactionApplier applier ) throws Exception
+    {
+        try ( LockGroup locks = new LockGroup();
+              TransactionApplier txApplier = applier.startTx( transaction, locks ) )
+        {
+            transaction.accept( txApplier );
+        }
+    }
+
+    private static void applyAlone( CommandsToApply transaction, BatchTransactionApplier storeApplier,
+            BatchTransactionApplier orderedApplier ) throws Exception
+    {
+        try ( LockGroup locks = new LockGroup();
+              TransactionApplier txApplier = new TransactionApplierFacade(
+                      storeApplier.startTx( transaction, locks ), orderedApplier.startTx( transaction, locks ) ) )
+        {
+            transaction.accept( txApplier );
+        }
+    }
+
+    private static Throwable chain( Throwable failure, Throwable next )
+    {
+        if ( failure == null )
+        {
+            return next;
+        }
+        if ( failure != next )
+        {
+            failure.addSuppressed( next );
+        }
+        return failure;
+    }
+
+    private static void throwUnchecked( Throwable failure ) throws Exception
+    {
+        if ( failure instanceof Exception )
+        {
+            throw (Exception) failure;
+        }
+        throw (Error) failure;
+    }
+}
@@ -69,6 +69,7 @@ import org.neo4j.kernel.impl.core.RelationshipTypeTokenHolder;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
 import org.neo4j.kernel.impl.locking.LockGroup;
 import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.id.BufferedIdController;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.id.DefaultIdController;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.id.IdController;
@@ -102,6 +103,7 @@ import org.neo4j.kernel.impl.transaction.state.RelationshipGroupGetter;
 import org.neo4j.kernel.impl.transaction.state.TransactionRecordState;
 import org.neo4j.kernel.impl.transaction.state.storeview.DynamicIndexStoreView;
 import org.neo4j.kernel.impl.transaction.state.storeview.NeoStoreIndexStoreView;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.kernel.impl.util.DependencySatisfier;
 import org.neo4j.kernel.impl.util.IdOrderingQueue;
 import org.neo4j.kernel.impl.util.JobScheduler;
@@ -161,6 +163,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final PropertyPhysicalToLogicalConverter indexUpdatesConverter;
     private final Supplier<StorageStatement> storeStatementSupplier;
     private final IdController idController;
+    private final ParallelRecoveryApplier parallelRecoveryApplier;
 
     // Immutable state for creating/applying commands
     private final Loaders loaders;
@@ -254,6 +257,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             propertyDeleter = new PropertyDeleter( propertyTraverser );
             relationshipDeleter = new RelationshipDeleter( relationshipGroupGetter, propertyDeleter );
             propertyCreator = new PropertyCreator( neoStores.getPropertyStore(), propertyTraverser );
+
+            int recoveryThreads = config.get( GraphDatabaseSettings.recovery_threads );
+            parallelRecoveryApplier =
+                    recoveryThreads > 1 ? new ParallelRecoveryApplier( recoveryThreads, scheduler ) : null;
         }
         catch ( Throwable failure )
         {
@@ -300,6 +307,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             ReadableTransactionState txState,
             StorageStatement storageStatement,
             ResourceLocker locks,
+            LockTracer lockTracer,
             long lastTransactionIdWhenStarted )
             throws TransactionFailureException, CreateConstraintFailureException, ConstraintValidationKernelException
     {
@@ -307,7 +315,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         {
             RecordChangeSet recordChangeSet = new RecordChangeSet( loaders );
             TransactionRecordState recordState = new TransactionRecordState( neoStores, integrityValidator,
-                    recordChangeSet, lastTransactionIdWhenStarted, locks,
+                    recordChangeSet, lastTransactionIdWhenStarted, locks, lockTracer,
                     relationshipCreator, relationshipDeleter, propertyCreator, propertyDeleter );
 
             // Visit transaction state and populate these record state objects
@@ -332,11 +340,18 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     }
 
     @Override
-    public void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception
+    public void apply( CommandsToApply batch, TransactionApplicationMode mode, StoreApplyEvent storeApplyEvent )
+            throws Exception
     {
+        if ( mode == TransactionApplicationMode.RECOVERY && parallelRecoveryApplier != null )
+        {
+            applyInParallel( batch, mode );
+            return;
+        }
+
         // Have these command appliers as separate try-with-resource to have better control over
         // point between closing this and the locks above
-        try ( BatchTransactionApplier batchApplier = applier( mode ) )
+        try ( BatchTransactionApplier batchApplier = applier( mode, storeApplyEvent ) )
         {
             while ( batch != null )
             {
@@ -357,6 +372,21 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         }
     }
 
+    private void applyInParallel( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception
+    {
+        // The store applier is closed last, like it is when it is the first applier of the full applier chain
+        try ( BatchTransactionApplier storeApplier = storeApplier();
+              BatchTransactionApplier orderedApplier = applier( mode, StoreApplyEvent.NULL, false ) )
+        {
+            parallelRecoveryApplier.apply( batch, storeApplier, orderedApplier );
+        }
+        catch ( Throwable cause )
+        {
+            databaseHealth.panic( cause );
+            throw cause;
+        }
+    }
+
     /**
      * Creates a {@link BatchTransactionApplierFacade} that is to be used for all transactions
      * in a batch. Each transaction is handled by a {@link TransactionApplierFacade} which wraps the
@@ -364,11 +394,25 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
      *
      * After all transactions have been applied the appliers are closed.
      */
-    protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode )
+    protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode, StoreApplyEvent storeApplyEvent )
+    {
+        return applier( mode, storeApplyEvent, true );
+    }
+
+    private BatchTransactionApplier storeApplier()
+    {
+        return new NeoStoreBatchTransactionApplier( neoStores, cacheAccess, lockService );
+    }
+
+    private BatchTransactionApplierFacade applier( TransactionApplicationMode mode, StoreApplyEvent storeApplyEvent,
+            boolean includeStoreApplier )
     {
         ArrayList<BatchTransactionApplier> appliers = new ArrayList<>();
         // Graph store application. The order of the decorated store appliers is irrelevant
-        appliers.add( new NeoStoreBatchTransactionApplier( neoStores, cacheAccess, lockService ) );
+        if ( includeStoreApplier )
+        {
+            appliers.add( storeApplier() );
+        }
         if ( mode.needsHighIdTracking() )
         {
             appliers.add( new HighIdBatchTransactionApplier( neoStores ) );
@@ -381,7 +425,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         // Schema index application
         appliers.add( new IndexBatchTransactionApplier( indexingService, labelScanStoreSync, indexUpdatesSync,
                 neoStores.getNodeStore(), new PropertyLoader( neoStores ),
-                indexUpdatesConverter, mode ) );
+                indexUpdatesConverter, mode, storeApplyEvent ) );
 
         // Legacy index application
         appliers.add(
@@ -53,6 +53,7 @@ import static org.neo4j.io.pagecache.PageCacheOpenOptions.ANY_PAGE_SIZE;
 import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
 
@@ -381,11 +382,27 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
     }
 
     public boolean isInUse( long id )
+    {
+        return isInUse( id, PF_SHARED_READ_LOCK );
+    }
+
+    /**
+     * Like {@link #isInUse(long)}, but for scans over the whole store. The probe pins the page with
+     * {@link PagedFile#PF_TRANSIENT}, so probing the records that turn out to be unused does not count as an access
+     * to their pages. The records the scan goes on to read, and their properties, are read through the normal
+     * cursors, and count as accesses like any other read.
+     */
+    public boolean isInUseDuringScan( long id )
+    {
+        return isInUse( id, PF_SHARED_READ_LOCK | PF_TRANSIENT );
+    }
+
+    private boolean isInUse( long id, int pfFlags )
     {
         long pageId = pageIdForRecord( id );
         int offset = offsetForId( id );
 
-        try ( PageCursor cursor = storeFile.io( pageId, PF_SHARED_READ_LOCK ) )
+        try ( PageCursor cursor = storeFile.io( pageId, pfFlags ) )
         {
             boolean recordIsInUse = false;
             if ( cursor.next() )
@@ -436,7 +453,7 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
             setHighId( foundHighId );
             if ( !fastRebuild )
             {
-                try ( PageCursor cursor = storeFile.io( 0, PF_SHARED_WRITE_LOCK | PF_READ_AHEAD ) )
+                try ( PageCursor cursor = storeFile.io( 0, PF_SHARED_WRITE_LOCK | PF_READ_AHEAD | PF_TRANSIENT ) )
                 {
                     defraggedCount = rebuildIdGeneratorSlow( cursor, getRecordsPerPage(), blockSize, foundHighId );
                 }
@@ -680,7 +697,7 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
      */
     protected long scanForHighId()
     {
-        try ( PageCursor cursor = storeFile.io( 0, PF_SHARED_READ_LOCK ) )
+        try ( PageCursor cursor = storeFile.io( 0, PF_SHARED_READ_LOCK | PF_TRANSIENT ) )
         {
             byte[] expectedLegacyVersionBytes = UTF8.encode( typeDescriptor + " " + storeVersion );
             long nextPageId = storeFile.getLastPageId();
@@ -91,6 +91,16 @@ public interface RecordCursor<R extends AbstractBaseRecord> extends Cursor<R>
       */
     boolean next( long id, R record, RecordLoad mode );
 
+    /**
+     * Hint that the record with the given {@code id} will be read soon, so the page it lives on can be faulted in
+     * while the caller is busy with the current record. This is only a hint, and may be ignored.
+     *
+     * @param id the id of the record that will be read soon.
+     */
+    default void prefetch( long id )
+    {
+    }
+
     /**
      * Read all records in the chain starting from the id this cursor is positioned at using either
      * {@link #acquire(long, RecordLoad)} or {@link #placeAt(long, RecordLoad)}. Each next record in the chain is
@@ -161,5 +171,11 @@ public interface RecordCursor<R extends AbstractBaseRecord> extends Cursor<R>
         {
             return actual.next( id, record, mode );
         }
+
+        @Override
+        public void prefetch( long id )
+        {
+            actual.prefetch( id );
+        }
     }
 }
@@ -35,6 +35,8 @@ class StoreRecordCursor<RECORD extends AbstractBaseRecord> implements RecordCurs
     private long currentId;
     private RecordLoad mode;
     private PageCursor pageCursor;
+    // The page of the last prefetch hint, so walking several records on the same page only hints it once.
+    private long prefetchedPageId = -1;
 
     StoreRecordCursor( RECORD record, CommonAbstractStore<RECORD,?> store )
     {
@@ -88,6 +90,22 @@ class StoreRecordCursor<RECORD extends AbstractBaseRecord> implements RecordCurs
         }
     }
 
+    @Override
+    public void prefetch( long id )
+    {
+        assert pageCursor != null : "Not initialized";
+        if ( NULL_REFERENCE.is( id ) )
+        {
+            return;
+        }
+        long pageId = store.pageIdForRecord( id );
+        if ( pageId != prefetchedPageId && pageId != pageCursor.getCurrentPageId() )
+        {
+            prefetchedPageId = pageId;
+            store.storeFile.prefetch( pageId );
+        }
+    }
+
     @Override
     public void placeAt( long id, RecordLoad mode )
     {
@@ -101,6 +119,7 @@ class StoreRecordCursor<RECORD extends AbstractBaseRecord> implements RecordCurs
         assert pageCursor != null;
         this.pageCursor.close();
         this.pageCursor = null;
+        this.prefetchedPageId = -1;
     }
 
     @Override
@@ -22,11 +22,13 @@ package org.neo4j.kernel.impl.store.id;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
 
+import static java.util.concurrent.atomic.AtomicLongFieldUpdater.newUpdater;
+
 /**
  * Instances of this class maintain a list of free ids with the potential to overflow to disk if the number
  * of free ids becomes too large.
@@ -38,14 +40,27 @@ import org.neo4j.kernel.impl.store.UnderlyingStorageException;
  * is that the span of the file from the position it is at when passed at the constructor and forward is available for
  * reads and exclusive writes. Equivalently, instances of this class will never write in the portion of the channel
  * from the beginning until the position it is at when passed at the constructor.
+ * <p>
+ * {@link #freeId(long)} and {@link #getId()} can be called concurrently. The ids kept in memory are guarded by the
+ * monitor of this keeper, which is only held briefly. Batches of ids that overflow to disk are written by the thread
+ * that freed the last id of the batch, after it has released the monitor, so that other threads can keep freeing and
+ * getting ids while the batch is written. Likewise, {@link #getId()} claims the next batch on disk under the monitor,
+ * but reads it after releasing it. {@link #getId()} does not synchronize at all when there are no ids to reuse, which
+ * is the common case for stores that only grow.
  */
 public class FreeIdKeeper implements Closeable
 {
     public static final long NO_RESULT = -1;
     public static final int ID_ENTRY_SIZE = Long.BYTES;
-    private final LinkedList<Long> freeIds = new LinkedList<>();
-    private final LinkedList<Long> readFromDisk = new LinkedList<>();
+    private static final AtomicLongFieldUpdater<FreeIdKeeper> DEFRAGGED_ID_COUNT =
+            newUpdater( FreeIdKeeper.class, "defraggedIdCount" );
+    private static final AtomicLongFieldUpdater<FreeIdKeeper> REUSABLE_ID_COUNT =
+            newUpdater( FreeIdKeeper.class, "reusableIdCount" );
+    private final LongQueue freeIds;
+    private final LongQueue readFromDisk;
     private final StoreChannel channel;
+    // guards the position of the channel, and so all reads and writes of it
+    private final Object channelLock = new Object();
     private final int threshold;
     /*
      * aggressiveReuse flags if ids freed during this run (before close() is called) are legitimate return values or not.
@@ -55,7 +70,14 @@ public class FreeIdKeeper implements Closeable
      * are persisted beyond that point and are never read.
      */
     private final boolean aggressiveReuse;
-    private long defraggedIdCount;
+    private volatile long defraggedIdCount;
+    /*
+     * The number of ids that getId() could return right now. It is updated whenever the ids change, under the
+     * monitor of this keeper, but read without it, so that getId() does not synchronize when there is nothing to reuse.
+     * Both counts are written with lazySet, since a reader that sees a slightly old count only reuses an id a little
+     * later, or takes the monitor to find that there was nothing to reuse after all.
+     */
+    private volatile long reusableIdCount;
 
     private final long lowWatermarkForChannelPosition; // the lowest possible position the channel can be at - we don't own anything "in front" of that
     /*
@@ -70,57 +92,128 @@ public class FreeIdKeeper implements Closeable
         this.channel = channel;
         this.threshold = threshold;
         this.aggressiveReuse = aggressiveReuse;
+        this.freeIds = new LongQueue( threshold );
+        this.readFromDisk = new LongQueue( threshold );
         this.lowWatermarkForChannelPosition = channel.position();
         readPosition = lowWatermarkForChannelPosition;
         restoreIdsOnStartup();
     }
 
-    private void restoreIdsOnStartup() throws IOException
+    private synchronized void restoreIdsOnStartup() throws IOException
     {
         maxReadPosition = channel.size(); // this is always true regardless of aggressiveReuse. It only matters once we start writing
-        defraggedIdCount = ( maxReadPosition - lowWatermarkForChannelPosition ) / ID_ENTRY_SIZE;
+        DEFRAGGED_ID_COUNT.lazySet( this, ( maxReadPosition - lowWatermarkForChannelPosition ) / ID_ENTRY_SIZE );
         readIdBatch();
+        updateReusableIdCount();
     }
 
     public void freeId( long id )
     {
-        freeIds.add( id );
-        defraggedIdCount++;
-        if ( freeIds.size() >= threshold )
+        long[] overflow = null;
+        synchronized ( this )
+        {
+            freeIds.add( id );
+            DEFRAGGED_ID_COUNT.lazySet( this, defraggedIdCount + 1 );
+            if ( freeIds.size() >= threshold )
+            {
+                overflow = freeIds.drain();
+            }
+            updateReusableIdCount();
+        }
+
+        if ( overflow != null )
         {
-            writeIdBatch( ByteBuffer.allocate( threshold * ID_ENTRY_SIZE ) );
+            long endPosition;
+            synchronized ( channelLock )
+            {
+                endPosition = writeIdBatch( ByteBuffer.allocate( threshold * ID_ENTRY_SIZE ), overflow );
+            }
+            synchronized ( this )
+            {
+                idBatchWritten( endPosition );
+                updateReusableIdCount();
+            }
         }
     }
 
     public long getId()
+    {
+        if ( reusableIdCount == 0 )
+        {
+            return NO_RESULT;
+        }
+
+        long batchPosition;
+        int batchLength;
+        synchronized ( this )
+        {
+            long result = pollId();
+            if ( result != NO_RESULT || defraggedIdCount == 0 || !canReadMoreIdBatches() )
+            {
+                updateReusableIdCount();
+                return result;
+            }
+            // Claim the next batch on disk, and read it after releasing the monitor
+            batchPosition = readPosition;
+            batchLength = nextIdBatchLength();
+            readPosition += batchLength;
+            updateReusableIdCount();
+        }
+
+        long[] batch = readIdBatch( batchPosition, batchLength );
+        synchronized ( this )
+        {
+            enqueueReadIds( batch );
+            long result = pollId();
+            updateReusableIdCount();
+            return result;
+        }
+    }
+
+    public long getCount()
+    {
+        return defraggedIdCount;
+    }
+
+    // Must be called under synchronized on this
+    private long pollId()
     {
         long result;
         if ( freeIds.size() > 0 && aggressiveReuse )
         {
             result = freeIds.poll();
-            defraggedIdCount--;
         }
         else if ( readFromDisk.size() > 0 )
         {
-            result = readFromDisk.removeFirst();
-            defraggedIdCount--;
-        }
-        else if ( defraggedIdCount > 0 && canReadMoreIdBatches() )
-        {
-            readIdBatch();
-            result = readFromDisk.removeFirst();
-            defraggedIdCount--;
+            result = readFromDisk.poll();
         }
         else
         {
-            result = NO_RESULT;
+            return NO_RESULT;
         }
+        DEFRAGGED_ID_COUNT.lazySet( this, defraggedIdCount - 1 );
         return result;
     }
 
-    public long getCount()
+    // Must be called under synchronized on this
+    private void updateReusableIdCount()
     {
-        return defraggedIdCount;
+        long reusable = readFromDisk.size() + (maxReadPosition - readPosition) / ID_ENTRY_SIZE;
+        if ( aggressiveReuse )
+        {
+            reusable += freeIds.size();
+        }
+        REUSABLE_ID_COUNT.lazySet( this, Math.min( reusable, defraggedIdCount ) );
+    }
+
+    // Must be called under synchronized on this
+    private void idBatchWritten( long endPosition )
+    {
+        if ( aggressiveReuse )
+        {
+            // Batches are written in order, so everything up to the end of this one has been written
+            maxReadPosition = Math.max( maxReadPosition, endPosition );
+        }
     }
 
     /*
@@ -137,34 +230,59 @@ public class FreeIdKeeper implements Closeable
 
     /*
      * After this method returns, if there were any entries found, they are placed in the readFromDisk list and the
-     * readPosition is updated accordingly.
+     * readPosition is updated accordingly. Must be called under synchronized on this, and only where it is fine to hold
+     * the monitor while reading, i.e. on startup and when dumping. getId() reads without it.
      */
     private void readIdBatch()
     {
-        if ( !canReadMoreIdBatches() )
+        if ( canReadMoreIdBatches() )
+        {
+            long batchPosition = readPosition;
+            int batchLength = nextIdBatchLength();
+            readPosition += batchLength;
+            enqueueReadIds( readIdBatch( batchPosition, batchLength ) );
+        }
+    }
+
+    // Must be called under synchronized on this
+    private int nextIdBatchLength()
+    {
+        int length = (int) Math.min( threshold * ID_ENTRY_SIZE, maxReadPosition - readPosition );
+        assert length % ID_ENTRY_SIZE == 0 : "reads should happen in multiples of ID_ENTRY_SIZE, instead was " + length;
+        return length;
+    }
+
+    // Must be called under synchronized on this
+    private void enqueueReadIds( long[] ids )
+    {
+        for ( long id : ids )
         {
-            return;
+            if ( id != NO_RESULT )
+            {
+                readFromDisk.add( id );
+            }
         }
+    }
 
+    /*
+     * Reads the ids in the given span of the channel, which the caller has claimed by moving the readPosition past it.
+     * Only takes the channelLock, so that getId() does not hold the monitor of this keeper while waiting for a batch
+     * that is being written, or for the read itself.
+     */
+    private long[] readIdBatch( long position, int length )
+    {
+        ByteBuffer readBuffer = ByteBuffer.allocate( length );
         try
         {
-            int howMuchToRead = (int) Math.min( threshold * ID_ENTRY_SIZE, maxReadPosition - readPosition );
-            assert howMuchToRead % ID_ENTRY_SIZE == 0 : "reads should happen in multiples of ID_ENTRY_SIZE, instead was " + howMuchToRead;
-            ByteBuffer readBuffer = ByteBuffer.allocate( howMuchToRead );
-
-            positionChannel( readPosition );
-            int bytesRead = channel.read( readBuffer );
-            readPosition += bytesRead;
-            assert channel.position() <= maxReadPosition;
-            readBuffer.flip();
-            assert (bytesRead % ID_ENTRY_SIZE) == 0;
-            int idsRead = bytesRead / ID_ENTRY_SIZE;
-            for ( int i = 0; i < idsRead; i++ )
+            synchronized ( channelLock )
             {
-                long id = readBuffer.getLong();
-                if ( id != NO_RESULT )
+                positionChannel( position );
+                while ( readBuffer.hasRemaining() )
                 {
-                    readFromDisk.add( id );
+                    if ( channel.read( readBuffer ) == -1 )
+                    {
+                        break;
+                    }
                 }
             }
         }
@@ -173,6 +291,14 @@ public class FreeIdKeeper implements Closeable
             throw new UnderlyingStorageException(
                     "Failed reading defragged id batch", e );
         }
+        readBuffer.flip();
+        assert (readBuffer.remaining() % ID_ENTRY_SIZE) == 0;
+        long[] ids = new long[readBuffer.remaining() / ID_ENTRY_SIZE];
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            ids[i] = readBuffer.getLong();
+        }
+        return ids;
     }
 
     /*
@@ -180,33 +306,31 @@ public class FreeIdKeeper implements Closeable
      * close the channel.
      */
     @Override
-    public void close() throws IOException
+    public synchronized void close() throws IOException
     {
-        ByteBuffer writeBuffer = ByteBuffer.allocate( threshold * ID_ENTRY_SIZE );
-        writeIdBatch( writeBuffer );
-        while ( !readFromDisk.isEmpty() )
+        synchronized ( channelLock )
         {
-            freeIds.add( readFromDisk.removeFirst() );
+            ByteBuffer writeBuffer = ByteBuffer.allocate( threshold * ID_ENTRY_SIZE );
+            idBatchWritten( writeIdBatch( writeBuffer, freeIds.drain() ) );
+            idBatchWritten( writeIdBatch( writeBuffer, readFromDisk.drain() ) );
+            defragReusableIdsInFile( writeBuffer );
+            channel.force( false );
         }
-        writeIdBatch( writeBuffer );
-        defragReusableIdsInFile( writeBuffer );
-        channel.force( false );
     }
 
     /*
-     * writes to disk, after the current channel.position(), the contents of the freeIds list. If aggressiveReuse
-     * is set, it will also forward the maxReadPosition to the end of the file.
+     * Writes the given ids to disk at the end of the channel, and returns the position after them. Must be called
+     * under synchronized on channelLock.
      */
-    private void writeIdBatch( ByteBuffer writeBuffer )
+    private long writeIdBatch( ByteBuffer writeBuffer, long[] ids )
     {
         try
         {
             // position at end
             positionChannel( channel.size() );
             writeBuffer.clear();
-            while ( !freeIds.isEmpty() )
+            for ( long id : ids )
             {
-                long id = freeIds.removeFirst();
                 if ( id == NO_RESULT )
                 {
                     continue;
@@ -227,10 +351,7 @@ public class FreeIdKeeper implements Closeable
             {
                 channel.write( writeBuffer );
             }
-            if ( aggressiveReuse )
-            {
-                maxReadPosition = channel.size();
-            }
+            return channel.size();
         }
         catch ( IOException e )
         {
@@ -262,9 +383,9 @@ public class FreeIdKeeper implements Closeable
         {
             readIdBatch();
         }
-        for ( Long id : freeIds )
+        for ( int i = 0; i < freeIds.size(); i++ )
         {
-            System.out.print( " " + id );
+            System.out.print( " " + freeIds.get( i ) );
         }
         close();
     }
@@ -291,4 +412,69 @@ public class FreeIdKeeper implements Closeable
             channel.truncate( writePosition );
         }
     }
+
+    /**
+     * A first-in-first-out queue of primitive longs, which grows as needed.
+     */
+    private static class LongQueue
+    {
+        private long[] ids;
+        private int head;
+        private int size;
+
+        LongQueue( int capacity )
+        {
+            this.ids = new long[capacity];
+        }
+
+        int size()
+        {
+            return size;
+        }
+
+        void add( long id )
+        {
+            if ( size == ids.length )
+            {
+                long[] grown = new long[ids.length * 2];
+                for ( int i = 0; i < size; i++ )
+                {
+                    grown[i] = get( i );
+                }
+                ids = grown;
+                head = 0;
+            }
+            ids[index( size++ )] = id;
+        }
+
+        long poll()
+        {
+            long id = ids[head];
+            head = index( 1 );
+            size--;
+            return id;
+        }
+
+        long get( int index )
+        {
+            return ids[index( index )];
+        }
+
+        private int index( int offset )
+        {
+            int index = head + offset;
+            return index < ids.length ? index : index - ids.length;
+        }
+
+        long[] drain()
+        {
+            long[] drained = new long[size];
+            for ( int i = 0; i < drained.length; i++ )
+            {
+                drained[i] = poll();
+            }
+            head = 0;
+            return drained;
+        }
+    }
 }
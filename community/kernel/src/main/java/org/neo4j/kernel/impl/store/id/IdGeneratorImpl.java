@@ -61,6 +61,10 @@ import static java.lang.Math.max;
  * same file. There can only be one id generator instance per id generator file.
  * <p>
  * In case of disk/file I/O failure an <CODE>IOException</CODE> is thrown.
+ * <p>
+ * {@link #nextId()}, {@link #nextIdBatch(int)} and {@link #freeId(long)} can be called concurrently without locking
+ * this generator. New ids are handed out by compare-and-set on the high id, and defragged ids are kept by a
+ * {@link FreeIdKeeper} that can be used concurrently, and that only synchronizes when there are ids to reuse.
  */
 public class IdGeneratorImpl implements IdGenerator
 {
@@ -84,7 +88,7 @@ public class IdGeneratorImpl implements IdGenerator
 
     private final File file;
     private final FileSystemAbstraction fs;
-    private StoreChannel fileChannel = null;
+    private volatile StoreChannel fileChannel = null;
 
     private final long max;
     private final boolean aggressiveReuse;
@@ -144,23 +148,25 @@ public class IdGeneratorImpl implements IdGenerator
      * @throws IllegalStateException if this id generator has been closed
      */
     @Override
-    public synchronized long nextId()
+    public long nextId()
     {
         assertStillOpen();
         long nextDefragId = keeper.getId();
-        if ( nextDefragId != -1 )
+        if ( nextDefragId != FreeIdKeeper.NO_RESULT )
         {
             return nextDefragId;
         }
 
-        long id = highId.get();
-        if ( IdValidator.isReservedId( id ) )
+        while ( true )
         {
-            id = highId.incrementAndGet();
+            long currentHighId = highId.get();
+            long id = IdValidator.isReservedId( currentHighId ) ? currentHighId + 1 : currentHighId;
+            IdValidator.assertValidId( id, max );
+            if ( highId.compareAndSet( currentHighId, id + 1 ) )
+            {
+                return id;
+            }
         }
-        IdValidator.assertValidId( id, max );
-        highId.incrementAndGet();
-        return id;
     }
 
     private void assertStillOpen()
@@ -172,7 +178,7 @@ public class IdGeneratorImpl implements IdGenerator
     }
 
     @Override
-    public synchronized IdRange nextIdBatch( int size )
+    public IdRange nextIdBatch( int size )
     {
         assertStillOpen();
 
@@ -195,9 +201,15 @@ public class IdGeneratorImpl implements IdGenerator
         System.arraycopy( tmpArray, 0, defragIds, 0, count );
 
         int sizeLeftForRange = size - count;
-        long start = highId.get();
-        setHighId( start + sizeLeftForRange );
-        return new IdRange( defragIds, start, sizeLeftForRange );
+        while ( true )
+        {
+            long start = highId.get();
+            IdValidator.assertIdWithinCapacity( start + sizeLeftForRange, max );
+            if ( highId.compareAndSet( start, start + sizeLeftForRange ) )
+            {
+                return new IdRange( defragIds, start, sizeLeftForRange );
+            }
+        }
     }
 
     /**
@@ -245,7 +257,7 @@ public class IdGeneratorImpl implements IdGenerator
      *            The id to be made available again
      */
     @Override
-    public synchronized void freeId( long id )
+    public void freeId( long id )
     {
         if ( IdValidator.isReservedId( id ) )
         {
@@ -454,7 +466,7 @@ public class IdGeneratorImpl implements IdGenerator
     }
 
     @Override
-    public synchronized long getNumberOfIdsInUse()
+    public long getNumberOfIdsInUse()
     {
         return highId.get() - keeper.getCount();
     }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.command;
+
+import java.io.IOException;
+
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.AbstractBaseRecord;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.storageengine.api.CommandsToApply;
+
+/**
+ * Collects keys for all of the records that the commands of a transaction write to the record stores, such that two
+ * transactions whose key sets are disjoint can be applied to the stores in any order, or concurrently.
+ * <p>
+ * Each key is the id of a record, tagged with the store it belongs to. Property records are additionally keyed by
+ * the node or relationship that owns them, because index updates read the properties of the entities whose labels
+ * or properties changed. Keys may collide across stores in rare cases, which only makes two transactions look
+ * dependent when they are not.
+ * <p>
+ * Transactions with commands that change schema, tokens or the meta data store cannot be ordered by their records
+ * alone, and are reported as dependent on every other transaction. Counts and legacy index commands do not write to
+ * the record stores, and contribute no keys.
+ */
+public class CommandRecordKeys extends TransactionApplier.Adapter
+{
+    private static final int TAG_SHIFT = 58;
+    private static final long NODE = 1L << TAG_SHIFT;
+    private static final long RELATIONSHIP = 2L << TAG_SHIFT;
+    private static final long PROPERTY = 3L << TAG_SHIFT;
+    private static final long RELATIONSHIP_GROUP = 4L << TAG_SHIFT;
+    private static final long LABEL_VALUE = 5L << TAG_SHIFT;
+    private static final long STRING_VALUE = 6L << TAG_SHIFT;
+    private static final long ARRAY_VALUE = 7L << TAG_SHIFT;
+    private static final long ID_MASK = (1L << TAG_SHIFT) - 1;
+
+    private final PrimitiveLongSet keys;
+    private boolean independent;
+
+    private CommandRecordKeys( PrimitiveLongSet keys )
+    {
+        this.keys = keys;
+        this.independent = true;
+    }
+
+    /**
+     * Add the record keys of the given transaction to the given set.
+     *
+     * @return {@code true} if the given keys fully describe what the transaction writes, or {@code false} if the
+     * transaction must be ordered with respect to all other transactions.
+     */
+    public static boolean collect( CommandsToApply transaction, PrimitiveLongSet keys ) throws IOException
+    {
+        CommandRecordKeys collector = new CommandRecordKeys( keys );
+        transaction.accept( collector );
+        return collector.independent;
+    }
+
+    @Override
+    public boolean visitNodeCommand( Command.NodeCommand command ) throws IOException
+    {
+        addRecord( NODE, command.getBefore() );
+        addRecord( NODE, command.getAfter() );
+        addDynamicRecords( LABEL_VALUE, command.getAfter().getDynamicLabelRecords() );
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipCommand( Command.RelationshipCommand command ) throws IOException
+    {
+        addRecord( RELATIONSHIP, command.getBefore() );
+        addRecord( RELATIONSHIP, command.getAfter() );
+        return false;
+    }
+
+    @Override
+    public boolean visitPropertyCommand( Command.PropertyCommand command ) throws IOException
+    {
+        addRecord( PROPERTY, command.getBefore() );
+        addRecord( PROPERTY, command.getAfter() );
+        addOwner( command.getBefore() );
+        addOwner( command.getAfter() );
+        PropertyRecord after = command.getAfter();
+        for ( PropertyBlock block : after )
+        {
+            addDynamicRecords( block.getType() == PropertyType.STRING ? STRING_VALUE : ARRAY_VALUE,
+                    block.getValueRecords() );
+        }
+        for ( DynamicRecord deleted : after.getDeletedRecords() )
+        {
+            add( deleted.getType() == PropertyType.STRING ? STRING_VALUE : ARRAY_VALUE, deleted.getId() );
+        }
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipGroupCommand( Command.RelationshipGroupCommand command ) throws IOException
+    {
+        addRecord( RELATIONSHIP_GROUP, command.getBefore() );
+        addRecord( RELATIONSHIP_GROUP, command.getAfter() );
+        return false;
+    }
+
+    @Override
+    public boolean visitRelationshipTypeTokenCommand( Command.RelationshipTypeTokenCommand command )
+    {
+        independent = false;
+        return false;
+    }
+
+    @Override
+    public boolean visitLabelTokenCommand( Command.LabelTokenCommand command )
+    {
+        independent = false;
+        return false;
+    }
+
+    @Override
+    public boolean visitPropertyKeyTokenCommand( Command.PropertyKeyTokenCommand command )
+    {
+        independent = false;
+        return false;
+    }
+
+    @Override
+    public boolean visitSchemaRuleCommand( Command.SchemaRuleCommand command )
+    {
+        independent = false;
+        return false;
+    }
+
+    @Override
+    public boolean visitNeoStoreCommand( Command.NeoStoreCommand command )
+    {
+        independent = false;
+        return false;
+    }
+
+    private void addOwner( PropertyRecord record )
+    {
+        if ( record == null )
+        {
+            return;
+        }
+        if ( record.isNodeSet() )
+        {
+            add( NODE, record.getNodeId() );
+        }
+        else if ( record.isRelSet() )
+        {
+            add( RELATIONSHIP, record.getRelId() );
+        }
+    }
+
+    private void addRecord( long tag, AbstractBaseRecord record )
+    {
+        if ( record == null )
+        {
+            return;
+        }
+        add( tag, record.getId() );
+        if ( record.hasSecondaryUnitId() )
+        {
+            add( tag, record.getSecondaryUnitId() );
+        }
+    }
+
+    private void addDynamicRecords( long tag, Iterable<DynamicRecord> records )
+    {
+        for ( DynamicRecord record : records )
+        {
+            add( tag, record.getId() );
+        }
+    }
+
+    private void add( long tag, long id )
+    {
+        keys.add( tag | (id & ID_MASK) );
+    }
+}
@@ -45,6 +45,8 @@ import org.neo4j.kernel.impl.transaction.state.IndexUpdates;
 import org.neo4j.kernel.impl.transaction.state.OnlineIndexUpdates;
 import org.neo4j.kernel.impl.transaction.state.PropertyLoader;
 import org.neo4j.kernel.impl.transaction.state.RecoveryIndexUpdates;
+import org.neo4j.kernel.impl.transaction.tracing.IndexUpdatesEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
@@ -61,6 +63,7 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
     private final WorkSync<IndexingService,IndexUpdatesWork> indexUpdatesSync;
     private final SingleTransactionApplier transactionApplier;
     private final PropertyPhysicalToLogicalConverter indexUpdateConverter;
+    private final StoreApplyEvent storeApplyEvent;
 
     private List<NodeLabelUpdate> labelUpdates;
     private IndexUpdates indexUpdates;
@@ -71,11 +74,23 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
             NodeStore nodeStore, PropertyLoader propertyLoader,
             PropertyPhysicalToLogicalConverter indexUpdateConverter,
             TransactionApplicationMode mode )
+    {
+        this( indexingService, labelScanStoreSync, indexUpdatesSync, nodeStore, propertyLoader, indexUpdateConverter,
+                mode, StoreApplyEvent.NULL );
+    }
+
+    public IndexBatchTransactionApplier( IndexingService indexingService,
+            WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync,
+            WorkSync<IndexingService,IndexUpdatesWork> indexUpdatesSync,
+            NodeStore nodeStore, PropertyLoader propertyLoader,
+            PropertyPhysicalToLogicalConverter indexUpdateConverter,
+            TransactionApplicationMode mode, StoreApplyEvent storeApplyEvent )
     {
         this.indexingService = indexingService;
         this.labelScanStoreSync = labelScanStoreSync;
         this.indexUpdatesSync = indexUpdatesSync;
         this.indexUpdateConverter = indexUpdateConverter;
+        this.storeApplyEvent = storeApplyEvent;
         this.transactionApplier = new SingleTransactionApplier( nodeStore, propertyLoader, mode );
     }
 
@@ -118,7 +133,10 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
     @Override
     public void close() throws Exception
     {
-        applyPendingLabelAndIndexUpdates();
+        try ( IndexUpdatesEvent indexUpdatesEvent = storeApplyEvent.beginIndexUpdates() )
+        {
+            applyPendingLabelAndIndexUpdates();
+        }
     }
 
     /**
@@ -22,6 +22,7 @@ package org.neo4j.kernel.impl.transaction.log;
 import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -30,6 +31,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CompressingLogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.rotation.LogRotation;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
@@ -48,6 +50,11 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart.checksum
 /**
  * Concurrently appends transactions to the transaction log, while coordinating with the log rotation and forcing the
  * log file in batches for higher throughput in a concurrent scenario.
+ * <p>
+ * Committing threads serialize the commands of their transactions into thread local buffers before they go for the
+ * log file monitor, and then queue them up for being appended. Whichever thread holds the monitor appends all the
+ * queued transactions in one go, so a thread that gets the monitor after its transactions have been appended by
+ * another thread, can go straight on to wait for the log force.
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
@@ -58,6 +65,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final IdOrderingQueue legacyIndexTransactionOrdering;
 
     private final AtomicReference<ThreadLink> threadLinkHead = new AtomicReference<>( ThreadLink.END );
+    private final AtomicReference<PendingAppend> pendingAppendHead = new AtomicReference<>( PendingAppend.END );
+    private final ThreadLocal<CommandSerializer> commandSerializers;
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogFile logFile;
     private final LogRotation logRotation;
@@ -65,14 +74,27 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final DatabaseHealth databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final boolean compressCommands;
 
     private FlushablePositionAwareChannel writer;
+    private LogEntryWriter logEntryWriter;
     private TransactionLogWriter transactionLogWriter;
-    private IndexCommandDetector indexCommandDetector;
 
     public BatchingTransactionAppender( LogFile logFile, LogRotation logRotation,
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
             IdOrderingQueue legacyIndexTransactionOrdering, DatabaseHealth databaseHealth )
+    {
+        this( logFile, logRotation, transactionMetadataCache, transactionIdStore, legacyIndexTransactionOrdering,
+                databaseHealth, false );
+    }
+
+    /**
+     * @param compressCommands whether or not to write the commands of each transaction as a compressed block,
+     * which only readers of {@link org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion#V3_2} understand.
+     */
+    public BatchingTransactionAppender( LogFile logFile, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
+            IdOrderingQueue legacyIndexTransactionOrdering, DatabaseHealth databaseHealth, boolean compressCommands )
     {
         this.logFile = logFile;
         this.logRotation = logRotation;
@@ -80,14 +102,21 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.legacyIndexTransactionOrdering = legacyIndexTransactionOrdering;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.compressCommands = compressCommands;
+        this.commandSerializers = ThreadLocal.withInitial( () -> new CommandSerializer( compressCommands ) );
+    }
+
+    private static LogEntryWriter newLogEntryWriter( FlushableChannel channel, boolean compressCommands )
+    {
+        return compressCommands ? new CompressingLogEntryWriter( channel ) : new LogEntryWriter( channel );
     }
 
     @Override
     public void start() throws Throwable
     {
         this.writer = logFile.getWriter();
-        this.indexCommandDetector = new IndexCommandDetector();
-        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        this.logEntryWriter = newLogEntryWriter( writer, compressCommands );
+        this.transactionLogWriter = new TransactionLogWriter( logEntryWriter );
     }
 
     @Override
@@ -98,33 +127,29 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         boolean logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
         logAppendEvent.setLogRotated( logRotated );
 
-        // Assigned base tx id just to make compiler happy
-        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
-        // Synchronized with logFile to get absolute control over concurrent rotations happening
-        synchronized ( logFile )
+        long lastTransactionId;
+        CommandSerializer serializer = commandSerializers.get();
+        try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
         {
-            // Assert that kernel is healthy before making any changes
-            databaseHealth.assertHealthy( IOException.class );
-            try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+            // Serialize the commands outside of the logFile monitor, and queue the batch up for being appended.
+            // There's a benign race here, where we add our batch before we update its next pointer.
+            // This is okay, however, because appendPending() spins when it sees a null next pointer.
+            PendingAppend pendingAppend = serializer.serialize( batch );
+            pendingAppend.next = pendingAppendHead.getAndSet( pendingAppend );
+
+            // Synchronized with logFile to get absolute control over concurrent rotations happening
+            synchronized ( logFile )
             {
-                // Append all transactions in this batch to the log under the same logFile monitor
-                TransactionToApply tx = batch;
-                while ( tx != null )
+                if ( !pendingAppend.done )
                 {
-                    long transactionId = transactionIdStore.nextCommittingTransactionId();
-
-                    // If we're in a scenario where we're merely replicating transactions, i.e. transaction
-                    // id have already been generated by another entity we simply check that our id
-                    // that we generated match that id. If it doesn't we've run into a problem we can't ´
-                    // really recover from and would point to a bug somewhere.
-                    matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
-
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
-                    tx.commitment( commitment, transactionId );
-                    tx = tx.next();
-                    lastTransactionId = transactionId;
+                    appendPending();
                 }
             }
+            lastTransactionId = pendingAppend.lastTransactionId();
+        }
+        finally
+        {
+            serializer.release();
         }
 
         // At this point we've appended all transactions in this batch, but we can't mark any of them
@@ -139,6 +164,75 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return lastTransactionId;
     }
 
+    /**
+     * Appends all batches that are queued up for appending, in the order they were queued in. Must be called while
+     * holding the logFile monitor.
+     */
+    private void appendPending()
+    {
+        PendingAppend pending = inQueueOrder( pendingAppendHead.getAndSet( PendingAppend.END ) );
+        while ( pending != null )
+        {
+            append( pending );
+            pending = pending.nextInQueueOrder;
+        }
+    }
+
+    private static PendingAppend inQueueOrder( PendingAppend pending )
+    {
+        PendingAppend first = null;
+        while ( pending != PendingAppend.END )
+        {
+            PendingAppend next;
+            do
+            {
+                // Spin because of the race:y update when consing.
+                next = pending.next;
+            }
+            while ( next == null );
+            pending.nextInQueueOrder = first;
+            first = pending;
+            pending = next;
+        }
+        return first;
+    }
+
+    private void append( PendingAppend pending )
+    {
+        try
+        {
+            // Assert that kernel is healthy before making any changes
+            databaseHealth.assertHealthy( IOException.class );
+
+            // Append all transactions in this batch to the log under the same logFile monitor
+            TransactionToApply tx = pending.batch;
+            for ( int i = 0; tx != null; i++ )
+            {
+                long transactionId = transactionIdStore.nextCommittingTransactionId();
+
+                // If we're in a scenario where we're merely replicating transactions, i.e. transaction
+                // id have already been generated by another entity we simply check that our id
+                // that we generated match that id. If it doesn't we've run into a problem we can't ´
+                // really recover from and would point to a bug somewhere.
+                matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
+
+                TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId,
+                        pending, i );
+                tx.commitment( commitment, transactionId );
+                tx = tx.next();
+                pending.lastTransactionId = transactionId;
+            }
+        }
+        catch ( Throwable failure )
+        {
+            pending.failure = failure;
+        }
+        finally
+        {
+            pending.done = true;
+        }
+    }
+
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
     {
         long expectedTransactionId = tx.transactionId();
@@ -189,13 +283,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any legacy index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId,
+            PendingAppend pending, int index ) throws IOException
     {
-        // Reset command writer so that we, after we've written the transaction, can ask it whether or
-        // not any legacy index command was written. If so then there's additional ordering to care about below.
-        indexCommandDetector.reset();
-
         // The outcome of this try block is either of:
         // a) transaction successfully appended, at which point we return a Commitment to be used after force
         // b) transaction failed to be appended, at which point a kernel panic is issued
@@ -205,7 +295,11 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
-            transactionLogWriter.append( transaction, transactionId );
+            logEntryWriter.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(),
+                    transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(),
+                    transaction.additionalHeader() );
+            pending.writeCommands( writer, index );
+            logEntryWriter.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
             LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
 
             long transactionChecksum =
@@ -214,8 +308,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                     .cacheTransactionMetadata( transactionId, logPositionBeforeCommit, transaction.getMasterId(),
                             transaction.getAuthorId(), transactionChecksum, transaction.getTimeCommitted() );
 
-            transaction.accept( indexCommandDetector );
-            boolean hasLegacyIndexChanges = indexCommandDetector.hasWrittenAnyLegacyIndexCommand();
+            // If any legacy index command was written there's additional ordering to care about below.
+            boolean hasLegacyIndexChanges = pending.legacyIndexChanges[index];
             if ( hasLegacyIndexChanges )
             {
                 // Offer this transaction id to the queue so that the legacy index applier can take part in the ordering
@@ -352,4 +446,124 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             // we emptied into the channel, and thus it is already flushed by that thread.
         }
     }
+
+    /**
+     * A batch of transactions, with their commands serialized, that is queued up for being appended to the log.
+     */
+    private static class PendingAppend
+    {
+        static final PendingAppend END = new PendingAppend( null, 0 );
+
+        final TransactionToApply batch;
+        // The serialized commands of each transaction start at offset 0 of their array, so that they can be written
+        // to the log without copying them while holding the logFile monitor
+        final byte[][] commands;
+        final int[] commandsLength;
+        final boolean[] legacyIndexChanges;
+        volatile PendingAppend next;
+        PendingAppend nextInQueueOrder;
+
+        // Written by the appending thread before done is set, and read by the committing thread after it sees done
+        long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        Throwable failure;
+        volatile boolean done;
+
+        PendingAppend( TransactionToApply batch, int size )
+        {
+            this.batch = batch;
+            this.commands = new byte[size][];
+            this.commandsLength = new int[size];
+            this.legacyIndexChanges = new boolean[size];
+        }
+
+        void writeCommands( FlushableChannel channel, int index ) throws IOException
+        {
+            channel.put( commands[index], commandsLength[index] );
+        }
+
+        long lastTransactionId() throws IOException
+        {
+            if ( failure instanceof IOException )
+            {
+                throw (IOException) failure;
+            }
+            if ( failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) failure;
+            }
+            if ( failure instanceof Error )
+            {
+                throw (Error) failure;
+            }
+            if ( failure != null )
+            {
+                throw new IOException( failure );
+            }
+            return lastTransactionId;
+        }
+    }
+
+    /**
+     * Serializes the commands of the transactions that a thread commits, into a buffer that is reused for all
+     * the commits of that thread, unless a large transaction made it grow beyond what is retained between commits.
+     */
+    private static class CommandSerializer
+    {
+        private final SerializedCommandsChannel commands = new SerializedCommandsChannel();
+        private final LogEntryWriter entryWriter;
+        private final IndexCommandDetector indexCommandDetector = new IndexCommandDetector();
+        private int[] commandsEnd = new int[1];
+
+        CommandSerializer( boolean compressCommands )
+        {
+            entryWriter = newLogEntryWriter( commands, compressCommands );
+        }
+
+        PendingAppend serialize( TransactionToApply batch ) throws IOException
+        {
+            int size = 0;
+            for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+            {
+                size++;
+            }
+            if ( commandsEnd.length < size )
+            {
+                commandsEnd = new int[size];
+            }
+
+            commands.clear();
+            PendingAppend pending = new PendingAppend( batch, size );
+            TransactionToApply tx = batch;
+            for ( int i = 0; i < size; i++ )
+            {
+                TransactionRepresentation transaction = tx.transactionRepresentation();
+                entryWriter.serialize( transaction );
+                commandsEnd[i] = commands.position();
+
+                // Ask whether or not any legacy index command was written, for the ordering of legacy index updates
+                indexCommandDetector.reset();
+                transaction.accept( indexCommandDetector );
+                pending.legacyIndexChanges[i] = indexCommandDetector.hasWrittenAnyLegacyIndexCommand();
+                tx = tx.next();
+            }
+
+            // The first transaction is written straight from the buffer, the others are copied out of it here,
+            // rather than under the logFile monitor. The buffer array is only final once all of them are serialized.
+            byte[] array = commands.array();
+            pending.commands[0] = array;
+            pending.commandsLength[0] = commandsEnd[0];
+            for ( int i = 1; i < size; i++ )
+            {
+                pending.commands[i] = Arrays.copyOfRange( array, commandsEnd[i - 1], commandsEnd[i] );
+                pending.commandsLength[i] = commandsEnd[i] - commandsEnd[i - 1];
+            }
+            return pending;
+        }
+
+        void release()
+        {
+            commands.clear();
+            commands.shrink();
+        }
+    }
 }
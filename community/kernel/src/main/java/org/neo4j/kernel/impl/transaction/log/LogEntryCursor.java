@@ -20,13 +20,20 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 import org.neo4j.cursor.IOCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommandBlock;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 
 /**
  * {@link IOCursor} abstraction on top of a {@link LogEntryReader}
+ * <p>
+ * The commands of a {@link LogEntryCommandBlock} are returned one by one as ordinary command entries, so that users
+ * of the cursor never see the block itself.
  */
 public class LogEntryCursor implements IOCursor<LogEntry>
 {
@@ -34,6 +41,8 @@ public class LogEntryCursor implements IOCursor<LogEntry>
     private final ReadableClosablePositionAwareChannel channel;
     private final LogPositionMarker position = new LogPositionMarker();
     private LogEntry entry;
+    private List<LogEntryCommand> blockCommands = Collections.emptyList();
+    private int blockIndex;
 
     public LogEntryCursor( LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader,
                            ReadableClosablePositionAwareChannel channel )
@@ -51,9 +60,20 @@ public class LogEntryCursor implements IOCursor<LogEntry>
     @Override
     public boolean next() throws IOException
     {
-        entry = logEntryReader.readLogEntry( channel );
-
-        return entry != null;
+        while ( blockIndex >= blockCommands.size() )
+        {
+            entry = logEntryReader.readLogEntry( channel );
+            if ( !(entry instanceof LogEntryCommandBlock) )
+            {
+                blockCommands = Collections.emptyList();
+                blockIndex = 0;
+                return entry != null;
+            }
+            blockCommands = entry.<LogEntryCommandBlock>as().getCommands();
+            blockIndex = 0;
+        }
+        entry = blockCommands.get( blockIndex++ );
+        return true;
     }
 
     @Override
@@ -44,6 +44,14 @@ public interface LogFile
      */
     ReadableLogChannel getReader( LogPosition position ) throws IOException;
 
+    /**
+     * @param position {@link LogPosition} to position the returned reader at.
+     * @param readAheadSize number of bytes that the returned reader reads from the log at a time.
+     * @return {@link ReadableClosableChannel} capable of reading log data, starting from {@link LogPosition position}.
+     * @throws IOException
+     */
+    ReadableLogChannel getReader( LogPosition position, int readAheadSize ) throws IOException;
+
     void accept( LogFileVisitor visitor, LogPosition startingFromPosition ) throws IOException;
 
     void accept( LogHeaderVisitor visitor ) throws IOException;
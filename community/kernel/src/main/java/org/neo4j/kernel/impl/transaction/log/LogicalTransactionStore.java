@@ -46,6 +46,21 @@ public interface LogicalTransactionStore
     TransactionCursor getTransactions( long transactionIdToStartFrom )
             throws NoSuchTransactionException, IOException;
 
+    /**
+     * Like {@link #getTransactions(long)}, but for streaming many transactions. The returned cursor reads the log in
+     * large chunks, and, for longer streams, reads and deserializes transactions on a separate thread, ahead of the
+     * caller.
+     *
+     * @param transactionIdToStartFrom id of the first transaction that the cursor will return.
+     * @return an {@link TransactionCursor} capable of returning {@link CommittedTransactionRepresentation} instances
+     * for committed transactions, starting from the specified {@code transactionIdToStartFrom}.
+     * @throws NoSuchTransactionException if the requested transaction hasn't been committed,
+     * or if the transaction has been committed, but information about it is no longer available for some reason.
+     * @throws IOException if there was an I/O related error looking for the start transaction.
+     */
+    TransactionCursor streamTransactions( long transactionIdToStartFrom )
+            throws NoSuchTransactionException, IOException;
+
     /**
      * Acquires a {@link TransactionCursor cursor} which will provide {@link CommittedTransactionRepresentation}
      * instances for committed transactions, starting from the specified {@link LogPosition}.
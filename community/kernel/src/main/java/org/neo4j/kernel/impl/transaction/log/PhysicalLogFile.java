@@ -255,11 +255,17 @@ public class PhysicalLogFile implements LogFile, Lifecycle
 
     @Override
     public ReadableLogChannel getReader( LogPosition position ) throws IOException
+    {
+        return getReader( position, ReadAheadChannel.DEFAULT_READ_AHEAD_SIZE );
+    }
+
+    @Override
+    public ReadableLogChannel getReader( LogPosition position, int readAheadSize ) throws IOException
     {
         PhysicalLogVersionedStoreChannel logChannel =
                 openForVersion( logFiles, fileSystem, position.getLogVersion(), false );
         logChannel.position( position.getByteOffset() );
-        return new ReadAheadLogChannel( logChannel, readerLogVersionBridge );
+        return new ReadAheadLogChannel( logChannel, readerLogVersionBridge, readAheadSize );
     }
 
     public static PhysicalLogVersionedStoreChannel openForVersion( PhysicalLogFiles logFiles,
@@ -325,7 +331,7 @@ public class PhysicalLogFile implements LogFile, Lifecycle
     @Override
     public void accept( LogFileVisitor visitor, LogPosition startingFromPosition ) throws IOException
     {
-        try ( ReadableLogChannel reader = getReader( startingFromPosition ) )
+        try ( ReadableLogChannel reader = getReader( startingFromPosition, ReadAheadChannel.SCAN_READ_AHEAD_SIZE ) )
         {
             visitor.visit( startingFromPosition, reader );
         }
@@ -30,7 +30,10 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
 import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.util.JobScheduler;
 
+import static org.neo4j.kernel.impl.transaction.log.ReadAheadChannel.DEFAULT_READ_AHEAD_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.ReadAheadChannel.SCAN_READ_AHEAD_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.TransactionIdStore.BASE_TX_CHECKSUM;
 import static org.neo4j.kernel.impl.transaction.log.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
 import static org.neo4j.kernel.impl.transaction.log.TransactionIdStore.BASE_TX_ID;
@@ -42,24 +45,55 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
     private final LogFile logFile;
     private final TransactionMetadataCache transactionMetadataCache;
     private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
+    private final JobScheduler scheduler;
 
     public PhysicalLogicalTransactionStore( LogFile logFile, TransactionMetadataCache transactionMetadataCache,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader )
+    {
+        this( logFile, transactionMetadataCache, logEntryReader, null );
+    }
+
+    /**
+     * @param scheduler schedules the reading ahead of {@link #streamTransactions(long) streamed} transactions, or
+     * {@code null} to stream transactions without reading ahead.
+     */
+    public PhysicalLogicalTransactionStore( LogFile logFile, TransactionMetadataCache transactionMetadataCache,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, JobScheduler scheduler )
     {
         this.logFile = logFile;
         this.transactionMetadataCache = transactionMetadataCache;
         this.logEntryReader = logEntryReader;
+        this.scheduler = scheduler;
     }
 
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return new PhysicalTransactionCursor<>( logFile.getReader( position ), new VersionAwareLogEntryReader<>() );
+        // reading from a position means recovering, which reads everything from there on
+        return new PhysicalTransactionCursor<>( logFile.getReader( position, SCAN_READ_AHEAD_SIZE ),
+                new VersionAwareLogEntryReader<>() );
     }
 
     @Override
     public TransactionCursor getTransactions( final long transactionIdToStartFrom )
             throws IOException
+    {
+        ReadableLogChannel channel = getReader( transactionIdToStartFrom, DEFAULT_READ_AHEAD_SIZE );
+        return new PhysicalTransactionCursor<>( channel, logEntryReader );
+    }
+
+    @Override
+    public TransactionCursor streamTransactions( long transactionIdToStartFrom ) throws IOException
+    {
+        ReadableLogChannel channel = getReader( transactionIdToStartFrom, SCAN_READ_AHEAD_SIZE );
+        TransactionCursor cursor =
+                new MetadataCachingTransactionCursor( new PhysicalTransactionCursor<>( channel, logEntryReader ) );
+        // reading ahead on another thread only pays off if that thread can run alongside the one streaming
+        return scheduler != null && Runtime.getRuntime().availableProcessors() > 1
+               ? new PrefetchingTransactionCursor( cursor, scheduler ) : cursor;
+    }
+
+    private ReadableLogChannel getReader( long transactionIdToStartFrom, int readAheadSize ) throws IOException
     {
         // look up in position cache
         try
@@ -69,8 +103,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             if ( transactionMetadata != null )
             {
                 // we're good
-                ReadableLogChannel channel = logFile.getReader( transactionMetadata.getStartPosition() );
-                return new PhysicalTransactionCursor<>( channel, logEntryReader );
+                return logFile.getReader( transactionMetadata.getStartPosition(), readAheadSize );
             }
 
             // ask LogFile about the version it may be in
@@ -82,7 +115,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
                     new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
             logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
-            return new PhysicalTransactionCursor<>( logFile.getReader( position ), logEntryReader );
+            return logFile.getReader( position, readAheadSize );
         }
         catch ( FileNotFoundException e )
         {
@@ -112,13 +145,8 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
                 while ( cursor.next() )
                 {
                     CommittedTransactionRepresentation tx = cursor.get();
-                    LogEntryCommit commitEntry = tx.getCommitEntry();
-                    long committedTxId = commitEntry.getTxId();
-                    long timeWritten = commitEntry.getTimeWritten();
-                    TransactionMetadata metadata = transactionMetadataCache.cacheTransactionMetadata( committedTxId,
-                            tx.getStartEntry().getStartPosition(), tx.getStartEntry().getMasterId(),
-                            tx.getStartEntry().getLocalId(), LogEntryStart.checksum( tx.getStartEntry() ),
-                            timeWritten );
+                    long committedTxId = tx.getCommitEntry().getTxId();
+                    TransactionMetadata metadata = cacheTransactionMetadata( tx );
                     if ( committedTxId == transactionId )
                     {
                         transactionMetadata = metadata;
@@ -134,6 +162,58 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
         return transactionMetadata;
     }
 
+    private TransactionMetadata cacheTransactionMetadata( CommittedTransactionRepresentation tx )
+    {
+        LogEntryStart startEntry = tx.getStartEntry();
+        LogEntryCommit commitEntry = tx.getCommitEntry();
+        return transactionMetadataCache.cacheTransactionMetadata( commitEntry.getTxId(),
+                startEntry.getStartPosition(), startEntry.getMasterId(), startEntry.getLocalId(),
+                LogEntryStart.checksum( startEntry ), commitEntry.getTimeWritten() );
+    }
+
+    /**
+     * Caches the metadata of the transactions that are streamed, so that a stream that continues where an earlier
+     * stream ended, which is what a cluster member catching up does, can start without scanning the log.
+     */
+    private class MetadataCachingTransactionCursor implements TransactionCursor
+    {
+        private final TransactionCursor cursor;
+
+        MetadataCachingTransactionCursor( TransactionCursor cursor )
+        {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( cursor.next() )
+            {
+                cacheTransactionMetadata( cursor.get() );
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return cursor.get();
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return cursor.position();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            cursor.close();
+        }
+    }
+
     public static class TransactionPositionLocator implements LogFile.LogFileVisitor
     {
         private final long startTransactionId;
@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+
+import org.neo4j.helpers.Exceptions;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.util.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A {@link TransactionCursor} that reads and deserializes the transactions of another cursor on a separate thread,
+ * ahead of the thread consuming them. The consumer is thereby relieved of the reading and the parsing of the log,
+ * which is useful when streaming many transactions, for instance to a cluster member catching up or to a backup.
+ * <p>
+ * The first batch of transactions is read by the consumer itself, and reading ahead is only scheduled, in the
+ * {@link JobScheduler.Groups#transactionPrefetching} group, if there are more transactions than that. Short streams,
+ * which are the most common ones, thereby never involve another thread.
+ * <p>
+ * Transactions are handed over to the consumer in batches, since handing them over one by one would have the two
+ * threads wake each other up for every transaction. At most {@code prefetchSize} transactions are read ahead, so that
+ * a slow consumer does not make the whole log end up on the heap. The cursor that is read from is closed when this
+ * cursor is closed.
+ * <p>
+ * Unless this cursor is closed, the prefetcher always ends the stream of batches with a last batch, which carries the
+ * failure if reading failed, or the prefetcher was interrupted or failed itself, so the consumer never waits forever.
+ */
+public class PrefetchingTransactionCursor implements TransactionCursor
+{
+    public static final int DEFAULT_PREFETCH_SIZE = 1024;
+    private static final int BATCH_SIZE = 64;
+
+    private static final long PUT_TIMEOUT_MILLIS = 10;
+
+    private final TransactionCursor source;
+    private final JobScheduler scheduler;
+    private final int batchSize;
+    private final BlockingQueue<Batch> prefetched;
+    private JobScheduler.JobHandle prefetcher;
+    private volatile boolean closed;
+
+    private Batch batch;
+    private int index;
+    private CommittedTransactionRepresentation current;
+    private LogPosition position;
+
+    public PrefetchingTransactionCursor( TransactionCursor source, JobScheduler scheduler )
+    {
+        this( source, scheduler, DEFAULT_PREFETCH_SIZE );
+    }
+
+    public PrefetchingTransactionCursor( TransactionCursor source, JobScheduler scheduler, int prefetchSize )
+    {
+        this.source = source;
+        this.scheduler = scheduler;
+        this.batchSize = Math.min( BATCH_SIZE, prefetchSize );
+        this.prefetched = new ArrayBlockingQueue<>( Math.max( 1, prefetchSize / batchSize ) );
+        this.position = source.position();
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        while ( batch == null || index == batch.size )
+        {
+            if ( batch != null && batch.last )
+            {
+                current = null;
+                if ( batch.endPosition != null )
+                {
+                    position = batch.endPosition;
+                }
+                if ( batch.failure != null )
+                {
+                    Throwable failure = batch.failure;
+                    batch.failure = null;
+                    throw Exceptions.launderedException( IOException.class, failure );
+                }
+                return false;
+            }
+            batch = batch == null ? readFirstBatch() : take();
+            index = 0;
+        }
+
+        current = batch.transactions[index];
+        position = batch.positions[index];
+        index++;
+        return true;
+    }
+
+    private Batch readFirstBatch()
+    {
+        Batch first = read();
+        if ( !first.last )
+        {
+            prefetcher = scheduler.schedule( JobScheduler.Groups.transactionPrefetching, this::prefetch );
+        }
+        return first;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        prefetched.clear();
+        try
+        {
+            // the source is only ever read by the prefetcher, so let it finish what it is reading before closing it
+            if ( prefetcher != null )
+            {
+                prefetcher.waitTermination();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while closing the transaction prefetcher" );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IOException( "Transaction prefetcher failed", e.getCause() );
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    private Batch take() throws InterruptedIOException
+    {
+        try
+        {
+            return prefetched.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for the next transaction" );
+        }
+    }
+
+    private void prefetch()
+    {
+        try
+        {
+            Batch batch;
+            do
+            {
+                batch = read();
+            }
+            while ( put( batch ) && !batch.last );
+        }
+        catch ( Throwable e )
+        {
+            Batch failed = new Batch( 0 );
+            failed.failure = e;
+            failed.last = true;
+            put( failed );
+        }
+    }
+
+    private Batch read()
+    {
+        Batch batch = new Batch( batchSize );
+        try
+        {
+            while ( batch.size < batchSize )
+            {
+                if ( closed || !source.next() )
+                {
+                    batch.endPosition = source.position();
+                    batch.last = true;
+                    break;
+                }
+                batch.add( source.get(), source.position() );
+            }
+        }
+        catch ( Throwable e )
+        {
+            batch.failure = e;
+            batch.last = true;
+        }
+        return batch;
+    }
+
+    /**
+     * Hand the given batch over to the consumer, unless this cursor is closed first.
+     * <p>
+     * If interrupted, the batch is still handed over, but as the last one, carrying the interruption as its failure,
+     * since the consumer would otherwise wait forever for the next batch.
+     *
+     * @return {@code true} if the batch was handed over.
+     */
+    private boolean put( Batch batch )
+    {
+        boolean interrupted = false;
+        try
+        {
+            while ( !closed )
+            {
+                try
+                {
+                    if ( prefetched.offer( batch, PUT_TIMEOUT_MILLIS, MILLISECONDS ) )
+                    {
+                        return true;
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                    batch.last = true;
+                    if ( batch.failure == null )
+                    {
+                        batch.failure = new InterruptedIOException( "Interrupted while prefetching transactions" );
+                    }
+                }
+            }
+            return false;
+        }
+        finally
+        {
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static class Batch
+    {
+        final CommittedTransactionRepresentation[] transactions;
+        final LogPosition[] positions;
+        int size;
+        boolean last;
+        LogPosition endPosition;
+        Throwable failure;
+
+        Batch( int capacity )
+        {
+            this.transactions = new CommittedTransactionRepresentation[capacity];
+            this.positions = new LogPosition[capacity];
+        }
+
+        void add( CommittedTransactionRepresentation transaction, LogPosition position )
+        {
+            transactions[size] = transaction;
+            positions[size] = position;
+            size++;
+        }
+    }
+}
@@ -36,10 +36,18 @@ import static java.lang.System.arraycopy;
 public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosableChannel
 {
     public static final int DEFAULT_READ_AHEAD_SIZE = 1024 * 4;
+    /**
+     * Read-ahead size for channels that scan through large parts of the log, where fewer and larger reads outweigh
+     * the cost of the bigger buffer.
+     */
+    public static final int SCAN_READ_AHEAD_SIZE = 1024 * 64;
 
     protected T channel;
     private final ByteBuffer aheadBuffer;
     private final int readAheadSize;
+    // The position of the channel, kept here since the position of the buffered stream is asked for once or more
+    // for every log entry read, and asking the channel is a system call. -1 until asked for the first time.
+    private long channelPosition = -1;
 
     public ReadAheadChannel( T channel )
     {
@@ -63,7 +71,11 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
      */
     public long position() throws IOException
     {
-        return channel.position() - aheadBuffer.remaining();
+        if ( channelPosition == -1 )
+        {
+            channelPosition = channel.position();
+        }
+        return channelPosition - aheadBuffer.remaining();
     }
 
     @Override
@@ -144,6 +156,10 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
         while ( aheadBuffer.position() < aheadBuffer.capacity() )
         {   // read from the current channel to try and fill the buffer
             int read = channel.read( aheadBuffer );
+            if ( read > 0 && channelPosition != -1 )
+            {
+                channelPosition += read;
+            }
             if ( read == -1 )
             {
                 // current channel ran out...
@@ -162,6 +178,7 @@ public class ReadAheadChannel<T extends StoreChannel> implements ReadableClosabl
                     throw ReadPastEndException.INSTANCE;
                 }
                 channel = nextChannel;
+                channelPosition = -1;
             }
         }
         // prepare for reading
@@ -62,6 +62,13 @@ public class ReadOnlyTransactionStore extends LifecycleAdapter implements Logica
         return physicalStore.getTransactions( transactionIdToStartFrom );
     }
 
+    @Override
+    public TransactionCursor streamTransactions( long transactionIdToStartFrom )
+            throws NoSuchTransactionException, IOException
+    {
+        return physicalStore.streamTransactions( transactionIdToStartFrom );
+    }
+
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws NoSuchTransactionException, IOException
     {
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.neo4j.io.ByteUnit;
+
+/**
+ * A {@link FlushableChannel} that writes to a growing heap buffer. Transactions are serialized into it by the
+ * committing threads, before they enter the log file monitor, so that only a copy of the serialized bytes is done
+ * while holding the monitor. Commands are also serialized into it before they are compressed.
+ * <p>
+ * Channels are kept per committing thread, so {@link #shrink()} is called after each use, to not keep the buffer of
+ * a large transaction around for as long as the thread lives.
+ */
+public final class SerializedCommandsChannel implements FlushableChannel
+{
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final int RETAINED_CAPACITY = (int) ByteUnit.kibiBytes( 64 );
+
+    private ByteBuffer buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+
+    public int position()
+    {
+        return buffer.position();
+    }
+
+    public int capacity()
+    {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return The array that backs this channel. It is replaced when the channel grows.
+     */
+    public byte[] array()
+    {
+        return buffer.array();
+    }
+
+    public void clear()
+    {
+        buffer.clear();
+    }
+
+    /**
+     * Replaces the buffer with a small one, if it has grown larger than what is worth keeping between uses.
+     * The content of the channel must not be needed anymore.
+     *
+     * @return {@code true} if the buffer was replaced.
+     */
+    public boolean shrink()
+    {
+        if ( buffer.capacity() > RETAINED_CAPACITY )
+        {
+            buffer = ByteBuffer.allocate( INITIAL_CAPACITY );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Write the bytes in the given range of this channel, to the given channel. A range that does not start at the
+     * beginning of this channel is copied, so this should not be called while holding the log file monitor.
+     */
+    public void writeTo( FlushableChannel channel, int from, int to ) throws IOException
+    {
+        if ( from == 0 )
+        {
+            channel.put( buffer.array(), to );
+        }
+        else
+        {
+            byte[] range = Arrays.copyOfRange( buffer.array(), from, to );
+            channel.put( range, range.length );
+        }
+    }
+
+    private ByteBuffer bufferWithGuaranteedSpace( int spaceInBytes )
+    {
+        if ( buffer.remaining() < spaceInBytes )
+        {
+            int capacity = Math.max( buffer.capacity() << 1, buffer.position() + spaceInBytes );
+            ByteBuffer grown = ByteBuffer.allocate( capacity );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+        return buffer;
+    }
+
+    @Override
+    public Flushable prepareForFlush() throws IOException
+    {
+        return () -> {};
+    }
+
+    @Override
+    public FlushableChannel put( byte value ) throws IOException
+    {
+        bufferWithGuaranteedSpace( 1 ).put( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putShort( short value ) throws IOException
+    {
+        bufferWithGuaranteedSpace( 2 ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putInt( int value ) throws IOException
+    {
+        bufferWithGuaranteedSpace( 4 ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putLong( long value ) throws IOException
+    {
+        bufferWithGuaranteedSpace( 8 ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putFloat( float value ) throws IOException
+    {
+        bufferWithGuaranteedSpace( 4 ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel putDouble( double value ) throws IOException
+    {
+        bufferWithGuaranteedSpace( 8 ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public FlushableChannel put( byte[] value, int length ) throws IOException
+    {
+        bufferWithGuaranteedSpace( length ).put( value, 0, length );
+        return this;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.neo4j.function.Predicates;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.time.SystemNanoClock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.kernel.impl.util.JobScheduler.Groups.backgroundFlush;
+
+/**
+ * Keeps writing dirty pages to the store files in the background, in between check points, so that each check point
+ * only has a small amount of dirty data left to flush and force.
+ * <p>
+ * The flusher paces itself towards the next check point, which is due one check point interval after the last one.
+ * It aims to leave no more dirty pages at that time, than what the check point can flush within the target flush
+ * duration, going by the rate at which the last check point flushed its pages. The pages are written in file offset
+ * order, and all writes also go through the database {@link IOLimiter}, so they are subject to the same IO limits as
+ * the check points.
+ */
+public class BackgroundPageFlusher extends LifecycleAdapter
+{
+    private static final long PACING_PERIOD_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+
+    private final PageCache pageCache;
+    private final IOLimiter ioLimiter;
+    private final JobScheduler scheduler;
+    private final SystemNanoClock clock;
+    private final CheckPointTracer tracer;
+    private final Log log;
+    private final boolean enabled;
+    private final long checkPointIntervalNanos;
+    private final long targetFlushNanos;
+
+    private final Runnable job = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                flushing = true;
+                if ( stopped )
+                {
+                    return;
+                }
+                flushIfNeeded();
+            }
+            catch ( IOException e )
+            {
+                // The next check point will run into the same problem, and deal with it.
+                log.warn( "Background flushing of dirty pages failed", e );
+            }
+            finally
+            {
+                flushing = false;
+            }
+            scheduleNext();
+        }
+    };
+
+    // Guarded by this, so that stop() cancels the job that is scheduled last, and no job is scheduled after it.
+    private JobScheduler.JobHandle handle;
+    private volatile boolean stopped;
+    private volatile boolean flushing;
+    private final BooleanSupplier notFlushingCondition = () -> !flushing;
+
+    // The time at which the next check point is due.
+    private volatile long checkPointDeadlineNanos;
+    // The rate, in pages per second, at which the last check point flushed its dirty pages, or 0 if not yet known.
+    private volatile double checkPointFlushRate;
+    // Only accessed by the check pointer, which holds the check point mutex.
+    private long checkPointFlushStartNanos;
+    private long checkPointFlushStartDirtyPages;
+
+    public BackgroundPageFlusher( PageCache pageCache, IOLimiter ioLimiter, JobScheduler scheduler,
+            SystemNanoClock clock, CheckPointTracer tracer, LogProvider logProvider, boolean enabled,
+            long checkPointIntervalMillis, long targetFlushMillis )
+    {
+        this.pageCache = pageCache;
+        this.ioLimiter = ioLimiter;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.tracer = tracer;
+        this.log = logProvider.getLog( BackgroundPageFlusher.class );
+        this.enabled = enabled;
+        this.checkPointIntervalNanos = MILLISECONDS.toNanos( checkPointIntervalMillis );
+        this.targetFlushNanos = MILLISECONDS.toNanos( targetFlushMillis );
+    }
+
+    @Override
+    public void start() throws Throwable
+    {
+        checkPointDeadlineNanos = clock.nanos() + checkPointIntervalNanos;
+        if ( enabled )
+        {
+            scheduleNext();
+        }
+    }
+
+    @Override
+    public void stop() throws Throwable
+    {
+        synchronized ( this )
+        {
+            stopped = true;
+            if ( handle != null )
+            {
+                handle.cancel( false );
+                handle = null;
+            }
+        }
+        Predicates.awaitForever( notFlushingCondition, 100, MILLISECONDS );
+    }
+
+    private synchronized void scheduleNext()
+    {
+        if ( !stopped )
+        {
+            handle = scheduler.schedule( backgroundFlush, job, pacingPeriodMillis(), MILLISECONDS );
+        }
+    }
+
+    /**
+     * Called by the check pointer right before it flushes the store.
+     */
+    void checkPointFlushStarted()
+    {
+        checkPointFlushStartNanos = clock.nanos();
+        checkPointFlushStartDirtyPages = enabled ? pageCache.dirtyPageCount() : 0;
+    }
+
+    /**
+     * Called by the check pointer when it has flushed the store, which is when the interval until the next check
+     * point starts.
+     */
+    void checkPointFlushCompleted()
+    {
+        long now = clock.nanos();
+        long flushNanos = now - checkPointFlushStartNanos;
+        if ( flushNanos > 0 && checkPointFlushStartDirtyPages > 0 )
+        {
+            checkPointFlushRate = checkPointFlushStartDirtyPages * (double) TimeUnit.SECONDS.toNanos( 1 ) / flushNanos;
+        }
+        checkPointDeadlineNanos = now + checkPointIntervalNanos;
+    }
+
+    /**
+     * Write out the dirty pages, if there are more of them than the next check point should have to flush.
+     * @return the number of pages written.
+     */
+    long flushIfNeeded() throws IOException
+    {
+        double pagesPerSecond = targetPagesPerSecond();
+        if ( pagesPerSecond <= 0 )
+        {
+            return 0;
+        }
+        long pagesWritten = pageCache.flushDirtyPages( new PacingIOLimiter( pagesPerSecond ) );
+        tracer.pagesFlushedInBackground( pagesWritten );
+        return pagesWritten;
+    }
+
+    /**
+     * The rate at which we need to write dirty pages, in order to get down to the amount of dirty pages that the
+     * next check point can flush in the target flush duration, by the time that check point is due.
+     * @return the target write rate in pages per second, or 0 if there is no need to write anything right now.
+     */
+    double targetPagesPerSecond()
+    {
+        long dirtyPages = pageCache.dirtyPageCount();
+        long allowedDirtyPages = (long) (checkPointFlushRate * targetFlushNanos / TimeUnit.SECONDS.toNanos( 1 ));
+        long excessDirtyPages = dirtyPages - allowedDirtyPages;
+        if ( excessDirtyPages <= 0 )
+        {
+            return 0;
+        }
+        long remainingNanos = Math.max( checkPointDeadlineNanos - clock.nanos(), PACING_PERIOD_NANOS );
+        return excessDirtyPages * (double) TimeUnit.SECONDS.toNanos( 1 ) / remainingNanos;
+    }
+
+    private static long pacingPeriodMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis( PACING_PERIOD_NANOS );
+    }
+
+    /**
+     * Spreads the writes of a background flush out over time, such that they proceed at the target rate, which is
+     * recomputed on regular intervals. The database {@link IOLimiter} gets its say first.
+     */
+    private class PacingIOLimiter implements IOLimiter
+    {
+        private double pagesPerSecond;
+        private long periodStartNanos;
+        private long periodPages;
+
+        PacingIOLimiter( double pagesPerSecond )
+        {
+            this.pagesPerSecond = pagesPerSecond;
+            this.periodStartNanos = clock.nanos();
+        }
+
+        @Override
+        public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+                throws IOException
+        {
+            long stamp = ioLimiter.maybeLimitIO( previousStamp, recentlyCompletedIOs, flushable );
+            if ( stopped )
+            {
+                // Finish quickly, so we don't hold up shutdown.
+                return stamp;
+            }
+
+            long now = clock.nanos();
+            if ( now - periodStartNanos >= PACING_PERIOD_NANOS )
+            {
+                // If we have already caught up, then we keep going at the old rate, since we cannot stop half-way.
+                double newRate = targetPagesPerSecond();
+                pagesPerSecond = newRate > 0 ? newRate : pagesPerSecond;
+                periodStartNanos = now;
+                periodPages = 0;
+            }
+            periodPages += recentlyCompletedIOs;
+
+            long dueNanos = periodStartNanos + (long) (periodPages * TimeUnit.SECONDS.toNanos( 1 ) / pagesPerSecond);
+            long sleepNanos = Math.min( dueNanos - now, PACING_PERIOD_NANOS );
+            if ( sleepNanos > 0 )
+            {
+                try
+                {
+                    TimeUnit.NANOSECONDS.sleep( sleepNanos );
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return stamp;
+        }
+    }
+}
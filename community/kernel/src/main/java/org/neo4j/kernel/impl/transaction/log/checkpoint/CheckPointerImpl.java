@@ -46,6 +46,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
     private final Log msgLog;
     private final CheckPointTracer tracer;
     private final StoreCopyCheckPointMutex mutex;
+    private final BackgroundPageFlusher backgroundFlusher;
 
     private long lastCheckPointedTx;
 
@@ -59,7 +60,8 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
             LogProvider logProvider,
             CheckPointTracer tracer,
             IOLimiter ioLimiter,
-            StoreCopyCheckPointMutex mutex )
+            StoreCopyCheckPointMutex mutex,
+            BackgroundPageFlusher backgroundFlusher )
     {
         this.appender = appender;
         this.transactionIdStore = transactionIdStore;
@@ -71,6 +73,7 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
         this.msgLog = logProvider.getLog( CheckPointerImpl.class );
         this.tracer = tracer;
         this.mutex = mutex;
+        this.backgroundFlusher = backgroundFlusher;
     }
 
     @Override
@@ -158,7 +161,9 @@ public class CheckPointerImpl extends LifecycleAdapter implements CheckPointer
          * earlier check point and replay from there all the log entries. Everything will be ok.
          */
         msgLog.info( prefix + " Starting store flush..." );
+        backgroundFlusher.checkPointFlushStarted();
         storageEngine.flushAndForce( ioLimiter );
+        backgroundFlusher.checkPointFlushCompleted();
         msgLog.info( prefix + " Store flush completed" );
 
         /*
@@ -25,6 +25,8 @@ public interface CheckPointerMonitor
 
     long checkPointAccumulatedTotalTimeMillis();
 
+    long numberOfPagesFlushedInBackground();
+
     CheckPointerMonitor NULL = new CheckPointerMonitor()
     {
         @Override
@@ -38,5 +40,11 @@ public interface CheckPointerMonitor
         {
             return 0;
         }
+
+        @Override
+        public long numberOfPagesFlushedInBackground()
+        {
+            return 0;
+        }
     };
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.compress.LZ4BlockCodec;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.kernel.impl.transaction.log.ReadableClosableChannel;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+
+import static org.neo4j.io.compress.LZ4BlockCodec.BYTE_ARRAY_OFFSET;
+
+/**
+ * Reads the command entries of a {@link LogEntryCommandBlock}. The whole block is read from the log and decompressed
+ * when the block entry is parsed, so that the channel the block came from is positioned after it, and all of its
+ * commands are parsed straight out of the decompressed bytes. Nothing is kept between blocks, so the commands of a
+ * block can never be confused with those of another channel, or of another position in the same channel.
+ */
+class CommandBlockChannel implements ReadableClosableChannel
+{
+    /**
+     * The largest number of uncompressed bytes that is written in one block. Lengths in a block header are checked
+     * against it before anything is allocated, so that a corrupt or torn header fails the read rather than the heap.
+     */
+    static final int MAX_BLOCK_SIZE = (int) ByteUnit.mebiBytes( 8 );
+
+    private final ByteBuffer block;
+
+    private CommandBlockChannel( ByteBuffer block )
+    {
+        this.block = block;
+    }
+
+    /**
+     * Read the compressed bytes of a block with the given header from the given channel, decompress them, and parse
+     * the command entries they hold.
+     *
+     * @throws IOException if the block is corrupt, or its checksum does not match the decompressed bytes.
+     */
+    static List<LogEntryCommand> readCommands( int uncompressedLength, int compressedLength, int checksum,
+            ReadableClosableChannel source, LogPositionMarker marker, CommandReaderFactory commandReader )
+            throws IOException
+    {
+        if ( uncompressedLength <= 0 || uncompressedLength > MAX_BLOCK_SIZE ||
+             compressedLength <= 0 || compressedLength > LZ4BlockCodec.maxCompressedLength( uncompressedLength ) )
+        {
+            throw new IOException( "Invalid command block with uncompressed length " + uncompressedLength +
+                                   " and compressed length " + compressedLength );
+        }
+        byte[] compressed = new byte[compressedLength];
+        source.get( compressed, compressedLength );
+
+        byte[] uncompressed = new byte[uncompressedLength];
+        int length = LZ4BlockCodec.decompress( compressed, BYTE_ARRAY_OFFSET, compressedLength,
+                uncompressed, BYTE_ARRAY_OFFSET, uncompressedLength );
+        if ( length != uncompressedLength )
+        {
+            throw new IOException( "Command block of " + uncompressedLength + " bytes decompressed into " +
+                                   length + " bytes" );
+        }
+        CRC32 crc = new CRC32();
+        crc.update( uncompressed, 0, length );
+        if ( (int) crc.getValue() != checksum )
+        {
+            throw new IOException( "Command block checksum " + checksum + " does not match the checksum of its " +
+                                   "commands " + (int) crc.getValue() );
+        }
+
+        CommandBlockChannel channel = new CommandBlockChannel( ByteBuffer.wrap( uncompressed ) );
+        List<LogEntryCommand> commands = new ArrayList<>();
+        while ( channel.block.hasRemaining() )
+        {
+            LogEntryVersion version = LogEntryVersion.byVersion( channel.get() );
+            byte typeCode = channel.get();
+            if ( typeCode != LogEntryByteCodes.COMMAND )
+            {
+                throw new IOException( "Unexpected entry type " + typeCode + " in a compressed command block" );
+            }
+            LogEntry entry = version.entryParser( typeCode ).parse( version, channel, marker, commandReader );
+            if ( entry == null )
+            {
+                throw new IOException( "Empty command in a compressed command block" );
+            }
+            commands.add( entry.as() );
+        }
+        return commands;
+    }
+
+    private ByteBuffer ensure( int bytes ) throws IOException
+    {
+        if ( block.remaining() < bytes )
+        {
+            throw new IOException( "Command entry reaches past the end of its compressed block" );
+        }
+        return block;
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        return ensure( Byte.BYTES ).get();
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        return ensure( Short.BYTES ).getShort();
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        return ensure( Integer.BYTES ).getInt();
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        return ensure( Long.BYTES ).getLong();
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        return ensure( Float.BYTES ).getFloat();
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        return ensure( Double.BYTES ).getDouble();
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        ensure( length ).get( bytes, 0, length );
+    }
+
+    @Override
+    public void close()
+    {
+        // The block is owned by the entry that is parsed from it
+    }
+}
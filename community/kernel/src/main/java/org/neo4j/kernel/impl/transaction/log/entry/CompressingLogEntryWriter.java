@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+import org.neo4j.helpers.collection.Visitor;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.compress.LZ4BlockCodec;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.FlushableChannel;
+import org.neo4j.kernel.impl.transaction.log.SerializedCommandsChannel;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.neo4j.io.compress.LZ4BlockCodec.BYTE_ARRAY_OFFSET;
+import static org.neo4j.io.compress.LZ4BlockCodec.HASH_TABLE_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.entry.CommandBlockChannel.MAX_BLOCK_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMMAND_BLOCK;
+
+/**
+ * Writes log entries of version {@link LogEntryVersion#V3_2}, where the commands of a transaction are written as
+ * LZ4 compressed {@link LogEntryCommandBlock blocks}, together with a checksum of the uncompressed commands.
+ * <p>
+ * Commands are gathered into blocks of about {@link #BLOCK_SIZE} bytes, and no block is larger than
+ * {@link CommandBlockChannel#MAX_BLOCK_SIZE}, which is all that readers accept. A command that would not fit in
+ * a block of that size on its own is written as an ordinary, uncompressed command entry.
+ * <p>
+ * Instances keep the buffers used for compression between transactions, and are not thread safe.
+ */
+public class CompressingLogEntryWriter extends LogEntryWriter
+{
+    private static final int BLOCK_SIZE = (int) ByteUnit.mebiBytes( 1 );
+
+    private final FlushableChannel channel;
+    private final SerializedCommandsChannel commands;
+    private final LogEntryWriter commandWriter;
+    private final int[] hashTable = new int[HASH_TABLE_SIZE];
+    private final CRC32 checksum = new CRC32();
+    private byte[] compressed = new byte[0];
+    private final Visitor<StorageCommand,IOException> blockSerializer = this::addCommand;
+
+    public CompressingLogEntryWriter( FlushableChannel channel )
+    {
+        super( channel, LogEntryVersion.V3_2 );
+        this.channel = channel;
+        commands = new SerializedCommandsChannel();
+        commandWriter = new LogEntryWriter( commands, LogEntryVersion.V3_2 );
+    }
+
+    @Override
+    public void serialize( TransactionRepresentation tx ) throws IOException
+    {
+        commands.clear();
+        tx.accept( blockSerializer );
+        finishCommandBlocks();
+    }
+
+    @Override
+    public void serialize( Collection<StorageCommand> commands ) throws IOException
+    {
+        this.commands.clear();
+        for ( StorageCommand command : commands )
+        {
+            addCommand( command );
+        }
+        finishCommandBlocks();
+    }
+
+    private boolean addCommand( StorageCommand command ) throws IOException
+    {
+        int start = commands.position();
+        commandWriter.serialize( command );
+        int end = commands.position();
+        if ( end > MAX_BLOCK_SIZE )
+        {
+            // The block would be too large with this command in it, so the commands before it are written as a
+            // block of their own, and the command itself is written uncompressed
+            writeCommandBlock( start );
+            commands.writeTo( channel, start, end );
+            commands.clear();
+        }
+        else if ( end >= BLOCK_SIZE )
+        {
+            writeCommandBlock( end );
+            commands.clear();
+        }
+        return false;
+    }
+
+    private void finishCommandBlocks() throws IOException
+    {
+        writeCommandBlock( commands.position() );
+        commands.clear();
+        if ( commands.shrink() )
+        {
+            // The compression buffer was sized for the large blocks of that transaction too
+            compressed = new byte[0];
+        }
+    }
+
+    private void writeCommandBlock( int length ) throws IOException
+    {
+        if ( length == 0 )
+        {
+            return;
+        }
+        int capacity = LZ4BlockCodec.maxCompressedLength( length );
+        if ( compressed.length < capacity )
+        {
+            compressed = new byte[capacity];
+        }
+        byte[] uncompressed = commands.array();
+        int compressedLength = LZ4BlockCodec.compress( uncompressed, BYTE_ARRAY_OFFSET, length,
+                compressed, BYTE_ARRAY_OFFSET, capacity, hashTable );
+        checksum.reset();
+        checksum.update( uncompressed, 0, length );
+
+        writeLogEntryHeader( COMMAND_BLOCK );
+        channel.putInt( length ).putInt( compressedLength ).putInt( (int) checksum.getValue() )
+               .put( compressed, compressedLength );
+    }
+}
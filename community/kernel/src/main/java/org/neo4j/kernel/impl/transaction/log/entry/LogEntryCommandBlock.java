@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.util.List;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMMAND_BLOCK;
+
+/**
+ * A block of LZ4 compressed commands, that belong to the transaction whose start entry came before it.
+ * The compressed bytes follow right after the header in the log. They decompress into a sequence of ordinary
+ * command entries, whose checksum must match that of the header. The commands are parsed together with the block,
+ * and {@link org.neo4j.kernel.impl.transaction.log.LogEntryCursor} hands them out one by one.
+ */
+public class LogEntryCommandBlock extends AbstractLogEntry
+{
+    private final int uncompressedLength;
+    private final int compressedLength;
+    private final int checksum;
+    private final List<LogEntryCommand> commands;
+
+    public LogEntryCommandBlock( LogEntryVersion version, int uncompressedLength, int compressedLength, int checksum,
+            List<LogEntryCommand> commands )
+    {
+        super( version, COMMAND_BLOCK );
+        this.uncompressedLength = uncompressedLength;
+        this.compressedLength = compressedLength;
+        this.checksum = checksum;
+        this.commands = commands;
+    }
+
+    public int getUncompressedLength()
+    {
+        return uncompressedLength;
+    }
+
+    public int getCompressedLength()
+    {
+        return compressedLength;
+    }
+
+    public int getChecksum()
+    {
+        return checksum;
+    }
+
+    public List<LogEntryCommand> getCommands()
+    {
+        return commands;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CommandBlock[uncompressedLength=" + uncompressedLength + ", compressedLength=" + compressedLength +
+               ", checksum=" + checksum + "]";
+    }
+
+    @Override
+    public <T extends LogEntry> T as()
+    {
+        return (T) this;
+    }
+}
@@ -93,7 +93,11 @@ public enum LogEntryVersion
     // as of 2016-05-30: neo4j 3.0.2 legacy index IndexDefineCommand maps write size as short instead of byte
     // See comment for V2.2.10 for version number explanation
     // log entry layout hasn't changed since 2_3 so just use that one
-    V3_0_2( -9, LogEntryParsersV2_3.class );
+    V3_0_2( -9, LogEntryParsersV2_3.class ),
+    // the commands of a transaction can be written as a single LZ4 compressed and checksummed command block entry.
+    // The commands themselves haven't changed since 3.0.2. This version is only written when log compression is
+    // enabled, so that logs stay readable by older versions by default
+    V3_2( -10, LogEntryParsersV3_2.class );
 
     public static final LogEntryVersion CURRENT = V3_0_2;
     private static final LogEntryVersion[] ALL = values();
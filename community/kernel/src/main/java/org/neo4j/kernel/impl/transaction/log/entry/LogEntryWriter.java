@@ -37,17 +37,24 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.CURREN
 public class LogEntryWriter
 {
     private final FlushableChannel channel;
+    private final LogEntryVersion version;
     private final Visitor<StorageCommand,IOException> serializer;
 
     public LogEntryWriter( FlushableChannel channel )
+    {
+        this( channel, CURRENT );
+    }
+
+    LogEntryWriter( FlushableChannel channel, LogEntryVersion version )
     {
         this.channel = channel;
+        this.version = version;
         this.serializer = new StorageCommandSerializer( channel );
     }
 
-    private void writeLogEntryHeader( byte type ) throws IOException
+    protected void writeLogEntryHeader( byte type ) throws IOException
     {
-        channel.put( CURRENT.byteCode() ).put( type );
+        channel.put( version.byteCode() ).put( type );
     }
 
     public void writeStartEntry( int masterId, int authorId, long timeWritten, long latestCommittedTxWhenStarted,
@@ -77,6 +84,11 @@ public class LogEntryWriter
         }
     }
 
+    void serialize( StorageCommand command ) throws IOException
+    {
+        serializer.visit( command );
+    }
+
     public void writeCheckPointEntry( LogPosition logPosition ) throws IOException
     {
         writeLogEntryHeader( CHECK_POINT );
@@ -40,6 +40,9 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.byVers
  * with previous versions of Neo4j.
  *
  * Read all about it at {@link LogEntryVersion}.
+ *
+ * Commands that were written in a {@link LogEntryCommandBlock} are decompressed and parsed when the block is read,
+ * and returned together with it. Instances hold no state of their own, and can be shared between threads and channels.
  */
 public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionAwareChannel> implements LogEntryReader<SOURCE>
 {
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.pruning;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.impl.transaction.log.LogFileInformation;
+import org.neo4j.kernel.impl.transaction.log.PhysicalLogFiles;
+
+/**
+ * In-memory index of the transaction log files that have been rotated out, and are candidates for pruning. A log
+ * file does not change once it has been rotated out, so its size and the transactions in it are looked up once, and
+ * then remembered until the file is pruned. The lowest existing log version is also remembered, so that finding the
+ * log files to prune does not have to check which files exist, every time.
+ * <p>
+ * Not thread safe. Only the thread doing the pruning should use it.
+ */
+class LogFileIndex implements LogFileInformation
+{
+    private static final long UNKNOWN = -1;
+
+    private final FileSystemAbstraction fileSystem;
+    private final PhysicalLogFiles files;
+    private final LogFileInformation source;
+    private final Map<Long,Entry> entries = new HashMap<>();
+    private long lowestVersion = UNKNOWN;
+
+    LogFileIndex( FileSystemAbstraction fileSystem, PhysicalLogFiles files, LogFileInformation source )
+    {
+        this.fileSystem = fileSystem;
+        this.files = files;
+        this.source = source;
+    }
+
+    /**
+     * @param upToVersion the version of the log file that is not to be pruned, and the files after it.
+     * @return the lowest existing log version, or {@code upToVersion} if there are no log files before it.
+     */
+    long lowestVersion( long upToVersion )
+    {
+        if ( lowestVersion == UNKNOWN || lowestVersion >= upToVersion ||
+             !fileSystem.fileExists( files.getLogFileForVersion( lowestVersion ) ) )
+        {
+            long version = upToVersion;
+            while ( version > 0 && fileSystem.fileExists( files.getLogFileForVersion( version - 1 ) ) )
+            {
+                version--;
+            }
+            lowestVersion = version;
+        }
+        return lowestVersion;
+    }
+
+    File file( long version )
+    {
+        return files.getLogFileForVersion( version );
+    }
+
+    long size( long version )
+    {
+        Entry entry = entry( version );
+        if ( entry.size == UNKNOWN )
+        {
+            entry.size = fileSystem.getFileSize( file( version ) );
+        }
+        return entry.size;
+    }
+
+    /**
+     * Forgets about the given version, which has been pruned, along with all versions before it.
+     */
+    void pruned( long version )
+    {
+        entries.remove( version );
+        lowestVersion = version + 1;
+    }
+
+    @Override
+    public long getFirstExistingEntryId() throws IOException
+    {
+        return source.getFirstExistingEntryId();
+    }
+
+    @Override
+    public long getFirstEntryId( long version ) throws IOException
+    {
+        return source.getFirstEntryId( version );
+    }
+
+    @Override
+    public long getLastEntryId()
+    {
+        return source.getLastEntryId();
+    }
+
+    @Override
+    public long getFirstStartRecordTimestamp( long version ) throws IOException
+    {
+        Entry entry = entry( version );
+        if ( entry.firstStartRecordTimestamp == UNKNOWN )
+        {
+            entry.firstStartRecordTimestamp = source.getFirstStartRecordTimestamp( version );
+        }
+        return entry.firstStartRecordTimestamp;
+    }
+
+    private Entry entry( long version )
+    {
+        return entries.computeIfAbsent( version, v -> new Entry() );
+    }
+
+    private static class Entry
+    {
+        long size = UNKNOWN;
+        long firstStartRecordTimestamp = UNKNOWN;
+    }
+}
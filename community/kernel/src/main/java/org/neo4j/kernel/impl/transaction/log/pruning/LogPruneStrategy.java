@@ -19,7 +19,29 @@
  */
 package org.neo4j.kernel.impl.transaction.log.pruning;
 
+import java.util.function.Supplier;
+
+import org.neo4j.graphdb.Resource;
+
 public interface LogPruneStrategy
 {
     void prune( long upToLogVersion );
+
+    /**
+     * Like {@link #prune(long)}, but every step that changes the log files is done while holding a resource from the
+     * given guard, so that something else can exclude the pruning while it needs the files to stay as they are.
+     * Pauses in between the steps are taken without holding the guard.
+     */
+    default void prune( long upToLogVersion, Supplier<Resource> stepGuard )
+    {
+        try ( Resource guard = stepGuard.get() )
+        {
+            prune( upToLogVersion );
+        }
+    }
+
+    /**
+     * @return the number of bytes of log files that have been chosen for pruning, but are not removed yet.
+     */
+    long bytesAwaitingPruning();
 }
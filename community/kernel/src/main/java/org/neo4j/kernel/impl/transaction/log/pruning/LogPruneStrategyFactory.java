@@ -39,6 +39,12 @@ public class LogPruneStrategyFactory
             // do nothing
         }
 
+        @Override
+        public long bytesAwaitingPruning()
+        {
+            return 0;
+        }
+
         @Override
         public String toString()
         {
@@ -23,8 +23,13 @@ public interface LogPruning
 {
     /**
      * Prunes logs that have version less than {@code currentVersion}. This is a best effort service and there is no
-     * guarantee that any logs will be removed.
+     * guarantee that any logs will be removed. The pruning may happen asynchronously, after this method returns.
      * @param currentVersion The lowest version expected to remain after pruning completes.
      */
     void pruneLogs( long currentVersion );
+
+    /**
+     * @return the number of bytes of log files that have been chosen for pruning, but are not removed yet.
+     */
+    long bytesAwaitingPruning();
 }
@@ -19,45 +19,181 @@
  */
 package org.neo4j.kernel.impl.transaction.log.pruning;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
+import org.neo4j.function.Predicates;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.StoreCopyCheckPointMutex;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.neo4j.kernel.impl.util.JobScheduler.Groups.logPruning;
+
 /**
- * This class listens for rotations and does log pruning.
+ * Prunes the logs in the background, so that the check pointer does not have to wait for the log files to be removed.
+ * <p>
+ * Requests to prune that come in while pruning is in progress are coalesced, and the pruning is run once more, for the
+ * highest requested version, when the current round has completed.
+ * <p>
+ * Every step that truncates or removes a log file holds the check point side of the {@link StoreCopyCheckPointMutex},
+ * like the check pointer used to when it pruned the logs itself, so that no log file is changed while a store copy or
+ * backup may be streaming it. The mutex is released in between the steps, and while pausing between them, so a store
+ * copy waits for at most one step, rather than for the whole round.
  */
-public class LogPruningImpl implements LogPruning
+public class LogPruningImpl extends LifecycleAdapter implements LogPruning
 {
-    private final Lock pruneLock = new ReentrantLock();
+    private static final long DEFAULT_STOP_TIMEOUT_MILLIS = SECONDS.toMillis( 60 );
+
     private final LogPruneStrategy pruneStrategy;
+    private final JobScheduler scheduler;
+    private final StoreCopyCheckPointMutex mutex;
+    private final long stopTimeoutMillis;
     private final Log msgLog;
 
-    public LogPruningImpl( LogPruneStrategy pruneStrategy, LogProvider logProvider )
+    private final AtomicLong requestedVersion = new AtomicLong( -1 );
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final BooleanSupplier notScheduledCondition = () -> !scheduled.get();
+    private volatile boolean pruneRequested;
+    private volatile boolean stopped;
+    private volatile JobScheduler.JobHandle jobHandle;
+
+    private final Runnable job = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                while ( pruneRequested && !stopped )
+                {
+                    pruneRequested = false;
+                    prune( requestedVersion.get() );
+                }
+            }
+            catch ( Throwable e )
+            {
+                // The next check point will try again.
+                msgLog.error( "Log pruning failed", e );
+            }
+            finally
+            {
+                scheduled.set( false );
+            }
+
+            // A request may have come in after we last looked, but before we cleared the scheduled flag.
+            scheduleIfNeeded();
+        }
+    };
+
+    public LogPruningImpl( LogPruneStrategy pruneStrategy, LogProvider logProvider, JobScheduler scheduler,
+            StoreCopyCheckPointMutex mutex )
+    {
+        this( pruneStrategy, logProvider, scheduler, mutex, DEFAULT_STOP_TIMEOUT_MILLIS );
+    }
+
+    LogPruningImpl( LogPruneStrategy pruneStrategy, LogProvider logProvider, JobScheduler scheduler,
+            StoreCopyCheckPointMutex mutex, long stopTimeoutMillis )
     {
         this.pruneStrategy = pruneStrategy;
+        this.scheduler = scheduler;
+        this.mutex = mutex;
+        this.stopTimeoutMillis = stopTimeoutMillis;
         this.msgLog = logProvider.getLog( getClass() );
     }
 
     @Override
     public void pruneLogs( long upToVersion )
     {
-        // Only one is allowed to do pruning at any given time,
-        // and it's OK to skip pruning if another one is doing so right now.
-        if ( pruneLock.tryLock() )
+        requestedVersion.accumulateAndGet( upToVersion, Math::max );
+        pruneRequested = true;
+        scheduleIfNeeded();
+    }
+
+    @Override
+    public long bytesAwaitingPruning()
+    {
+        return pruneStrategy.bytesAwaitingPruning();
+    }
+
+    @Override
+    public void stop() throws Throwable
+    {
+        stopped = true;
+        if ( !awaitPruned( stopTimeoutMillis, MILLISECONDS ) )
+        {
+            // The scheduler may have been shut down before it got to run the job, or the round in progress may be
+            // stuck behind a store copy. Whatever is left is pruned after the first check point of the next start.
+            JobScheduler.JobHandle handle = jobHandle;
+            if ( handle != null )
+            {
+                handle.cancel( true );
+            }
+            msgLog.warn( "Log pruning did not complete within " + stopTimeoutMillis + " ms, and was cancelled" );
+        }
+    }
+
+    /**
+     * Waits for the pruning that has been requested so far, to complete.
+     */
+    void awaitPruned()
+    {
+        Predicates.awaitForever( notScheduledCondition, 10, MILLISECONDS );
+    }
+
+    /**
+     * Waits at most the given time for the pruning that has been requested so far, to complete.
+     *
+     * @return {@code true} if the pruning completed in time.
+     */
+    boolean awaitPruned( long timeout, TimeUnit unit )
+    {
+        long deadline = System.nanoTime() + unit.toNanos( timeout );
+        while ( !notScheduledCondition.getAsBoolean() )
+        {
+            if ( System.nanoTime() - deadline >= 0 )
+            {
+                return false;
+            }
+            LockSupport.parkNanos( MILLISECONDS.toNanos( 10 ) );
+        }
+        return true;
+    }
+
+    private void scheduleIfNeeded()
+    {
+        if ( pruneRequested && !stopped && scheduled.compareAndSet( false, true ) )
         {
-            String prefix = "Log Rotation [" + upToVersion + "]: ";
-            msgLog.info( prefix + " Starting log pruning." );
             try
             {
-                pruneStrategy.prune( upToVersion );
+                jobHandle = scheduler.schedule( logPruning, job );
             }
-            finally
+            catch ( RuntimeException e )
             {
-                pruneLock.unlock();
-                msgLog.info( prefix + " Log pruning complete." );
+                // The scheduler is shutting down. The next check point, or the next start, will try again.
+                scheduled.set( false );
+                msgLog.warn( "Could not schedule log pruning", e );
             }
         }
     }
+
+    private void prune( long upToVersion )
+    {
+        String prefix = "Log Rotation [" + upToVersion + "]: ";
+        msgLog.info( prefix + " Starting log pruning." );
+        try
+        {
+            pruneStrategy.prune( upToVersion, mutex::checkPoint );
+        }
+        finally
+        {
+            msgLog.info( prefix + " Log pruning complete." );
+        }
+    }
 }
@@ -20,7 +20,13 @@
 package org.neo4j.kernel.impl.transaction.log.pruning;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
+import org.neo4j.graphdb.Resource;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.transaction.log.LogFileInformation;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogFiles;
@@ -30,42 +36,50 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_S
 
 public class ThresholdBasedPruneStrategy implements LogPruneStrategy
 {
+    /**
+     * Log files larger than this are truncated in steps of this size before they are deleted, with a pause in between,
+     * so that removing a large file does not stall the file system for the other writers.
+     */
+    static final long TRUNCATE_CHUNK_SIZE = 32 * 1024 * 1024;
+    private static final long TRUNCATE_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+
     private final FileSystemAbstraction fileSystem;
-    private final LogFileInformation logFileInformation;
-    private final PhysicalLogFiles files;
+    private final LogFileIndex index;
     private final Threshold threshold;
+    private final AtomicLong bytesAwaitingPruning = new AtomicLong();
 
     public ThresholdBasedPruneStrategy( FileSystemAbstraction fileSystem, LogFileInformation logFileInformation,
                                         PhysicalLogFiles files, Threshold threshold )
     {
         this.fileSystem = fileSystem;
-        this.logFileInformation = logFileInformation;
-        this.files = files;
+        this.index = new LogFileIndex( fileSystem, files, logFileInformation );
         this.threshold = threshold;
     }
 
     @Override
     public void prune( long upToLogVersion )
+    {
+        prune( upToLogVersion, () -> Resource.EMPTY );
+    }
+
+    @Override
+    public void prune( long upToLogVersion, Supplier<Resource> stepGuard )
     {
         if ( upToLogVersion == INITIAL_LOG_VERSION )
         {
             return;
         }
 
+        // Find out which log is the earliest existing (lower bound to prune)
+        long lower = index.lowestVersion( upToLogVersion );
+
         threshold.init();
         long upper = upToLogVersion - 1;
         boolean exceeded = false;
-        while ( upper >= 0 )
+        while ( upper >= lower )
         {
-            File file = files.getLogFileForVersion( upper );
-            if ( !fileSystem.fileExists( file ) )
-            {
-                // There aren't logs to prune anything. Just return
-                return;
-            }
-
-            if ( fileSystem.getFileSize( file ) > LOG_HEADER_SIZE &&
-                    threshold.reached( file, upper, logFileInformation ) )
+            if ( index.size( upper ) > LOG_HEADER_SIZE &&
+                    threshold.reached( index.file( upper ), upper, index ) )
             {
                 exceeded = true;
                 break;
@@ -78,13 +92,6 @@ public class ThresholdBasedPruneStrategy implements LogPruneStrategy
             return;
         }
 
-        // Find out which log is the earliest existing (lower bound to prune)
-        long lower = upper;
-        while ( fileSystem.fileExists( files.getLogFileForVersion( lower - 1 ) ) )
-        {
-            lower--;
-        }
-
         /*
          * Here we make sure that at least one historical log remains behind, in addition of course to the
          * current one. This is in order to make sure that at least one transaction remains always available for
@@ -102,11 +109,69 @@ public class ThresholdBasedPruneStrategy implements LogPruneStrategy
             upper--;
         }
 
+        for ( long version = lower; version <= upper; version++ )
+        {
+            bytesAwaitingPruning.addAndGet( index.size( version ) );
+        }
+
         // The reason we delete from lower to upper is that if it crashes in the middle
         // we can be sure that no holes are created
-        for ( long version = lower; version <= upper; version++ )
+        long version = lower;
+        try
+        {
+            while ( version <= upper )
+            {
+                remove( version++, stepGuard );
+            }
+        }
+        finally
+        {
+            // Files that were not removed, because removing an earlier one failed, are no longer awaiting pruning
+            for ( ; version <= upper; version++ )
+            {
+                bytesAwaitingPruning.addAndGet( -index.size( version ) );
+            }
+        }
+    }
+
+    @Override
+    public long bytesAwaitingPruning()
+    {
+        return bytesAwaitingPruning.get();
+    }
+
+    private void remove( long version, Supplier<Resource> stepGuard )
+    {
+        File file = index.file( version );
+        long size = index.size( version );
+        try
+        {
+            try
+            {
+                while ( size > TRUNCATE_CHUNK_SIZE )
+                {
+                    try ( Resource guard = stepGuard.get() )
+                    {
+                        fileSystem.truncate( file, size - TRUNCATE_CHUNK_SIZE );
+                    }
+                    size -= TRUNCATE_CHUNK_SIZE;
+                    bytesAwaitingPruning.addAndGet( -TRUNCATE_CHUNK_SIZE );
+                    LockSupport.parkNanos( TRUNCATE_PAUSE_NANOS );
+                }
+            }
+            catch ( IOException e )
+            {
+                // Deleting the file below is all that is needed, truncating it first is only to spread out the work
+            }
+            try ( Resource guard = stepGuard.get() )
+            {
+                fileSystem.deleteFile( file );
+                index.pruned( version );
+            }
+        }
+        finally
         {
-            fileSystem.deleteFile( files.getLogFileForVersion( version ) );
+            bytesAwaitingPruning.addAndGet( -size );
         }
     }
 }
@@ -50,23 +50,24 @@ public class RelationshipCreator
      *            have.
      * @param firstNodeId The id of the start node.
      * @param secondNodeId The id of the end node.
+     * @param lockTracer tracer of the transaction that takes the relationship locks.
      */
     public void relationshipCreate( long id, int type, long firstNodeId, long secondNodeId,
-            RecordAccessSet recordChangeSet, ResourceLocker locks )
+            RecordAccessSet recordChangeSet, ResourceLocker locks, LockTracer lockTracer )
     {
         // TODO could be unnecessary to mark as changed here already, dense nodes may not need to change
         NodeRecord firstNode = recordChangeSet.getNodeRecords().getOrLoad( firstNodeId, null ).forChangingLinkage();
         NodeRecord secondNode = recordChangeSet.getNodeRecords().getOrLoad( secondNodeId, null ).forChangingLinkage();
         convertNodeToDenseIfNecessary( firstNode, recordChangeSet.getRelRecords(),
-                recordChangeSet.getRelGroupRecords(), locks );
+                recordChangeSet.getRelGroupRecords(), locks, lockTracer );
         convertNodeToDenseIfNecessary( secondNode, recordChangeSet.getRelRecords(),
-                recordChangeSet.getRelGroupRecords(), locks );
+                recordChangeSet.getRelGroupRecords(), locks, lockTracer );
         RelationshipRecord record = recordChangeSet.getRelRecords().create( id, null ).forChangingLinkage();
         record.setLinks( firstNodeId, secondNodeId, type );
         record.setInUse( true );
         record.setCreated();
         connectRelationship( firstNode, secondNode, record, recordChangeSet.getRelRecords(),
-                recordChangeSet.getRelGroupRecords(), locks );
+                recordChangeSet.getRelGroupRecords(), locks, lockTracer );
     }
 
     public static int relCount( long nodeId, RelationshipRecord rel )
@@ -76,7 +77,8 @@ public class RelationshipCreator
 
     private void convertNodeToDenseIfNecessary( NodeRecord node,
             RecordAccess<Long, RelationshipRecord, Void> relRecords,
-            RecordAccess<Long, RelationshipGroupRecord, Integer> relGroupRecords, ResourceLocker locks )
+            RecordAccess<Long, RelationshipGroupRecord, Integer> relGroupRecords, ResourceLocker locks,
+            LockTracer lockTracer )
     {
         if ( node.isDense() )
         {
@@ -89,12 +91,13 @@ public class RelationshipCreator
             RelationshipRecord rel = relChange.forReadingLinkage();
             if ( relCount( node.getId(), rel ) >= denseNodeThreshold )
             {
-                locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relId );
+                locks.acquireExclusive( lockTracer, ResourceTypes.RELATIONSHIP, relId );
                 // Re-read the record after we've locked it since another transaction might have
                 // changed in the meantime.
                 relChange = relRecords.getOrLoad( relId, null );
 
-                convertNodeToDenseNode( node, relChange.forChangingLinkage(), relRecords, relGroupRecords, locks );
+                convertNodeToDenseNode( node, relChange.forChangingLinkage(), relRecords, relGroupRecords, locks,
+                        lockTracer );
             }
         }
     }
@@ -102,7 +105,8 @@ public class RelationshipCreator
     private void connectRelationship( NodeRecord firstNode,
             NodeRecord secondNode, RelationshipRecord rel,
             RecordAccess<Long, RelationshipRecord, Void> relRecords,
-            RecordAccess<Long, RelationshipGroupRecord, Integer> relGroupRecords, ResourceLocker locks )
+            RecordAccess<Long, RelationshipGroupRecord, Integer> relGroupRecords, ResourceLocker locks,
+            LockTracer lockTracer )
     {
         // Assertion interpreted: if node is a normal node and we're trying to create a
         // relationship that we already have as first rel for that node --> error
@@ -120,18 +124,18 @@ public class RelationshipCreator
 
         if ( !firstNode.isDense() )
         {
-            connect( firstNode, rel, relRecords, locks );
+            connect( firstNode, rel, relRecords, locks, lockTracer );
         }
         else
         {
-            connectRelationshipToDenseNode( firstNode, rel, relRecords, relGroupRecords, locks );
+            connectRelationshipToDenseNode( firstNode, rel, relRecords, relGroupRecords, locks, lockTracer );
         }
 
         if ( !secondNode.isDense() )
         {
             if ( firstNode.getId() != secondNode.getId() )
             {
-                connect( secondNode, rel, relRecords, locks );
+                connect( secondNode, rel, relRecords, locks, lockTracer );
             }
             else
             {
@@ -141,7 +145,7 @@ public class RelationshipCreator
         }
         else if ( firstNode.getId() != secondNode.getId() )
         {
-            connectRelationshipToDenseNode( secondNode, rel, relRecords, relGroupRecords, locks );
+            connectRelationshipToDenseNode( secondNode, rel, relRecords, relGroupRecords, locks, lockTracer );
         }
 
         if ( !firstNode.isDense() )
@@ -156,26 +160,28 @@ public class RelationshipCreator
 
     private void connectRelationshipToDenseNode( NodeRecord node, RelationshipRecord rel,
             RecordAccess<Long, RelationshipRecord, Void> relRecords,
-            RecordAccess<Long, RelationshipGroupRecord, Integer> relGroupRecords, ResourceLocker locks )
+            RecordAccess<Long, RelationshipGroupRecord, Integer> relGroupRecords, ResourceLocker locks,
+            LockTracer lockTracer )
     {
         RelationshipGroupRecord group =
                 relGroupGetter.getOrCreateRelationshipGroup( node, rel.getType(), relGroupRecords ).forChangingData();
         DirectionWrapper dir = DirectionIdentifier.wrapDirection( rel, node );
         long nextRel = dir.getNextRel( group );
         setCorrectNextRel( node, rel, nextRel );
-        connect( node.getId(), nextRel, rel, relRecords, locks );
+        connect( node.getId(), nextRel, rel, relRecords, locks, lockTracer );
         dir.setNextRel( group, rel.getId() );
     }
 
     private void connect( NodeRecord node, RelationshipRecord rel,
-            RecordAccess<Long, RelationshipRecord, Void> relRecords, ResourceLocker locks )
+            RecordAccess<Long, RelationshipRecord, Void> relRecords, ResourceLocker locks, LockTracer lockTracer )
     {
-        connect( node.getId(), node.getNextRel(), rel, relRecords, locks );
+        connect( node.getId(), node.getNextRel(), rel, relRecords, locks, lockTracer );
     }
 
     private void convertNodeToDenseNode( NodeRecord node, RelationshipRecord firstRel,
             RecordAccess<Long, RelationshipRecord, Void> relRecords,
-            RecordAccess<Long, RelationshipGroupRecord, Integer> relGroupRecords, ResourceLocker locks )
+            RecordAccess<Long, RelationshipGroupRecord, Integer> relGroupRecords, ResourceLocker locks,
+            LockTracer lockTracer )
     {
         node.setDense( true );
         node.setNextRel( Record.NO_NEXT_RELATIONSHIP.intValue() );
@@ -185,22 +191,22 @@ public class RelationshipCreator
         {
             // Get the next relationship id before connecting it (where linkage is overwritten)
             relId = relChain( relRecord, node.getId() ).get( relRecord );
-            connectRelationshipToDenseNode( node, relRecord, relRecords, relGroupRecords, locks );
+            connectRelationshipToDenseNode( node, relRecord, relRecords, relGroupRecords, locks, lockTracer );
             if ( relId != Record.NO_NEXT_RELATIONSHIP.intValue() )
             {   // Lock and load the next relationship in the chain
-                locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, relId );
+                locks.acquireExclusive( lockTracer, ResourceTypes.RELATIONSHIP, relId );
                 relRecord = relRecords.getOrLoad( relId, null ).forChangingLinkage();
             }
         }
     }
 
     private void connect( long nodeId, long firstRelId, RelationshipRecord rel,
-            RecordAccess<Long, RelationshipRecord, Void> relRecords, ResourceLocker locks )
+            RecordAccess<Long, RelationshipRecord, Void> relRecords, ResourceLocker locks, LockTracer lockTracer )
     {
         long newCount = 1;
         if ( firstRelId != Record.NO_NEXT_RELATIONSHIP.intValue() )
         {
-            locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, firstRelId );
+            locks.acquireExclusive( lockTracer, ResourceTypes.RELATIONSHIP, firstRelId );
             RelationshipRecord firstRel = relRecords.getOrLoad( firstRelId, null ).forChangingLinkage();
             boolean changed = false;
             if ( firstRel.getFirstNode() == nodeId )
@@ -50,26 +50,28 @@ public class RelationshipDeleter
      * transaction.
      *
      * @param id The id of the relationship to delete.
+     * @param lockTracer tracer of the transaction that takes the relationship locks.
      */
-    public void relDelete( long id, RecordAccessSet recordChanges, ResourceLocker locks )
+    public void relDelete( long id, RecordAccessSet recordChanges, ResourceLocker locks, LockTracer lockTracer )
     {
         RelationshipRecord record = recordChanges.getRelRecords().getOrLoad( id, null ).forChangingLinkage();
         propertyChainDeleter.deletePropertyChain( record, recordChanges.getPropertyRecords() );
-        disconnectRelationship( record, recordChanges, locks );
-        updateNodesForDeletedRelationship( record, recordChanges, locks );
+        disconnectRelationship( record, recordChanges, locks, lockTracer );
+        updateNodesForDeletedRelationship( record, recordChanges, locks, lockTracer );
         record.setInUse( false );
     }
 
-    private void disconnectRelationship( RelationshipRecord rel, RecordAccessSet recordChangeSet, ResourceLocker locks )
+    private void disconnectRelationship( RelationshipRecord rel, RecordAccessSet recordChangeSet,
+            ResourceLocker locks, LockTracer lockTracer )
     {
-        disconnect( rel, RelationshipConnection.START_NEXT, recordChangeSet.getRelRecords(), locks );
-        disconnect( rel, RelationshipConnection.START_PREV, recordChangeSet.getRelRecords(), locks );
-        disconnect( rel, RelationshipConnection.END_NEXT, recordChangeSet.getRelRecords(), locks );
-        disconnect( rel, RelationshipConnection.END_PREV, recordChangeSet.getRelRecords(), locks );
+        disconnect( rel, RelationshipConnection.START_NEXT, recordChangeSet.getRelRecords(), locks, lockTracer );
+        disconnect( rel, RelationshipConnection.START_PREV, recordChangeSet.getRelRecords(), locks, lockTracer );
+        disconnect( rel, RelationshipConnection.END_NEXT, recordChangeSet.getRelRecords(), locks, lockTracer );
+        disconnect( rel, RelationshipConnection.END_PREV, recordChangeSet.getRelRecords(), locks, lockTracer );
     }
 
     private void disconnect( RelationshipRecord rel, RelationshipConnection pointer,
-            RecordAccess<Long, RelationshipRecord, Void> relChanges, ResourceLocker locks )
+            RecordAccess<Long, RelationshipRecord, Void> relChanges, ResourceLocker locks, LockTracer lockTracer )
     {
         long otherRelId = pointer.otherSide().get( rel );
         if ( otherRelId == Record.NO_NEXT_RELATIONSHIP.intValue() )
@@ -77,7 +79,7 @@ public class RelationshipDeleter
             return;
         }
 
-        locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, otherRelId );
+        locks.acquireExclusive( lockTracer, ResourceTypes.RELATIONSHIP, otherRelId );
         RelationshipRecord otherRel = relChanges.getOrLoad( otherRelId, null ).forChangingLinkage();
         boolean changed = false;
         long newId = pointer.get( rel );
@@ -99,7 +101,7 @@ public class RelationshipDeleter
     }
 
     private void updateNodesForDeletedRelationship( RelationshipRecord rel, RecordAccessSet recordChanges,
-            ResourceLocker locks )
+            ResourceLocker locks, LockTracer lockTracer )
     {
         RecordProxy<Long, NodeRecord, Void> startNodeChange =
                 recordChanges.getNodeRecords().getOrLoad( rel.getFirstNode(), null );
@@ -118,7 +120,7 @@ public class RelationshipDeleter
                 startNode.setNextRel( rel.getFirstNextRel() );
             }
             decrementTotalRelationshipCount( startNode.getId(), rel, startNode.getNextRel(),
-                    recordChanges.getRelRecords(), locks );
+                    recordChanges.getRelRecords(), locks, lockTracer );
         }
         else
         {
@@ -138,7 +140,7 @@ public class RelationshipDeleter
                 }
             }
             decrementTotalRelationshipCount( startNode.getId(), rel, dir.getNextRel( group ),
-                    recordChanges.getRelRecords(), locks );
+                    recordChanges.getRelRecords(), locks, lockTracer );
         }
 
         if ( !endNode.isDense() )
@@ -151,7 +153,7 @@ public class RelationshipDeleter
             if ( !loop )
             {
                 decrementTotalRelationshipCount( endNode.getId(), rel, endNode.getNextRel(),
-                        recordChanges.getRelRecords(), locks );
+                        recordChanges.getRelRecords(), locks, lockTracer );
             }
         }
         else
@@ -177,13 +179,13 @@ public class RelationshipDeleter
             if ( !loop )
             {
                 decrementTotalRelationshipCount( endNode.getId(), rel, dir.getNextRel( groupChange.forChangingData() ),
-                        recordChanges.getRelRecords(), locks );
+                        recordChanges.getRelRecords(), locks, lockTracer );
             }
         }
     }
 
     private boolean decrementTotalRelationshipCount( long nodeId, RelationshipRecord rel, long firstRelId,
-            RecordAccess<Long, RelationshipRecord, Void> relRecords, ResourceLocker locks )
+            RecordAccess<Long, RelationshipRecord, Void> relRecords, ResourceLocker locks, LockTracer lockTracer )
     {
         if ( firstRelId == Record.NO_PREV_RELATIONSHIP.intValue() )
         {
@@ -192,7 +194,7 @@ public class RelationshipDeleter
         boolean firstInChain = relIsFirstInChain( nodeId, rel );
         if ( !firstInChain )
         {
-            locks.acquireExclusive( LockTracer.NONE, ResourceTypes.RELATIONSHIP, firstRelId );
+            locks.acquireExclusive( lockTracer, ResourceTypes.RELATIONSHIP, firstRelId );
         }
         RelationshipRecord firstRel = relRecords.getOrLoad( firstRelId, null ).forChangingLinkage();
         if ( nodeId == firstRel.getFirstNode() )
@@ -28,6 +28,7 @@ import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.core.RelationshipTypeToken;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.store.MetaDataStore;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.NodeStore;
@@ -89,6 +90,7 @@ public class TransactionRecordState implements RecordState
     private final RecordAccessSet recordChangeSet;
     private final long lastCommittedTxWhenTransactionStarted;
     private final ResourceLocker locks;
+    private final LockTracer lockTracer;
     private final RelationshipCreator relationshipCreator;
     private final RelationshipDeleter relationshipDeleter;
     private final PropertyCreator propertyCreator;
@@ -100,6 +102,7 @@ public class TransactionRecordState implements RecordState
     public TransactionRecordState( NeoStores neoStores, IntegrityValidator integrityValidator,
             RecordChangeSet recordChangeSet, long lastCommittedTxWhenTransactionStarted,
             ResourceLocker locks,
+            LockTracer lockTracer,
             RelationshipCreator relationshipCreator,
             RelationshipDeleter relationshipDeleter,
             PropertyCreator propertyCreator,
@@ -116,6 +119,7 @@ public class TransactionRecordState implements RecordState
         this.recordChangeSet = recordChangeSet;
         this.lastCommittedTxWhenTransactionStarted = lastCommittedTxWhenTransactionStarted;
         this.locks = locks;
+        this.lockTracer = lockTracer;
         this.relationshipCreator = relationshipCreator;
         this.relationshipDeleter = relationshipDeleter;
         this.propertyCreator = propertyCreator;
@@ -271,12 +275,13 @@ public class TransactionRecordState implements RecordState
 
     public void relCreate( long id, int typeId, long startNodeId, long endNodeId )
     {
-        relationshipCreator.relationshipCreate( id, typeId, startNodeId, endNodeId, recordChangeSet, locks );
+        relationshipCreator.relationshipCreate( id, typeId, startNodeId, endNodeId, recordChangeSet, locks,
+                lockTracer );
     }
 
     public void relDelete( long relId )
     {
-        relationshipDeleter.relDelete( relId, recordChangeSet, locks );
+        relationshipDeleter.relDelete( relId, recordChangeSet, locks, lockTracer );
     }
 
     @SafeVarargs
@@ -28,10 +28,21 @@ public interface CheckPointTracer
         {
             return LogCheckPointEvent.NULL;
         }
+
+        @Override
+        public void pagesFlushedInBackground( long pages )
+        {
+        }
     };
 
     /**
      * Begin a check point write to the log
      */
     LogCheckPointEvent beginCheckPoint();
+
+    /**
+     * Report that the given number of dirty pages were written to the store files by background flushing, in
+     * between check points.
+     */
+    void pagesFlushedInBackground( long pages );
 }
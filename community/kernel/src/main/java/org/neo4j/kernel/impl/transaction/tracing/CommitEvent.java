@@ -31,6 +31,18 @@ public interface CommitEvent extends AutoCloseable
         {
         }
 
+        @Override
+        public CommitLocksEvent beginCommitLocks()
+        {
+            return CommitLocksEvent.NULL;
+        }
+
+        @Override
+        public CreateCommandsEvent beginCreateCommands()
+        {
+            return CreateCommandsEvent.NULL;
+        }
+
         @Override
         public LogAppendEvent beginLogAppend()
         {
@@ -50,6 +62,16 @@ public interface CommitEvent extends AutoCloseable
     @Override
     void close();
 
+    /**
+     * Begin acquiring the locks that the committing transaction has deferred until commit.
+     */
+    CommitLocksEvent beginCommitLocks();
+
+    /**
+     * Begin converting the state of the committing transaction into commands.
+     */
+    CreateCommandsEvent beginCreateCommands();
+
     /**
      * Begin appending commands for the committing transaction, to the transaction log.
      */
@@ -31,6 +31,12 @@ public interface StoreApplyEvent extends AutoCloseable
         public void close()
         {
         }
+
+        @Override
+        public IndexUpdatesEvent beginIndexUpdates()
+        {
+            return IndexUpdatesEvent.NULL;
+        }
     };
 
     /**
@@ -38,4 +44,9 @@ public interface StoreApplyEvent extends AutoCloseable
      */
     @Override
     void close();
+
+    /**
+     * Begin applying the label scan store and schema index updates of the transaction.
+     */
+    IndexUpdatesEvent beginIndexUpdates();
 }
@@ -142,6 +142,36 @@ public interface JobScheduler extends Lifecycle
          */
         public static final Group checkPoint = new Group( "CheckPoint", POOLED );
 
+        /**
+         * Background flushing of dirty pages in between check points
+         */
+        public static final Group backgroundFlush = new Group( "BackgroundFlush", POOLED );
+
+        /**
+         * Removal of transaction log files that have been pruned
+         */
+        public static final Group logPruning = new Group( "LogPruning", POOLED );
+
+        /**
+         * Reads transactions from the log ahead of those streaming them to other instances or to a backup.
+         */
+        public static final Group transactionPrefetching = new Group( "TransactionPrefetching", POOLED );
+
+        /**
+         * Applies the record changes of independent recovered transactions in parallel.
+         */
+        public static final Group recoveryApply = new Group( "RecoveryApply", POOLED );
+
+        /**
+         * Searches the wait-for graph of the lock manager for deadlocks, while clients wait for locks.
+         */
+        public static final Group deadlockDetection = new Group( "DeadlockDetection", NEW_THREAD );
+
+        /**
+         * Page cache warmup, and recording of page cache profiles
+         */
+        public static final Group pageCacheWarmup = new Group( "PageCacheWarmup", POOLED );
+
         /**
          * Raft Log pruning
          */
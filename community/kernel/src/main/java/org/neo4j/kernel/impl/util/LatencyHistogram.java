@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of latencies, in nanoseconds, in the style of an HDR histogram: the values are counted in buckets whose
+ * width grows with the magnitude of the values, such that every recorded value is represented to within about 3% of
+ * its actual value. Values from zero up to about 18 minutes are tracked, and larger values are counted as that.
+ * <p>
+ * Recording a value is a single atomic increment, and never allocates, so the histogram can be always on. Readers take
+ * a {@link #snapshot() snapshot} of the counts, and can compute percentiles over the difference between two snapshots,
+ * to get the distribution of the values that were recorded in between them.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 40;
+    static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_VALUE_BITS - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray( BUCKETS );
+
+    /**
+     * Count the given latency.
+     *
+     * @param nanos the latency in nanoseconds. Negative values are counted as zero.
+     */
+    public void record( long nanos )
+    {
+        counts.incrementAndGet( bucket( nanos ) );
+    }
+
+    /**
+     * @return a copy of the counts recorded so far.
+     */
+    public Snapshot snapshot()
+    {
+        long[] copy = new long[BUCKETS];
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            copy[i] = counts.get( i );
+        }
+        return new Snapshot( copy );
+    }
+
+    static int bucket( long value )
+    {
+        if ( value < SUB_BUCKETS )
+        {
+            return value < 0 ? 0 : (int) value;
+        }
+        long clamped = Math.min( value, MAX_VALUE );
+        int magnitude = 63 - Long.numberOfLeadingZeros( clamped );
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) (clamped >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return the highest value that is counted in the given bucket.
+     */
+    static long highestValueIn( int bucket )
+    {
+        if ( bucket < SUB_BUCKETS )
+        {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * An immutable copy of the counts of a {@link LatencyHistogram}.
+     */
+    public static class Snapshot
+    {
+        public static final Snapshot EMPTY = new Snapshot( new long[BUCKETS] );
+
+        private final long[] counts;
+        private final long total;
+
+        private Snapshot( long[] counts )
+        {
+            this.counts = counts;
+            long sum = 0;
+            for ( long count : counts )
+            {
+                sum += count;
+            }
+            this.total = sum;
+        }
+
+        /**
+         * @return the values that were recorded after the given earlier snapshot, up to this one.
+         */
+        public Snapshot since( Snapshot earlier )
+        {
+            long[] difference = new long[BUCKETS];
+            for ( int i = 0; i < BUCKETS; i++ )
+            {
+                difference[i] = counts[i] - earlier.counts[i];
+            }
+            return new Snapshot( difference );
+        }
+
+        public long count()
+        {
+            return total;
+        }
+
+        /**
+         * @param percentile the percentile, between 0 and 100.
+         * @return the value that the given percentage of the values were less than or equal to, or 0 if there are no
+         * values.
+         */
+        public long valueAtPercentile( double percentile )
+        {
+            if ( total == 0 )
+            {
+                return 0;
+            }
+            long rank = Math.max( 1, (long) Math.ceil( total * Math.min( percentile, 100.0 ) / 100.0 ) );
+            long seen = 0;
+            for ( int i = 0; i < BUCKETS; i++ )
+            {
+                seen += counts[i];
+                if ( seen >= rank )
+                {
+                    return highestValueIn( i );
+                }
+            }
+            return MAX_VALUE;
+        }
+
+        /**
+         * @return the highest value, or 0 if there are no values.
+         */
+        public long max()
+        {
+            for ( int i = BUCKETS - 1; i >= 0; i-- )
+            {
+                if ( counts[i] != 0 )
+                {
+                    return highestValueIn( i );
+                }
+            }
+            return 0;
+        }
+    }
+}
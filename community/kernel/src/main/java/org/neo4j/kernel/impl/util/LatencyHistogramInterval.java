@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import java.time.Clock;
+
+/**
+ * Reports the distribution of the values recorded in a {@link LatencyHistogram} during the latest interval, for
+ * metrics that report the values since their previous report.
+ * <p>
+ * A report reads several values from the same interval, such as a number of percentiles, so a new interval is only
+ * cut when at least {@code refreshMillis} have passed since the previous one. All the reads of one report thereby see
+ * the same interval.
+ */
+public class LatencyHistogramInterval
+{
+    private final LatencyHistogram histogram;
+    private final long refreshMillis;
+    private final Clock clock;
+    private LatencyHistogram.Snapshot baseline;
+    private LatencyHistogram.Snapshot interval = LatencyHistogram.Snapshot.EMPTY;
+    private long cutAtMillis;
+
+    public LatencyHistogramInterval( LatencyHistogram histogram, long refreshMillis, Clock clock )
+    {
+        this.histogram = histogram;
+        this.refreshMillis = refreshMillis;
+        this.clock = clock;
+        this.baseline = histogram.snapshot();
+        this.cutAtMillis = clock.millis();
+    }
+
+    /**
+     * @return the values recorded during the latest interval that has been cut.
+     */
+    public synchronized LatencyHistogram.Snapshot current()
+    {
+        long now = clock.millis();
+        if ( now - cutAtMillis >= refreshMillis )
+        {
+            LatencyHistogram.Snapshot latest = histogram.snapshot();
+            interval = latest.since( baseline );
+            baseline = latest;
+            cutAtMillis = now;
+        }
+        return interval;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.impl.api.RelationshipVisitor;
+import org.neo4j.kernel.impl.util.diffsets.DiffSets;
+import org.neo4j.kernel.impl.util.diffsets.RelationshipDiffSets;
+
+/**
+ * Creates the collections that hold the state of a transaction, and decides where that state is kept.
+ * Everything that is created by a factory is owned by it, and is released along with it by {@link #release()}.
+ *
+ * @see OnHeapCollectionsFactory
+ * @see OffHeapCollectionsFactory
+ */
+public interface CollectionsFactory
+{
+    PrimitiveLongSet newLongSet();
+
+    DiffSets<Long> newLongDiffSets();
+
+    RelationshipDiffSets<Long> newRelationshipDiffSets( RelationshipVisitor.Home txStateRelationshipHome );
+
+    /**
+     * @return the property to keep in the transaction state in place of the given property. This can be the given
+     * property itself, or a property with the same value that is kept outside of the heap.
+     */
+    DefinedProperty storeProperty( DefinedProperty property );
+
+    /**
+     * @return the number of bytes of native memory that this factory currently has allocated.
+     */
+    long usedNativeMemory();
+
+    /**
+     * Free all the native memory used by what this factory has created. Nothing that was created by this factory
+     * can be used after this.
+     */
+    void release();
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.memory.MemoryAllocationTracker;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.TransactionStateMemoryAllocation.OFF_HEAP;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.tx_state_max_off_heap_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.tx_state_memory_allocation;
+
+/**
+ * Creates the {@link CollectionsFactory} for each transaction that gets transaction state.
+ */
+public interface CollectionsFactorySupplier
+{
+    CollectionsFactorySupplier ON_HEAP = transactionTracker -> OnHeapCollectionsFactory.INSTANCE;
+
+    /**
+     * @param transactionTracker tracker of the memory used by the transaction, that any native memory allocated by
+     * the returned factory is accounted to.
+     * @return a new factory for the state of a single transaction.
+     */
+    CollectionsFactory create( MemoryAllocationTracker transactionTracker );
+
+    static CollectionsFactorySupplier offHeap( long maxNativeMemoryPerTransaction )
+    {
+        return transactionTracker -> new OffHeapCollectionsFactory( maxNativeMemoryPerTransaction, transactionTracker );
+    }
+
+    static CollectionsFactorySupplier fromConfig( Config config )
+    {
+        return config.get( tx_state_memory_allocation ) == OFF_HEAP
+               ? offHeap( config.get( tx_state_max_off_heap_memory ) )
+               : ON_HEAP;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.io.ByteUnit;
+import org.neo4j.kernel.api.exceptions.MemoryLimitExceededException;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.impl.api.RelationshipVisitor;
+import org.neo4j.kernel.impl.util.diffsets.DiffSets;
+import org.neo4j.kernel.impl.util.diffsets.RelationshipDiffSets;
+import org.neo4j.memory.MemoryAllocationTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * Keeps the ids of created and deleted entities, and the values of string properties, of a transaction in native
+ * memory, so that a large transaction doesn't fill up the heap. All native memory is accounted for, and allocations
+ * that would take the total above the given limit fail with a {@link MemoryLimitExceededException}.
+ * <p>
+ * String values are copied into chunks of native memory that are allocated as needed, and that are only freed when
+ * the whole factory is {@link #release() released}.
+ */
+public class OffHeapCollectionsFactory implements CollectionsFactory
+{
+    private static final int INITIAL_LONG_SET_CAPACITY = 1 << 6;
+    private static final long MIN_CHUNK_SIZE = ByteUnit.kibiBytes( 8 );
+    private static final long MAX_CHUNK_SIZE = ByteUnit.mebiBytes( 1 );
+
+    private final long maxNativeMemory;
+    private final MemoryAllocationTracker transactionTracker;
+    private final MemoryAllocationTracker allocationTracker = new LimitingAllocationTracker();
+    private final List<PrimitiveLongSet> longSets = new ArrayList<>();
+    private final List<OffHeapLongSet> idSets = new ArrayList<>();
+    private long usedNativeMemory;
+
+    private long[] chunks = new long[8];
+    private long[] chunkSizes = new long[8];
+    private int chunkCount;
+    private long chunkPosition;
+    private long chunkEnd;
+
+    public OffHeapCollectionsFactory( long maxNativeMemory )
+    {
+        this( maxNativeMemory, MemoryAllocationTracker.NONE );
+    }
+
+    /**
+     * @param maxNativeMemory the most native memory that this factory may have allocated at any one time.
+     * @param transactionTracker tracker of all the memory of the transaction, that the native memory allocated by
+     * this factory is also accounted to.
+     */
+    public OffHeapCollectionsFactory( long maxNativeMemory, MemoryAllocationTracker transactionTracker )
+    {
+        this.maxNativeMemory = maxNativeMemory;
+        this.transactionTracker = transactionTracker;
+    }
+
+    @Override
+    public PrimitiveLongSet newLongSet()
+    {
+        PrimitiveLongSet set = Primitive.offHeapLongSet( INITIAL_LONG_SET_CAPACITY, allocationTracker );
+        longSets.add( set );
+        return set;
+    }
+
+    @Override
+    public DiffSets<Long> newLongDiffSets()
+    {
+        return new DiffSets<>( newIdSet(), newIdSet() );
+    }
+
+    @Override
+    public RelationshipDiffSets<Long> newRelationshipDiffSets( RelationshipVisitor.Home txStateRelationshipHome )
+    {
+        return new RelationshipDiffSets<>( txStateRelationshipHome, newIdSet(), newIdSet() );
+    }
+
+    private OffHeapLongSet newIdSet()
+    {
+        OffHeapLongSet set = new OffHeapLongSet( allocationTracker );
+        idSets.add( set );
+        return set;
+    }
+
+    @Override
+    public DefinedProperty storeProperty( DefinedProperty property )
+    {
+        Object value = property.value();
+        if ( !(value instanceof String) || ((String) value).isEmpty() )
+        {
+            return property;
+        }
+        String string = (String) value;
+        int length = string.length();
+        long address = allocate( (long) length * Character.BYTES );
+        for ( int i = 0; i < length; i++ )
+        {
+            UnsafeUtil.putChar( address + (long) i * Character.BYTES, string.charAt( i ) );
+        }
+        return Property.offHeapStringProperty( property.propertyKeyId(), address, length );
+    }
+
+    private long allocate( long bytes )
+    {
+        if ( chunkEnd - chunkPosition < bytes )
+        {
+            long lastChunkSize = chunkCount == 0 ? 0 : chunkSizes[chunkCount - 1];
+            long chunkSize = Math.max( bytes, Math.min( MAX_CHUNK_SIZE, Math.max( MIN_CHUNK_SIZE, lastChunkSize << 1 ) ) );
+            allocationTracker.allocated( chunkSize );
+            long chunk = UnsafeUtil.allocateMemory( chunkSize );
+            if ( chunkCount == chunks.length )
+            {
+                chunks = Arrays.copyOf( chunks, chunkCount << 1 );
+                chunkSizes = Arrays.copyOf( chunkSizes, chunkCount << 1 );
+            }
+            chunks[chunkCount] = chunk;
+            chunkSizes[chunkCount++] = chunkSize;
+            chunkPosition = chunk;
+            chunkEnd = chunk + chunkSize;
+        }
+        long address = chunkPosition;
+        chunkPosition += bytes;
+        return address;
+    }
+
+    @Override
+    public long usedNativeMemory()
+    {
+        return usedNativeMemory;
+    }
+
+    @Override
+    public void release()
+    {
+        longSets.forEach( PrimitiveLongSet::close );
+        longSets.clear();
+        idSets.forEach( OffHeapLongSet::close );
+        idSets.clear();
+        for ( int i = 0; i < chunkCount; i++ )
+        {
+            UnsafeUtil.free( chunks[i] );
+            allocationTracker.deallocated( chunkSizes[i] );
+        }
+        chunkCount = 0;
+        chunkPosition = chunkEnd = 0;
+    }
+
+    private class LimitingAllocationTracker implements MemoryAllocationTracker
+    {
+        @Override
+        public void allocated( long bytes )
+        {
+            if ( usedNativeMemory + bytes > maxNativeMemory )
+            {
+                throw new MemoryLimitExceededException( bytes, maxNativeMemory, usedNativeMemory );
+            }
+            transactionTracker.allocated( bytes );
+            usedNativeMemory += bytes;
+        }
+
+        @Override
+        public void deallocated( long bytes )
+        {
+            usedNativeMemory -= bytes;
+            transactionTracker.deallocated( bytes );
+        }
+
+        @Override
+        public long usedMemory()
+        {
+            return usedNativeMemory;
+        }
+    }
+}
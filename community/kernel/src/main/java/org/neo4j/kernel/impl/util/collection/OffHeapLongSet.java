@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongLongMap;
+import org.neo4j.memory.MemoryAllocationTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A set of long ids that is kept entirely in native memory, as the added or removed elements of a
+ * {@link org.neo4j.kernel.impl.util.diffsets.DiffSets}.
+ * <p>
+ * It gives the same guarantees as {@link org.neo4j.kernel.impl.util.VersionedHashMap} for modifying the set while
+ * iterating over it: ids that are added after an iterator was created are not returned by that iterator, and ids that
+ * are removed are not returned by any iterator. This is done by appending the ids to an array in the order they are
+ * added, along with a map from each id in the set to its position in the array. An iterator goes through the array
+ * up to where it ended when the iterator was created, and skips the positions whose id has since been removed.
+ * <p>
+ * The native memory is allocated when the first id is added, and must be freed with {@link #close()}.
+ */
+class OffHeapLongSet extends AbstractSet<Long> implements AutoCloseable
+{
+    private static final int INITIAL_CAPACITY = 1 << 6;
+    private static final long NO_POSITION = -1;
+
+    private final MemoryAllocationTracker allocationTracker;
+    private PrimitiveLongLongMap positions;
+    private long ids;
+    private long capacity;
+    private long appended;
+
+    OffHeapLongSet( MemoryAllocationTracker allocationTracker )
+    {
+        this.allocationTracker = allocationTracker;
+    }
+
+    @Override
+    public boolean add( Long id )
+    {
+        long value = id;
+        if ( positions == null )
+        {
+            positions = Primitive.offHeapLongLongMap( INITIAL_CAPACITY, allocationTracker );
+        }
+        else if ( positions.containsKey( value ) )
+        {
+            return false;
+        }
+        if ( appended == capacity )
+        {
+            grow();
+        }
+        UnsafeUtil.putLong( ids + appended * Long.BYTES, value );
+        positions.put( value, appended++ );
+        return true;
+    }
+
+    private void grow()
+    {
+        long newCapacity = Math.max( INITIAL_CAPACITY, capacity << 1 );
+        allocationTracker.allocated( newCapacity * Long.BYTES );
+        long newIds = UnsafeUtil.allocateMemory( newCapacity * Long.BYTES );
+        if ( ids != 0 )
+        {
+            UnsafeUtil.copyMemory( ids, newIds, appended * Long.BYTES );
+            freeIds();
+        }
+        ids = newIds;
+        capacity = newCapacity;
+    }
+
+    @Override
+    public boolean remove( Object o )
+    {
+        return o instanceof Long && positions != null && positions.remove( (Long) o ) != NO_POSITION;
+    }
+
+    @Override
+    public boolean contains( Object o )
+    {
+        return o instanceof Long && positions != null && positions.containsKey( (Long) o );
+    }
+
+    @Override
+    public int size()
+    {
+        return positions == null ? 0 : positions.size();
+    }
+
+    @Override
+    public void clear()
+    {
+        if ( positions != null )
+        {
+            positions.clear();
+        }
+        appended = 0;
+    }
+
+    @Override
+    public Iterator<Long> iterator()
+    {
+        return new Iterator<Long>()
+        {
+            private final long end = appended;
+            private long position;
+            private long next = NO_POSITION;
+            private long current = NO_POSITION;
+
+            @Override
+            public boolean hasNext()
+            {
+                while ( next == NO_POSITION && position < end && position < appended )
+                {
+                    long id = UnsafeUtil.getLong( ids + position * Long.BYTES );
+                    if ( positions.get( id ) == position )
+                    {
+                        next = id;
+                    }
+                    position++;
+                }
+                return next != NO_POSITION;
+            }
+
+            @Override
+            public Long next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+                current = next;
+                next = NO_POSITION;
+                return current;
+            }
+
+            @Override
+            public void remove()
+            {
+                if ( current == NO_POSITION )
+                {
+                    throw new IllegalStateException();
+                }
+                positions.remove( current );
+                current = NO_POSITION;
+            }
+        };
+    }
+
+    @Override
+    public void close()
+    {
+        if ( positions != null )
+        {
+            positions.close();
+            positions = null;
+        }
+        if ( ids != 0 )
+        {
+            freeIds();
+            ids = 0;
+            capacity = 0;
+            appended = 0;
+        }
+    }
+
+    private void freeIds()
+    {
+        UnsafeUtil.free( ids );
+        allocationTracker.deallocated( capacity * Long.BYTES );
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.impl.api.RelationshipVisitor;
+import org.neo4j.kernel.impl.util.diffsets.DiffSets;
+import org.neo4j.kernel.impl.util.diffsets.RelationshipDiffSets;
+
+/**
+ * Keeps all transaction state on the heap, which is left for the garbage collector to free.
+ */
+public class OnHeapCollectionsFactory implements CollectionsFactory
+{
+    public static final CollectionsFactory INSTANCE = new OnHeapCollectionsFactory();
+
+    private OnHeapCollectionsFactory()
+    {
+    }
+
+    @Override
+    public PrimitiveLongSet newLongSet()
+    {
+        return Primitive.longSet();
+    }
+
+    @Override
+    public DiffSets<Long> newLongDiffSets()
+    {
+        return new DiffSets<>();
+    }
+
+    @Override
+    public RelationshipDiffSets<Long> newRelationshipDiffSets( RelationshipVisitor.Home txStateRelationshipHome )
+    {
+        return new RelationshipDiffSets<>( txStateRelationshipHome );
+    }
+
+    @Override
+    public DefinedProperty storeProperty( DefinedProperty property )
+    {
+        return property;
+    }
+
+    @Override
+    public long usedNativeMemory()
+    {
+        return 0;
+    }
+
+    @Override
+    public void release()
+    {   // Nothing to release, it's all on the heap
+    }
+}
@@ -22,6 +22,8 @@ package org.neo4j.kernel.monitoring.tracing;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.impl.api.DefaultTransactionTracer;
+import org.neo4j.kernel.impl.locking.DefaultLockTracer;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.DefaultCheckPointerTracer;
 import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
@@ -58,4 +60,10 @@ public class DefaultTracerFactory implements TracerFactory
         DefaultCheckPointerTracer.Monitor monitor = monitors.newMonitor( DefaultCheckPointerTracer.Monitor.class );
         return new DefaultCheckPointerTracer( monitor, jobScheduler );
     }
+
+    @Override
+    public LockTracer createLockTracer( Monitors monitors, JobScheduler jobScheduler )
+    {
+        return new DefaultLockTracer();
+    }
 }
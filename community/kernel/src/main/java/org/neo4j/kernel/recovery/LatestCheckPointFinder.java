@@ -36,6 +36,7 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
 
 import static org.neo4j.kernel.impl.transaction.log.LogVersionBridge.NO_MORE_CHANNELS;
 import static org.neo4j.kernel.impl.transaction.log.LogVersionRepository.INITIAL_LOG_VERSION;
+import static org.neo4j.kernel.impl.transaction.log.ReadAheadChannel.SCAN_READ_AHEAD_SIZE;
 
 public class LatestCheckPointFinder
 {
@@ -70,7 +71,7 @@ public class LatestCheckPointFinder
 
             CheckPoint latestCheckPoint = null;
             ReadableLogChannel recoveredDataChannel =
-                    new ReadAheadLogChannel( channel, NO_MORE_CHANNELS );
+                    new ReadAheadLogChannel( channel, NO_MORE_CHANNELS, SCAN_READ_AHEAD_SIZE );
 
             try ( LogEntryCursor cursor = new LogEntryCursor( logEntryReader, recoveredDataChannel ) )
             {
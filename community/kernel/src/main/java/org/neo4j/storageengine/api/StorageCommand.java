@@ -22,12 +22,14 @@ package org.neo4j.storageengine.api;
 import java.io.IOException;
 import java.util.Collection;
 
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.storageengine.api.lock.ResourceLocker;
 import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
 
 /**
  * A command representing one unit of change to a {@link StorageEngine}. Commands are created by
- * {@link StorageEngine#createCommands(Collection, ReadableTransactionState, StorageStatement, ResourceLocker, long)}
+ * {@link StorageEngine#createCommands(Collection, ReadableTransactionState, StorageStatement, ResourceLocker,
+ * LockTracer, long)}
  * and once created can be serialized onto a {@link WritableChannel} and/or passed back to
  * {@link StorageEngine#apply(CommandsToApply, TransactionApplicationMode)} for application where the
  * changes represented by the command are actually applied onto storage.
@@ -26,6 +26,8 @@ import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.api.exceptions.schema.ConstraintValidationKernelException;
 import org.neo4j.kernel.api.exceptions.schema.CreateConstraintFailureException;
+import org.neo4j.kernel.impl.locking.LockTracer;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.kernel.info.DiagnosticsManager;
 import org.neo4j.storageengine.api.lock.ResourceLocker;
 import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
@@ -58,6 +60,7 @@ public interface StorageEngine
      * The reason it's needed is that some relationship changes in the record storage engine
      * needs to lock prev/next relationships and these changes happens when creating commands
      * The EntityLocker interface is a subset of Locks.Client interface, just to fit in while it's here.
+     * @param lockTracer {@link LockTracer} of the transaction, for tracing the locks grabbed through {@code locks}.
      * @param lastTransactionIdWhenStarted transaction id which was seen as last committed when this
      * transaction started, i.e. before any changes were made and before any data was read.
      * TODO Transitional (Collection), might be {@link Stream} or whatever.
@@ -72,6 +75,7 @@ public interface StorageEngine
             ReadableTransactionState state,
             StorageStatement storageStatement,
             ResourceLocker locks,
+            LockTracer lockTracer,
             long lastTransactionIdWhenStarted )
             throws TransactionFailureException, CreateConstraintFailureException, ConstraintValidationKernelException;
 
@@ -82,7 +86,21 @@ public interface StorageEngine
      * @param mode {@link TransactionApplicationMode} when applying.
      * @throws Exception if an error occurs during application.
      */
-    void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception;
+    default void apply( CommandsToApply batch, TransactionApplicationMode mode ) throws Exception
+    {
+        apply( batch, mode, StoreApplyEvent.NULL );
+    }
+
+    /**
+     * Apply a batch of groups of commands to this storage.
+     *
+     * @param batch batch of groups of commands to apply to storage.
+     * @param mode {@link TransactionApplicationMode} when applying.
+     * @param storeApplyEvent trace event for the application, which times the index updates separately.
+     * @throws Exception if an error occurs during application.
+     */
+    void apply( CommandsToApply batch, TransactionApplicationMode mode, StoreApplyEvent storeApplyEvent )
+            throws Exception;
 
     /**
      * @return a {@link CommandReaderFactory} capable of returning {@link CommandReader commands readers}
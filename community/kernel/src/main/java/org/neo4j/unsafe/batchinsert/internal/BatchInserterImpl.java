@@ -97,6 +97,7 @@ import org.neo4j.kernel.impl.coreapi.schema.UniquenessConstraintDefinition;
 import org.neo4j.kernel.impl.factory.DatabaseInfo;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
 import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.NoOpClient;
 import org.neo4j.kernel.impl.logging.StoreLogService;
@@ -822,7 +823,8 @@ public class BatchInserterImpl implements BatchInserter, IndexConfigStoreProvide
     {
         long id = relationshipStore.nextId();
         int typeId = getOrCreateRelationshipTypeToken( type );
-        relationshipCreator.relationshipCreate( id, typeId, node1, node2, recordAccess, noopLockClient );
+        relationshipCreator.relationshipCreate( id, typeId, node1, node2, recordAccess, noopLockClient,
+                LockTracer.NONE );
         if ( properties != null && !properties.isEmpty() )
         {
             RelationshipRecord record = recordAccess.getRelRecords().getOrLoad( id, null ).forChangingData();
@@ -21,6 +21,7 @@ package org.neo4j.unsafe.impl.batchimport;
 
 import java.util.function.ToIntFunction;
 
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.NoOpClient;
 import org.neo4j.kernel.impl.store.PropertyStore;
@@ -92,7 +93,8 @@ public class BatchInsertRelationshipsStep extends ProcessorStep<Batch<InputRelat
             {
                 long id = relationshipIdGenerator.nextId();
                 int typeId = typeToId.applyAsInt( input.typeAsObject() );
-                relationshipCreator.relationshipCreate( id, typeId, startNodeId, endNodeId, recordAccess, noopLockClient );
+                relationshipCreator.relationshipCreate( id, typeId, startNodeId, endNodeId, recordAccess, noopLockClient,
+                        LockTracer.NONE );
 
                 // Set properties
                 RelationshipRecord record = recordAccess.getRelRecords().getOrLoad( id, null ).forChangingData();
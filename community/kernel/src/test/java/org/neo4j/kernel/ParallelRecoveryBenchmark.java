@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.impl.storemigration.LogFiles;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.neo4j.graphdb.RelationshipType.withName;
+
+/**
+ * Measures how long it takes to recover a database from nothing but its transaction logs, with serial and with
+ * parallel recovery.
+ * <p>
+ * The logs are generated first, by committing transactions that each create a few nodes with properties, connect
+ * them to nodes created by earlier transactions, and update some random older nodes, until the logs have reached
+ * the size given by the {@code size} system property, 10 GB by default. The logs are then copied to two empty store
+ * directories, which are recovered with one thread and with as many threads as there are processors. Make sure there
+ * is room for three copies of the logs.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class ParallelRecoveryBenchmark
+{
+    private static final long LOG_SIZE = Settings.parseLongWithUnit( System.getProperty( "size", "10G" ) );
+    private static final int NODES_PER_TRANSACTION = 20;
+    private static final int UPDATES_PER_TRANSACTION = 5;
+    private static final Label LABEL = Label.label( "Label" );
+
+    @Rule
+    public final TestDirectory directory = TestDirectory.testDirectory();
+    @Rule
+    public final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+
+    @Test
+    public void recoverSyntheticTransactionLogs() throws IOException
+    {
+        File origin = directory.graphDbDir();
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabaseBuilder( origin )
+                .setConfig( GraphDatabaseSettings.keep_logical_logs, Settings.TRUE )
+                .setConfig( GraphDatabaseSettings.check_point_interval_tx, String.valueOf( Integer.MAX_VALUE ) )
+                .setConfig( GraphDatabaseSettings.check_point_interval_time, "10000h" )
+                .newGraphDatabase();
+        File serial;
+        File parallel;
+        try
+        {
+            long transactions = generateTransactionLogs( db, origin );
+            System.out.printf( "generated %,d transactions, %,d bytes of logs%n", transactions, logSize( origin ) );
+            // copying only transaction logs of a running database, which has not check pointed, to recover everything
+            serial = copyTransactionLogs( origin, "serial" );
+            parallel = copyTransactionLogs( origin, "parallel" );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        System.out.printf( "recovery with 1 thread:   %,d ms%n", measureRecoveryMillis( serial, 1 ) );
+        System.out.printf( "recovery with %d threads: %,d ms%n", processors, measureRecoveryMillis( parallel, processors ) );
+    }
+
+    private long generateTransactionLogs( GraphDatabaseService db, File storeDir )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long transactions = 0;
+        long nodes = 0;
+        while ( transactions % 1_000 != 0 || logSize( storeDir ) < LOG_SIZE )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < NODES_PER_TRANSACTION; i++ )
+                {
+                    Node node = db.createNode( LABEL );
+                    node.setProperty( "id", nodes + i );
+                    node.setProperty( "name", "node-" + (nodes + i) );
+                    if ( nodes > 0 )
+                    {
+                        Node other = db.getNodeById( random.nextLong( nodes ) );
+                        node.createRelationshipTo( other, withName( "REL" ) ).setProperty( "weight", i );
+                    }
+                }
+                for ( int i = 0; nodes > 0 && i < UPDATES_PER_TRANSACTION; i++ )
+                {
+                    db.getNodeById( random.nextLong( nodes ) ).setProperty( "updated", transactions );
+                }
+                tx.success();
+            }
+            nodes += NODES_PER_TRANSACTION;
+            transactions++;
+        }
+        return transactions;
+    }
+
+    private long measureRecoveryMillis( File storeDir, int threads )
+    {
+        long start = System.currentTimeMillis();
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabaseBuilder( storeDir )
+                .setConfig( GraphDatabaseSettings.recovery_threads, String.valueOf( threads ) )
+                .newGraphDatabase();
+        long millis = System.currentTimeMillis() - start;
+        db.shutdown();
+        return millis;
+    }
+
+    private long logSize( File storeDir )
+    {
+        FileSystemAbstraction fs = fileSystemRule.get();
+        long size = 0;
+        for ( File logFile : fs.listFiles( storeDir, LogFiles.FILENAME_FILTER ) )
+        {
+            size += fs.getFileSize( logFile );
+        }
+        return size;
+    }
+
+    private File copyTransactionLogs( File storeDir, String name ) throws IOException
+    {
+        FileSystemAbstraction fs = fileSystemRule.get();
+        File copy = directory.directory( name );
+        for ( File logFile : fs.listFiles( storeDir, LogFiles.FILENAME_FILTER ) )
+        {
+            fs.copyFile( logFile, new File( copy, logFile.getName() ) );
+        }
+        return copy;
+    }
+}
@@ -31,6 +31,8 @@ import org.hamcrest.Matcher;
 import org.hamcrest.TypeSafeMatcher;
 import org.junit.Test;
 
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.kernel.impl.locking.LockWaitEvent;
 import org.neo4j.kernel.impl.query.clientconnection.ClientConnectionInfo;
 import org.neo4j.storageengine.api.lock.ResourceType;
@@ -50,6 +52,7 @@ public class ExecutingQueryTest
 {
     private final FakeClock clock = Clocks.fakeClock( ZonedDateTime.parse( "2016-12-03T15:10:00+01:00" ) );
     private final FakeCpuClock cpuClock = new FakeCpuClock();
+    private final PageCursorCounters pageCursorCounters = new DefaultPageCacheTracer().countersForCurrentThread();
     private long lockCount;
     private ExecutingQuery query = new ExecutingQuery(
             1,
@@ -58,9 +61,10 @@ public class ExecutingQueryTest
             "hello world",
             Collections.emptyMap(),
             Collections.emptyMap(),
-            () -> lockCount, Thread.currentThread(),
+            () -> lockCount, () -> 0, Thread.currentThread(),
             clock,
-            cpuClock );
+            cpuClock,
+            pageCursorCounters );
 
     @Test
     public void shouldReportElapsedTime() throws Exception
@@ -171,6 +175,37 @@ public class ExecutingQueryTest
         assertEquals( 60, cpuTime );
     }
 
+    @Test
+    public void shouldReportPageHitsAndFaults() throws Exception
+    {
+        // given
+        pageCursorCounters.hit();
+        pageCursorCounters.hit();
+        pageCursorCounters.fault();
+
+        // then
+        assertEquals( 2, query.pageHits() );
+        assertEquals( 1, query.pageFaults() );
+    }
+
+    @Test
+    public void shouldNotReportPageHitsAndFaultsFromBeforeTheQueryStarted() throws Exception
+    {
+        // given
+        pageCursorCounters.hit();
+        pageCursorCounters.fault();
+        ExecutingQuery laterQuery = new ExecutingQuery( 2, ClientConnectionInfo.EMBEDDED_CONNECTION, "neo4j",
+                "hello again", Collections.emptyMap(), Collections.emptyMap(), () -> lockCount,
+                () -> 0, Thread.currentThread(), clock, cpuClock, pageCursorCounters );
+
+        // when
+        pageCursorCounters.hit();
+
+        // then
+        assertEquals( 1, laterQuery.pageHits() );
+        assertEquals( 0, laterQuery.pageFaults() );
+    }
+
     @Test
     public void shouldReportLockCount() throws Exception
     {
@@ -23,11 +23,13 @@ import java.util.function.Supplier;
 
 import org.neo4j.collection.pool.Pool;
 import org.neo4j.kernel.api.security.SecurityContext;
+import org.neo4j.kernel.impl.api.ActiveTransactionTracker;
 import org.neo4j.kernel.impl.api.KernelTransactionImplementation;
 import org.neo4j.kernel.impl.api.SchemaWriteGuard;
 import org.neo4j.kernel.impl.api.StatementOperationContainer;
 import org.neo4j.kernel.impl.api.TransactionHeaderInformation;
 import org.neo4j.kernel.impl.api.TransactionHooks;
+import org.neo4j.kernel.impl.api.TransactionMemoryPool;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.factory.CanWrite;
@@ -38,6 +40,7 @@ import org.neo4j.kernel.impl.locking.StatementLocks;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.impl.transaction.TransactionHeaderInformationFactory;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StorageStatement;
 import org.neo4j.storageengine.api.StoreReadLayer;
@@ -88,7 +91,8 @@ public class KernelTransactionFactory
                 mock( Pool.class ),
                 Clocks.systemClock(),
                 NULL,
-                LockTracer.NONE, storageEngine, new CanWrite() );
+                LockTracer.NONE, storageEngine, new CanWrite(), CollectionsFactorySupplier.ON_HEAP,
+                TransactionMemoryPool.unlimited(), new ActiveTransactionTracker() );
 
         StatementLocks statementLocks = new SimpleStatementLocks( new NoOpClient() );
 
@@ -27,6 +27,7 @@ import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.api.security.SecurityContext;
+import org.neo4j.memory.MemoryAllocationTracker;
 
 public class StubKernelTransaction implements KernelTransaction
 {
@@ -133,6 +134,12 @@ public class StubKernelTransaction implements KernelTransaction
         throw new UnsupportedOperationException( "not implemented" );
     }
 
+    @Override
+    public MemoryAllocationTracker memoryTracker()
+    {
+        throw new UnsupportedOperationException( "not implemented" );
+    }
+
     @Override
     public Revertable overrideWith( SecurityContext context )
     {
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.neo4j.test.Race;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ActiveTransactionTrackerTest
+{
+    private final ActiveTransactionTracker tracker = new ActiveTransactionTracker();
+
+    @Test
+    public void shouldMoveOldestActiveEpochToCurrentWhenNoTransactionIsActive() throws Exception
+    {
+        // given
+        tracker.end( tracker.begin() );
+        long epoch = tracker.newEpoch();
+        tracker.end( tracker.begin() );
+
+        // then
+        assertEquals( epoch + 1, tracker.oldestActiveEpoch() );
+    }
+
+    @Test
+    public void shouldKeepOldestActiveEpochUntilAllItsTransactionsHaveEnded() throws Exception
+    {
+        // given
+        long first = tracker.begin();
+        long second = tracker.begin();
+        long epoch = tracker.newEpoch();
+        long third = tracker.begin();
+        tracker.newEpoch();
+
+        // when
+        tracker.end( third );
+        tracker.end( second );
+
+        // then
+        assertEquals( epoch, tracker.oldestActiveEpoch() );
+
+        // when
+        tracker.end( first );
+
+        // then
+        assertEquals( epoch + 2, tracker.oldestActiveEpoch() );
+    }
+
+    @Test
+    public void shouldNotStartNewEpochSharingCounterWithEpochThatHasActiveTransactions() throws Exception
+    {
+        // given
+        long old = tracker.begin();
+        long epoch = old;
+        for ( int i = 0; i < 1_000; i++ )
+        {
+            tracker.end( tracker.begin() );
+            epoch = tracker.newEpoch();
+        }
+        long current = tracker.begin();
+        assertEquals( old, tracker.oldestActiveEpoch() );
+        assertEquals( epoch, current );
+        assertTrue( current - old < 64 );
+
+        // when
+        tracker.end( old );
+
+        // then
+        assertEquals( current, tracker.oldestActiveEpoch() );
+        tracker.end( current );
+        assertEquals( current, tracker.newEpoch() );
+        assertEquals( current + 1, tracker.newEpoch() );
+        assertEquals( current + 2, tracker.oldestActiveEpoch() );
+    }
+
+    @Test
+    public void shouldNeverHaveOldestActiveEpochNewerThanThatOfAnActiveTransaction() throws Throwable
+    {
+        // given
+        int threads = 8;
+        AtomicLongArray active = new AtomicLongArray( threads );
+        for ( int i = 0; i < threads; i++ )
+        {
+            active.set( i, Long.MAX_VALUE );
+        }
+        AtomicInteger done = new AtomicInteger();
+        Race race = new Race();
+        for ( int i = 0; i < threads; i++ )
+        {
+            int thread = i;
+            race.addContestant( () ->
+            {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for ( int j = 0; j < 100_000; j++ )
+                {
+                    long epoch = tracker.begin();
+                    active.set( thread, epoch );
+                    if ( random.nextInt( 10_000 ) == 0 )
+                    {
+                        Thread.yield();
+                    }
+                    active.set( thread, Long.MAX_VALUE );
+                    tracker.end( epoch );
+                }
+                done.incrementAndGet();
+            } );
+        }
+        race.addContestant( () ->
+        {
+            while ( done.get() < threads )
+            {
+                tracker.newEpoch();
+                long oldest = tracker.oldestActiveEpoch();
+                for ( int i = 0; i < threads; i++ )
+                {
+                    // A transaction seen here began before the oldest active epoch was asked for, and is yet to end
+                    assertTrue( active.get( i ) >= oldest );
+                }
+            }
+        } );
+
+        // when
+        race.go();
+
+        // then
+        long epoch = tracker.newEpoch();
+        assertEquals( epoch + 1, tracker.oldestActiveEpoch() );
+    }
+}
@@ -21,19 +21,31 @@ package org.neo4j.kernel.impl.api;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import org.neo4j.kernel.impl.api.DefaultTransactionTracer.Monitor;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CreateCommandsEvent;
+import org.neo4j.kernel.impl.transaction.tracing.IndexUpdatesEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
+import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionEvent;
+import org.neo4j.kernel.impl.util.LatencyHistogram;
 import org.neo4j.test.OnDemandJobScheduler;
 import org.neo4j.time.Clocks;
 import org.neo4j.time.FakeClock;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -76,6 +88,124 @@ public class DefaultTransactionTracerTest
         verifyZeroInteractions( monitor );
     }
 
+    @Test
+    public void shouldRecordTimeSpentInEachCommitPhase() throws Throwable
+    {
+        DefaultTransactionTracer tracer = new DefaultTransactionTracer( clock, monitor, jobScheduler );
+
+        commit( tracer, 1, 2, 3, 4, 5, 6 );
+
+        assertLatency( tracer, CommitPhase.LOCKS, 1 );
+        assertLatency( tracer, CommitPhase.COMMANDS, 2 );
+        assertLatency( tracer, CommitPhase.LOG_WRITE, 3 );
+        assertLatency( tracer, CommitPhase.LOG_FORCE, 4 );
+        assertLatency( tracer, CommitPhase.STORE_APPLY, 5 );
+        assertLatency( tracer, CommitPhase.INDEX_UPDATES, 6 );
+        assertLatency( tracer, CommitPhase.TOTAL, 21 );
+    }
+
+    @Test
+    public void shouldNotifySlowCommitListenersAboveTheirThreshold() throws Throwable
+    {
+        DefaultTransactionTracer tracer = new DefaultTransactionTracer( clock, monitor, jobScheduler );
+        List<long[]> slowCommits = new ArrayList<>();
+        CommitLatencyMonitor.SlowCommitListener listener = phaseNanos -> slowCommits.add( phaseNanos.clone() );
+        tracer.addSlowCommitListener( TimeUnit.MILLISECONDS.toNanos( 20 ), listener );
+
+        commit( tracer, 1, 1, 1, 1, 1, 1 );
+        commit( tracer, 1, 1, 1, 20, 1, 1 );
+        tracer.removeSlowCommitListener( listener );
+        commit( tracer, 1, 1, 1, 20, 1, 1 );
+
+        assertEquals( 1, slowCommits.size() );
+        assertEquals( TimeUnit.MILLISECONDS.toNanos( 25 ), slowCommits.get( 0 )[CommitPhase.TOTAL.ordinal()] );
+        assertEquals( TimeUnit.MILLISECONDS.toNanos( 20 ), slowCommits.get( 0 )[CommitPhase.LOG_FORCE.ordinal()] );
+    }
+
+    @Test
+    public void shouldReuseCommitEventsOfTheSameThread() throws Throwable
+    {
+        DefaultTransactionTracer tracer = new DefaultTransactionTracer( clock, monitor, jobScheduler );
+        TransactionEvent txEvent = tracer.beginTransaction();
+
+        CommitEvent first;
+        try ( CommitEvent commitEvent = txEvent.beginCommitEvent() )
+        {
+            first = commitEvent;
+            try ( CommitEvent nested = txEvent.beginCommitEvent() )
+            {
+                assertNotSame( first, nested );
+            }
+        }
+        try ( CommitEvent commitEvent = txEvent.beginCommitEvent() )
+        {
+            assertSame( first, commitEvent );
+        }
+    }
+
+    @Test
+    public void shouldNotCarryPhaseTimesOverToTheNextCommit() throws Throwable
+    {
+        DefaultTransactionTracer tracer = new DefaultTransactionTracer( clock, monitor, jobScheduler );
+        List<long[]> slowCommits = new ArrayList<>();
+        tracer.addSlowCommitListener( 0, phaseNanos -> slowCommits.add( phaseNanos.clone() ) );
+
+        commit( tracer, 1, 2, 3, 4, 5, 6 );
+        commit( tracer, 1, 1, 1, 1, 1, 1 );
+
+        assertEquals( 2, slowCommits.size() );
+        assertEquals( TimeUnit.MILLISECONDS.toNanos( 6 ), slowCommits.get( 1 )[CommitPhase.TOTAL.ordinal()] );
+        assertEquals( TimeUnit.MILLISECONDS.toNanos( 1 ), slowCommits.get( 1 )[CommitPhase.STORE_APPLY.ordinal()] );
+    }
+
+    private void commit( DefaultTransactionTracer tracer, long locksMillis, long commandsMillis, long logWriteMillis,
+            long logForceMillis, long storeApplyMillis, long indexUpdatesMillis )
+    {
+        try ( TransactionEvent txEvent = tracer.beginTransaction() )
+        {
+            try ( CommitEvent commitEvent = txEvent.beginCommitEvent() )
+            {
+                try ( CommitLocksEvent locksEvent = commitEvent.beginCommitLocks() )
+                {
+                    clock.forward( locksMillis, TimeUnit.MILLISECONDS );
+                }
+                try ( CreateCommandsEvent commandsEvent = commitEvent.beginCreateCommands() )
+                {
+                    clock.forward( commandsMillis, TimeUnit.MILLISECONDS );
+                }
+                try ( LogAppendEvent logAppendEvent = commitEvent.beginLogAppend() )
+                {
+                    try ( SerializeTransactionEvent serializeEvent = logAppendEvent.beginSerializeTransaction() )
+                    {
+                        clock.forward( logWriteMillis, TimeUnit.MILLISECONDS );
+                    }
+                    try ( LogForceWaitEvent forceWaitEvent = logAppendEvent.beginLogForceWait() )
+                    {
+                        clock.forward( logForceMillis, TimeUnit.MILLISECONDS );
+                    }
+                }
+                try ( StoreApplyEvent storeApplyEvent = commitEvent.beginStoreApply() )
+                {
+                    clock.forward( storeApplyMillis, TimeUnit.MILLISECONDS );
+                    try ( IndexUpdatesEvent indexUpdatesEvent = storeApplyEvent.beginIndexUpdates() )
+                    {
+                        clock.forward( indexUpdatesMillis, TimeUnit.MILLISECONDS );
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertLatency( DefaultTransactionTracer tracer, CommitPhase phase, long expectedMillis )
+    {
+        LatencyHistogram.Snapshot snapshot = tracer.latencies( phase ).snapshot();
+        assertEquals( 1, snapshot.count() );
+        long expectedNanos = TimeUnit.MILLISECONDS.toNanos( expectedMillis );
+        long recordedNanos = snapshot.max();
+        // histogram buckets are accurate to within 1/32 of the value
+        assertTrue( recordedNanos >= expectedNanos && recordedNanos <= expectedNanos + expectedNanos / 32 );
+    }
+
     private void triggerEvent( DefaultTransactionTracer tracer, int eventDuration )
     {
         try ( TransactionEvent txEvent = tracer.beginTransaction() )
@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.kernel.api.ExecutingQuery;
 import org.neo4j.kernel.impl.query.clientconnection.ClientConnectionInfo;
 import org.neo4j.time.Clocks;
@@ -116,9 +117,10 @@ public class ExecutingQueryListTest
     private ExecutingQuery createExecutingQuery( int queryId, String query )
     {
         return new ExecutingQuery( queryId, ClientConnectionInfo.EMBEDDED_CONNECTION, "me", query,
-                Collections.emptyMap(), Collections.emptyMap(), () -> 0, Thread.currentThread(),
+                Collections.emptyMap(), Collections.emptyMap(), () -> 0, () -> 0, Thread.currentThread(),
                 Clocks.nanoClock(),
-                CpuClock.CPU_CLOCK
+                CpuClock.CPU_CLOCK,
+                PageCursorCounters.NULL
         );
     }
 }
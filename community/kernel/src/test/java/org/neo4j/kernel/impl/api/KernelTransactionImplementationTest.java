@@ -40,6 +40,7 @@ import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.api.security.AnonymousContext;
 import org.neo4j.kernel.api.security.SecurityContext;
 import org.neo4j.kernel.api.txstate.TransactionState;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.NoOpClient;
 import org.neo4j.kernel.impl.locking.SimpleStatementLocks;
@@ -396,6 +397,7 @@ public class KernelTransactionImplementationTest extends KernelTransactionTestBa
                 any( TransactionState.class ),
                 any( StorageStatement.class ),
                 any( ResourceLocker.class ),
+                any( LockTracer.class ),
                 anyLong() );
 
         try ( KernelTransactionImplementation transaction = newTransaction( securityContext() ) )
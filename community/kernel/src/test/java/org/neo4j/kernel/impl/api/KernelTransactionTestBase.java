@@ -46,6 +46,7 @@ import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.TransactionTracer;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StorageStatement;
@@ -96,7 +97,7 @@ public class KernelTransactionTestBase
         doAnswer( invocation -> ((Collection<StorageCommand>) invocation.getArguments()[0]).add( null ) )
                 .when( storageEngine ).createCommands( anyCollectionOf( StorageCommand.class ),
                 any( ReadableTransactionState.class ), any( StorageStatement.class ),
-                any( ResourceLocker.class ), anyLong() );
+                any( ResourceLocker.class ), any( LockTracer.class ), anyLong() );
     }
 
     public KernelTransactionImplementation newTransaction( long transactionTimeoutMillis )
@@ -139,7 +140,9 @@ public class KernelTransactionTestBase
     {
         return new KernelTransactionImplementation( operationContainer, schemaWriteGuard,
                 hooks, null, null, headerInformationFactory, commitProcess, transactionMonitor, legacyIndexStateSupplier,
-                txPool, clock, TransactionTracer.NULL, LockTracer.NONE, storageEngine, new CanWrite() );
+                txPool, clock, TransactionTracer.NULL, LockTracer.NONE, storageEngine, new CanWrite(),
+                CollectionsFactorySupplier.ON_HEAP, TransactionMemoryPool.unlimited(),
+                new ActiveTransactionTracker() );
     }
 
     public class CapturingCommitProcess implements TransactionCommitProcess
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.rule.TestDirectory;
+
+/**
+ * Measures the throughput of beginning and closing transactions from many threads at once, like a database serving
+ * many Bolt sessions does. Every thread begins and closes read transactions in a loop for {@code seconds} seconds,
+ * 10 by default, for each of the thread counts in {@code threads}, "1,8,64,512,2000" by default. Meanwhile another
+ * thread takes a {@link KernelTransactionsSnapshot} every millisecond, and checks whether the transactions in it
+ * have closed, like the buffering id generators do when they decide if freed ids can be reused.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class KernelTransactionsBenchmark
+{
+    private static final long SECONDS = Long.getLong( "seconds", 10 );
+    private static final String THREADS = System.getProperty( "threads", "1,8,64,512,2000" );
+
+    @Rule
+    public final TestDirectory directory = TestDirectory.testDirectory();
+
+    @Test
+    public void beginAndCloseTransactions() throws InterruptedException
+    {
+        GraphDatabaseAPI db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newEmbeddedDatabase( directory.graphDbDir() );
+        try
+        {
+            KernelTransactions kernelTransactions =
+                    db.getDependencyResolver().resolveDependency( KernelTransactions.class );
+            for ( String threads : THREADS.split( "," ) )
+            {
+                int threadCount = Integer.parseInt( threads.trim() );
+                Result result = measure( db, kernelTransactions, threadCount );
+                System.out.printf( "%,6d threads: %,d transactions/s, %,d snapshots/s%n", threadCount,
+                        result.transactions / SECONDS, result.snapshots / SECONDS );
+            }
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private Result measure( GraphDatabaseAPI db, KernelTransactions kernelTransactions, int threadCount )
+            throws InterruptedException
+    {
+        AtomicBoolean end = new AtomicBoolean();
+        LongAdder transactions = new LongAdder();
+        CountDownLatch start = new CountDownLatch( 1 );
+        List<Thread> threads = new ArrayList<>();
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            Thread thread = new Thread( () ->
+            {
+                awaitStart( start );
+                long count = 0;
+                while ( !end.get() )
+                {
+                    try ( Transaction tx = db.beginTx() )
+                    {
+                        tx.success();
+                    }
+                    count++;
+                }
+                transactions.add( count );
+            } );
+            thread.start();
+            threads.add( thread );
+        }
+
+        long snapshots = 0;
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos( SECONDS );
+        while ( System.nanoTime() < deadline )
+        {
+            KernelTransactionsSnapshot snapshot = kernelTransactions.get();
+            Thread.sleep( 1 );
+            snapshot.allClosed();
+            snapshots++;
+        }
+        end.set( true );
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        return new Result( transactions.sum(), snapshots );
+    }
+
+    private static void awaitStart( CountDownLatch start )
+    {
+        try
+        {
+            start.await();
+        }
+        catch ( InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private static class Result
+    {
+        final long transactions;
+        final long snapshots;
+
+        Result( long transactions, long snapshots )
+        {
+            this.transactions = transactions;
+            this.snapshots = snapshots;
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.factory.AccessCapability;
 import org.neo4j.kernel.impl.factory.CanWrite;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.SimpleStatementLocksFactory;
 import org.neo4j.kernel.impl.locking.StatementLocksFactory;
@@ -55,6 +56,7 @@ import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.collection.CollectionsFactorySupplier;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.kernel.monitoring.tracing.Tracers;
@@ -447,6 +449,7 @@ public class KernelTransactionsTest
                 any( ReadableTransactionState.class ),
                 any( StorageStatement.class ),
                 any( ResourceLocker.class ),
+                any( LockTracer.class ),
                 anyLong() );
 
         return newKernelTransactions( locks, storageEngine, commitProcess, testKernelTransactions );
@@ -491,7 +494,8 @@ public class KernelTransactionsTest
                 null, statementOperationsContianer, null, DEFAULT,
                 commitProcess, null, null, new TransactionHooks(), mock( TransactionMonitor.class ),
                 availabilityGuard,
-                tracers, storageEngine, new Procedures(), transactionIdStore, clock, new CanWrite() );
+                tracers, storageEngine, new Procedures(), transactionIdStore, clock, new CanWrite(),
+                CollectionsFactorySupplier.ON_HEAP, TransactionMemoryPool.unlimited() );
     }
 
     private static TestKernelTransactions createTestTransactions( StorageEngine storageEngine,
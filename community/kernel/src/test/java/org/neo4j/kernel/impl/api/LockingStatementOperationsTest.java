@@ -60,6 +60,7 @@ import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.storageengine.api.StorageStatement;
 
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
@@ -68,6 +69,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.api.TwoPhaseNodeForRelationshipLockingTest.returnRelationships;
 import static org.neo4j.kernel.impl.locking.ResourceTypes.schemaResource;
@@ -379,6 +381,68 @@ public class LockingStatementOperationsTest
         order.verify( entityWriteOps ).relationshipCreate( state, 1, 2, 3 );
     }
 
+    @Test
+    public void shouldAcquireNodeLocksInOneCallInAscendingOrderBeforeAddingLabelToNodes() throws Exception
+    {
+        // given
+        long[] nodeIds = {5, 1, 3, 1};
+
+        // when
+        lockingOps.nodesAddLabel( state, nodeIds, 456 );
+
+        // then
+        order.verify( locks ).acquireShared( LockTracer.NONE, ResourceTypes.SCHEMA, schemaResource() );
+        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 1, 3, 5 );
+        order.verify( entityWriteOps ).nodesAddLabel( state, nodeIds, 456 );
+    }
+
+    @Test
+    public void shouldNotAcquireNodeLocksBeforeSettingPropertyOnJustCreatedNodes() throws Exception
+    {
+        // given
+        txState.nodeDoCreate( 3 );
+        DefinedProperty property = Property.property( 8, 9 );
+        long[] nodeIds = {3, 4};
+
+        // when
+        lockingOps.nodesSetProperty( state, nodeIds, property );
+
+        // then
+        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 4 );
+        order.verify( entityWriteOps ).nodesSetProperty( state, nodeIds, property );
+    }
+
+    @Test
+    public void shouldAcquireLocksOfAllNodesBeforeCreatingRelationships() throws Exception
+    {
+        // given
+        long[] startNodeIds = {7, 2};
+        long[] endNodeIds = {2, 4};
+
+        // when
+        lockingOps.relationshipsCreate( state, 1, startNodeIds, endNodeIds );
+
+        // then
+        order.verify( locks ).acquireExclusive( LockTracer.NONE, ResourceTypes.NODE, 2, 4, 7 );
+        order.verify( entityWriteOps ).relationshipsCreate( state, 1, startNodeIds, endNodeIds );
+    }
+
+    @Test
+    public void shouldRejectRelationshipBatchOfUnpairedNodesBeforeTakingAnyLocks() throws Exception
+    {
+        try
+        {
+            // when
+            lockingOps.relationshipsCreate( state, 1, new long[]{7, 2}, new long[]{2} );
+            fail( "Should have failed" );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            // then
+            verifyZeroInteractions( locks, entityWriteOps );
+        }
+    }
+
     @Test
     public void shouldAcquireNodeLocksWhenCreatingRelationshipInOrderOfAscendingId() throws Exception
     {
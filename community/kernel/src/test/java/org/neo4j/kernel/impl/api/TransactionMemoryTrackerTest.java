@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.Test;
+
+import org.neo4j.kernel.api.KernelTransaction;
+import org.neo4j.kernel.api.exceptions.MemoryLimitExceededException;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.impl.api.state.TxState;
+import org.neo4j.kernel.impl.util.collection.OnHeapCollectionsFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.kernel.api.properties.Property.estimatedHeapSize;
+import static org.neo4j.kernel.api.properties.Property.noNodeProperty;
+import static org.neo4j.kernel.api.properties.Property.stringProperty;
+import static org.neo4j.kernel.impl.api.TransactionMemoryTracker.POOL_CHUNK_SIZE;
+
+public class TransactionMemoryTrackerTest
+{
+    private final KernelTransaction transaction = mock( KernelTransaction.class );
+
+    @Test
+    public void shouldAccountAllocationsToTransactionAndPool() throws Exception
+    {
+        // given
+        TransactionMemoryPool pool = new TransactionMemoryPool( 1000, 0 );
+        TransactionMemoryTracker tracker = pool.newTracker( transaction );
+
+        // when
+        tracker.allocated( 100 );
+        tracker.allocated( 50 );
+        tracker.deallocated( 30 );
+
+        // then
+        assertEquals( 120, tracker.usedMemory() );
+        assertEquals( POOL_CHUNK_SIZE, pool.usedMemory() );
+    }
+
+    @Test
+    public void shouldNotAccountAnythingWithoutLimits() throws Exception
+    {
+        // given
+        TransactionMemoryPool pool = TransactionMemoryPool.unlimited();
+        TransactionMemoryTracker tracker = pool.newTracker( transaction );
+
+        // when
+        tracker.allocated( 100 );
+        tracker.deallocated( 30 );
+
+        // then
+        assertEquals( 0, tracker.usedMemory() );
+        assertEquals( 0, pool.usedMemory() );
+    }
+
+    @Test
+    public void shouldReserveFromPoolInChunksAndReleaseTheExcess() throws Exception
+    {
+        // given
+        TransactionMemoryPool pool = new TransactionMemoryPool( 0, POOL_CHUNK_SIZE * 10 );
+        TransactionMemoryTracker tracker = pool.newTracker( transaction );
+
+        // when
+        tracker.allocated( 10 );
+        tracker.allocated( 20 );
+
+        // then
+        assertEquals( POOL_CHUNK_SIZE, pool.usedMemory() );
+
+        // when
+        tracker.allocated( POOL_CHUNK_SIZE * 3 );
+
+        // then
+        assertEquals( 30 + POOL_CHUNK_SIZE * 3, tracker.usedMemory() );
+        assertEquals( POOL_CHUNK_SIZE * 4, pool.usedMemory() );
+
+        // when
+        tracker.deallocated( POOL_CHUNK_SIZE * 3 );
+
+        // then a chunk is kept for the allocations to come
+        assertEquals( 30, tracker.usedMemory() );
+        assertEquals( 30 + POOL_CHUNK_SIZE, pool.usedMemory() );
+    }
+
+    @Test
+    public void shouldNotAccumulateMemoryWhenSettingTheSamePropertyRepeatedly() throws Exception
+    {
+        // given
+        TransactionMemoryPool pool = new TransactionMemoryPool( 4096, 0 );
+        TransactionMemoryTracker tracker = pool.newTracker( transaction );
+        TxState txState = new TxState( OnHeapCollectionsFactory.INSTANCE, tracker );
+        long nodeId = 1;
+        int propertyKeyId = 2;
+        txState.nodeDoReplaceProperty( nodeId, noNodeProperty( nodeId, propertyKeyId ),
+                stringProperty( propertyKeyId, "value 0" ) );
+        long usedAfterFirstSet = tracker.usedMemory();
+
+        // when
+        for ( int i = 1; i <= 1_000; i++ )
+        {
+            Property replaced = (Property) txState.getNodeState( nodeId ).addedProperties().next();
+            txState.nodeDoReplaceProperty( nodeId, replaced, stringProperty( propertyKeyId, "value " + i % 10 ) );
+        }
+
+        // then
+        assertEquals( usedAfterFirstSet, tracker.usedMemory() );
+        verify( transaction, never() ).markForTermination( Status.Transaction.TransactionMemoryLimit );
+
+        // and when
+        txState.nodeDoRemoveProperty( nodeId, stringProperty( propertyKeyId, "value 0" ) );
+
+        // then
+        assertEquals( usedAfterFirstSet - estimatedHeapSize( stringProperty( propertyKeyId, "value 0" ) ),
+                tracker.usedMemory() );
+    }
+
+    @Test
+    public void shouldTerminateTransactionExceedingTransactionLimit() throws Exception
+    {
+        // given
+        TransactionMemoryPool pool = new TransactionMemoryPool( 100, 0 );
+        TransactionMemoryTracker tracker = pool.newTracker( transaction );
+        tracker.allocated( 80 );
+
+        // when
+        try
+        {
+            tracker.allocated( 30 );
+            fail( "Should have exceeded the transaction limit" );
+        }
+        catch ( MemoryLimitExceededException e )
+        {
+            // then
+            assertEquals( Status.Transaction.TransactionMemoryLimit, e.status() );
+        }
+        verify( transaction ).markForTermination( Status.Transaction.TransactionMemoryLimit );
+        assertEquals( 80, tracker.usedMemory() );
+        assertEquals( POOL_CHUNK_SIZE, pool.usedMemory() );
+    }
+
+    @Test
+    public void shouldTerminateTransactionExceedingGlobalLimit() throws Exception
+    {
+        // given
+        TransactionMemoryPool pool = new TransactionMemoryPool( 100, 150 );
+        KernelTransaction otherTransaction = mock( KernelTransaction.class );
+        TransactionMemoryTracker other = pool.newTracker( otherTransaction );
+        TransactionMemoryTracker tracker = pool.newTracker( transaction );
+        other.allocated( 100 );
+
+        // when
+        try
+        {
+            tracker.allocated( 60 );
+            fail( "Should have exceeded the global limit" );
+        }
+        catch ( MemoryLimitExceededException e )
+        {
+            // then good
+        }
+        verify( transaction ).markForTermination( Status.Transaction.TransactionMemoryLimit );
+        verify( otherTransaction, never() ).markForTermination( Status.Transaction.TransactionMemoryLimit );
+        assertEquals( 0, tracker.usedMemory() );
+        assertEquals( 100, pool.usedMemory() );
+    }
+
+    @Test
+    public void shouldReleaseAllMemoryToPoolWhenClosed() throws Exception
+    {
+        // given
+        TransactionMemoryPool pool = new TransactionMemoryPool( 0, 150 );
+        TransactionMemoryTracker tracker = pool.newTracker( transaction );
+        tracker.allocated( 100 );
+
+        // when
+        tracker.close();
+        tracker.deallocated( 100 );
+
+        // then
+        assertEquals( 0, tracker.usedMemory() );
+        assertEquals( 0, pool.usedMemory() );
+        pool.newTracker( transaction ).allocated( 150 );
+    }
+}
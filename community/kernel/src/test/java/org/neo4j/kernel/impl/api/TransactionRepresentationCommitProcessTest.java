@@ -33,6 +33,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
@@ -92,7 +93,7 @@ public class TransactionRepresentationCommitProcessTest
         IOException rootCause = new IOException( "Mock exception" );
         StorageEngine storageEngine = mock( StorageEngine.class );
         doThrow( new IOException( rootCause ) ).when( storageEngine ).apply(
-                any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+                any( TransactionToApply.class ), any( TransactionApplicationMode.class ), any( StoreApplyEvent.class ) );
         TransactionCommitProcess commitProcess = new TransactionRepresentationCommitProcess(
                 appender,
                 storageEngine );
@@ -51,6 +51,7 @@ import org.neo4j.kernel.impl.api.StatementOperationParts;
 import org.neo4j.kernel.impl.api.index.IndexProxy;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
+import org.neo4j.memory.MemoryAllocationTracker;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
@@ -308,6 +309,12 @@ public class ConstraintIndexCreatorTest
                 return -1;
             }
 
+            @Override
+            public MemoryAllocationTracker memoryTracker()
+            {
+                return MemoryAllocationTracker.NONE;
+            }
+
             @Override
             public Revertable overrideWith( SecurityContext context )
             {
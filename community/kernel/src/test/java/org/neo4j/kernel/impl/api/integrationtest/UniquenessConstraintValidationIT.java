@@ -254,6 +254,106 @@ public class UniquenessConstraintValidationIT extends KernelIntegrationTest
         }
     }
 
+    @Test
+    public void shouldEnforceUniquenessConstraintOnBatchedAddLabelAgainstExistingNode() throws Exception
+    {
+        // given
+        constrainedNode( "Label1", "key1", "value1" );
+
+        Statement statement = statementInNewTransaction( AnonymousContext.writeToken() );
+        long first = createNode( statement, "key1", "value2" );
+        long second = createNode( statement, "key1", "value1" );
+
+        // when
+        try
+        {
+            int label = statement.tokenWriteOperations().labelGetOrCreateForName( "Label1" );
+            statement.dataWriteOperations().nodesAddLabel( new long[] {first, second}, label );
+
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( UniquePropertyConstraintViolationKernelException e )
+        {
+            assertThat( e.getUserMessage( tokenLookup( statement ) ), containsString( "\"key1\"=[value1]" ) );
+        }
+    }
+
+    @Test
+    public void shouldEnforceUniquenessConstraintOnBatchedAddLabelForNodesWithSameValueInBatch() throws Exception
+    {
+        // given
+        constrainedNode( "Label1", "key1", "value1" );
+
+        Statement statement = statementInNewTransaction( AnonymousContext.writeToken() );
+        long first = createNode( statement, "key1", "value2" );
+        long second = createNode( statement, "key1", "value2" );
+
+        // when
+        try
+        {
+            int label = statement.tokenWriteOperations().labelGetOrCreateForName( "Label1" );
+            statement.dataWriteOperations().nodesAddLabel( new long[] {first, second}, label );
+
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( UniquePropertyConstraintViolationKernelException e )
+        {
+            assertThat( e.getUserMessage( tokenLookup( statement ) ), containsString( "\"key1\"=[value2]" ) );
+        }
+    }
+
+    @Test
+    public void shouldEnforceUniquenessConstraintOnBatchedSetPropertyForNodesInSameBatch() throws Exception
+    {
+        // given
+        constrainedNode( "Label1", "key1", "value1" );
+
+        Statement statement = statementInNewTransaction( AnonymousContext.writeToken() );
+        long first = createLabeledNode( statement, "Label1" );
+        long second = createLabeledNode( statement, "Label1" );
+
+        // when
+        try
+        {
+            int key = statement.tokenWriteOperations().propertyKeyGetOrCreateForName( "key1" );
+            statement.dataWriteOperations().nodesSetProperty( new long[] {first, second}, property( key, "value2" ) );
+
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( UniquePropertyConstraintViolationKernelException e )
+        {
+            assertThat( e.getUserMessage( tokenLookup( statement ) ), containsString( "\"key1\"=[value2]" ) );
+        }
+    }
+
+    @Test
+    public void shouldAllowBatchedWritesOfNonConflictingData() throws Exception
+    {
+        // given
+        constrainedNode( "Label1", "key1", "value1" );
+
+        Statement statement = statementInNewTransaction( AnonymousContext.writeToken() );
+        long first = createNode( statement, "key1", "value2" );
+        long second = createNode( statement, "key1", "value3" );
+        long third = createLabeledNode( statement, "Label1" );
+        long fourth = createLabeledNode( statement, "Label1" );
+
+        // when
+        int label = statement.tokenWriteOperations().labelGetOrCreateForName( "Label1" );
+        int key = statement.tokenWriteOperations().propertyKeyGetOrCreateForName( "key2" );
+        assertEquals( 2, statement.dataWriteOperations().nodesAddLabel( new long[] {first, second}, label ) );
+        statement.dataWriteOperations().nodesSetProperty( new long[] {third, fourth}, property( key, "value1" ) );
+        commit();
+
+        // then
+        statement = statementInNewTransaction( AnonymousContext.writeToken() );
+        assertEquals( "number of nodes", 5, count( statement.readOperations().nodesGetAll() ) );
+        rollback();
+    }
+
     private TokenNameLookup tokenLookup( Statement statement )
     {
         return new StatementTokenNameLookup( statement.readOperations() );
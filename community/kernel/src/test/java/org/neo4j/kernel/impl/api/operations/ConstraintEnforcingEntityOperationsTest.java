@@ -23,6 +23,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import org.neo4j.kernel.api.index.InternalIndexState;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.api.schema_new.index.IndexBoundary;
 import org.neo4j.kernel.api.schema_new.index.NewIndexDescriptor;
 import org.neo4j.kernel.api.schema_new.index.NewIndexDescriptorFactory;
@@ -33,6 +35,7 @@ import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.SimpleStatementLocks;
 
+import static java.util.Collections.emptyIterator;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -41,6 +44,7 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.api.StatementConstants.NO_SUCH_NODE;
 import static org.neo4j.kernel.impl.locking.ResourceTypes.INDEX_ENTRY;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.LABEL;
 import static org.neo4j.kernel.impl.locking.ResourceTypes.indexEntryResourceId;
 
 public class ConstraintEnforcingEntityOperationsTest
@@ -50,6 +54,8 @@ public class ConstraintEnforcingEntityOperationsTest
     private final String value = "value";
     private final NewIndexDescriptor index = NewIndexDescriptorFactory.uniqueForLabel( labelId, propertyKeyId );
     private EntityReadOperations readOps;
+    private EntityWriteOperations writeOps;
+    private SchemaReadOperations schemaReadOps;
     private KernelStatement state;
     private Locks.Client locks;
     private ConstraintEnforcingEntityOperations ops;
@@ -58,7 +64,8 @@ public class ConstraintEnforcingEntityOperationsTest
     public void given_ConstraintEnforcingEntityOperations_with_OnlineIndex() throws Exception
     {
         this.readOps = mock( EntityReadOperations.class );
-        SchemaReadOperations schemaReadOps = mock( SchemaReadOperations.class );
+        this.writeOps = mock( EntityWriteOperations.class );
+        this.schemaReadOps = mock( SchemaReadOperations.class );
         SchemaWriteOperations schemaWriteOps = mock( SchemaWriteOperations.class );
         this.state = mock( KernelStatement.class );
         when( schemaReadOps.indexGetState( state, index ) ).thenReturn( InternalIndexState.ONLINE );
@@ -66,7 +73,7 @@ public class ConstraintEnforcingEntityOperationsTest
         when( state.locks() ).thenReturn( new SimpleStatementLocks( locks ) );
         when( state.lockTracer() ).thenReturn( LockTracer.NONE );
 
-        this.ops = new ConstraintEnforcingEntityOperations( new StandardConstraintSemantics(), null, readOps, schemaWriteOps, schemaReadOps );
+        this.ops = new ConstraintEnforcingEntityOperations( new StandardConstraintSemantics(), writeOps, readOps, schemaWriteOps, schemaReadOps );
     }
 
     @Test
@@ -81,8 +88,8 @@ public class ConstraintEnforcingEntityOperationsTest
 
         // then
         assertEquals( expectedNodeId, nodeId );
-        verify( locks).acquireShared(
-                LockTracer.NONE,
+        verify( locks ).acquireSharedWithin(
+                LockTracer.NONE, LABEL, labelId,
                 INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
         verifyNoMoreInteractions( locks );
     }
@@ -98,13 +105,13 @@ public class ConstraintEnforcingEntityOperationsTest
 
         // then
         assertEquals( NO_SUCH_NODE, nodeId );
-        verify( locks ).acquireShared(
-                LockTracer.NONE,
+        verify( locks ).acquireSharedWithin(
+                LockTracer.NONE, LABEL, labelId,
                 INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
-        verify( locks ).acquireExclusive(
-                LockTracer.NONE,
+        verify( locks ).acquireExclusiveWithin(
+                LockTracer.NONE, LABEL, labelId,
                 INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
-        verify( locks ).releaseShared( INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
+        verify( locks ).releaseSharedWithin( LABEL, labelId, INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
         verifyNoMoreInteractions( locks );
     }
 
@@ -122,14 +129,47 @@ public class ConstraintEnforcingEntityOperationsTest
 
         // then
         assertEquals( expectedNodeId, nodeId );
-        verify( locks, times(2) ).acquireShared(
-                LockTracer.NONE,
+        verify( locks, times(2) ).acquireSharedWithin(
+                LockTracer.NONE, LABEL, labelId,
                 INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
-        verify( locks ).acquireExclusive(
-                LockTracer.NONE,
+        verify( locks ).acquireExclusiveWithin(
+                LockTracer.NONE, LABEL, labelId,
                 INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
-        verify( locks ).releaseShared( INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
-        verify( locks ).releaseExclusive( INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
+        verify( locks ).releaseSharedWithin( LABEL, labelId, INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
+        verify( locks ).releaseExclusiveWithin( LABEL, labelId, INDEX_ENTRY, indexEntryResourceId( labelId, propertyKeyId, value ) );
         verifyNoMoreInteractions( locks );
     }
+
+    @Test
+    public void shouldPassBatchedAddLabelThroughWholeWhenLabelHasNoUniquenessConstraint() throws Exception
+    {
+        // given
+        long[] nodeIds = {1, 2, 3};
+        when( schemaReadOps.constraintsGetForLabel( state, labelId ) ).thenReturn( emptyIterator() );
+        when( writeOps.nodesAddLabel( state, nodeIds, labelId ) ).thenReturn( 3 );
+
+        // when
+        int added = ops.nodesAddLabel( state, nodeIds, labelId );
+
+        // then
+        assertEquals( 3, added );
+        verify( writeOps ).nodesAddLabel( state, nodeIds, labelId );
+        verifyNoMoreInteractions( writeOps, readOps );
+    }
+
+    @Test
+    public void shouldPassBatchedSetPropertyThroughWholeWhenPropertyKeyHasNoUniquenessConstraint() throws Exception
+    {
+        // given
+        long[] nodeIds = {1, 2, 3};
+        DefinedProperty property = Property.property( propertyKeyId, value );
+        when( schemaReadOps.constraintsGetAll( state ) ).thenReturn( emptyIterator() );
+
+        // when
+        ops.nodesSetProperty( state, nodeIds, property );
+
+        // then
+        verify( writeOps ).nodesSetProperty( state, nodeIds, property );
+        verifyNoMoreInteractions( writeOps, readOps );
+    }
 }
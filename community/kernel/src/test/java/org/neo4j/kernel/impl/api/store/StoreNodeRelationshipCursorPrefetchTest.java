@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.store;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.function.Consumer;
+
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.pagecache.ConfiguringPageCacheFactory;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.RecordCursors;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.logging.NullLog;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_prefetch_threads;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.io.pagecache.tracing.PageCacheTracer.NULL;
+import static org.neo4j.kernel.impl.locking.LockService.NO_LOCK_SERVICE;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+import static org.neo4j.storageengine.api.Direction.OUTGOING;
+
+/**
+ * Traverses relationship chains that span more pages than fit in the page cache, with prefetching enabled, so that
+ * the hinted pages are actually faulted in by the prefetcher while the chain is being read.
+ */
+public class StoreNodeRelationshipCursorPrefetchTest
+{
+    private static final long OWNING_NODE = 1;
+    private static final long OTHER_NODE = 2;
+    private static final int CHAIN_LENGTH = 300;
+    // Far enough apart that every relationship in the chain is on a page of its own
+    private static final int ID_STRIDE = 257;
+
+    @ClassRule
+    public static TestDirectory directory = TestDirectory.testDirectory( StoreNodeRelationshipCursorPrefetchTest.class );
+
+    private static FileSystemAbstraction fs;
+    private static PageCache pageCache;
+    private static NeoStores neoStores;
+
+    @BeforeClass
+    public static void setupStores()
+    {
+        File storeDir = directory.absolutePath();
+        fs = new DefaultFileSystemAbstraction();
+        pageCache = new ConfiguringPageCacheFactory( fs,
+                Config.defaults().augment( stringMap( pagecache_memory.name(), "1m",
+                        pagecache_prefetch_threads.name(), "2" ) ), NULL, NullLog.getInstance() )
+                .getOrCreatePageCache();
+        StoreFactory storeFactory = new StoreFactory( storeDir, pageCache, fs, NullLogProvider.getInstance() );
+        neoStores = storeFactory.openAllNeoStores( true );
+    }
+
+    @AfterClass
+    public static void shutDownStores() throws Exception
+    {
+        neoStores.close();
+        pageCache.close();
+        fs.close();
+    }
+
+    @Test
+    public void shouldTraverseAChainLargerThanThePageCacheWithPrefetching() throws Exception
+    {
+        RelationshipStore relationshipStore = neoStores.getRelationshipStore();
+        for ( int i = 1; i <= CHAIN_LENGTH; i++ )
+        {
+            long next = i == CHAIN_LENGTH ? NO_NEXT_RELATIONSHIP.intValue() : (i + 1) * ID_STRIDE;
+            relationshipStore.updateRecord( new RelationshipRecord( i * ID_STRIDE, true, OWNING_NODE, OTHER_NODE, 0,
+                    NO_NEXT_RELATIONSHIP.intValue(), next, NO_NEXT_RELATIONSHIP.intValue(), next, false, false ) );
+        }
+
+        // Traverse twice, so that the second round starts with the beginning of the chain evicted
+        for ( int round = 0; round < 2; round++ )
+        {
+            try ( StoreNodeRelationshipCursor cursor = new StoreNodeRelationshipCursor( new RelationshipRecord( -1 ),
+                    new RelationshipGroupRecord( -1, -1 ), mock( Consumer.class ), new RecordCursors( neoStores ),
+                    NO_LOCK_SERVICE ) )
+            {
+                cursor.init( false, ID_STRIDE, OWNING_NODE, OUTGOING );
+                long expectedId = ID_STRIDE;
+                int count = 0;
+                while ( cursor.next() )
+                {
+                    assertEquals( expectedId, cursor.get().id() );
+                    expectedId += ID_STRIDE;
+                    count++;
+                }
+                assertEquals( CHAIN_LENGTH, count );
+            }
+        }
+    }
+}
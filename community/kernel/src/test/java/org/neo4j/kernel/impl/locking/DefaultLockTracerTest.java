@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.LABEL;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+
+public class DefaultLockTracerTest
+{
+    private final DefaultLockTracer tracer = new DefaultLockTracer();
+
+    @Test
+    public void shouldRecordWaitTimesPerResourceType() throws Exception
+    {
+        // When
+        tracer.waitForLock( true, NODE, 1 ).close();
+        tracer.waitForLock( false, NODE, 2 ).close();
+        tracer.waitForLock( true, LABEL, 1 ).close();
+
+        // Then
+        assertEquals( 2, tracer.waitTimes( NODE ).snapshot().count() );
+        assertEquals( 1, tracer.waitTimes( LABEL ).snapshot().count() );
+        assertEquals( 0, tracer.waitTimes( ResourceTypes.SCHEMA ).snapshot().count() );
+    }
+
+    @Test
+    public void shouldListMostContendedResourcesFirst() throws Exception
+    {
+        // When
+        waitFor( NODE, 1, 1 );
+        waitFor( NODE, 2, 3 );
+        waitFor( LABEL, 2, 2 );
+
+        // Then
+        List<ContendedResource> resources = tracer.mostContendedResources();
+        assertEquals( 3, resources.size() );
+        assertResource( resources.get( 0 ), NODE, 2, 3, 0 );
+        assertResource( resources.get( 1 ), LABEL, 2, 2, 0 );
+        assertResource( resources.get( 2 ), NODE, 1, 1, 0 );
+    }
+
+    @Test
+    public void shouldKeepTrackOfMostContendedResourcesWhenThereAreMoreThanItHasRoomFor() throws Exception
+    {
+        // Given
+        int resources = DefaultLockTracer.CONTENDED_RESOURCES_TRACKED * 10;
+
+        // When
+        for ( int i = 0; i < 100; i++ )
+        {
+            waitFor( NODE, 42, 1 );
+            for ( int j = 0; j < 10; j++ )
+            {
+                waitFor( NODE, (i * 10 + j) % resources + 1000, 1 );
+            }
+        }
+
+        // Then
+        List<ContendedResource> tracked = tracer.mostContendedResources();
+        assertEquals( DefaultLockTracer.CONTENDED_RESOURCES_TRACKED, tracked.size() );
+        ContendedResource hottest = tracked.get( 0 );
+        assertEquals( 42, hottest.resourceId() );
+        assertTrue( hottest.waits() >= 100 );
+        assertTrue( hottest.waits() - hottest.overestimate() <= 100 );
+    }
+
+    private void waitFor( ResourceType type, long resourceId, int times )
+    {
+        for ( int i = 0; i < times; i++ )
+        {
+            tracer.waitForLock( true, type, resourceId ).close();
+        }
+    }
+
+    private static void assertResource( ContendedResource resource, ResourceType type, long resourceId, long waits,
+            long overestimate )
+    {
+        assertEquals( type, resource.resourceType() );
+        assertEquals( resourceId, resource.resourceId() );
+        assertEquals( waits, resource.waits() );
+        assertEquals( overestimate, resource.overestimate() );
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.locking;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.concurrent.Future;
+
+import org.neo4j.test.rule.concurrent.OtherThreadRule;
+
+import static org.neo4j.kernel.impl.locking.ResourceTypes.INDEX_ENTRY;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.LABEL;
+
+@Ignore("Not a test. This is a compatibility suite, run from LockingCompatibilityTestSuite.")
+public class HierarchicalLocksCompatibility extends LockingCompatibilityTestSuite.Compatibility
+{
+    public HierarchicalLocksCompatibility( LockingCompatibilityTestSuite suite )
+    {
+        super( suite );
+    }
+
+    @Test
+    public void exclusiveLocksOnDifferentResourcesWithinTheSameParentShouldNotConflict() throws Exception
+    {
+        // When
+        clientA.acquireExclusiveWithin( LockTracer.NONE, LABEL, 1L, INDEX_ENTRY, 1L );
+
+        // Then
+        acquireExclusiveWithin( threadB, clientB, 1L, 2L ).callAndAssertNotWaiting();
+    }
+
+    @Test
+    public void exclusiveLocksOnTheSameResourceWithinAParentShouldConflict() throws Exception
+    {
+        // Given
+        clientA.acquireExclusiveWithin( LockTracer.NONE, LABEL, 1L, INDEX_ENTRY, 1L );
+
+        // When
+        Future<Object> clientBLock = acquireExclusiveWithin( threadB, clientB, 1L, 1L ).callAndAssertWaiting();
+        clientA.releaseExclusiveWithin( LABEL, 1L, INDEX_ENTRY, 1L );
+
+        // Then
+        assertNotWaiting( clientB, clientBLock );
+    }
+
+    @Test
+    public void sharedLocksOnTheSameResourceWithinAParentShouldNotConflict() throws Exception
+    {
+        // When
+        clientA.acquireSharedWithin( LockTracer.NONE, LABEL, 1L, INDEX_ENTRY, 1L );
+
+        // Then
+        acquireSharedWithin( threadB, clientB, 1L, 1L ).callAndAssertNotWaiting();
+    }
+
+    @Test
+    public void locksWithinOtherParentsShouldNotWaitForExclusiveLockOnParent() throws Exception
+    {
+        // When
+        clientA.acquireExclusive( LockTracer.NONE, LABEL, 1L );
+
+        // Then
+        acquireExclusiveWithin( threadB, clientB, 2L, 1L ).callAndAssertNotWaiting();
+    }
+
+    private LockCommand acquireSharedWithin( OtherThreadRule<Void> thread, Locks.Client client, long labelId,
+            long indexEntryId )
+    {
+        return new LockCommand( thread, client )
+        {
+            @Override
+            void doWork( Locks.Client client )
+            {
+                client.acquireSharedWithin( LockTracer.NONE, LABEL, labelId, INDEX_ENTRY, indexEntryId );
+            }
+        };
+    }
+
+    private LockCommand acquireExclusiveWithin( OtherThreadRule<Void> thread, Locks.Client client, long labelId,
+            long indexEntryId )
+    {
+        return new LockCommand( thread, client )
+        {
+            @Override
+            void doWork( Locks.Client client )
+            {
+                client.acquireExclusiveWithin( LockTracer.NONE, LABEL, labelId, INDEX_ENTRY, indexEntryId );
+            }
+        };
+    }
+}
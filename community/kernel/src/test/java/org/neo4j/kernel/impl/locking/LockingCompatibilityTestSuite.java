@@ -61,6 +61,7 @@ import static org.neo4j.test.rule.concurrent.OtherThreadRule.isWaiting;
         AcquisitionTimeoutCompatibility.class,
         TracerCompatibility.class,
         ActiveLocksListingCompatibility.class,
+        HierarchicalLocksCompatibility.class,
 })
 public abstract class LockingCompatibilityTestSuite
 {
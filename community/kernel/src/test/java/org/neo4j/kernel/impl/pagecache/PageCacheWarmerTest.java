@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.logging.NullLog;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.test.rule.PageCacheRule.config;
+
+public class PageCacheWarmerTest
+{
+    @Rule
+    public EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+    @Rule
+    public PageCacheRule pageCacheRule = new PageCacheRule( config().withInconsistentReads( false ) );
+
+    private final Neo4jJobScheduler scheduler = new Neo4jJobScheduler();
+    private FileSystemAbstraction fs;
+    private File storeDir;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        scheduler.init();
+        fs = fsRule.get();
+        storeDir = new File( "store" ).getCanonicalFile();
+        fs.mkdirs( storeDir );
+        file = new File( storeDir, "a" );
+    }
+
+    @After
+    public void tearDown()
+    {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void reheatMustLoadNothingWithoutProfile() throws Exception
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize(), CREATE ) )
+        {
+            writePages( pagedFile, 10 );
+            assertEquals( 0, warmer( pageCache, new DefaultPageCacheTracer() ).reheat() );
+        }
+    }
+
+    @Test
+    public void reheatMustLoadProfiledPages() throws Exception
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize(), CREATE ) )
+        {
+            writePages( pagedFile, 10 );
+        }
+
+        // Only touch a couple of pages in a fresh cache, and profile that.
+        pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            readPage( pagedFile, 2 );
+            readPage( pagedFile, 7 );
+            warmer( pageCache, new DefaultPageCacheTracer() ).profile();
+        }
+        assertTrue( fs.fileExists( new File( new File( storeDir, PageCacheWarmer.PROFILE_DIRECTORY ),
+                "a" + PageCacheWarmer.SUFFIX_CACHEPROF ) ) );
+
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        pageCache = pageCacheRule.getPageCache( fs, config().withTracer( tracer ) );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            assertEquals( 2, warmer( pageCache, tracer ).reheat() );
+            assertEquals( 2, tracer.warmedUpPages() );
+            assertEquals( 2, tracer.faults() );
+
+            // The warmed up pages are now in memory, so reading them must not cause any more page faults.
+            readPage( pagedFile, 2 );
+            readPage( pagedFile, 7 );
+            assertEquals( 2, tracer.faults() );
+        }
+    }
+
+    @Test
+    public void profilingMustNotFaultInPages() throws Exception
+    {
+        PageCache pageCache = pageCacheRule.getPageCache( fs );
+        try ( PagedFile pagedFile = pageCache.map( file, pageCache.pageSize(), CREATE ) )
+        {
+            writePages( pagedFile, 10 );
+        }
+
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        pageCache = pageCacheRule.getPageCache( fs, config().withTracer( tracer ) );
+        try ( PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            warmer( pageCache, tracer ).profile();
+            assertEquals( 0, tracer.faults() );
+        }
+    }
+
+    private PageCacheWarmer warmer( PageCache pageCache, DefaultPageCacheTracer tracer )
+    {
+        return new PageCacheWarmer( fs, pageCache, scheduler, storeDir, tracer, NullLog.getInstance(), 60_000, 2 );
+    }
+
+    private static void writePages( PagedFile pagedFile, int pageCount ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < pageCount; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    private static void readPage( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+        }
+    }
+}
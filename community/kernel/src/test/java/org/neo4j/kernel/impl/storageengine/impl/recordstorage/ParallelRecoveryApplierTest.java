@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.neo4j.kernel.impl.api.BatchTransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionApplier;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.storageengine.api.CommandsToApply;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.kernel.impl.transaction.command.Commands.createLabelToken;
+import static org.neo4j.kernel.impl.transaction.command.Commands.createNode;
+import static org.neo4j.kernel.impl.transaction.command.Commands.createRelationship;
+import static org.neo4j.kernel.impl.transaction.command.Commands.transactionRepresentation;
+
+public class ParallelRecoveryApplierTest
+{
+    @Rule
+    public final LifeRule life = new LifeRule( true );
+    private final ParallelRecoveryApplier applier =
+            new ParallelRecoveryApplier( 4, life.add( new Neo4jJobScheduler() ) );
+
+    @Test
+    public void shouldApplyOrderedChangesInCommitOrder() throws Exception
+    {
+        // given
+        List<TransactionToApply> transactions = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            transactions.add( transaction( createNode( i ) ) );
+        }
+        RecordingApplier store = new RecordingApplier();
+        RecordingApplier ordered = new RecordingApplier();
+
+        // when
+        applier.apply( chain( transactions ), store, ordered );
+
+        // then
+        assertEquals( transactions, new ArrayList<>( ordered.applied ) );
+        assertThat( store.applied, containsInAnyOrder( transactions.toArray() ) );
+    }
+
+    @Test
+    public void shouldApplyConflictingStoreChangesInCommitOrder() throws Exception
+    {
+        // given
+        TransactionToApply first = transaction( createNode( 1 ) );
+        TransactionToApply second = transaction( createRelationship( 10, 1, 2, 0 ), createNode( 1 ) );
+        RecordingApplier store = new RecordingApplier()
+        {
+            @Override
+            void applying( CommandsToApply transaction ) throws InterruptedException
+            {
+                if ( transaction == first )
+                {
+                    // give the second transaction a chance to overtake the first one, if it was allowed to
+                    Thread.sleep( 100 );
+                }
+            }
+        };
+
+        // when
+        applier.apply( chain( first, second ), store, new RecordingApplier() );
+
+        // then
+        assertEquals( 2, store.applied.size() );
+        assertSame( first, store.applied.poll() );
+        assertSame( second, store.applied.poll() );
+    }
+
+    @Test
+    public void shouldApplyTransactionsWithoutRecordKeysOnTheirOwn() throws Exception
+    {
+        // given
+        TransactionToApply before = transaction( createNode( 1 ) );
+        TransactionToApply token = transaction( createLabelToken( 1, 2 ) );
+        TransactionToApply after = transaction( createNode( 2 ) );
+        Queue<CommandsToApply> events = new ConcurrentLinkedQueue<>();
+        RecordingApplier store = new RecordingApplier( events );
+        RecordingApplier ordered = new RecordingApplier( events );
+
+        // when
+        applier.apply( chain( before, token, after ), store, ordered );
+
+        // then
+        List<CommandsToApply> applied = new ArrayList<>( events );
+        assertEquals( 6, applied.size() );
+        assertTrue( applied.indexOf( token ) > applied.lastIndexOf( before ) );
+        assertTrue( applied.lastIndexOf( token ) < applied.indexOf( after ) );
+    }
+
+    @Test
+    public void shouldPropagateStoreApplicationFailure() throws Exception
+    {
+        // given
+        IOException failure = new IOException( "Failed to write record" );
+        RecordingApplier store = new RecordingApplier()
+        {
+            @Override
+            void applying( CommandsToApply transaction ) throws IOException
+            {
+                throw failure;
+            }
+        };
+        RecordingApplier ordered = new RecordingApplier();
+
+        // when
+        try
+        {
+            applier.apply( chain( transaction( createNode( 1 ) ), transaction( createNode( 2 ) ) ), store, ordered );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertSame( failure, e );
+        }
+        assertTrue( ordered.applied.isEmpty() );
+    }
+
+    private static TransactionToApply transaction( Command... commands )
+    {
+        return new TransactionToApply( transactionRepresentation( commands ) );
+    }
+
+    private static TransactionToApply chain( TransactionToApply... transactions )
+    {
+        for ( int i = 1; i < transactions.length; i++ )
+        {
+            transactions[i - 1].next( transactions[i] );
+        }
+        return transactions[0];
+    }
+
+    private static TransactionToApply chain( List<TransactionToApply> transactions )
+    {
+        return chain( transactions.toArray( new TransactionToApply[transactions.size()] ) );
+    }
+
+    private static class RecordingApplier extends BatchTransactionApplier.Adapter
+    {
+        final Queue<CommandsToApply> applied;
+
+        RecordingApplier()
+        {
+            this( new ConcurrentLinkedQueue<>() );
+        }
+
+        RecordingApplier( Queue<CommandsToApply> applied )
+        {
+            this.applied = applied;
+        }
+
+        void applying( CommandsToApply transaction ) throws Exception
+        {
+        }
+
+        @Override
+        public TransactionApplier startTx( CommandsToApply transaction ) throws IOException
+        {
+            try
+            {
+                applying( transaction );
+            }
+            catch ( IOException e )
+            {
+                throw e;
+            }
+            catch ( Exception e )
+            {
+                throw new IOException( e );
+            }
+            applied.add( transaction );
+            return new TransactionApplier.Adapter();
+        }
+    }
+}
@@ -216,6 +216,8 @@ public class NodeStoreTest
         assertTrue( store.isInUse( exists ) );
         assertFalse( store.isInUse( deleted ) );
         assertFalse( store.isInUse( nodeStore.recordFormat.getMaxId() ) );
+        assertTrue( store.isInUseDuringScan( exists ) );
+        assertFalse( store.isInUseDuringScan( deleted ) );
     }
 
     @Test
@@ -26,13 +26,18 @@ import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
@@ -402,4 +407,35 @@ public class FreeIdKeeperTest
         // we should have no ids to return
         assertEquals( NO_RESULT, keeper.getId() );
     }
+
+    @Test
+    public void shouldNotHoldMonitorWhileReadingIdBatch() throws Exception
+    {
+        // given
+        StoreChannel channel = spy( fs.get().open( new File( "id.file" ), "rw" ) );
+
+        int threshold = 10;
+        FreeIdKeeper keeper = new FreeIdKeeper( channel, threshold, true );
+        for ( long i = 0; i < threshold * 2; i++ )
+        {
+            keeper.freeId( i );
+        }
+        AtomicBoolean readWhileHoldingMonitor = new AtomicBoolean();
+        doAnswer( invocation ->
+        {
+            readWhileHoldingMonitor.compareAndSet( false, Thread.holdsLock( keeper ) );
+            return invocation.callRealMethod();
+        } ).when( channel ).read( any( ByteBuffer.class ) );
+
+        // when
+        // all ids are read back from disk
+        for ( int i = 0; i < threshold * 2; i++ )
+        {
+            assertNotEquals( NO_RESULT, keeper.getId() );
+        }
+
+        // then
+        verify( channel, atLeastOnce() ).read( any( ByteBuffer.class ) );
+        assertFalse( readWhileHoldingMonitor.get() );
+    }
 }
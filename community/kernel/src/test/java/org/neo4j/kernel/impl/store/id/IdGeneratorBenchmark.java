@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.id;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.rule.TestDirectory;
+
+/**
+ * Measures how many ids {@link IdGeneratorImpl} hands out, and how many nodes a database creates, per second from
+ * many threads at once. Every thread runs its loop for {@code seconds} seconds, 10 by default, for each of the thread
+ * counts in {@code threads}, "1,8,64" by default. When allocating ids directly, every thread frees every other id it
+ * gets, so that allocations alternate between the free id list and the high id. When creating nodes, every
+ * transaction creates {@code nodesPerTx} nodes, 10 by default.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class IdGeneratorBenchmark
+{
+    private static final long SECONDS = Long.getLong( "seconds", 10 );
+    private static final String THREADS = System.getProperty( "threads", "1,8,64" );
+    private static final int NODES_PER_TX = Integer.getInteger( "nodesPerTx", 10 );
+
+    @Rule
+    public final TestDirectory directory = TestDirectory.testDirectory();
+
+    @Test
+    public void allocateAndFreeIds() throws Exception
+    {
+        File file = directory.file( "ids" );
+        try ( DefaultFileSystemAbstraction fs = new DefaultFileSystemAbstraction() )
+        {
+            IdGeneratorImpl.createGenerator( fs, file, 0, false );
+            IdGeneratorImpl idGenerator = new IdGeneratorImpl( fs, file, 1024, Long.MAX_VALUE, true, 0 );
+            try
+            {
+                for ( String threads : THREADS.split( "," ) )
+                {
+                    int threadCount = Integer.parseInt( threads.trim() );
+                    long ids = measure( threadCount, count ->
+                    {
+                        long id = idGenerator.nextId();
+                        if ( (id & 1) == 0 )
+                        {
+                            idGenerator.freeId( id );
+                        }
+                    } );
+                    System.out.printf( "%,6d threads: %,d ids/s%n", threadCount, ids / SECONDS );
+                }
+            }
+            finally
+            {
+                idGenerator.close();
+            }
+        }
+    }
+
+    @Test
+    public void createNodes() throws InterruptedException
+    {
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabase( directory.graphDbDir() );
+        try
+        {
+            for ( String threads : THREADS.split( "," ) )
+            {
+                int threadCount = Integer.parseInt( threads.trim() );
+                long transactions = measure( threadCount, count ->
+                {
+                    try ( Transaction tx = db.beginTx() )
+                    {
+                        for ( int i = 0; i < NODES_PER_TX; i++ )
+                        {
+                            db.createNode();
+                        }
+                        tx.success();
+                    }
+                } );
+                System.out.printf( "%,6d threads: %,d nodes/s%n", threadCount,
+                        transactions * NODES_PER_TX / SECONDS );
+            }
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private long measure( int threadCount, Consumer<Long> operation ) throws InterruptedException
+    {
+        AtomicBoolean end = new AtomicBoolean();
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch( 1 );
+        List<Thread> threads = new ArrayList<>();
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            Thread thread = new Thread( () ->
+            {
+                awaitStart( start );
+                long count = 0;
+                while ( !end.get() )
+                {
+                    operation.accept( count );
+                    count++;
+                }
+                operations.add( count );
+            } );
+            thread.start();
+            threads.add( thread );
+        }
+
+        start.countDown();
+        Thread.sleep( TimeUnit.SECONDS.toMillis( SECONDS ) );
+        end.set( true );
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        return operations.sum();
+    }
+
+    private static void awaitStart( CountDownLatch start )
+    {
+        try
+        {
+            start.await();
+        }
+        catch ( InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+}
@@ -24,6 +24,15 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -39,6 +48,7 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.neo4j.test.ProcessTestUtil.executeSubProcess;
 
@@ -248,6 +258,78 @@ public class IdGeneratorImplTest
         assertEquals( 30, idGenerator.nextId() );
     }
 
+    @Test
+    public void shouldNeverHandOutTheSameIdTwiceToConcurrentAllocators() throws Exception
+    {
+        // GIVEN
+        int threads = 8;
+        int rounds = 20_000;
+        IdGeneratorImpl.createGenerator( fsr.get(), file, 0, false );
+        IdGeneratorImpl idGenerator = new IdGeneratorImpl( fsr.get(), file, 16, Long.MAX_VALUE, true, 0 );
+        Set<Long> inUse = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        CountDownLatch start = new CountDownLatch( 1 );
+
+        // WHEN
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    List<Long> owned = new ArrayList<>();
+                    start.await();
+                    for ( int i = 0; i < rounds; i++ )
+                    {
+                        if ( random.nextInt( 10 ) == 0 )
+                        {
+                            IdRange range = idGenerator.nextIdBatch( 4 );
+                            for ( long id : range.getDefragIds() )
+                            {
+                                assertTrue( "Duplicate id " + id, inUse.add( id ) );
+                                owned.add( id );
+                            }
+                            for ( long id = range.getRangeStart();
+                                  id < range.getRangeStart() + range.getRangeLength(); id++ )
+                            {
+                                assertTrue( "Duplicate id " + id, inUse.add( id ) );
+                                owned.add( id );
+                            }
+                        }
+                        else
+                        {
+                            long id = idGenerator.nextId();
+                            assertTrue( "Duplicate id " + id, inUse.add( id ) );
+                            owned.add( id );
+                        }
+                        if ( !owned.isEmpty() && random.nextBoolean() )
+                        {
+                            long id = owned.remove( random.nextInt( owned.size() ) );
+                            inUse.remove( id );
+                            idGenerator.freeId( id );
+                        }
+                    }
+                    return null;
+                } ) );
+            }
+            start.countDown();
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // THEN
+        assertEquals( inUse.size(), idGenerator.getNumberOfIdsInUse() );
+        idGenerator.close();
+    }
+
     public static void main( String[] args ) throws IOException
     {
         // Leave it opened
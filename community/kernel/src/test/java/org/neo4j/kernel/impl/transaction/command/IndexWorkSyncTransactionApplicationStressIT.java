@@ -42,6 +42,7 @@ import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.inmemory.InMemoryIndexProvider;
 import org.neo4j.kernel.impl.api.index.inmemory.InMemoryIndexProviderFactory;
 import org.neo4j.kernel.impl.api.state.TxState;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngine;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.NodeStore;
@@ -196,7 +197,7 @@ public class IndexWorkSyncTransactionApplicationStressIT
             Collection<StorageCommand> commands = new ArrayList<>();
             try ( StorageStatement statement = storageEngine.storeReadLayer().newStatement() )
             {
-                storageEngine.createCommands( commands, txState, statement, null, 0 );
+                storageEngine.createCommands( commands, txState, statement, null, LockTracer.NONE, 0 );
             }
             return tx( commands );
         }
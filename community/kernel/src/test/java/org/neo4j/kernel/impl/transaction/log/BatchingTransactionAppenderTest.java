@@ -29,7 +29,10 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.neo4j.io.ByteUnit;
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
@@ -45,6 +48,7 @@ import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
 import org.neo4j.kernel.internal.DatabaseHealth;
 import org.neo4j.kernel.lifecycle.LifeRule;
 import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.Race;
 import org.neo4j.test.rule.CleanupRule;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -69,6 +73,7 @@ import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
 import static org.neo4j.kernel.impl.util.IdOrderingQueue.BYPASS;
+import static org.neo4j.test.Race.throwing;
 
 public class BatchingTransactionAppenderTest
 {
@@ -142,6 +147,63 @@ public class BatchingTransactionAppenderTest
         assertNull( tx.next() );
     }
 
+    @Test
+    public void shouldAppendTransactionsOfConcurrentCommittersInTransactionIdOrder() throws Throwable
+    {
+        // GIVEN
+        InMemoryVersionableReadableClosablePositionAwareChannel channel =
+                new InMemoryVersionableReadableClosablePositionAwareChannel( (int) ByteUnit.mebiBytes( 1 ) );
+        when( logFile.getWriter() ).thenReturn( channel );
+        AtomicLong nextTransactionId = new AtomicLong( 2 );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenAnswer(
+                invocation -> nextTransactionId.getAndIncrement() );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFile, NO_ROTATION, positionCache,
+                transactionIdStore, BYPASS, databaseHealth ) );
+        int committers = 10;
+        int transactionsPerCommitter = 100;
+
+        // WHEN
+        Race race = new Race();
+        for ( int i = 0; i < committers; i++ )
+        {
+            int committer = i;
+            race.addContestant( throwing( () ->
+            {
+                for ( int j = 0; j < transactionsPerCommitter; j++ )
+                {
+                    long nodeId = committer * transactionsPerCommitter + j;
+                    TransactionToApply tx = batchOf(
+                            transaction( singleCreateNodeCommand( nodeId ), new byte[0], 0, 0, 0, 1, nodeId ) );
+                    long transactionId = appender.append( tx, logAppendEvent );
+                    assertEquals( transactionId, tx.transactionId() );
+                }
+            } ) );
+        }
+        race.go();
+
+        // THEN
+        LogEntryReader<ReadableLogChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+        try ( PhysicalTransactionCursor<ReadableLogChannel> reader =
+                      new PhysicalTransactionCursor<>( channel, logEntryReader ) )
+        {
+            long expectedTransactionId = 2;
+            while ( reader.next() )
+            {
+                CommittedTransactionRepresentation tx = reader.get();
+                assertEquals( expectedTransactionId++, tx.getCommitEntry().getTxId() );
+                List<StorageCommand> commands = new ArrayList<>();
+                tx.getTransactionRepresentation().accept( command ->
+                {
+                    commands.add( command );
+                    return false;
+                } );
+                assertEquals( 1, commands.size() );
+                assertEquals( tx.getCommitEntry().getTimeWritten(), ((NodeCommand) commands.get( 0 )).getKey() );
+            }
+            assertEquals( 2 + committers * transactionsPerCommitter, expectedTransactionId );
+        }
+    }
+
     @Test
     public void shouldAppendCommittedTransactions() throws Exception
     {
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.configuration.Settings;
+import org.neo4j.kernel.impl.storemigration.LogFiles;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.neo4j.kernel.impl.transaction.log.TransactionIdStore.BASE_TX_ID;
+
+/**
+ * Measures the throughput of streaming all transactions of a database out of its transaction logs, the way they are
+ * streamed to a cluster member catching up or to a backup, with {@link LogicalTransactionStore#getTransactions(long)}
+ * and with {@link LogicalTransactionStore#streamTransactions(long)}. Every transaction is serialized again, as it
+ * would be when sent over the network.
+ * <p>
+ * The logs are generated first, by committing transactions that each create a few nodes with properties, until the
+ * logs have reached the size given by the {@code size} system property, 1 GB by default. Transactions are only read
+ * ahead on a separate thread on machines with more than one processor.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class LogStreamingBenchmark
+{
+    private static final long LOG_SIZE = Settings.parseLongWithUnit( System.getProperty( "size", "1G" ) );
+    private static final int NODES_PER_TRANSACTION = 20;
+    private static final int ROUNDS = 3;
+    private static final Label LABEL = Label.label( "Label" );
+
+    @Rule
+    public final TestDirectory directory = TestDirectory.testDirectory();
+    @Rule
+    public final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+
+    @Test
+    public void streamTransactionLogs() throws IOException
+    {
+        File storeDir = directory.graphDbDir();
+        GraphDatabaseAPI db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newEmbeddedDatabaseBuilder( storeDir )
+                .setConfig( GraphDatabaseSettings.keep_logical_logs, Settings.TRUE )
+                .newGraphDatabase();
+        try
+        {
+            long transactions = generateTransactionLogs( db, storeDir );
+            long bytes = logSize( storeDir );
+            System.out.printf( "generated %,d transactions, %,d bytes of logs%n", transactions, bytes );
+
+            LogicalTransactionStore store = db.getDependencyResolver().resolveDependency( LogicalTransactionStore.class );
+            for ( int round = 0; round < ROUNDS; round++ )
+            {
+                long plain = measureStreamingMillis( store.getTransactions( BASE_TX_ID + 1 ), transactions );
+                long streamed = measureStreamingMillis( store.streamTransactions( BASE_TX_ID + 1 ), transactions );
+                System.out.printf( "getTransactions:    %,d ms, %,d MB/s%n", plain, throughput( bytes, plain ) );
+                System.out.printf( "streamTransactions: %,d ms, %,d MB/s%n", streamed, throughput( bytes, streamed ) );
+            }
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private long generateTransactionLogs( GraphDatabaseService db, File storeDir )
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long transactions = 0;
+        while ( transactions % 1_000 != 0 || logSize( storeDir ) < LOG_SIZE )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < NODES_PER_TRANSACTION; i++ )
+                {
+                    Node node = db.createNode( LABEL );
+                    node.setProperty( "id", random.nextLong() );
+                    node.setProperty( "name", "node-" + transactions + "-" + i );
+                }
+                tx.success();
+            }
+            transactions++;
+        }
+        return transactions;
+    }
+
+    private long measureStreamingMillis( TransactionCursor cursor, long expectedTransactions ) throws IOException
+    {
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 1024 * 1024 );
+        TransactionLogWriter writer = new TransactionLogWriter( new LogEntryWriter( channel ) );
+        long start = System.currentTimeMillis();
+        long count = 0;
+        try ( TransactionCursor transactions = cursor )
+        {
+            while ( transactions.next() )
+            {
+                CommittedTransactionRepresentation tx = transactions.get();
+                channel.positionWriter( 0 );
+                writer.append( tx.getTransactionRepresentation(), tx.getCommitEntry().getTxId() );
+                count++;
+            }
+        }
+        long millis = System.currentTimeMillis() - start;
+        if ( count < expectedTransactions )
+        {
+            throw new IllegalStateException( "Streamed only " + count + " of " + expectedTransactions + " transactions" );
+        }
+        return millis;
+    }
+
+    private static long throughput( long bytes, long millis )
+    {
+        return bytes * 1000 / Math.max( 1, millis ) / (1024 * 1024);
+    }
+
+    private long logSize( File storeDir )
+    {
+        FileSystemAbstraction fs = fileSystemRule.get();
+        long size = 0;
+        for ( File logFile : fs.listFiles( storeDir, LogFiles.FILENAME_FILTER ) )
+        {
+            size += fs.getFileSize( logFile );
+        }
+        return size;
+    }
+}
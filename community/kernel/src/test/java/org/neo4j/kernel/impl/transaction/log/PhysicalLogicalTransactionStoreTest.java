@@ -53,6 +53,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.transaction.log.PhysicalLogFile.DEFAULT_NAME;
@@ -296,7 +297,7 @@ public class PhysicalLogicalTransactionStoreTest
         // GIVEN
         LogFile logFile = mock( LogFile.class );
         // a missing file
-        when( logFile.getReader( any( LogPosition.class) ) ).thenThrow( new FileNotFoundException() );
+        when( logFile.getReader( any( LogPosition.class ), anyInt() ) ).thenThrow( new FileNotFoundException() );
         // Which is nevertheless in the metadata cache
         TransactionMetadataCache cache = new TransactionMetadataCache( 10 );
         cache.cacheTransactionMetadata( 10, new LogPosition( 2, 130 ), 1, 1, 100, System.currentTimeMillis() );
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.OnePhaseCommit;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+public class PrefetchingTransactionCursorTest
+{
+    private final JobScheduler scheduler = spy( new Neo4jJobScheduler() );
+
+    @Before
+    public void startScheduler() throws Throwable
+    {
+        scheduler.init();
+    }
+
+    @After
+    public void stopScheduler() throws Throwable
+    {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void shouldReturnAllTransactionsInOrder() throws Exception
+    {
+        // given
+        FakeTransactionCursor source = new FakeTransactionCursor( 1_000, -1 );
+
+        // when
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( source, scheduler, 16 ) )
+        {
+            // then
+            for ( long txId = 1; txId <= 1_000; txId++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( txId, cursor.get().getCommitEntry().getTxId() );
+                assertEquals( new LogPosition( 0, txId * 100 ), cursor.position() );
+            }
+            assertFalse( cursor.next() );
+            assertFalse( cursor.next() );
+            assertEquals( new LogPosition( 0, 100_000 ), cursor.position() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    public void shouldRethrowFailureOfPrefetcherAfterTransactionsBeforeIt() throws Exception
+    {
+        // given
+        FakeTransactionCursor source = new FakeTransactionCursor( 10, 5 );
+
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( source, scheduler, 16 ) )
+        {
+            for ( long txId = 1; txId < 5; txId++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( txId, cursor.get().getCommitEntry().getTxId() );
+            }
+
+            // when
+            try
+            {
+                cursor.next();
+                fail( "Should have failed" );
+            }
+            catch ( IOException e )
+            {
+                // then
+                assertSame( source.failure, e );
+            }
+            assertFalse( cursor.next() );
+        }
+    }
+
+    @Test
+    public void shouldNotScheduleReadingAheadForShortStreams() throws Exception
+    {
+        // given
+        FakeTransactionCursor source = new FakeTransactionCursor( 10, -1 );
+
+        // when
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( source, scheduler, 16 ) )
+        {
+            for ( long txId = 1; txId <= 10; txId++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( txId, cursor.get().getCommitEntry().getTxId() );
+            }
+            assertFalse( cursor.next() );
+        }
+
+        // then
+        verify( scheduler, never() ).schedule( any( JobScheduler.Group.class ), any( Runnable.class ) );
+        assertTrue( source.closed );
+    }
+
+    @Test( timeout = 10_000 )
+    public void shouldCloseSourceWhilePrefetcherWaitsForConsumer() throws Exception
+    {
+        // given
+        FakeTransactionCursor source = new FakeTransactionCursor( Long.MAX_VALUE, -1 );
+        PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( source, scheduler, 4 );
+        assertTrue( cursor.next() );
+        source.read.await();
+
+        // when
+        cursor.close();
+
+        // then
+        assertTrue( source.closed );
+    }
+
+    @Test( timeout = 10_000 )
+    public void shouldEndTheStreamWithAFailureWhenThePrefetcherIsInterrupted() throws Exception
+    {
+        // given
+        FakeTransactionCursor source = new FakeTransactionCursor( Long.MAX_VALUE, -1 );
+        try ( PrefetchingTransactionCursor cursor = new PrefetchingTransactionCursor( source, scheduler, 4 ) )
+        {
+            assertTrue( cursor.next() );
+            source.read.await();
+
+            // when
+            source.lastReader.interrupt();
+
+            // then
+            try
+            {
+                while ( cursor.next() )
+                {
+                    // drain what was prefetched before the interruption
+                }
+                fail( "Should have failed" );
+            }
+            catch ( InterruptedIOException e )
+            {
+                assertFalse( cursor.next() );
+            }
+        }
+    }
+
+    private static class FakeTransactionCursor implements TransactionCursor
+    {
+        private final long transactions;
+        private final long failAt;
+        private final IOException failure = new IOException( "Failed to read" );
+        private final CountDownLatch read = new CountDownLatch( 5 );
+        private long txId;
+        private volatile boolean closed;
+        private volatile Thread lastReader;
+
+        FakeTransactionCursor( long transactions, long failAt )
+        {
+            this.transactions = transactions;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Read from closed cursor" );
+            }
+            if ( txId == failAt - 1 )
+            {
+                throw failure;
+            }
+            lastReader = Thread.currentThread();
+            read.countDown();
+            return txId < transactions && ++txId > 0;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return new CommittedTransactionRepresentation( null, null, new OnePhaseCommit( txId, 0 ) );
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return new LogPosition( 0, txId * 100 );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
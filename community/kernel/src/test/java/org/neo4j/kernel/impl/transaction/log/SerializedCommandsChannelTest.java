@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.Test;
+
+import org.neo4j.io.ByteUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SerializedCommandsChannelTest
+{
+    @Test
+    public void shouldKeepSmallBufferWhenShrinking() throws Exception
+    {
+        // given
+        SerializedCommandsChannel channel = new SerializedCommandsChannel();
+        channel.put( new byte[1000], 1000 );
+        byte[] array = channel.array();
+
+        // when
+        channel.clear();
+        boolean shrunk = channel.shrink();
+
+        // then
+        assertFalse( shrunk );
+        assertSame( array, channel.array() );
+    }
+
+    @Test
+    public void shouldDropGrownBufferWhenShrinking() throws Exception
+    {
+        // given
+        SerializedCommandsChannel channel = new SerializedCommandsChannel();
+        int length = (int) ByteUnit.mebiBytes( 1 );
+        channel.put( new byte[length], length );
+        assertTrue( channel.capacity() >= length );
+
+        // when
+        channel.clear();
+        boolean shrunk = channel.shrink();
+
+        // then
+        assertTrue( shrunk );
+        assertTrue( channel.capacity() < length );
+        channel.putLong( 42 );
+        assertEquals( Long.BYTES, channel.position() );
+    }
+
+    @Test
+    public void shouldWriteRangeToOtherChannel() throws Exception
+    {
+        // given
+        SerializedCommandsChannel channel = new SerializedCommandsChannel();
+        channel.putLong( 1 ).putLong( 2 ).putLong( 3 );
+        InMemoryClosableChannel target = new InMemoryClosableChannel();
+
+        // when
+        channel.writeTo( target, 0, Long.BYTES );
+        channel.writeTo( target, Long.BYTES * 2, Long.BYTES * 3 );
+
+        // then
+        assertEquals( 1, target.getLong() );
+        assertEquals( 3, target.getLong() );
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.time.FakeClock;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BackgroundPageFlusherTest
+{
+    private final PageCache pageCache = mock( PageCache.class );
+    private final JobScheduler scheduler = mock( JobScheduler.class );
+    private final CheckPointTracer tracer = mock( CheckPointTracer.class );
+    private final FakeClock clock = new FakeClock();
+
+    private BackgroundPageFlusher flusher( boolean enabled ) throws Throwable
+    {
+        BackgroundPageFlusher flusher = new BackgroundPageFlusher( pageCache, IOLimiter.unlimited(), scheduler,
+                clock, tracer, NullLogProvider.getInstance(), enabled, TimeUnit.SECONDS.toMillis( 100 ),
+                TimeUnit.SECONDS.toMillis( 5 ) );
+        flusher.start();
+        return flusher;
+    }
+
+    private void checkPoint( BackgroundPageFlusher flusher, long dirtyPages, long flushSeconds )
+    {
+        when( pageCache.dirtyPageCount() ).thenReturn( dirtyPages );
+        flusher.checkPointFlushStarted();
+        clock.forward( flushSeconds, TimeUnit.SECONDS );
+        flusher.checkPointFlushCompleted();
+    }
+
+    @Test
+    public void shouldNotScheduleFlushingWhenDisabled() throws Throwable
+    {
+        flusher( false );
+
+        verify( scheduler, never() ).schedule(
+                any( JobScheduler.Group.class ), any( Runnable.class ), anyLong(), any( TimeUnit.class ) );
+    }
+
+    @Test
+    public void shouldNotWriteWhenDirtyPagesFitTargetFlushDuration() throws Throwable
+    {
+        BackgroundPageFlusher flusher = flusher( true );
+        // 100 pages per second, so 500 pages fit in the 5 second target
+        checkPoint( flusher, 1000, 10 );
+        when( pageCache.dirtyPageCount() ).thenReturn( 400L );
+
+        assertEquals( 0, flusher.flushIfNeeded() );
+        verify( pageCache, never() ).flushDirtyPages( any( IOLimiter.class ) );
+    }
+
+    @Test
+    public void shouldWriteExcessDirtyPagesAndReportProgress() throws Throwable
+    {
+        BackgroundPageFlusher flusher = flusher( true );
+        checkPoint( flusher, 1000, 10 );
+        when( pageCache.dirtyPageCount() ).thenReturn( 1500L );
+        when( pageCache.flushDirtyPages( any( IOLimiter.class ) ) ).thenReturn( 1200L );
+
+        assertEquals( 1200, flusher.flushIfNeeded() );
+        verify( tracer ).pagesFlushedInBackground( 1200 );
+    }
+
+    @Test
+    public void shouldPaceWritesTowardsNextCheckPoint() throws Throwable
+    {
+        BackgroundPageFlusher flusher = flusher( true );
+        checkPoint( flusher, 1000, 10 );
+        when( pageCache.dirtyPageCount() ).thenReturn( 1500L );
+
+        // 1000 excess pages, and 100 seconds until the next check point
+        assertEquals( 10.0, flusher.targetPagesPerSecond(), 0.001 );
+
+        // Only 10 seconds left
+        clock.forward( 90, TimeUnit.SECONDS );
+        assertEquals( 100.0, flusher.targetPagesPerSecond(), 0.001 );
+    }
+
+    @Test
+    public void shouldCancelScheduledFlushingOnStopAndNeverRescheduleAfterwards() throws Throwable
+    {
+        JobScheduler.JobHandle handle = mock( JobScheduler.JobHandle.class );
+        when( scheduler.schedule( any( JobScheduler.Group.class ), any( Runnable.class ), anyLong(),
+                any( TimeUnit.class ) ) ).thenReturn( handle );
+        BackgroundPageFlusher flusher = flusher( true );
+        ArgumentCaptor<Runnable> job = ArgumentCaptor.forClass( Runnable.class );
+        verify( scheduler ).schedule( any( JobScheduler.Group.class ), job.capture(), anyLong(),
+                any( TimeUnit.class ) );
+        when( pageCache.dirtyPageCount() ).thenReturn( 200L );
+
+        flusher.stop();
+        // The job was already running when it was cancelled
+        job.getValue().run();
+
+        verify( handle ).cancel( false );
+        verify( pageCache, never() ).flushDirtyPages( any( IOLimiter.class ) );
+        verify( scheduler, times( 1 ) ).schedule( any( JobScheduler.Group.class ), any( Runnable.class ),
+                anyLong(), any( TimeUnit.class ) );
+    }
+
+    @Test
+    public void shouldTreatAllDirtyPagesAsExcessBeforeFirstCheckPoint() throws Throwable
+    {
+        BackgroundPageFlusher flusher = flusher( true );
+        when( pageCache.dirtyPageCount() ).thenReturn( 200L );
+
+        assertEquals( 2.0, flusher.targetPagesPerSecond(), 0.001 );
+    }
+}
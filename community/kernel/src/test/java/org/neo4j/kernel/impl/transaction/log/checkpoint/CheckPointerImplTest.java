@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.log.checkpoint;
 
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import java.io.Flushable;
 import java.io.IOException;
@@ -53,6 +54,7 @@ import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_MOCKS;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -76,6 +78,7 @@ public class CheckPointerImplTest
     private final DatabaseHealth health = mock( DatabaseHealth.class );
     private final CheckPointTracer tracer = mock( CheckPointTracer.class, RETURNS_MOCKS );
     private IOLimiter limiter = mock( IOLimiter.class );
+    private final BackgroundPageFlusher backgroundFlusher = mock( BackgroundPageFlusher.class );
 
     private final long initialTransactionId = 2L;
     private final long transactionId = 42L;
@@ -126,6 +129,25 @@ public class CheckPointerImplTest
         verifyNoMoreInteractions( storageEngine, health, appender, threshold, tracer );
     }
 
+    @Test
+    public void shouldNotifyBackgroundFlusherAroundStoreFlush() throws Throwable
+    {
+        // Given
+        CheckPointerImpl checkPointing = checkPointer();
+        mockTxIdStore();
+
+        checkPointing.start();
+
+        // When
+        checkPointing.forceCheckPoint( INFO );
+
+        // Then
+        InOrder order = inOrder( backgroundFlusher, storageEngine );
+        order.verify( backgroundFlusher ).checkPointFlushStarted();
+        order.verify( storageEngine ).flushAndForce( limiter );
+        order.verify( backgroundFlusher ).checkPointFlushCompleted();
+    }
+
     @Test
     public void shouldForceCheckPointAlways() throws Throwable
     {
@@ -405,7 +427,7 @@ public class CheckPointerImplTest
     private CheckPointerImpl checkPointer( StoreCopyCheckPointMutex mutex )
     {
         return new CheckPointerImpl( txIdStore, threshold, storageEngine, logPruning, appender, health,
-                NullLogProvider.getInstance(), tracer, limiter, mutex );
+                NullLogProvider.getInstance(), tracer, limiter, mutex, backgroundFlusher );
     }
 
     private CheckPointerImpl checkPointer()
@@ -22,17 +22,24 @@ package org.neo4j.kernel.impl.transaction.log.entry;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+import org.neo4j.io.ByteUnit;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.transaction.command.Command;
 import org.neo4j.kernel.impl.transaction.command.NeoCommandType;
 import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
+import org.neo4j.kernel.impl.transaction.log.LogEntryCursor;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class VersionAwareLogEntryReaderTest
 {
@@ -123,6 +130,152 @@ public class VersionAwareLogEntryReaderTest
         assertEquals( checkPoint, logEntry );
     }
 
+    @Test
+    public void shouldReadTheCommandsOfACompressedCommandBlock() throws IOException
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        LogEntryWriter writer = new CompressingLogEntryWriter( channel );
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            commands.add( new Command.NodeCommand( new NodeRecord( i ), new NodeRecord( i ) ) );
+        }
+        writer.writeStartEntry( 1, 2, 3, 4, new byte[0] );
+        writer.serialize( commands );
+        writer.writeCommitEntry( 42, 21 );
+
+        // when
+        LogEntry start = logEntryReader.readLogEntry( channel );
+        LogEntryCommandBlock block = logEntryReader.readLogEntry( channel ).as();
+        List<StorageCommand> readCommands = new ArrayList<>();
+        for ( LogEntryCommand command : block.getCommands() )
+        {
+            readCommands.add( command.getXaCommand() );
+        }
+        LogEntry commit = logEntryReader.readLogEntry( channel );
+
+        // then
+        assertEquals( LogEntryVersion.V3_2, start.getVersion() );
+        assertEquals( commands, readCommands );
+        assertEquals( new OnePhaseCommit( LogEntryVersion.V3_2, 42, 21 ), commit );
+        assertNull( logEntryReader.readLogEntry( channel ) );
+    }
+
+    @Test
+    public void shouldReadTheCommandsOfALargeTransactionFromSeveralCommandBlocks() throws IOException
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel( (int) ByteUnit.mebiBytes( 16 ) );
+        LogEntryWriter writer = new CompressingLogEntryWriter( channel );
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < 50_000; i++ )
+        {
+            commands.add( new Command.NodeCommand( new NodeRecord( i ), new NodeRecord( i ) ) );
+        }
+        writer.writeStartEntry( 1, 2, 3, 4, new byte[0] );
+        writer.serialize( commands );
+        writer.writeCommitEntry( 42, 21 );
+
+        // when
+        int blocks = 0;
+        List<StorageCommand> readCommands = new ArrayList<>();
+        LogEntry entry;
+        while ( (entry = logEntryReader.readLogEntry( channel )) != null )
+        {
+            if ( entry instanceof LogEntryCommandBlock )
+            {
+                blocks++;
+            }
+        }
+        channel.positionReader( 0 );
+        try ( LogEntryCursor cursor = new LogEntryCursor( logEntryReader, channel ) )
+        {
+            while ( cursor.next() )
+            {
+                if ( cursor.get() instanceof LogEntryCommand )
+                {
+                    readCommands.add( cursor.get().<LogEntryCommand>as().getXaCommand() );
+                }
+            }
+        }
+
+        // then
+        assertTrue( "Expected several blocks, got " + blocks, blocks > 1 );
+        assertEquals( commands, readCommands );
+    }
+
+    @Test
+    public void shouldNotReadACommandBlockLargerThanTheMaximumBlockSize() throws IOException
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        channel.put( LogEntryVersion.V3_2.byteCode() );
+        channel.put( LogEntryByteCodes.COMMAND_BLOCK );
+        channel.putInt( CommandBlockChannel.MAX_BLOCK_SIZE + 1 ); // uncompressed length
+        channel.putInt( 100 ); // compressed length
+        channel.putInt( 0 ); // checksum
+
+        // when
+        try
+        {
+            logEntryReader.readLogEntry( channel );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // then good
+        }
+    }
+
+    @Test
+    public void shouldNotReadACommandBlockWithACompressedLengthItCouldNotHave() throws IOException
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        channel.put( LogEntryVersion.V3_2.byteCode() );
+        channel.put( LogEntryByteCodes.COMMAND_BLOCK );
+        channel.putInt( 100 ); // uncompressed length
+        channel.putInt( Integer.MAX_VALUE ); // compressed length
+        channel.putInt( 0 ); // checksum
+
+        // when
+        try
+        {
+            logEntryReader.readLogEntry( channel );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // then good
+        }
+    }
+
+    @Test
+    public void shouldNotReadACompressedCommandBlockWithTheWrongChecksum() throws IOException
+    {
+        // given
+        final InMemoryClosableChannel uncorrupted = new InMemoryClosableChannel();
+        new CompressingLogEntryWriter( uncorrupted ).serialize( Collections.singletonList(
+                new Command.NodeCommand( new NodeRecord( 11 ), new NodeRecord( 11 ) ) ) );
+        byte[] block = new byte[uncorrupted.writerPosition()];
+        uncorrupted.get( block, block.length );
+        block[2 + 4 + 4]++; // the checksum
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        channel.put( block, block.length );
+
+        // when
+        try
+        {
+            logEntryReader.readLogEntry( channel );
+            fail( "Should have failed" );
+        }
+        catch ( IOException e )
+        {
+            // then good
+        }
+    }
+
     @Test
     public void shouldReturnNullWhenThereIsNoCommand() throws IOException
     {
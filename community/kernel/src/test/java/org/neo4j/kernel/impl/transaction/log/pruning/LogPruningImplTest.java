@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.pruning;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.StoreCopyCheckPointMutex;
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.OnDemandJobScheduler;
+import org.neo4j.test.rule.concurrent.OtherThreadRule;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.neo4j.logging.AssertableLogProvider.inLog;
+
+public class LogPruningImplTest
+{
+    @Rule
+    public final OtherThreadRule<Void> t2 = new OtherThreadRule<>( "T2" );
+
+    private final LogPruneStrategy strategy = mock( LogPruneStrategy.class );
+    private final OnDemandJobScheduler scheduler = new OnDemandJobScheduler();
+    private final StoreCopyCheckPointMutex mutex = new StoreCopyCheckPointMutex();
+
+    @Test
+    public void shouldPruneInTheBackground() throws Exception
+    {
+        // given
+        LogPruningImpl pruning = new LogPruningImpl( strategy, NullLogProvider.getInstance(), scheduler, mutex );
+
+        // when
+        pruning.pruneLogs( 3 );
+
+        // then
+        verifyZeroInteractions( strategy );
+        scheduler.runJob();
+        verify( strategy ).prune( eq( 3L ), any() );
+    }
+
+    @Test
+    public void shouldCoalesceRequestsThatComeInBeforeThePruningRuns() throws Exception
+    {
+        // given
+        LogPruningImpl pruning = new LogPruningImpl( strategy, NullLogProvider.getInstance(), scheduler, mutex );
+
+        // when
+        pruning.pruneLogs( 3 );
+        pruning.pruneLogs( 5 );
+        pruning.pruneLogs( 4 );
+        scheduler.runJob();
+
+        // then
+        verify( strategy ).prune( eq( 5L ), any() );
+        verifyNoMoreInteractions( strategy );
+    }
+
+    @Test
+    public void shouldPruneAgainForRequestsThatComeInWhilePruning() throws Exception
+    {
+        // given
+        LogPruningImpl pruning = new LogPruningImpl( strategy, NullLogProvider.getInstance(), scheduler, mutex );
+        doAnswer( invocation ->
+        {
+            pruning.pruneLogs( 7 );
+            pruning.pruneLogs( 6 );
+            return null;
+        } ).when( strategy ).prune( eq( 5L ), any() );
+
+        // when
+        pruning.pruneLogs( 5 );
+        scheduler.runJob();
+
+        // then
+        InOrder inOrder = inOrder( strategy );
+        inOrder.verify( strategy ).prune( eq( 5L ), any() );
+        inOrder.verify( strategy ).prune( eq( 7L ), any() );
+        verifyNoMoreInteractions( strategy );
+        assertTrue( pruning.awaitPruned( 0, MILLISECONDS ) );
+    }
+
+    @Test
+    public void shouldWaitForAnOngoingStoreCopyBeforePruning() throws Exception
+    {
+        // given
+        LogPruningImpl pruning = new LogPruningImpl( strategy, NullLogProvider.getInstance(), scheduler, mutex );
+        AtomicInteger steps = new AtomicInteger();
+        doAnswer( invocation ->
+        {
+            Supplier<Resource> stepGuard = invocation.getArgumentAt( 1, Supplier.class );
+            try ( Resource step = stepGuard.get() )
+            {
+                steps.incrementAndGet();
+            }
+            return null;
+        } ).when( strategy ).prune( eq( 3L ), any() );
+        pruning.pruneLogs( 3 );
+
+        Future<Object> prune;
+        try ( Resource storeCopy = mutex.storeCopy( () -> {} ) )
+        {
+            // when
+            prune = t2.execute( state ->
+            {
+                scheduler.runJob();
+                return null;
+            } );
+
+            // then
+            t2.get().waitUntilWaiting( details -> details.isAt( StoreCopyCheckPointMutex.class, "checkPoint" ) );
+            assertEquals( 0, steps.get() );
+        }
+        assertNull( prune.get() );
+        assertEquals( 1, steps.get() );
+    }
+
+    @Test
+    public void shouldNotWaitForeverOnStopWhenThePruningNeverRuns() throws Throwable
+    {
+        // given
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+        LogPruningImpl pruning = new LogPruningImpl( strategy, logProvider, scheduler, mutex, 10 );
+        pruning.pruneLogs( 3 );
+
+        // when
+        pruning.stop();
+
+        // then
+        assertNull( scheduler.getJob() );
+        verifyZeroInteractions( strategy );
+        logProvider.assertAtLeastOnce( inLog( LogPruningImpl.class ).warn( "Log pruning did not complete within " +
+                                                                             "10 ms, and was cancelled" ) );
+        assertFalse( pruning.awaitPruned( 0, MILLISECONDS ) );
+    }
+}
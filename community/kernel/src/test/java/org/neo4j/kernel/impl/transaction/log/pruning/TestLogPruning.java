@@ -207,6 +207,8 @@ public class TestLogPruning
     {
         TriggerInfo triggerInfo = new SimpleTriggerInfo( "test" );
         db.getDependencyResolver().resolveDependency( CheckPointer.class ).forceCheckPoint( triggerInfo );
+        // Pruning happens in the background
+        db.getDependencyResolver().resolveDependency( LogPruningImpl.class ).awaitPruned();
     }
 
     private int figureOutSampleTransactionSizeBytes() throws IOException
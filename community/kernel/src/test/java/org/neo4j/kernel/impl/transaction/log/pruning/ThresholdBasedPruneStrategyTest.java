@@ -20,20 +20,29 @@
 package org.neo4j.kernel.impl.transaction.log.pruning;
 
 import org.junit.Test;
+import org.mockito.InOrder;
 import org.mockito.Matchers;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.function.Supplier;
 
+import org.neo4j.graphdb.Resource;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.impl.transaction.log.LogFileInformation;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogFiles;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.pruning.ThresholdBasedPruneStrategy.TRUNCATE_CHUNK_SIZE;
 
 public class ThresholdBasedPruneStrategyTest
 {
@@ -130,4 +139,196 @@ public class ThresholdBasedPruneStrategyTest
         verify( fileSystem, times( 1 ) ).deleteFile( fileName2 );
         verify( fileSystem, times( 1 ) ).deleteFile( fileName3 );
     }
+
+    @Test
+    public void shouldTruncateLargeLogFilesInChunksBeforeDeletingThem() throws Exception
+    {
+        // Given
+        when( threshold.reached( Matchers.<File>any(), Matchers.eq( 2L ), Matchers.<LogFileInformation>any() ) )
+                .thenReturn( true );
+
+        File fileName1 = new File( "logical.log.v1" );
+        File fileName2 = new File( "logical.log.v2" );
+        File fileName3 = new File( "logical.log.v3" );
+
+        when( files.getLogFileForVersion( 3 ) ).thenReturn( fileName3 );
+        when( files.getLogFileForVersion( 2 ) ).thenReturn( fileName2 );
+        when( files.getLogFileForVersion( 1 ) ).thenReturn( fileName1 );
+
+        when( fileSystem.fileExists( fileName3 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName2 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName1 ) ).thenReturn( true );
+
+        when( fileSystem.getFileSize( fileName1 ) ).thenReturn( 2 * TRUNCATE_CHUNK_SIZE + 100 );
+        when( fileSystem.getFileSize( fileName2 ) ).thenReturn( LOG_HEADER_SIZE + 1L );
+        when( fileSystem.getFileSize( fileName3 ) ).thenReturn( LOG_HEADER_SIZE + 1L );
+
+        final ThresholdBasedPruneStrategy strategy = new ThresholdBasedPruneStrategy(
+                fileSystem, logFileInfo, files, threshold
+        );
+
+        // When
+        strategy.prune( 4L );
+
+        // Then
+        InOrder inOrder = inOrder( fileSystem );
+        inOrder.verify( fileSystem ).truncate( fileName1, TRUNCATE_CHUNK_SIZE + 100 );
+        inOrder.verify( fileSystem ).truncate( fileName1, 100 );
+        inOrder.verify( fileSystem ).deleteFile( fileName1 );
+        inOrder.verify( fileSystem ).deleteFile( fileName2 );
+        verify( fileSystem, times( 0 ) ).truncate( Matchers.eq( fileName2 ), anyLong() );
+        verify( fileSystem, times( 0 ) ).deleteFile( fileName3 );
+        assertEquals( 0, strategy.bytesAwaitingPruning() );
+    }
+
+    @Test
+    public void shouldHoldTheStepGuardForEachTruncationAndDeletionOnly() throws Exception
+    {
+        // Given
+        when( threshold.reached( Matchers.<File>any(), Matchers.eq( 1L ), Matchers.<LogFileInformation>any() ) )
+                .thenReturn( true );
+
+        File fileName1 = new File( "logical.log.v1" );
+        File fileName2 = new File( "logical.log.v2" );
+
+        when( files.getLogFileForVersion( 2 ) ).thenReturn( fileName2 );
+        when( files.getLogFileForVersion( 1 ) ).thenReturn( fileName1 );
+
+        when( fileSystem.fileExists( fileName2 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName1 ) ).thenReturn( true );
+
+        when( fileSystem.getFileSize( fileName1 ) ).thenReturn( 2 * TRUNCATE_CHUNK_SIZE + 100 );
+        when( fileSystem.getFileSize( fileName2 ) ).thenReturn( LOG_HEADER_SIZE + 1L );
+
+        Resource guard = mock( Resource.class );
+        @SuppressWarnings( "unchecked" )
+        Supplier<Resource> stepGuard = mock( Supplier.class );
+        when( stepGuard.get() ).thenReturn( guard );
+
+        final ThresholdBasedPruneStrategy strategy = new ThresholdBasedPruneStrategy(
+                fileSystem, logFileInfo, files, threshold
+        );
+
+        // When
+        strategy.prune( 3L, stepGuard );
+
+        // Then
+        InOrder inOrder = inOrder( stepGuard, guard, fileSystem );
+        inOrder.verify( stepGuard ).get();
+        inOrder.verify( fileSystem ).truncate( fileName1, TRUNCATE_CHUNK_SIZE + 100 );
+        inOrder.verify( guard ).close();
+        inOrder.verify( stepGuard ).get();
+        inOrder.verify( fileSystem ).truncate( fileName1, 100 );
+        inOrder.verify( guard ).close();
+        inOrder.verify( stepGuard ).get();
+        inOrder.verify( fileSystem ).deleteFile( fileName1 );
+        inOrder.verify( guard ).close();
+        verify( stepGuard, times( 3 ) ).get();
+    }
+
+    @Test
+    public void shouldNotCountBytesAsAwaitingPruningWhenTruncatingFails() throws Exception
+    {
+        // Given
+        when( threshold.reached( Matchers.<File>any(), Matchers.eq( 2L ), Matchers.<LogFileInformation>any() ) )
+                .thenReturn( true );
+
+        File fileName1 = new File( "logical.log.v1" );
+        File fileName2 = new File( "logical.log.v2" );
+        File fileName3 = new File( "logical.log.v3" );
+
+        when( files.getLogFileForVersion( 3 ) ).thenReturn( fileName3 );
+        when( files.getLogFileForVersion( 2 ) ).thenReturn( fileName2 );
+        when( files.getLogFileForVersion( 1 ) ).thenReturn( fileName1 );
+
+        when( fileSystem.fileExists( fileName3 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName2 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName1 ) ).thenReturn( true );
+
+        when( fileSystem.getFileSize( fileName1 ) ).thenReturn( 2 * TRUNCATE_CHUNK_SIZE + 100 );
+        when( fileSystem.getFileSize( fileName2 ) ).thenReturn( LOG_HEADER_SIZE + 1L );
+        when( fileSystem.getFileSize( fileName3 ) ).thenReturn( LOG_HEADER_SIZE + 1L );
+        doThrow( new IOException( "Simulated failure" ) ).when( fileSystem ).truncate( fileName1, 100 );
+
+        final ThresholdBasedPruneStrategy strategy = new ThresholdBasedPruneStrategy(
+                fileSystem, logFileInfo, files, threshold
+        );
+
+        // When
+        strategy.prune( 4L );
+
+        // Then
+        verify( fileSystem ).deleteFile( fileName1 );
+        verify( fileSystem ).deleteFile( fileName2 );
+        assertEquals( 0, strategy.bytesAwaitingPruning() );
+    }
+
+    @Test
+    public void shouldNotCountBytesAsAwaitingPruningWhenDeletingFails() throws Exception
+    {
+        // Given
+        when( threshold.reached( Matchers.<File>any(), Matchers.eq( 2L ), Matchers.<LogFileInformation>any() ) )
+                .thenReturn( true );
+
+        File fileName1 = new File( "logical.log.v1" );
+        File fileName2 = new File( "logical.log.v2" );
+        File fileName3 = new File( "logical.log.v3" );
+
+        when( files.getLogFileForVersion( 3 ) ).thenReturn( fileName3 );
+        when( files.getLogFileForVersion( 2 ) ).thenReturn( fileName2 );
+        when( files.getLogFileForVersion( 1 ) ).thenReturn( fileName1 );
+
+        when( fileSystem.fileExists( fileName3 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName2 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName1 ) ).thenReturn( true );
+
+        when( fileSystem.getFileSize( Matchers.<File>any() ) ).thenReturn( LOG_HEADER_SIZE + 1L );
+        when( fileSystem.deleteFile( fileName1 ) ).thenThrow( new SecurityException( "Simulated failure" ) );
+
+        final ThresholdBasedPruneStrategy strategy = new ThresholdBasedPruneStrategy(
+                fileSystem, logFileInfo, files, threshold
+        );
+
+        // When
+        try
+        {
+            strategy.prune( 4L );
+            fail( "Should have failed" );
+        }
+        catch ( SecurityException e )
+        {
+            // Then
+            verify( fileSystem, times( 0 ) ).deleteFile( fileName2 );
+            assertEquals( 0, strategy.bytesAwaitingPruning() );
+        }
+    }
+
+    @Test
+    public void shouldOnlyLookUpTheSizeOfEachLogFileOnce() throws Exception
+    {
+        // Given
+        File fileName1 = new File( "logical.log.v1" );
+        File fileName2 = new File( "logical.log.v2" );
+
+        when( files.getLogFileForVersion( 2 ) ).thenReturn( fileName2 );
+        when( files.getLogFileForVersion( 1 ) ).thenReturn( fileName1 );
+
+        when( fileSystem.fileExists( fileName2 ) ).thenReturn( true );
+        when( fileSystem.fileExists( fileName1 ) ).thenReturn( true );
+
+        when( fileSystem.getFileSize( Matchers.<File>any() ) ).thenReturn( LOG_HEADER_SIZE + 1L );
+
+        final ThresholdBasedPruneStrategy strategy = new ThresholdBasedPruneStrategy(
+                fileSystem, logFileInfo, files, threshold
+        );
+
+        // When
+        strategy.prune( 3L );
+        strategy.prune( 3L );
+
+        // Then
+        verify( threshold, times( 2 ) ).init();
+        verify( fileSystem, times( 1 ) ).getFileSize( fileName1 );
+        verify( fileSystem, times( 1 ) ).getFileSize( fileName2 );
+    }
 }
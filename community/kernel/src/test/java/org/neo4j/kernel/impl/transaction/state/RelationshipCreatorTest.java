@@ -55,9 +55,11 @@ import org.neo4j.test.rule.DatabaseRule;
 import org.neo4j.test.rule.ImpermanentDatabaseRule;
 import org.neo4j.unsafe.batchinsert.DirectRecordAccessSet;
 
+import static java.util.Collections.singleton;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
 
 public class RelationshipCreatorTest
 {
@@ -91,14 +93,16 @@ public class RelationshipCreatorTest
         Tracker tracker = new Tracker( neoStores );
         RelationshipGroupGetter groupGetter = new RelationshipGroupGetter( neoStores.getRelationshipGroupStore() );
         RelationshipCreator relationshipCreator = new RelationshipCreator( groupGetter, 5 );
+        LockTracer lockTracer = mock( LockTracer.class );
 
         // WHEN
         relationshipCreator.relationshipCreate( idGeneratorFactory.get( IdType.RELATIONSHIP ).nextId(), 0,
-                nodeId, nodeId, tracker, tracker );
+                nodeId, nodeId, tracker, tracker, lockTracer );
 
         // THEN
         assertEquals( tracker.relationshipLocksAcquired.size(), tracker.changedRelationships.size() );
         assertFalse( tracker.relationshipLocksAcquired.isEmpty() );
+        assertEquals( singleton( lockTracer ), tracker.lockTracersUsed );
     }
 
     private NeoStores flipToNeoStores()
@@ -128,6 +132,7 @@ public class RelationshipCreatorTest
         private final TrackingRecordAccess<RelationshipRecord, Void> relRecords;
         private final Set<Long> relationshipLocksAcquired = new HashSet<>();
         private final Set<Long> changedRelationships = new HashSet<>();
+        private final Set<LockTracer> lockTracersUsed = new HashSet<>();
 
         public Tracker( NeoStores neoStores )
         {
@@ -140,6 +145,7 @@ public class RelationshipCreatorTest
                 throws AcquireLockTimeoutException
         {
             assertEquals( ResourceTypes.RELATIONSHIP, resourceType );
+            lockTracersUsed.add( tracer );
             for ( long resourceId : resourceIds )
             {
                 relationshipLocksAcquired.add( resourceId );
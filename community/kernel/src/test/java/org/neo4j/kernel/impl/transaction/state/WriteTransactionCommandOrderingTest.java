@@ -196,7 +196,7 @@ public class WriteTransactionCommandOrderingTest
         when( neoStores.getRelationshipStore() ).thenReturn( mock( RelationshipStore.class ) );
 
         return new TransactionRecordState( neoStores, mock( IntegrityValidator.class ), recordChangeSet,
-                0, null, null, null, null, null );
+                0, null, null, null, null, null, null );
     }
 
     private static class RecordingPropertyStore extends PropertyStore
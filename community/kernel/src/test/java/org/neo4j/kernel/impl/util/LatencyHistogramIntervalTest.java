@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import org.junit.Test;
+
+import org.neo4j.time.Clocks;
+import org.neo4j.time.FakeClock;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramIntervalTest
+{
+    private final FakeClock clock = Clocks.fakeClock();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void shouldReportValuesRecordedDuringTheLatestInterval() throws Exception
+    {
+        // given
+        histogram.record( 10 );
+        LatencyHistogramInterval interval = new LatencyHistogramInterval( histogram, 1000, clock );
+        histogram.record( 20 );
+        histogram.record( 30 );
+
+        // when
+        clock.forward( 1000, MILLISECONDS );
+
+        // then
+        assertEquals( 2, interval.current().count() );
+        assertEquals( 30, interval.current().max() );
+
+        // when
+        histogram.record( 40 );
+        clock.forward( 1000, MILLISECONDS );
+
+        // then
+        assertEquals( 1, interval.current().count() );
+        assertEquals( 40, interval.current().max() );
+    }
+
+    @Test
+    public void shouldKeepTheSameIntervalUntilItIsTimeToRefresh() throws Exception
+    {
+        // given
+        LatencyHistogramInterval interval = new LatencyHistogramInterval( histogram, 1000, clock );
+        histogram.record( 20 );
+        clock.forward( 1000, MILLISECONDS );
+        assertEquals( 1, interval.current().count() );
+
+        // when
+        histogram.record( 30 );
+        clock.forward( 999, MILLISECONDS );
+
+        // then
+        assertEquals( 1, interval.current().count() );
+        assertEquals( 20, interval.current().max() );
+    }
+}
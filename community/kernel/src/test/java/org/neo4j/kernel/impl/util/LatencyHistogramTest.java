@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void shouldCountSmallValuesExactly() throws Exception
+    {
+        for ( long value = 0; value < 64; value++ )
+        {
+            assertEquals( value, LatencyHistogram.highestValueIn( LatencyHistogram.bucket( value ) ) );
+        }
+    }
+
+    @Test
+    public void shouldCountValuesInBucketsNoWiderThanAThirtySecondOfTheValue() throws Exception
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for ( int i = 0; i < 100_000; i++ )
+        {
+            long value = random.nextLong( LatencyHistogram.MAX_VALUE );
+            int bucket = LatencyHistogram.bucket( value );
+            long highest = LatencyHistogram.highestValueIn( bucket );
+            assertTrue( bucket >= 0 && bucket < LatencyHistogram.BUCKETS );
+            assertTrue( value + " in bucket up to " + highest, value <= highest && highest - value <= value / 32 );
+        }
+        assertEquals( LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket( Long.MAX_VALUE ) );
+        assertEquals( 0, LatencyHistogram.bucket( -1 ) );
+    }
+
+    @Test
+    public void shouldComputePercentiles() throws Exception
+    {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( long value = 1; value <= 1000; value++ )
+        {
+            histogram.record( value * 1000 );
+        }
+
+        // when
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // then
+        assertEquals( 1000, snapshot.count() );
+        assertWithinBucket( 500_000, snapshot.valueAtPercentile( 50 ) );
+        assertWithinBucket( 990_000, snapshot.valueAtPercentile( 99 ) );
+        assertWithinBucket( 1_000_000, snapshot.valueAtPercentile( 100 ) );
+        assertWithinBucket( 1_000_000, snapshot.max() );
+    }
+
+    @Test
+    public void shouldComputePercentilesOfValuesRecordedBetweenSnapshots() throws Exception
+    {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record( 1_000_000 );
+        LatencyHistogram.Snapshot before = histogram.snapshot();
+        histogram.record( 10 );
+        histogram.record( 20 );
+
+        // when
+        LatencyHistogram.Snapshot interval = histogram.snapshot().since( before );
+
+        // then
+        assertEquals( 2, interval.count() );
+        assertEquals( 10, interval.valueAtPercentile( 50 ) );
+        assertEquals( 20, interval.max() );
+    }
+
+    @Test
+    public void shouldReportZeroWhenEmpty() throws Exception
+    {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertEquals( 0, snapshot.count() );
+        assertEquals( 0, snapshot.valueAtPercentile( 99 ) );
+        assertEquals( 0, snapshot.max() );
+        assertEquals( 0, LatencyHistogram.Snapshot.EMPTY.count() );
+    }
+
+    private static void assertWithinBucket( long expected, long actual )
+    {
+        assertTrue( expected + " ~ " + actual, actual >= expected && actual - expected <= expected / 32 );
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.util.collection;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.neo4j.collection.primitive.PrimitiveLongSet;
+import org.neo4j.kernel.api.exceptions.MemoryLimitExceededException;
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.impl.util.diffsets.DiffSets;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OffHeapCollectionsFactoryTest
+{
+    private final OffHeapCollectionsFactory factory = new OffHeapCollectionsFactory( 1024 * 1024 );
+
+    @After
+    public void release()
+    {
+        factory.release();
+    }
+
+    @Test
+    public void shouldKeepAddedAndRemovedIdsOfDiffSets() throws Exception
+    {
+        // given
+        DiffSets<Long> diffSets = factory.newLongDiffSets();
+
+        // when
+        for ( long id = 0; id < 1_000; id++ )
+        {
+            diffSets.add( id );
+        }
+        for ( long id = 0; id < 1_000; id += 2 )
+        {
+            diffSets.remove( id );
+        }
+        diffSets.remove( 5_000L );
+
+        // then
+        assertEquals( 500, diffSets.getAdded().size() );
+        assertTrue( diffSets.isAdded( 1L ) );
+        assertFalse( diffSets.isAdded( 2L ) );
+        assertTrue( diffSets.isRemoved( 5_000L ) );
+        long expected = 1;
+        for ( Long id : diffSets.getAdded() )
+        {
+            assertEquals( expected, (long) id );
+            expected += 2;
+        }
+        assertEquals( 1_001, expected );
+        assertTrue( factory.usedNativeMemory() > 0 );
+    }
+
+    @Test
+    public void iteratorsShouldNotSeeIdsAddedAfterTheyWereCreatedNorIdsThatWereRemoved() throws Exception
+    {
+        // given
+        DiffSets<Long> diffSets = factory.newLongDiffSets();
+        diffSets.add( 1L );
+        diffSets.add( 2L );
+        diffSets.add( 3L );
+
+        // when
+        List<Long> seen = new ArrayList<>();
+        Iterator<Long> iterator = diffSets.getAdded().iterator();
+        seen.add( iterator.next() );
+        diffSets.remove( 2L );
+        diffSets.add( 4L );
+        diffSets.add( 2L );
+        iterator.forEachRemaining( seen::add );
+
+        // then
+        assertEquals( asList( 1L, 3L ), seen );
+        List<Long> all = new ArrayList<>();
+        diffSets.getAdded().forEach( all::add );
+        assertEquals( asList( 1L, 3L, 4L, 2L ), all );
+    }
+
+    @Test
+    public void shouldKeepStringPropertyValuesOffHeap() throws Exception
+    {
+        // given
+        DefinedProperty property = Property.stringProperty( 7, "J\u00e4mtland" );
+
+        // when
+        DefinedProperty stored = factory.storeProperty( property );
+
+        // then
+        assertEquals( 7, stored.propertyKeyId() );
+        assertEquals( "J\u00e4mtland", stored.value() );
+        assertEquals( property, stored );
+        assertEquals( stored, property );
+        assertEquals( property.hashCode(), stored.hashCode() );
+        assertTrue( stored.valueEquals( "J\u00e4mtland" ) );
+    }
+
+    @Test
+    public void shouldKeepOtherPropertiesAsTheyAre() throws Exception
+    {
+        DefinedProperty intProperty = Property.intProperty( 1, 42 );
+        DefinedProperty emptyString = Property.stringProperty( 2, "" );
+
+        assertSame( intProperty, factory.storeProperty( intProperty ) );
+        assertSame( emptyString, factory.storeProperty( emptyString ) );
+    }
+
+    @Test
+    public void shouldFailAllocationsOverTheLimit() throws Exception
+    {
+        // given
+        OffHeapCollectionsFactory limited = new OffHeapCollectionsFactory( 64 * 1024 );
+        try
+        {
+            PrimitiveLongSet set = limited.newLongSet();
+
+            // when
+            for ( long id = 0; id < 1_000_000; id++ )
+            {
+                set.add( id );
+            }
+            fail( "Should have exceeded the memory limit" );
+        }
+        catch ( MemoryLimitExceededException e )
+        {
+            // then
+            assertEquals( Status.Transaction.TransactionMemoryLimit, e.status() );
+            assertTrue( limited.usedNativeMemory() <= 64 * 1024 );
+        }
+        finally
+        {
+            limited.release();
+        }
+        assertEquals( 0, limited.usedNativeMemory() );
+    }
+
+    @Test
+    public void shouldFreeAllNativeMemoryOnRelease() throws Exception
+    {
+        // given
+        factory.newLongSet().add( 1 );
+        factory.newLongDiffSets().add( 2L );
+        factory.newLongDiffSets().remove( 3L );
+        factory.storeProperty( Property.stringProperty( 1, "value" ) );
+        assertTrue( factory.usedNativeMemory() > 0 );
+
+        // when
+        factory.release();
+
+        // then
+        assertEquals( 0, factory.usedNativeMemory() );
+    }
+}
@@ -20,7 +20,6 @@
 package org.neo4j.test.rule;
 
 import java.io.File;
-import java.util.Collections;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -30,6 +29,7 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.TokenNameLookup;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.ActiveTransactionTracker;
 import org.neo4j.kernel.impl.api.BatchTransactionApplierFacade;
 import org.neo4j.kernel.impl.api.KernelTransactionsSnapshot;
 import org.neo4j.kernel.impl.api.LegacyIndexProviderLookup;
@@ -49,6 +49,7 @@ import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdReuseEligibility;
 import org.neo4j.kernel.impl.store.id.configuration.CommunityIdTypeConfigurationProvider;
 import org.neo4j.kernel.impl.store.id.configuration.IdTypeConfigurationProvider;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
 import org.neo4j.kernel.impl.util.IdOrderingQueue;
 import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
@@ -108,7 +109,7 @@ public class RecordStorageEngineRule extends ExternalResource
         JobScheduler scheduler = life.add( new Neo4jJobScheduler() );
         Config config = Config.defaults();
         Supplier<KernelTransactionsSnapshot> txSnapshotSupplier =
-                () -> new KernelTransactionsSnapshot( Collections.emptySet(), 0 );
+                () -> new KernelTransactionsSnapshot( new ActiveTransactionTracker(), 0 );
         return life.add( new ExtendedRecordStorageEngine( storeDirectory, config, idGeneratorFactory,
                 IdReuseEligibility.ALWAYS, new CommunityIdTypeConfigurationProvider(), pageCache, fs,
                 NullLogProvider.getInstance(),
@@ -213,9 +214,10 @@ public class RecordStorageEngineRule extends ExternalResource
         }
 
         @Override
-        protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode )
+        protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode,
+                StoreApplyEvent storeApplyEvent )
         {
-            BatchTransactionApplierFacade recordEngineApplier = super.applier( mode );
+            BatchTransactionApplierFacade recordEngineApplier = super.applier( mode, storeApplyEvent );
             return transactionApplierTransformer.apply( recordEngineApplier );
         }
     }
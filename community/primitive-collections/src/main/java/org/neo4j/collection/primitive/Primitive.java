@@ -19,6 +19,7 @@
  */
 package org.neo4j.collection.primitive;
 
+import org.neo4j.collection.primitive.concurrent.StripedLongObjectHashMap;
 import org.neo4j.collection.primitive.hopscotch.IntKeyLongValueTable;
 import org.neo4j.collection.primitive.hopscotch.IntKeyObjectValueTable;
 import org.neo4j.collection.primitive.hopscotch.IntKeyTable;
@@ -35,6 +36,7 @@ import org.neo4j.collection.primitive.hopscotch.PrimitiveLongHashSet;
 import org.neo4j.collection.primitive.hopscotch.PrimitiveLongIntHashMap;
 import org.neo4j.collection.primitive.hopscotch.PrimitiveLongLongHashMap;
 import org.neo4j.collection.primitive.hopscotch.PrimitiveLongObjectHashMap;
+import org.neo4j.memory.MemoryAllocationTracker;
 
 import static org.neo4j.collection.primitive.hopscotch.HopScotchHashingAlgorithm.NO_MONITOR;
 
@@ -74,7 +76,12 @@ public class Primitive
 
     public static PrimitiveLongSet offHeapLongSet( int initialCapacity )
     {
-        return new PrimitiveLongHashSet( new LongKeyUnsafeTable<>( initialCapacity, VALUE_MARKER ),
+        return offHeapLongSet( initialCapacity, MemoryAllocationTracker.NONE );
+    }
+
+    public static PrimitiveLongSet offHeapLongSet( int initialCapacity, MemoryAllocationTracker allocationTracker )
+    {
+        return new PrimitiveLongHashSet( new LongKeyUnsafeTable<>( initialCapacity, VALUE_MARKER, allocationTracker ),
                 VALUE_MARKER, NO_MONITOR );
     }
 
@@ -95,7 +102,14 @@ public class Primitive
 
     public static PrimitiveLongLongMap offHeapLongLongMap( int initialCapacity )
     {
-        return new PrimitiveLongLongHashMap( new LongKeyLongValueUnsafeTable( initialCapacity ), NO_MONITOR );
+        return offHeapLongLongMap( initialCapacity, MemoryAllocationTracker.NONE );
+    }
+
+    public static PrimitiveLongLongMap offHeapLongLongMap( int initialCapacity,
+            MemoryAllocationTracker allocationTracker )
+    {
+        return new PrimitiveLongLongHashMap( new LongKeyLongValueUnsafeTable( initialCapacity, allocationTracker ),
+                NO_MONITOR );
     }
 
     public static <VALUE> PrimitiveLongObjectMap<VALUE> longObjectMap()
@@ -108,6 +122,15 @@ public class Primitive
         return new PrimitiveLongObjectHashMap<>( new LongKeyObjectValueTable<VALUE>( initialCapacity ), NO_MONITOR );
     }
 
+    /**
+     * @param concurrencyLevel the number of threads expected to update the map concurrently. The map is split into
+     * that many independently locked stripes, rounded up to the nearest power of two.
+     */
+    public static <VALUE> PrimitiveLongObjectConcurrentMap<VALUE> concurrentLongObjectMap( int concurrencyLevel )
+    {
+        return new StripedLongObjectHashMap<>( concurrencyLevel );
+    }
+
     public static PrimitiveIntSet intSet()
     {
         return intSet( DEFAULT_HEAP_CAPACITY );
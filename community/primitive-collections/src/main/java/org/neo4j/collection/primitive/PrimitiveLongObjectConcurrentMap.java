@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.collection.primitive;
+
+/**
+ * A map from primitive {@code long} keys to object values, that can be used by many threads concurrently.
+ * Null values are not supported.
+ */
+public interface PrimitiveLongObjectConcurrentMap<VALUE>
+{
+    /**
+     * @return the value mapped to the given key, or {@code null} if there is no such mapping.
+     */
+    VALUE get( long key );
+
+    boolean containsKey( long key );
+
+    /**
+     * Maps the given key to the given value, replacing any existing mapping.
+     *
+     * @return the value previously mapped to the key, or {@code null} if there was none.
+     */
+    VALUE put( long key, VALUE value );
+
+    /**
+     * Maps the given key to the given value, unless the key is already mapped to something.
+     *
+     * @return the existing value mapped to the key, or {@code null} if the given value was put into the map.
+     */
+    VALUE putIfAbsent( long key, VALUE value );
+
+    /**
+     * @return the value that was mapped to the given key, or {@code null} if there was none.
+     */
+    VALUE remove( long key );
+
+    /**
+     * @return the number of entries in this map. Concurrent updates may or may not be reflected in the result.
+     */
+    int size();
+
+    /**
+     * Visit the entries of this map, until all have been visited or the visitor returns 'true'. Concurrent updates
+     * may or may not be visited. The visitor must not update this map.
+     */
+    <E extends Exception> void visitEntries( PrimitiveLongObjectVisitor<VALUE,E> visitor ) throws E;
+}
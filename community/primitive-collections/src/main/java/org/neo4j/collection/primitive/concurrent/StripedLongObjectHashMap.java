@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.collection.primitive.concurrent;
+
+import java.util.concurrent.locks.StampedLock;
+
+import org.neo4j.collection.primitive.PrimitiveLongObjectConcurrentMap;
+import org.neo4j.collection.primitive.PrimitiveLongObjectVisitor;
+
+/**
+ * A {@link PrimitiveLongObjectConcurrentMap} made of a fixed number of stripes, each of which is an open addressing
+ * hash table with linear probing, guarded by its own {@link StampedLock}.
+ * <p>
+ * Keys are stored as primitive longs in a {@code long[]} next to an {@code Object[]} of values, so neither lookups
+ * nor updates box the key, and updates only allocate when a stripe grows. Updates take the write lock of the stripe
+ * the key hashes to, and lookups are optimistic reads that only fall back to taking the read lock when they race
+ * with an update of the same stripe.
+ * <p>
+ * Stripes grow when they get two-thirds full, and never shrink. Entries are removed with backward shift deletion,
+ * so there are no tombstones to clean up.
+ */
+public class StripedLongObjectHashMap<VALUE> implements PrimitiveLongObjectConcurrentMap<VALUE>
+{
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+
+    /**
+     * @param concurrencyLevel the number of stripes, rounded up to the nearest power of two.
+     */
+    public StripedLongObjectHashMap( int concurrencyLevel )
+    {
+        if ( concurrencyLevel < 1 || concurrencyLevel > (1 << 16) )
+        {
+            throw new IllegalArgumentException( "Concurrency level must be between 1 and 65536, not " +
+                                                concurrencyLevel );
+        }
+        int stripeBits = 32 - Integer.numberOfLeadingZeros( concurrencyLevel - 1 );
+        stripes = new Stripe[1 << stripeBits];
+        for ( int i = 0; i < stripes.length; i++ )
+        {
+            stripes[i] = new Stripe( INITIAL_STRIPE_CAPACITY );
+        }
+        // The stripe is picked by the high bits of the hash, and the slot within the stripe by the low bits
+        stripeShift = 64 - stripeBits;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public VALUE get( long key )
+    {
+        long hash = hash( key );
+        Stripe stripe = stripe( hash );
+        long stamp = stripe.tryOptimisticRead();
+        Object value = stripe.find( key, hash );
+        if ( !stripe.validate( stamp ) )
+        {
+            stamp = stripe.readLock();
+            try
+            {
+                value = stripe.find( key, hash );
+            }
+            finally
+            {
+                stripe.unlockRead( stamp );
+            }
+        }
+        return (VALUE) value;
+    }
+
+    @Override
+    public boolean containsKey( long key )
+    {
+        return get( key ) != null;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public VALUE put( long key, VALUE value )
+    {
+        checkValue( value );
+        long hash = hash( key );
+        Stripe stripe = stripe( hash );
+        long stamp = stripe.writeLock();
+        try
+        {
+            return (VALUE) stripe.put( key, hash, value, true );
+        }
+        finally
+        {
+            stripe.unlockWrite( stamp );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public VALUE putIfAbsent( long key, VALUE value )
+    {
+        checkValue( value );
+        long hash = hash( key );
+        Stripe stripe = stripe( hash );
+        long stamp = stripe.writeLock();
+        try
+        {
+            return (VALUE) stripe.put( key, hash, value, false );
+        }
+        finally
+        {
+            stripe.unlockWrite( stamp );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public VALUE remove( long key )
+    {
+        long hash = hash( key );
+        Stripe stripe = stripe( hash );
+        long stamp = stripe.writeLock();
+        try
+        {
+            return (VALUE) stripe.remove( key, hash );
+        }
+        finally
+        {
+            stripe.unlockWrite( stamp );
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        int size = 0;
+        for ( Stripe stripe : stripes )
+        {
+            long stamp = stripe.readLock();
+            try
+            {
+                size += stripe.size;
+            }
+            finally
+            {
+                stripe.unlockRead( stamp );
+            }
+        }
+        return size;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    public <E extends Exception> void visitEntries( PrimitiveLongObjectVisitor<VALUE,E> visitor ) throws E
+    {
+        for ( Stripe stripe : stripes )
+        {
+            long stamp = stripe.readLock();
+            try
+            {
+                Table table = stripe.table;
+                for ( int i = 0; i < table.values.length; i++ )
+                {
+                    Object value = table.values[i];
+                    if ( value != null && visitor.visited( table.keys[i], (VALUE) value ) )
+                    {
+                        return;
+                    }
+                }
+            }
+            finally
+            {
+                stripe.unlockRead( stamp );
+            }
+        }
+    }
+
+    private Stripe stripe( long hash )
+    {
+        return stripes[stripeShift == 64 ? 0 : (int) (hash >>> stripeShift)];
+    }
+
+    private static void checkValue( Object value )
+    {
+        if ( value == null )
+        {
+            throw new IllegalArgumentException( "Null values are not supported" );
+        }
+    }
+
+    private static long hash( long key )
+    {
+        // The finalizer of MurmurHash3, to spread sequential ids, like node ids, over all stripes and slots
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * The arrays of a stripe. They are replaced together when the stripe grows, so that optimistic readers always
+     * see keys and values arrays of the same length.
+     */
+    private static final class Table
+    {
+        final long[] keys;
+        final Object[] values;
+        final int mask;
+
+        Table( int capacity )
+        {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            mask = capacity - 1;
+        }
+    }
+
+    private static final class Stripe extends StampedLock
+    {
+        private Table table;
+        private int size;
+        private int resizeThreshold;
+
+        Stripe( int capacity )
+        {
+            table = new Table( capacity );
+            resizeThreshold = thresholdOf( capacity );
+        }
+
+        /**
+         * May be called without holding the lock, in which case the result must be validated. It is bounded by the
+         * capacity of the table, and never throws, no matter how the table changes under it.
+         */
+        Object find( long key, long hash )
+        {
+            Table table = this.table;
+            int slot = (int) hash & table.mask;
+            for ( int probes = 0; probes <= table.mask; probes++ )
+            {
+                Object value = table.values[slot];
+                if ( value == null )
+                {
+                    return null;
+                }
+                if ( table.keys[slot] == key )
+                {
+                    return value;
+                }
+                slot = (slot + 1) & table.mask;
+            }
+            return null;
+        }
+
+        Object put( long key, long hash, Object value, boolean replace )
+        {
+            Table table = this.table;
+            int slot = (int) hash & table.mask;
+            Object existing;
+            while ( (existing = table.values[slot]) != null )
+            {
+                if ( table.keys[slot] == key )
+                {
+                    if ( replace )
+                    {
+                        table.values[slot] = value;
+                    }
+                    return existing;
+                }
+                slot = (slot + 1) & table.mask;
+            }
+            table.keys[slot] = key;
+            table.values[slot] = value;
+            if ( ++size > resizeThreshold )
+            {
+                grow();
+            }
+            return null;
+        }
+
+        Object remove( long key, long hash )
+        {
+            Table table = this.table;
+            int mask = table.mask;
+            int slot = (int) hash & mask;
+            Object existing;
+            while ( (existing = table.values[slot]) != null )
+            {
+                if ( table.keys[slot] == key )
+                {
+                    deleteAndShiftBack( table, slot );
+                    size--;
+                    return existing;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Empty the given slot, and move entries of the probe sequence after it back into the hole, where they would
+         * otherwise no longer be found.
+         */
+        private static void deleteAndShiftBack( Table table, int hole )
+        {
+            int mask = table.mask;
+            int slot = hole;
+            while ( true )
+            {
+                slot = (slot + 1) & mask;
+                if ( table.values[slot] == null )
+                {
+                    break;
+                }
+                int home = (int) hash( table.keys[slot] ) & mask;
+                if ( ((slot - home) & mask) >= ((slot - hole) & mask) )
+                {
+                    table.keys[hole] = table.keys[slot];
+                    table.values[hole] = table.values[slot];
+                    hole = slot;
+                }
+            }
+            table.values[hole] = null;
+        }
+
+        private void grow()
+        {
+            Table from = table;
+            Table to = new Table( from.keys.length << 1 );
+            for ( int i = 0; i < from.values.length; i++ )
+            {
+                Object value = from.values[i];
+                if ( value != null )
+                {
+                    long key = from.keys[i];
+                    int slot = (int) hash( key ) & to.mask;
+                    while ( to.values[slot] != null )
+                    {
+                        slot = (slot + 1) & to.mask;
+                    }
+                    to.keys[slot] = key;
+                    to.values[slot] = value;
+                }
+            }
+            table = to;
+            resizeThreshold = thresholdOf( to.keys.length );
+        }
+
+        private static int thresholdOf( int capacity )
+        {
+            return (int) (capacity * 2L / 3);
+        }
+    }
+}
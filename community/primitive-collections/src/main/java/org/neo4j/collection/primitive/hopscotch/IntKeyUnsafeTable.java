@@ -19,6 +19,7 @@
  */
 package org.neo4j.collection.primitive.hopscotch;
 
+import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 public class IntKeyUnsafeTable<VALUE> extends UnsafeTable<VALUE>
@@ -28,6 +29,11 @@ public class IntKeyUnsafeTable<VALUE> extends UnsafeTable<VALUE>
         super( capacity, 4, valueMarker );
     }
 
+    public IntKeyUnsafeTable( int capacity, VALUE valueMarker, MemoryAllocationTracker allocationTracker )
+    {
+        super( capacity, 4, valueMarker, allocationTracker );
+    }
+
     @Override
     protected long internalKey( long keyAddress )
     {
@@ -46,6 +52,6 @@ public class IntKeyUnsafeTable<VALUE> extends UnsafeTable<VALUE>
     @Override
     protected Table<VALUE> newInstance( int newCapacity )
     {
-        return new IntKeyUnsafeTable<>( newCapacity, valueMarker );
+        return new IntKeyUnsafeTable<>( newCapacity, valueMarker, allocationTracker );
     }
 }
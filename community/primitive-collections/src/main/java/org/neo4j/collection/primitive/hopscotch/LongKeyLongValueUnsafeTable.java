@@ -19,6 +19,8 @@
  */
 package org.neo4j.collection.primitive.hopscotch;
 
+import org.neo4j.memory.MemoryAllocationTracker;
+
 public class LongKeyLongValueUnsafeTable extends UnsafeTable<long[]>
 {
     public LongKeyLongValueUnsafeTable( int capacity )
@@ -26,6 +28,11 @@ public class LongKeyLongValueUnsafeTable extends UnsafeTable<long[]>
         super( capacity, 16, new long[1] );
     }
 
+    public LongKeyLongValueUnsafeTable( int capacity, MemoryAllocationTracker allocationTracker )
+    {
+        super( capacity, 16, new long[1], allocationTracker );
+    }
+
     @Override
     protected long internalKey( long keyAddress )
     {
@@ -77,6 +84,6 @@ public class LongKeyLongValueUnsafeTable extends UnsafeTable<long[]>
     @Override
     protected Table<long[]> newInstance( int newCapacity )
     {
-        return new LongKeyLongValueUnsafeTable( newCapacity );
+        return new LongKeyLongValueUnsafeTable( newCapacity, allocationTracker );
     }
 }
@@ -19,6 +19,8 @@
  */
 package org.neo4j.collection.primitive.hopscotch;
 
+import org.neo4j.memory.MemoryAllocationTracker;
+
 public class LongKeyUnsafeTable<VALUE> extends UnsafeTable<VALUE>
 {
     public LongKeyUnsafeTable( int capacity, VALUE valueMarker )
@@ -26,6 +28,11 @@ public class LongKeyUnsafeTable<VALUE> extends UnsafeTable<VALUE>
         super( capacity, 8, valueMarker );
     }
 
+    public LongKeyUnsafeTable( int capacity, VALUE valueMarker, MemoryAllocationTracker allocationTracker )
+    {
+        super( capacity, 8, valueMarker, allocationTracker );
+    }
+
     @Override
     protected long internalKey( long keyAddress )
     {
@@ -41,6 +48,6 @@ public class LongKeyUnsafeTable<VALUE> extends UnsafeTable<VALUE>
     @Override
     protected Table<VALUE> newInstance( int newCapacity )
     {
-        return new LongKeyUnsafeTable<>( newCapacity, valueMarker );
+        return new LongKeyUnsafeTable<>( newCapacity, valueMarker, allocationTracker );
     }
 }
@@ -19,6 +19,7 @@
  */
 package org.neo4j.collection.primitive.hopscotch;
 
+import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 public abstract class UnsafeTable<VALUE> extends PowerOfTwoQuantizedTable<VALUE>
@@ -26,19 +27,27 @@ public abstract class UnsafeTable<VALUE> extends PowerOfTwoQuantizedTable<VALUE>
     private final int bytesPerKey;
     private final int bytesPerEntry;
     private final long dataSize;
+    private final long allocatedBytes;
     // address which should be free when closing
     private final long allocatedAddress;
     // address which should be used to access the table, the address where the table actually starts at
     private final long address;
     protected final VALUE valueMarker;
+    protected final MemoryAllocationTracker allocationTracker;
 
     protected UnsafeTable( int capacity, int bytesPerKey, VALUE valueMarker )
+    {
+        this( capacity, bytesPerKey, valueMarker, MemoryAllocationTracker.NONE );
+    }
+
+    protected UnsafeTable( int capacity, int bytesPerKey, VALUE valueMarker, MemoryAllocationTracker allocationTracker )
     {
         super( capacity, 32 );
         UnsafeUtil.assertHasUnsafe();
         this.bytesPerKey = bytesPerKey;
         this.bytesPerEntry = 4+bytesPerKey;
         this.valueMarker = valueMarker;
+        this.allocationTracker = allocationTracker;
         this.dataSize = (long)this.capacity*bytesPerEntry;
 
         // Below is a piece of code which ensures that allocated memory is aligned to 4-byte boundary
@@ -54,7 +63,9 @@ public abstract class UnsafeTable<VALUE> extends PowerOfTwoQuantizedTable<VALUE>
 
         if ( UnsafeUtil.allowUnalignedMemoryAccess )
         {
-            this.allocatedAddress = this.address = UnsafeUtil.allocateMemory( dataSize );
+            this.allocatedBytes = dataSize;
+            allocationTracker.allocated( allocatedBytes );
+            this.allocatedAddress = this.address = UnsafeUtil.allocateMemory( allocatedBytes );
         }
         else
         {
@@ -69,7 +80,9 @@ public abstract class UnsafeTable<VALUE> extends PowerOfTwoQuantizedTable<VALUE>
                         " yielding a bytesPerEntry:" + bytesPerEntry + ", which isn't 4-byte aligned." );
             }
 
-            this.allocatedAddress = UnsafeUtil.allocateMemory( dataSize + Integer.BYTES - 1 );
+            this.allocatedBytes = dataSize + Integer.BYTES - 1;
+            allocationTracker.allocated( allocatedBytes );
+            this.allocatedAddress = UnsafeUtil.allocateMemory( allocatedBytes );
             this.address = UnsafeUtil.alignedMemory( allocatedAddress, Integer.BYTES );
         }
 
@@ -191,6 +204,7 @@ public abstract class UnsafeTable<VALUE> extends PowerOfTwoQuantizedTable<VALUE>
     public void close()
     {
         UnsafeUtil.free( allocatedAddress );
+        allocationTracker.deallocated( allocatedBytes );
     }
 
     protected static void alignmentSafePutLongAsTwoInts( long address, long value )
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.collection.primitive.concurrent;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.collection.primitive.PrimitiveLongObjectConcurrentMap;
+
+/**
+ * Measures the throughput of the lock table access pattern of the Forseti lock manager: claim a resource id with
+ * putIfAbsent, look it up again, and release it with remove. The striped primitive map is compared to the
+ * {@link ConcurrentHashMap} that Forseti used to use, with the same sizing.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class LockMapBenchmark
+{
+    private static final long DURATION_MILLIS = 5_000;
+    private static final int LOCKS_HELD_PER_THREAD = 100;
+
+    @Test
+    public void acquireAndReleaseThroughput() throws Exception
+    {
+        int[] threadCounts = {1, 2, 4, 8, Runtime.getRuntime().availableProcessors() * 2};
+        long[] keySpaces = {1_000, 10_000_000};
+        for ( long keySpace : keySpaces )
+        {
+            for ( int threads : threadCounts )
+            {
+                // Warm both up before measuring
+                run( new JucLockMap(), threads, keySpace, DURATION_MILLIS / 5 );
+                run( new StripedLockMap(), threads, keySpace, DURATION_MILLIS / 5 );
+
+                double juc = run( new JucLockMap(), threads, keySpace, DURATION_MILLIS );
+                double striped = run( new StripedLockMap(), threads, keySpace, DURATION_MILLIS );
+                System.out.printf( "key space: %,d, threads: %d, juc Long->Object map: %,.0f ops/s, " +
+                                   "striped long->Object map: %,.0f ops/s (%.2fx)%n",
+                        keySpace, threads, juc, striped, striped / juc );
+            }
+        }
+    }
+
+    private double run( LockMap map, int threads, long keySpace, long durationMillis ) throws InterruptedException
+    {
+        AtomicBoolean stop = new AtomicBoolean();
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch( 1 );
+        Thread[] workers = new Thread[threads];
+        for ( int i = 0; i < threads; i++ )
+        {
+            workers[i] = new Thread( () ->
+            {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Object lock = new Object();
+                long[] held = new long[LOCKS_HELD_PER_THREAD];
+                int heldCount = 0;
+                long count = 0;
+                awaitUninterruptibly( start );
+                while ( !stop.get() )
+                {
+                    // Hold on to a bunch of locks, like a transaction would, so the maps do not stay empty
+                    long resourceId = random.nextLong( keySpace );
+                    if ( map.putIfAbsent( resourceId, lock ) == null && map.get( resourceId ) == lock )
+                    {
+                        held[heldCount++] = resourceId;
+                    }
+                    if ( heldCount == LOCKS_HELD_PER_THREAD )
+                    {
+                        for ( int j = 0; j < heldCount; j++ )
+                        {
+                            map.remove( held[j] );
+                        }
+                        heldCount = 0;
+                    }
+                    count++;
+                }
+                operations.add( count );
+            } );
+            workers[i].start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        Thread.sleep( durationMillis );
+        stop.set( true );
+        for ( Thread worker : workers )
+        {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        return operations.sum() * (double) TimeUnit.SECONDS.toNanos( 1 ) / elapsedNanos;
+    }
+
+    private static void awaitUninterruptibly( CountDownLatch latch )
+    {
+        try
+        {
+            latch.await();
+        }
+        catch ( InterruptedException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private interface LockMap
+    {
+        Object putIfAbsent( long key, Object value );
+
+        Object get( long key );
+
+        Object remove( long key );
+    }
+
+    private static class JucLockMap implements LockMap
+    {
+        private final ConcurrentMap<Long,Object> map = new ConcurrentHashMap<>( 16, 0.6f, 512 );
+
+        @Override
+        public Object putIfAbsent( long key, Object value )
+        {
+            return map.putIfAbsent( key, value );
+        }
+
+        @Override
+        public Object get( long key )
+        {
+            return map.get( key );
+        }
+
+        @Override
+        public Object remove( long key )
+        {
+            return map.remove( key );
+        }
+    }
+
+    private static class StripedLockMap implements LockMap
+    {
+        private final PrimitiveLongObjectConcurrentMap<Object> map = new StripedLongObjectHashMap<>( 128 );
+
+        @Override
+        public Object putIfAbsent( long key, Object value )
+        {
+            return map.putIfAbsent( key, value );
+        }
+
+        @Override
+        public Object get( long key )
+        {
+            return map.get( key );
+        }
+
+        @Override
+        public Object remove( long key )
+        {
+            return map.remove( key );
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.collection.primitive.concurrent;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.collection.primitive.PrimitiveLongObjectConcurrentMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StripedLongObjectHashMapTest
+{
+    @Test
+    public void shouldPutGetAndRemoveValues() throws Exception
+    {
+        // given
+        PrimitiveLongObjectConcurrentMap<String> map = new StripedLongObjectHashMap<>( 4 );
+
+        // when
+        assertNull( map.put( 10, "a" ) );
+        assertNull( map.putIfAbsent( -10, "b" ) );
+
+        // then
+        assertEquals( "a", map.get( 10 ) );
+        assertEquals( "b", map.get( -10 ) );
+        assertTrue( map.containsKey( 10 ) );
+        assertFalse( map.containsKey( 11 ) );
+        assertNull( map.get( 11 ) );
+        assertEquals( 2, map.size() );
+
+        assertEquals( "a", map.putIfAbsent( 10, "c" ) );
+        assertEquals( "a", map.get( 10 ) );
+        assertEquals( "a", map.put( 10, "c" ) );
+        assertEquals( "c", map.get( 10 ) );
+
+        assertEquals( "c", map.remove( 10 ) );
+        assertNull( map.remove( 10 ) );
+        assertNull( map.get( 10 ) );
+        assertEquals( 1, map.size() );
+    }
+
+    @Test
+    public void shouldStayConsistentWithHashMapThroughRandomUpdates() throws Exception
+    {
+        // given a small key space, so that probe sequences overlap and removals shift entries back
+        PrimitiveLongObjectConcurrentMap<Long> map = new StripedLongObjectHashMap<>( 2 );
+        Map<Long,Long> expected = new HashMap<>();
+        Random random = new Random( 1234 );
+
+        for ( int i = 0; i < 200_000; i++ )
+        {
+            long key = random.nextInt( 2_000 ) * 31L - 1000;
+            Long value = (long) i;
+            switch ( random.nextInt( 3 ) )
+            {
+            case 0:
+                assertEquals( expected.put( key, value ), map.put( key, value ) );
+                break;
+            case 1:
+                assertEquals( expected.putIfAbsent( key, value ), map.putIfAbsent( key, value ) );
+                break;
+            default:
+                assertEquals( expected.remove( key ), map.remove( key ) );
+                break;
+            }
+        }
+
+        // then
+        assertEquals( expected.size(), map.size() );
+        Map<Long,Long> visited = new HashMap<>();
+        map.visitEntries( ( key, value ) ->
+        {
+            assertNull( visited.put( key, value ) );
+            return false;
+        } );
+        assertEquals( expected, visited );
+        for ( Map.Entry<Long,Long> entry : expected.entrySet() )
+        {
+            assertEquals( entry.getValue(), map.get( entry.getKey() ) );
+        }
+    }
+
+    @Test
+    public void shouldStopVisitingWhenVisitorSaysSo() throws Exception
+    {
+        // given
+        PrimitiveLongObjectConcurrentMap<String> map = new StripedLongObjectHashMap<>( 8 );
+        for ( long key = 0; key < 100; key++ )
+        {
+            map.put( key, "v" );
+        }
+
+        // when
+        int[] visits = new int[1];
+        map.visitEntries( ( key, value ) -> ++visits[0] == 10 );
+
+        // then
+        assertEquals( 10, visits[0] );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotAcceptNullValues() throws Exception
+    {
+        new StripedLongObjectHashMap<>( 1 ).put( 1, null );
+    }
+
+    @Test
+    public void shouldLetEachKeyBeHeldByOneThreadAtATime() throws Exception
+    {
+        // given threads that, like a lock manager, claim keys with putIfAbsent and release them with remove
+        PrimitiveLongObjectConcurrentMap<Object> map = new StripedLongObjectHashMap<>( 16 );
+        int threads = 8;
+        int keys = 64;
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                long seed = t;
+                futures.add( executor.submit( () ->
+                {
+                    Random random = new Random( seed );
+                    Object me = new Object();
+                    for ( int i = 0; i < 100_000; i++ )
+                    {
+                        long key = random.nextInt( keys );
+                        if ( map.putIfAbsent( key, me ) == null )
+                        {
+                            assertSame( me, map.get( key ) );
+                            assertSame( me, map.remove( key ) );
+                        }
+                    }
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            executor.awaitTermination( 1, TimeUnit.MINUTES );
+        }
+
+        // then
+        assertEquals( 0, map.size() );
+    }
+}
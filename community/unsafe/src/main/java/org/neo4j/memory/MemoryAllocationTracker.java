@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.memory;
+
+/**
+ * Keeps track of memory that is allocated and freed by a component, so that the memory used by, for instance,
+ * a single transaction can be accounted for and limited. The memory can be native memory, or an estimate of the heap
+ * that is held on to by things such as buffered query results.
+ */
+public interface MemoryAllocationTracker
+{
+    /**
+     * A tracker that does not keep track of anything.
+     */
+    MemoryAllocationTracker NONE = new MemoryAllocationTracker()
+    {
+        @Override
+        public void allocated( long bytes )
+        {
+        }
+
+        @Override
+        public void deallocated( long bytes )
+        {
+        }
+
+        @Override
+        public long usedMemory()
+        {
+            return 0;
+        }
+    };
+
+    /**
+     * Record that the given number of bytes is about to be allocated. Implementations may refuse the allocation by
+     * throwing an exception, in which case the memory must not be allocated.
+     *
+     * @param bytes number of bytes to allocate.
+     */
+    void allocated( long bytes );
+
+    /**
+     * Record that the given number of bytes has been freed.
+     *
+     * @param bytes number of freed bytes.
+     */
+    void deallocated( long bytes );
+
+    /**
+     * @return number of bytes that are currently allocated, and not yet freed.
+     */
+    long usedMemory();
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.internal.dragons;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Allocates large slabs from the native heap, and aligns them to the huge page size, so that the operating system can
+ * back every slab completely with transparent huge pages.
+ */
+final class HugePageMemoryAllocator implements MemoryAllocator
+{
+    /**
+     * The number of huge pages to grab in each slab.
+     */
+    private static final int HUGE_PAGES_PER_SLAB =
+            FeatureToggles.getInteger( HugePageMemoryAllocator.class, "HUGE_PAGES_PER_SLAB", 16 );
+
+    private final long hugePageSize;
+    // Maps the aligned slab pointers that we hand out, to the pointers we got from the native heap.
+    private final Map<Long,Long> allocations = new HashMap<>();
+
+    HugePageMemoryAllocator( long hugePageSize )
+    {
+        if ( Long.bitCount( hugePageSize ) != 1 || hugePageSize > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "Huge page size must be a power of two, but was " + hugePageSize );
+        }
+        this.hugePageSize = hugePageSize;
+    }
+
+    @Override
+    public long slabSize()
+    {
+        return hugePageSize * HUGE_PAGES_PER_SLAB;
+    }
+
+    @Override
+    public synchronized long allocate( long bytes )
+    {
+        long size = roundUpToHugePages( bytes, hugePageSize );
+        long pointer = UnsafeUtil.allocateMemory( size + hugePageSize );
+        long aligned = UnsafeUtil.alignedMemory( pointer, (int) hugePageSize );
+        allocations.put( aligned, pointer );
+        return aligned;
+    }
+
+    @Override
+    public synchronized void free( long pointer )
+    {
+        Long allocation = allocations.remove( pointer );
+        if ( allocation == null )
+        {
+            throw new IllegalArgumentException( String.format( "Pointer 0x%x was not allocated here", pointer ) );
+        }
+        UnsafeUtil.free( allocation );
+    }
+
+    static long roundUpToHugePages( long bytes, long hugePageSize )
+    {
+        return (bytes + hugePageSize - 1) & ~(hugePageSize - 1);
+    }
+}
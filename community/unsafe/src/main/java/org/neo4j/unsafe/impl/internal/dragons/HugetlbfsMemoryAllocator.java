@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.internal.dragons;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.neo4j.unsafe.impl.internal.dragons.HugePageMemoryAllocator.roundUpToHugePages;
+
+/**
+ * Maps slabs from files in a hugetlbfs mount, so they are backed by the huge pages that the operating system has
+ * reserved for that file system.
+ * <p>
+ * The files are unlinked as soon as they have been mapped, so nothing is left behind in the mount if the process
+ * dies. The mappings themselves are owned by {@link MappedByteBuffer} instances, which unmap the memory when they are
+ * garbage collected after the slab has been freed.
+ */
+final class HugetlbfsMemoryAllocator implements MemoryAllocator
+{
+    /**
+     * The largest slab we can map, since a {@link MappedByteBuffer} is limited to 2 GiB.
+     */
+    private static final long MAX_SLAB_SIZE = 1024 * 1024 * 1024; // 1 GiB
+
+    private final File mountDirectory;
+    private final long hugePageSize;
+    private final Map<Long,MappedByteBuffer> mappings = new HashMap<>();
+
+    HugetlbfsMemoryAllocator( File mountDirectory, long hugePageSize )
+    {
+        if ( Long.bitCount( hugePageSize ) != 1 || hugePageSize > MAX_SLAB_SIZE )
+        {
+            throw new IllegalArgumentException( "Huge page size must be a power of two, but was " + hugePageSize );
+        }
+        this.mountDirectory = mountDirectory;
+        this.hugePageSize = hugePageSize;
+    }
+
+    @Override
+    public long slabSize()
+    {
+        return MAX_SLAB_SIZE;
+    }
+
+    @Override
+    public synchronized long allocate( long bytes )
+    {
+        long size = roundUpToHugePages( bytes, hugePageSize );
+        if ( size > Integer.MAX_VALUE )
+        {
+            throw new IllegalArgumentException( "Cannot map " + bytes + " bytes from hugetlbfs in one slab" );
+        }
+        try
+        {
+            File file = File.createTempFile( "neo4j-pagecache", ".mem", mountDirectory );
+            try ( RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+                  FileChannel channel = raf.getChannel() )
+            {
+                MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_WRITE, 0, size );
+                long pointer = UnsafeUtil.acquireBufferMemory( buffer );
+                mappings.put( pointer, buffer );
+                return pointer;
+            }
+            finally
+            {
+                file.delete();
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException(
+                    "Could not map " + size + " bytes of huge pages from hugetlbfs mount " + mountDirectory, e );
+        }
+    }
+
+    @Override
+    public synchronized void free( long pointer )
+    {
+        if ( mappings.remove( pointer ) == null )
+        {
+            throw new IllegalArgumentException( String.format( "Pointer 0x%x was not allocated here", pointer ) );
+        }
+        UnsafeUtil.releaseBufferMemory( pointer );
+    }
+}
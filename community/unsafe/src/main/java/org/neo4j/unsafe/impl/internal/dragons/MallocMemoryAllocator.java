@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.internal.dragons;
+
+/**
+ * Allocates slabs with {@link UnsafeUtil#allocateMemory(long)}.
+ */
+final class MallocMemoryAllocator implements MemoryAllocator
+{
+    /**
+     * The amount of memory, in bytes, to grab in each Slab.
+     */
+    private static final long GRAB_SIZE = FeatureToggles.getInteger( MemoryManager.class, "GRAB_SIZE", 512 * 1024 ); // 512 KiB
+
+    static final MemoryAllocator INSTANCE = new MallocMemoryAllocator();
+
+    private MallocMemoryAllocator()
+    {
+    }
+
+    @Override
+    public long slabSize()
+    {
+        return GRAB_SIZE;
+    }
+
+    @Override
+    public long allocate( long bytes )
+    {
+        return UnsafeUtil.allocateMemory( bytes );
+    }
+
+    @Override
+    public void free( long pointer )
+    {
+        UnsafeUtil.free( pointer );
+    }
+}
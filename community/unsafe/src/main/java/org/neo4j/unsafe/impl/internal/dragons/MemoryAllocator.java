@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.unsafe.impl.internal.dragons;
+
+import java.io.File;
+
+/**
+ * The source of the native memory slabs that a {@link MemoryManager} carves its allocations out of.
+ * <p>
+ * The slabs are only given back with {@link #free(long)} when the memory manager itself is finalized.
+ */
+public interface MemoryAllocator
+{
+    /**
+     * @return the preferred size, in bytes, of the slabs that the memory manager should ask for.
+     */
+    long slabSize();
+
+    /**
+     * Allocate a slab of native memory of at least the given size.
+     * @param bytes the minimum number of usable bytes in the slab.
+     * @return a pointer to the start of the slab.
+     */
+    long allocate( long bytes );
+
+    /**
+     * Free a slab of native memory that was previously returned from {@link #allocate(long)}.
+     * @param pointer the pointer to the slab.
+     */
+    void free( long pointer );
+
+    /**
+     * @return an allocator that takes its memory from the native heap, in regular operating system pages.
+     */
+    static MemoryAllocator malloc()
+    {
+        return MallocMemoryAllocator.INSTANCE;
+    }
+
+    /**
+     * Create an allocator that hands out large slabs from the native heap that are aligned to the given huge page
+     * size, such that the operating system can back them with transparent huge pages.
+     * <p>
+     * Java has no way of calling {@code madvise}, so this only pays off when transparent huge pages are enabled for
+     * all memory, that is, when {@code /sys/kernel/mm/transparent_hugepage/enabled} is {@code always}.
+     * @param hugePageSize the size of a huge page, in bytes, which must be a power of two.
+     */
+    static MemoryAllocator transparentHugePages( long hugePageSize )
+    {
+        return new HugePageMemoryAllocator( hugePageSize );
+    }
+
+    /**
+     * Create an allocator that maps its slabs from files in the given hugetlbfs mount, such that they are backed by
+     * explicitly reserved huge pages.
+     * @param mountDirectory a directory in a mounted hugetlbfs file system.
+     * @param hugePageSize the size of the huge pages in that file system, in bytes, which must be a power of two.
+     */
+    static MemoryAllocator hugetlbfs( File mountDirectory, long hugePageSize )
+    {
+        return new HugetlbfsMemoryAllocator( mountDirectory, hugePageSize );
+    }
+}
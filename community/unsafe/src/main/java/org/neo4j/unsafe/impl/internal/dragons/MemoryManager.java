@@ -20,7 +20,8 @@
 package org.neo4j.unsafe.impl.internal.dragons;
 
 /**
- * The memory manager is simple: it only allocates memory, until it itself is finalizable and frees it all in one go.
+ * The memory manager is simple: it only allocates memory, until it is explicitly freed, or itself is finalizable, and
+ * then frees it all in one go.
  *
  * The memory is allocated in large segments, and the memory returned by the memory manager is page aligned, and plays
  * well with transparent huge pages and other operating system optimisations.
@@ -29,16 +30,12 @@ package org.neo4j.unsafe.impl.internal.dragons;
  */
 public final class MemoryManager
 {
-    /**
-     * The amount of memory, in bytes, to grab in each Slab.
-     */
-    private static final long GRAB_SIZE = FeatureToggles.getInteger( MemoryManager.class, "GRAB_SIZE", 512 * 1024 ); // 512 KiB
-
     /**
      * The amount of memory that this memory manager can still allocate.
      */
     private long memoryReserve;
     private final long alignment;
+    private final MemoryAllocator allocator;
 
     private Slab slabs;
 
@@ -50,9 +47,23 @@ public final class MemoryManager
      * @param alignment The byte multiple that the allocated pointers have to be aligned at.
      */
     public MemoryManager( long expectedMaxMemory, long alignment )
+    {
+        this( expectedMaxMemory, alignment, MemoryAllocator.malloc() );
+    }
+
+    /**
+     * Create a new MemoryManager that will allocate the given amount of memory, to pointers that are aligned to the
+     * given alignment size, in slabs that are taken from the given allocator.
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate. The
+     * actual amount of memory used can end up greater than this value, if some of it gets wasted on alignment padding.
+     * @param alignment The byte multiple that the allocated pointers have to be aligned at.
+     * @param allocator The allocator that provides the slabs of native memory.
+     */
+    public MemoryManager( long expectedMaxMemory, long alignment, MemoryAllocator allocator )
     {
         this.memoryReserve = expectedMaxMemory;
         this.alignment = alignment;
+        this.allocator = allocator;
     }
 
     /**
@@ -64,11 +75,11 @@ public final class MemoryManager
     {
         if ( slabs == null || !slabs.canAllocate( bytes ) )
         {
-            long slabGrab = Math.min( GRAB_SIZE, memoryReserve );
+            long slabGrab = Math.min( allocator.slabSize(), memoryReserve );
             if ( slabGrab < bytes )
             {
                 slabGrab = bytes;
-                Slab slab = new Slab( slabs, slabGrab, alignment );
+                Slab slab = new Slab( slabs, slabGrab, alignment, allocator );
                 if ( slab.canAllocate( bytes ) )
                 {
                     memoryReserve -= slabGrab;
@@ -79,16 +90,19 @@ public final class MemoryManager
                 slabGrab = bytes + alignment;
             }
             memoryReserve -= slabGrab;
-            slabs = new Slab( slabs, slabGrab, alignment );
+            slabs = new Slab( slabs, slabGrab, alignment, allocator );
         }
         return slabs.allocate( bytes );
     }
 
-    @Override
-    protected synchronized void finalize() throws Throwable
+    /**
+     * Free all the memory that has been allocated so far. Pointers previously returned by this memory manager must not
+     * be used after this. Calling this more than once, or letting the memory manager be finalized afterwards, is safe.
+     */
+    public synchronized void free()
     {
-        super.finalize();
         Slab current = slabs;
+        slabs = null;
 
         while ( current != null )
         {
@@ -97,18 +111,27 @@ public final class MemoryManager
         }
     }
 
+    @Override
+    protected synchronized void finalize() throws Throwable
+    {
+        super.finalize();
+        free();
+    }
+
     private static class Slab
     {
         public final Slab next;
         private final long address;
         private final long limit;
         private final long alignMask;
+        private final MemoryAllocator allocator;
         private long nextAlignedPointer;
 
-        public Slab( Slab next, long size, long alignment )
+        public Slab( Slab next, long size, long alignment, MemoryAllocator allocator )
         {
             this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size );
+            this.allocator = allocator;
+            this.address = allocator.allocate( size );
             this.limit = address + size;
             this.alignMask = alignment - 1;
 
@@ -133,7 +156,7 @@ public final class MemoryManager
 
         public void free()
         {
-            UnsafeUtil.free( address );
+            allocator.free( address );
         }
 
         public boolean canAllocate( long bytes )
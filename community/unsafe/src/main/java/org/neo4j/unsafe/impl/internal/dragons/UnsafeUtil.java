@@ -278,6 +278,15 @@ public final class UnsafeUtil
         return unsafe.compareAndSwapLong( obj, offset, expected, update );
     }
 
+    /**
+     * Same as compareAndSwapLong, but for int fields.
+     */
+    public static boolean compareAndSwapInt(
+            Object obj, long offset, int expected, int update )
+    {
+        return unsafe.compareAndSwapInt( obj, offset, expected, update );
+    }
+
     /**
      * Same as compareAndSwapLong, but for object references.
      */
@@ -372,6 +381,42 @@ public final class UnsafeUtil
         unsafe.freeMemory( pointer );
     }
 
+    /**
+     * Get a pointer to the native memory of the given direct buffer, such as a {@link java.nio.MappedByteBuffer}, and
+     * register that memory as allocated, so it passes the native access checks.
+     * <p>
+     * The memory is still owned by the buffer, and must be given to {@link #releaseBufferMemory(long)} before the
+     * buffer becomes unreachable.
+     */
+    public static long acquireBufferMemory( ByteBuffer buffer )
+    {
+        long pointer = getDirectByteBufferAddress( buffer );
+        addAllocatedPointer( pointer, buffer.capacity() );
+        return pointer;
+    }
+
+    /**
+     * Get the address of the native memory of the given direct buffer. The address is not adjusted for the position
+     * of the buffer.
+     */
+    public static long getDirectByteBufferAddress( ByteBuffer buffer )
+    {
+        if ( !buffer.isDirect() )
+        {
+            throw new IllegalArgumentException( "Buffer is not direct: " + buffer );
+        }
+        return unsafe.getLong( buffer, directByteBufferAddressOffset );
+    }
+
+    /**
+     * Unregister the native memory that was acquired from a buffer with {@link #acquireBufferMemory(ByteBuffer)}.
+     * The memory itself is not freed, since it is owned by the buffer.
+     */
+    public static void releaseBufferMemory( long pointer )
+    {
+        checkFree( pointer );
+    }
+
     private static final class FreeTrace extends Throwable implements Comparable<FreeTrace>
     {
         private final long pointer;
@@ -876,6 +921,15 @@ public final class UnsafeUtil
         unsafe.copyMemory( srcAddress, destAddress, bytes );
     }
 
+    /**
+     * Copy the given number of bytes from the source object and offset, to the destination object and offset.
+     * An object can be {@code null}, in which case its offset is an absolute address.
+     */
+    public static void copyMemory( Object srcBase, long srcOffset, Object destBase, long destOffset, long bytes )
+    {
+        unsafe.copyMemory( srcBase, srcOffset, destBase, destOffset, bytes );
+    }
+
     /**
      * Create a new DirectByteBuffer that wraps the given address and has the given capacity.
      * <p>
@@ -53,4 +53,46 @@ public class MemoryManagerTest
         }
         // Also asserts that no OutOfMemoryError is thrown.
     }
+
+    @Test
+    public void transparentHugePageSlabsMustBeAlignedToHugePageSize() throws Exception
+    {
+        long hugePageSize = 2 * 1024 * 1024;
+        MemoryAllocator allocator = MemoryAllocator.transparentHugePages( hugePageSize );
+        long pointer = allocator.allocate( 4096 );
+        try
+        {
+            assertThat( pointer % hugePageSize, is( 0L ) );
+            UnsafeUtil.setMemory( pointer, hugePageSize, (byte) 1 );
+        }
+        finally
+        {
+            allocator.free( pointer );
+        }
+    }
+
+    @Test
+    public void mustTakeSlabsFromGivenAllocator() throws Exception
+    {
+        long hugePageSize = 2 * 1024 * 1024;
+        MemoryAllocator allocator = MemoryAllocator.transparentHugePages( hugePageSize );
+        MemoryManager mman = new MemoryManager( 4 * hugePageSize, UnsafeUtil.pageSize(), allocator );
+        try
+        {
+            long first = mman.allocateAligned( 8192 );
+            long second = mman.allocateAligned( 8192 );
+            assertThat( first % hugePageSize, is( 0L ) );
+            assertThat( second, is( first + 8192 ) );
+        }
+        finally
+        {
+            mman.free();
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void hugePageSizeMustBePowerOfTwo() throws Exception
+    {
+        MemoryAllocator.transparentHugePages( 3 * 1024 * 1024 );
+    }
 }
@@ -47,6 +47,7 @@ import org.neo4j.causalclustering.catchup.storecopy.GetStoreIdRequestHandler;
 import org.neo4j.causalclustering.catchup.storecopy.GetStoreIdResponseEncoder;
 import org.neo4j.causalclustering.catchup.storecopy.GetStoreRequestDecoder;
 import org.neo4j.causalclustering.catchup.storecopy.GetStoreRequestHandler;
+import org.neo4j.causalclustering.catchup.storecopy.PreFramedFileChunkEncoder;
 import org.neo4j.causalclustering.catchup.storecopy.StoreCopyFinishedResponseEncoder;
 import org.neo4j.causalclustering.catchup.tx.TxPullRequestDecoder;
 import org.neo4j.causalclustering.catchup.tx.TxPullRequestHandler;
@@ -147,6 +148,8 @@ public class CatchupServer extends LifecycleAdapter
 
                         ChannelPipeline pipeline = ch.pipeline();
                         pipeline.addLast( new LengthFieldBasedFrameDecoder( Integer.MAX_VALUE, 0, 4, 0, 4 ) );
+                        // Store file chunks arrive framed already, and must bypass the prependers below.
+                        pipeline.addLast( new PreFramedFileChunkEncoder() );
                         pipeline.addLast( new LengthFieldPrepender( 4 ) );
 
                         pipeline.addLast( new VersionDecoder( logProvider ) );
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.causalclustering.catchup.storecopy;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.handler.stream.ChunkedInput;
+
+import java.nio.channels.FileChannel;
+
+import static org.neo4j.causalclustering.catchup.storecopy.FileChunk.MAX_SIZE;
+
+/**
+ * Sends a file that is not mapped by the page cache, as file regions that the transport can write with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, so the file contents never
+ * pass through the heap.
+ */
+class FileRegionSender implements ChunkedInput<PreFramedFileChunk>
+{
+    private final FileChannel channel;
+    private long position;
+    private boolean sentLastChunk;
+
+    FileRegionSender( FileChannel channel )
+    {
+        this.channel = channel;
+    }
+
+    @Override
+    public boolean isEndOfInput() throws Exception
+    {
+        return sentLastChunk;
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        channel.close();
+    }
+
+    @Override
+    public PreFramedFileChunk readChunk( ByteBufAllocator allocator ) throws Exception
+    {
+        if ( sentLastChunk )
+        {
+            return null;
+        }
+
+        long remaining = Math.max( 0, channel.size() - position );
+        int length = (int) Math.min( remaining, MAX_SIZE );
+        Object payload = length == 0 ? Unpooled.EMPTY_BUFFER : new SharedFileRegion( channel, position, length );
+        position += length;
+        sentLastChunk = remaining <= MAX_SIZE;
+        return new PreFramedFileChunk( allocator, payload, length, sentLastChunk );
+    }
+
+    @Override
+    public PreFramedFileChunk readChunk( ChannelHandlerContext ctx ) throws Exception
+    {
+        return readChunk( ctx.alloc() );
+    }
+
+    @Override
+    public long length()
+    {
+        return -1;
+    }
+
+    @Override
+    public long progress()
+    {
+        return position;
+    }
+
+    /**
+     * A file region over a channel that is shared by all the chunks of the file, and therefore must not be closed
+     * when the region is released. The channel is closed by the sender instead.
+     */
+    private static class SharedFileRegion extends DefaultFileRegion
+    {
+        SharedFileRegion( FileChannel channel, long position, long count )
+        {
+            super( channel, position, count );
+        }
+
+        @Override
+        protected void deallocate()
+        {
+        }
+    }
+}
@@ -25,6 +25,7 @@ import java.util.function.Supplier;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.stream.ChunkedInput;
 
 import org.neo4j.causalclustering.catchup.CatchupServerProtocol;
 import org.neo4j.causalclustering.catchup.ResponseMessageType;
@@ -32,6 +33,9 @@ import org.neo4j.causalclustering.catchup.storecopy.StoreCopyFinishedResponse.St
 import org.neo4j.graphdb.Resource;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.fs.StoreFileChannel;
+import org.neo4j.io.fs.StoreFileChannelUnwrapper;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.kernel.NeoStoreDataSource;
@@ -98,13 +102,13 @@ public class GetStoreRequestHandler extends SimpleChannelInboundHandler<GetStore
                     {
                         try ( PagedFile pagedFile = existingMapping.get() )
                         {
-                            ctx.writeAndFlush( new FileSender(
-                                    pagedFile.openReadableByteChannel() ) );
+                            ctx.writeAndFlush( new PagedFileSender( pagedFile.openReadableByteChannel(),
+                                    pagedFile.fileSize() ) );
                         }
                     }
                     else
                     {
-                        ctx.writeAndFlush( new FileSender( fs.open( file, "r" ) ) );
+                        ctx.writeAndFlush( fileSender( fs.open( file, "r" ) ) );
                     }
                 }
             }
@@ -113,6 +117,15 @@ public class GetStoreRequestHandler extends SimpleChannelInboundHandler<GetStore
         protocol.expect( State.MESSAGE_TYPE );
     }
 
+    private static ChunkedInput<?> fileSender( StoreChannel channel )
+    {
+        if ( channel instanceof StoreFileChannel )
+        {
+            return new FileRegionSender( StoreFileChannelUnwrapper.unwrap( channel ) );
+        }
+        return new FileSender( channel );
+    }
+
     private void endStoreCopy( Status status, ChannelHandlerContext ctx, long lastCommittedTxBeforeStoreCopy )
     {
         ctx.write( ResponseMessageType.STORE_COPY_FINISHED );
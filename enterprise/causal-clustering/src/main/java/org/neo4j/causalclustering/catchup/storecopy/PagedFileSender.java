@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.causalclustering.catchup.storecopy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+import org.neo4j.io.pagecache.impl.PagedReadableByteChannel;
+
+import static org.neo4j.causalclustering.catchup.storecopy.FileChunk.MAX_SIZE;
+
+/**
+ * Sends a file that is mapped by the page cache, by copying the page memory straight into off-heap buffers that are
+ * handed to the transport as is.
+ * <p>
+ * The pages cannot stay pinned while the transport writes them asynchronously, so every byte is still copied once,
+ * but only from native memory to native memory, through {@link PagedReadableByteChannel}.
+ */
+class PagedFileSender implements ChunkedInput<PreFramedFileChunk>
+{
+    private final ReadableByteChannel channel;
+    private final long fileSize;
+    private long bytesSent;
+    private boolean endOfInput;
+    private boolean sentLastChunk;
+    private ByteBuf preFetched;
+
+    PagedFileSender( ReadableByteChannel channel, long fileSize )
+    {
+        this.channel = channel;
+        this.fileSize = fileSize;
+    }
+
+    @Override
+    public boolean isEndOfInput() throws Exception
+    {
+        return sentLastChunk;
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        if ( preFetched != null )
+        {
+            preFetched.release();
+            preFetched = null;
+        }
+        channel.close();
+    }
+
+    @Override
+    public PreFramedFileChunk readChunk( ByteBufAllocator allocator ) throws Exception
+    {
+        if ( sentLastChunk )
+        {
+            return null;
+        }
+
+        ByteBuf chunk = preFetched != null ? preFetched : prefetch( allocator );
+        preFetched = null;
+        if ( chunk == null )
+        {
+            chunk = Unpooled.EMPTY_BUFFER;
+        }
+        try
+        {
+            preFetched = prefetch( allocator );
+        }
+        catch ( IOException e )
+        {
+            chunk.release();
+            throw e;
+        }
+        sentLastChunk = preFetched == null;
+        bytesSent += chunk.readableBytes();
+        return new PreFramedFileChunk( allocator, chunk, chunk.readableBytes(), sentLastChunk );
+    }
+
+    @Override
+    public PreFramedFileChunk readChunk( ChannelHandlerContext ctx ) throws Exception
+    {
+        return readChunk( ctx.alloc() );
+    }
+
+    @Override
+    public long length()
+    {
+        return fileSize;
+    }
+
+    @Override
+    public long progress()
+    {
+        return bytesSent;
+    }
+
+    private ByteBuf prefetch( ByteBufAllocator allocator ) throws IOException
+    {
+        if ( endOfInput )
+        {
+            return null;
+        }
+
+        ByteBuf buffer = allocator.directBuffer( MAX_SIZE, MAX_SIZE );
+        try
+        {
+            ByteBuffer target = buffer.nioBuffer( 0, MAX_SIZE );
+            while ( target.hasRemaining() )
+            {
+                if ( channel.read( target ) == -1 )
+                {
+                    endOfInput = true;
+                    break;
+                }
+            }
+            buffer.writerIndex( target.position() );
+        }
+        catch ( IOException e )
+        {
+            buffer.release();
+            throw e;
+        }
+
+        if ( buffer.isReadable() )
+        {
+            return buffer;
+        }
+        buffer.release();
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.causalclustering.catchup.storecopy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCountUtil;
+
+import org.neo4j.causalclustering.messaging.Message;
+
+/**
+ * A {@link FileChunk} that has already been framed for the catchup protocol, so that its payload can be handed
+ * to the transport as is, instead of being copied into the outbound buffer by the encoders.
+ * <p>
+ * The header holds everything that the {@link io.netty.handler.codec.LengthFieldPrepender}, the
+ * {@link org.neo4j.causalclustering.VersionPrepender} and the {@link FileChunkEncoder} would otherwise have written
+ * in front of the chunk bytes, and the payload is either a {@link ByteBuf} or a {@link io.netty.channel.FileRegion}.
+ * The bytes on the wire are identical to those of an encoded {@link FileChunk}.
+ */
+class PreFramedFileChunk extends AbstractReferenceCounted
+{
+    private static final int USE_MAX_SIZE_AND_EXPECT_MORE_CHUNKS = -1;
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Integer.BYTES;
+
+    private final ByteBuf header;
+    private final Object payload;
+
+    PreFramedFileChunk( ByteBufAllocator allocator, Object payload, int length, boolean last )
+    {
+        this.payload = payload;
+        header = allocator.buffer( HEADER_SIZE );
+        header.writeInt( Byte.BYTES + Integer.BYTES + length );
+        header.writeByte( Message.CURRENT_VERSION );
+        header.writeInt( last ? length : USE_MAX_SIZE_AND_EXPECT_MORE_CHUNKS );
+    }
+
+    ByteBuf header()
+    {
+        return header;
+    }
+
+    Object payload()
+    {
+        return payload;
+    }
+
+    @Override
+    public PreFramedFileChunk touch( Object hint )
+    {
+        header.touch( hint );
+        ReferenceCountUtil.touch( payload, hint );
+        return this;
+    }
+
+    @Override
+    protected void deallocate()
+    {
+        header.release();
+        ReferenceCountUtil.release( payload );
+    }
+}
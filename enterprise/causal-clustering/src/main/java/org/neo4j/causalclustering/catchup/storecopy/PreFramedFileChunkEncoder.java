@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.causalclustering.catchup.storecopy;
+
+import java.util.List;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageEncoder;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Splits a {@link PreFramedFileChunk} into its header and payload. This encoder must sit between the
+ * {@link io.netty.handler.codec.LengthFieldPrepender} and the head of the pipeline, because the chunks it passes on
+ * are already framed.
+ */
+public class PreFramedFileChunkEncoder extends MessageToMessageEncoder<PreFramedFileChunk>
+{
+    @Override
+    protected void encode( ChannelHandlerContext ctx, PreFramedFileChunk chunk, List<Object> out ) throws Exception
+    {
+        out.add( chunk.header().retain() );
+        out.add( ReferenceCountUtil.retain( chunk.payload() ) );
+    }
+}
@@ -96,7 +96,7 @@ public class TxPullRequestHandler extends SimpleChannelInboundHandler<TxPullRequ
         else if ( transactionIdStore.getLastCommittedTransactionId() >= firstTxId )
         {
             try ( IOCursor<CommittedTransactionRepresentation> cursor =
-                          logicalTransactionStore.getTransactions( firstTxId ) )
+                          logicalTransactionStore.streamTransactions( firstTxId ) )
             {
                 status = SUCCESS_END_OF_BATCH;
                 for ( int i = 0; i < batchSize; i++ )
@@ -62,6 +62,7 @@ import org.neo4j.kernel.impl.store.id.IdType;
 import org.neo4j.kernel.impl.store.id.configuration.IdTypeConfigurationProvider;
 import org.neo4j.kernel.impl.store.stats.IdBasedStoreEntityCounters;
 import org.neo4j.kernel.impl.util.Dependencies;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.storageengine.api.Token;
@@ -173,8 +174,8 @@ public class CoreStateMachinesModule
 
         dependencies.satisfyDependencies( replicatedTxStateMachine );
 
-        lockManager = createLockManager( config, platformModule.clock, logging, replicator, myself, leaderLocator,
-                replicatedLockTokenStateMachine );
+        lockManager = createLockManager( config, platformModule.clock, platformModule.jobScheduler, logging,
+                replicator, myself, leaderLocator, replicatedLockTokenStateMachine );
 
         RecoverConsensusLogIndex consensusLogIndexRecovery = new RecoverConsensusLogIndex( dependencies, logProvider );
 
@@ -223,11 +224,11 @@ public class CoreStateMachinesModule
                 idTypeConfigurationProvider );
     }
 
-    private Locks createLockManager( final Config config, Clock clock, final LogService logging,
-                                     final Replicator replicator, MemberId myself, LeaderLocator leaderLocator,
-                                     ReplicatedLockTokenStateMachine lockTokenStateMachine )
+    private Locks createLockManager( final Config config, Clock clock, JobScheduler jobScheduler,
+                                     final LogService logging, final Replicator replicator, MemberId myself,
+                                     LeaderLocator leaderLocator, ReplicatedLockTokenStateMachine lockTokenStateMachine )
     {
-        Locks localLocks = CommunityEditionModule.createLockManager( config, clock, logging );
+        Locks localLocks = CommunityEditionModule.createLockManager( config, clock, jobScheduler, logging );
         return new LeaderOnlyLockManager( myself, replicator, leaderLocator, localLocks, lockTokenStateMachine );
     }
 }
@@ -35,6 +35,7 @@ import org.neo4j.kernel.impl.api.state.TxState;
 import org.neo4j.kernel.impl.core.NonUniqueTokenException;
 import org.neo4j.kernel.impl.core.TokenHolder;
 import org.neo4j.kernel.impl.core.TokenNotFoundException;
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdType;
 import org.neo4j.kernel.impl.util.Dependencies;
@@ -118,7 +119,8 @@ abstract class ReplicatedTokenHolder<TOKEN extends Token> implements TokenHolder
         createToken( txState, tokenName, tokenId );
         try ( StorageStatement statement = storageEngine.storeReadLayer().newStatement() )
         {
-            storageEngine.createCommands( commands, txState, statement, ResourceLocker.NONE, Long.MAX_VALUE );
+            storageEngine.createCommands( commands, txState, statement, ResourceLocker.NONE, LockTracer.NONE,
+                    Long.MAX_VALUE );
         }
         catch ( CreateConstraintFailureException | TransactionFailureException | ConstraintValidationKernelException e )
         {
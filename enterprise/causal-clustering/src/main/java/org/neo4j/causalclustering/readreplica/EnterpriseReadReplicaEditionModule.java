@@ -131,7 +131,8 @@ public class EnterpriseReadReplicaEditionModule extends EditionModule
 
         GraphDatabaseFacade graphDatabaseFacade = platformModule.graphDatabaseFacade;
 
-        lockManager = dependencies.satisfyDependency( createLockManager( config, platformModule.clock, logging ) );
+        lockManager = dependencies.satisfyDependency( createLockManager( config, platformModule.clock,
+                platformModule.jobScheduler, logging ) );
 
         statementLocksFactory = new StatementLocksFactorySelector( lockManager, config, logging ).select();
 
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.causalclustering.catchup.storecopy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.FileRegion;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.neo4j.causalclustering.messaging.Message;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.causalclustering.catchup.storecopy.FileChunk.MAX_SIZE;
+
+public class FileRegionSenderTest
+{
+    @Rule
+    public TestDirectory testDirectory = TestDirectory.testDirectory();
+
+    private final Random random = new Random();
+    private final ByteBufAllocator allocator = UnpooledByteBufAllocator.DEFAULT;
+
+    @Test
+    public void sendEmptyFile() throws Exception
+    {
+        // given
+        FileRegionSender fileSender = new FileRegionSender( open( createFile( 0 ) ) );
+
+        // when + then
+        assertFalse( fileSender.isEndOfInput() );
+        PreFramedFileChunk chunk = fileSender.readChunk( allocator );
+        assertHeader( chunk, 0, 0 );
+        assertEquals( 0, ((ByteBuf) chunk.payload()).readableBytes() );
+        chunk.release();
+        assertNull( fileSender.readChunk( allocator ) );
+        assertTrue( fileSender.isEndOfInput() );
+        fileSender.close();
+    }
+
+    @Test
+    public void sendLargeFile() throws Exception
+    {
+        // given
+        FileRegionSender fileSender = new FileRegionSender( open( createFile( MAX_SIZE + (MAX_SIZE / 2) ) ) );
+
+        // when + then
+        PreFramedFileChunk first = fileSender.readChunk( allocator );
+        assertHeader( first, MAX_SIZE, -1 );
+        assertRegion( first, 0, MAX_SIZE );
+        first.release();
+        assertFalse( fileSender.isEndOfInput() );
+
+        PreFramedFileChunk last = fileSender.readChunk( allocator );
+        assertHeader( last, MAX_SIZE / 2, MAX_SIZE / 2 );
+        assertRegion( last, MAX_SIZE, MAX_SIZE / 2 );
+        last.release();
+        assertNull( fileSender.readChunk( allocator ) );
+        assertTrue( fileSender.isEndOfInput() );
+        fileSender.close();
+    }
+
+    @Test
+    public void sendLargeFileWithSizeMultipleOfTheChunkSize() throws Exception
+    {
+        // given
+        FileRegionSender fileSender = new FileRegionSender( open( createFile( MAX_SIZE * 2 ) ) );
+
+        // when + then
+        PreFramedFileChunk first = fileSender.readChunk( allocator );
+        assertHeader( first, MAX_SIZE, -1 );
+        first.release();
+        PreFramedFileChunk last = fileSender.readChunk( allocator );
+        assertHeader( last, MAX_SIZE, MAX_SIZE );
+        last.release();
+        assertNull( fileSender.readChunk( allocator ) );
+        assertTrue( fileSender.isEndOfInput() );
+        fileSender.close();
+    }
+
+    @Test
+    public void releasingChunksMustNotCloseTheFile() throws Exception
+    {
+        // given
+        FileChannel channel = open( createFile( MAX_SIZE * 2 ) );
+        FileRegionSender fileSender = new FileRegionSender( channel );
+
+        // when
+        fileSender.readChunk( allocator ).release();
+
+        // then
+        assertTrue( channel.isOpen() );
+        fileSender.close();
+        assertFalse( channel.isOpen() );
+    }
+
+    private File createFile( int size ) throws Exception
+    {
+        byte[] bytes = new byte[size];
+        random.nextBytes( bytes );
+        File file = testDirectory.file( "file" );
+        try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE ) )
+        {
+            channel.write( ByteBuffer.wrap( bytes ) );
+        }
+        return file;
+    }
+
+    private static FileChannel open( File file ) throws Exception
+    {
+        return FileChannel.open( file.toPath(), StandardOpenOption.READ );
+    }
+
+    private static void assertHeader( PreFramedFileChunk chunk, int length, int encodedLength )
+    {
+        ByteBuf header = chunk.header();
+        assertEquals( Byte.BYTES + Integer.BYTES + length, header.getInt( 0 ) );
+        assertEquals( Message.CURRENT_VERSION, header.getByte( Integer.BYTES ) );
+        assertEquals( encodedLength, header.getInt( Integer.BYTES + Byte.BYTES ) );
+    }
+
+    private static void assertRegion( PreFramedFileChunk chunk, long position, long count )
+    {
+        FileRegion region = (FileRegion) chunk.payload();
+        assertEquals( position, region.position() );
+        assertEquals( count, region.count() );
+    }
+}
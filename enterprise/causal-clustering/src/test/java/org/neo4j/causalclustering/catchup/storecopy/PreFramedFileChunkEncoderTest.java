@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.causalclustering.catchup.storecopy;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.FileRegion;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.neo4j.causalclustering.VersionPrepender;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.causalclustering.catchup.storecopy.FileChunk.MAX_SIZE;
+
+/**
+ * Checks that the pre-framed senders put exactly the same bytes on the wire as {@link FileSender} did through
+ * {@link FileChunkEncoder} and the version and length prependers.
+ */
+public class PreFramedFileChunkEncoderTest
+{
+    @Rule
+    public TestDirectory testDirectory = TestDirectory.testDirectory();
+
+    private final Random random = new Random();
+
+    @Test
+    public void fileRegionSenderMustMatchChunkedEncoderForEmptyFile() throws Exception
+    {
+        File file = createFile( 0 );
+        assertArrayEquals( encodeChunked( file ), encodePreFramed( new FileRegionSender( open( file ) ) ) );
+    }
+
+    @Test
+    public void fileRegionSenderMustMatchChunkedEncoderWithPartialLastChunk() throws Exception
+    {
+        File file = createFile( MAX_SIZE * 2 + MAX_SIZE / 3 );
+        assertArrayEquals( encodeChunked( file ), encodePreFramed( new FileRegionSender( open( file ) ) ) );
+    }
+
+    @Test
+    public void fileRegionSenderMustMatchChunkedEncoderForMultipleOfChunkSize() throws Exception
+    {
+        File file = createFile( MAX_SIZE * 3 );
+        assertArrayEquals( encodeChunked( file ), encodePreFramed( new FileRegionSender( open( file ) ) ) );
+    }
+
+    @Test
+    public void pagedFileSenderMustMatchChunkedEncoderForEmptyFile() throws Exception
+    {
+        File file = createFile( 0 );
+        assertArrayEquals( encodeChunked( file ), encodePreFramed( new PagedFileSender( open( file ), 0 ) ) );
+    }
+
+    @Test
+    public void pagedFileSenderMustMatchChunkedEncoderWithPartialLastChunk() throws Exception
+    {
+        int size = MAX_SIZE * 2 + MAX_SIZE / 3;
+        File file = createFile( size );
+        assertArrayEquals( encodeChunked( file ), encodePreFramed( new PagedFileSender( open( file ), size ) ) );
+    }
+
+    @Test
+    public void pagedFileSenderMustMatchChunkedEncoderForMultipleOfChunkSize() throws Exception
+    {
+        int size = MAX_SIZE * 3;
+        File file = createFile( size );
+        assertArrayEquals( encodeChunked( file ), encodePreFramed( new PagedFileSender( open( file ), size ) ) );
+    }
+
+    @Test
+    public void pagedFileSenderMustMatchChunkedEncoderForMappedFile() throws Exception
+    {
+        File file = createFile( MAX_SIZE * 3 );
+        try ( FileSystemAbstraction fs = new DefaultFileSystemAbstraction();
+              PageCache pageCache = StandalonePageCacheFactory.createPageCache( fs );
+              PagedFile pagedFile = pageCache.map( file, MAX_SIZE ) )
+        {
+            byte[] expected = encode( new FileSender( pagedFile.openReadableByteChannel() ) );
+            byte[] actual = encodePreFramed( new PagedFileSender( pagedFile.openReadableByteChannel(),
+                    pagedFile.fileSize() ) );
+            assertArrayEquals( expected, actual );
+        }
+    }
+
+    @Test
+    public void pagedFileSenderMustReportBytesSentOutOfFileSize() throws Exception
+    {
+        // given
+        int size = MAX_SIZE + MAX_SIZE / 2;
+        PagedFileSender fileSender = new PagedFileSender( open( createFile( size ) ), size );
+        assertEquals( size, fileSender.length() );
+        assertEquals( 0, fileSender.progress() );
+
+        // when + then
+        fileSender.readChunk( UnpooledByteBufAllocator.DEFAULT ).release();
+        assertEquals( MAX_SIZE, fileSender.progress() );
+        fileSender.readChunk( UnpooledByteBufAllocator.DEFAULT ).release();
+        assertEquals( size, fileSender.progress() );
+        assertTrue( fileSender.isEndOfInput() );
+        fileSender.close();
+    }
+
+    private byte[] encodeChunked( File file ) throws Exception
+    {
+        return encode( new FileSender( open( file ) ) );
+    }
+
+    private static byte[] encode( FileSender fileSender ) throws IOException
+    {
+        EmbeddedChannel channel = new EmbeddedChannel( new LengthFieldPrepender( 4 ), new VersionPrepender(),
+                new FileChunkEncoder(), new ChunkedWriteHandler() );
+        channel.writeAndFlush( fileSender );
+        return drain( channel );
+    }
+
+    private static byte[] encodePreFramed( ChunkedInput<PreFramedFileChunk> fileSender ) throws IOException
+    {
+        EmbeddedChannel channel = new EmbeddedChannel( new PreFramedFileChunkEncoder(), new LengthFieldPrepender( 4 ),
+                new VersionPrepender(), new FileChunkEncoder(), new ChunkedWriteHandler() );
+        channel.writeAndFlush( fileSender );
+        return drain( channel );
+    }
+
+    private static byte[] drain( EmbeddedChannel channel ) throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel target = Channels.newChannel( out );
+        Object message;
+        while ( (message = channel.readOutbound()) != null )
+        {
+            if ( message instanceof ByteBuf )
+            {
+                ByteBuf buffer = (ByteBuf) message;
+                buffer.readBytes( out, buffer.readableBytes() );
+            }
+            else
+            {
+                FileRegion region = (FileRegion) message;
+                long transferred = 0;
+                while ( transferred < region.count() )
+                {
+                    transferred += region.transferTo( target, transferred );
+                }
+            }
+            ReferenceCountUtil.release( message );
+        }
+        channel.finish();
+        return out.toByteArray();
+    }
+
+    private File createFile( int size ) throws IOException
+    {
+        byte[] bytes = new byte[size];
+        random.nextBytes( bytes );
+        File file = testDirectory.file( "file" );
+        try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE ) )
+        {
+            channel.write( ByteBuffer.wrap( bytes ) );
+        }
+        return file;
+    }
+
+    private static FileChannel open( File file ) throws IOException
+    {
+        return FileChannel.open( file.toPath(), StandardOpenOption.READ );
+    }
+}
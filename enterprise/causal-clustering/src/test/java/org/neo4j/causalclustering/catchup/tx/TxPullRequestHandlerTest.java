@@ -71,7 +71,7 @@ public class TxPullRequestHandlerTest
         when( transactionIdStore.getLastCommittedTransactionId() ).thenReturn( 15L );
 
         LogicalTransactionStore logicalTransactionStore = mock( LogicalTransactionStore.class );
-        when( logicalTransactionStore.getTransactions( 14L ) ).thenReturn( txCursor( cursor( tx( 14 ), tx( 15 ) ) ) );
+        when( logicalTransactionStore.streamTransactions( 14L ) ).thenReturn( txCursor( cursor( tx( 14 ), tx( 15 ) ) ) );
 
         TxPullRequestHandler txPullRequestHandler =
                 new TxPullRequestHandler( new CatchupServerProtocol(), () -> storeId, () -> true,
@@ -100,7 +100,7 @@ public class TxPullRequestHandlerTest
         when( transactionIdStore.getLastCommittedTransactionId() ).thenReturn( 15L );
 
         LogicalTransactionStore logicalTransactionStore = mock( LogicalTransactionStore.class );
-        when( logicalTransactionStore.getTransactions( 14L ) ).thenReturn( txCursor(
+        when( logicalTransactionStore.streamTransactions( 14L ) ).thenReturn( txCursor(
                 cursor( tx( 14 ), tx( 15 ), tx( 16 ), tx( 17 ) ) ) );
 
         TxPullRequestHandler txPullRequestHandler =
@@ -155,7 +155,7 @@ public class TxPullRequestHandlerTest
         when( transactionIdStore.getLastCommittedTransactionId() ).thenReturn( 15L );
 
         LogicalTransactionStore logicalTransactionStore = mock( LogicalTransactionStore.class );
-        when( logicalTransactionStore.getTransactions( 14L ) ).thenThrow( new NoSuchTransactionException( 14 ) );
+        when( logicalTransactionStore.streamTransactions( 14L ) ).thenThrow( new NoSuchTransactionException( 14 ) );
 
         TxPullRequestHandler txPullRequestHandler =
                 new TxPullRequestHandler( new CatchupServerProtocol(), () -> storeId, () -> true,
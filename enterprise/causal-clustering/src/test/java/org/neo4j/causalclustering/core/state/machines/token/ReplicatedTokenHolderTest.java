@@ -24,6 +24,7 @@ import org.junit.Test;
 import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
 
+import org.neo4j.kernel.impl.locking.LockTracer;
 import org.neo4j.kernel.impl.store.id.IdGenerator;
 import org.neo4j.kernel.impl.store.id.IdGeneratorFactory;
 import org.neo4j.kernel.impl.store.id.IdType;
@@ -135,7 +136,8 @@ public class ReplicatedTokenHolderTest
             } );
             return null;
         } ).when( storageEngine ).createCommands( anyCollection(), any( ReadableTransactionState.class ),
-                any( StorageStatement.class ), any( ResourceLocker.class ), anyLong() );
+                any( StorageStatement.class ), any( ResourceLocker.class ), any( LockTracer.class ),
+                anyLong() );
 
         StoreReadLayer readLayer = mock( StoreReadLayer.class );
         when( readLayer.newStatement() ).thenReturn( mock( StorageStatement.class ) );
@@ -175,4 +175,53 @@ public class BlockLogBuffer implements Closeable
         }
         return result;
     }
+
+    /**
+     * Like {@link #write(ReadableByteChannel)}, but reads the data in large runs through the given buffer, and writes
+     * every full block straight from it to the target, instead of assembling each block in the internal buffer.
+     */
+    public long write( ReadableByteChannel data, ByteBuffer temporaryBuffer ) throws IOException
+    {
+        long result = 0;
+        int bytesRead;
+        temporaryBuffer.clear();
+        while ( (bytesRead = data.read( temporaryBuffer )) >= 0 )
+        {
+            temporaryBuffer.flip();
+            put( temporaryBuffer );
+            temporaryBuffer.clear();
+            result += bytesRead;
+        }
+        return result;
+    }
+
+    private void put( ByteBuffer source ) throws IOException
+    {
+        while ( source.hasRemaining() )
+        {
+            if ( byteBuffer.position() == 1 && source.remaining() > DATA_SIZE )
+            {
+                // Nothing is buffered, and this block is not the last one, so it can go out as is
+                ByteBuffer block = source.slice();
+                block.limit( DATA_SIZE );
+                target.writeByte( FULL_BLOCK_AND_MORE );
+                target.writeBytes( block );
+                monitor.bytesWritten( MAX_SIZE );
+                source.position( source.position() + DATA_SIZE );
+            }
+            else
+            {
+                if ( byteBuffer.position() == MAX_SIZE )
+                {
+                    // The buffered block is full, and more data follows
+                    flush( MAX_SIZE );
+                }
+                int length = Math.min( MAX_SIZE - byteBuffer.position(), source.remaining() );
+                ByteBuffer run = source.slice();
+                run.limit( length );
+                byteBuffer.put( run );
+                source.position( source.position() + length );
+            }
+        }
+    }
 }
@@ -89,6 +89,18 @@ public class ExternallyManagedPageCache implements PageCache
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public long flushDirtyPages( IOLimiter limiter ) throws IOException
+    {
+        return delegate.flushDirtyPages( limiter );
+    }
+
+    @Override
+    public long dirtyPageCount()
+    {
+        return delegate.dirtyPageCount();
+    }
+
     @Override
     public int pageSize()
     {
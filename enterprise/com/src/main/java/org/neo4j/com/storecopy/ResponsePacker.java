@@ -100,7 +100,7 @@ public class ResponsePacker
             throws Exception
     {
         try ( IOCursor<CommittedTransactionRepresentation> cursor = transactionStore
-                .getTransactions( startingAtTransactionId ) )
+                .streamTransactions( startingAtTransactionId ) )
         {
             while ( cursor.next() && !visitor.visit( cursor.get() ) )
             {
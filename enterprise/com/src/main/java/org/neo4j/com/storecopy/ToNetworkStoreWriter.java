@@ -51,14 +51,13 @@ public class ToNetworkStoreWriter implements StoreWriter
         targetBuffer.writeShort( chars.length );
         Protocol.writeChars( targetBuffer, chars );
         targetBuffer.writeByte( hasData ? 1 : 0 );
-        // TODO Make use of temporaryBuffer?
         BlockLogBuffer buffer = new BlockLogBuffer( targetBuffer, bufferMonitor );
         long totalWritten = Short.BYTES + chars.length* Character.BYTES + Byte.BYTES;
         if ( hasData )
         {
             targetBuffer.writeInt( requiredElementAlignment );
             totalWritten += Integer.BYTES;
-            totalWritten += buffer.write( data );
+            totalWritten += buffer.write( data, temporaryBuffer );
             buffer.close();
         }
         return totalWritten;
@@ -56,7 +56,7 @@ public class ResponsePackerTest
         LogicalTransactionStore transactionStore = mock( LogicalTransactionStore.class );
         long lastAppliedTransactionId = 5L;
         TransactionCursor endlessCursor = new EndlessCursor( lastAppliedTransactionId+1 );
-        when( transactionStore.getTransactions( anyLong() ) ).thenReturn( endlessCursor );
+        when( transactionStore.streamTransactions( anyLong() ) ).thenReturn( endlessCursor );
         final long targetTransactionId = 8L;
         final TransactionIdStore transactionIdStore = new DeadSimpleTransactionIdStore( targetTransactionId, 0,
                 BASE_TX_COMMIT_TIMESTAMP, 0, 0 );
@@ -136,6 +136,7 @@ import org.neo4j.kernel.impl.coreapi.CoreAPIAvailabilityGuard;
 import org.neo4j.kernel.impl.enterprise.EnterpriseConstraintSemantics;
 import org.neo4j.kernel.impl.enterprise.EnterpriseEditionModule;
 import org.neo4j.kernel.impl.enterprise.StandardBoltConnectionTracker;
+import org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings;
 import org.neo4j.kernel.impl.enterprise.id.EnterpriseIdTypeConfigurationProvider;
 import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.ConfigurableIOLimiter;
 import org.neo4j.kernel.impl.factory.CanWrite;
@@ -477,9 +478,13 @@ public class HighlyAvailableEditionModule
                 clusterClient ) );
 
         // Create HA services
+        // Slaves lock index entries on the master without intention locks on their labels, which an escalated
+        // lock on the master would not see
+        config.augment( MapUtil.stringMap( EnterpriseEditionSettings.lock_escalation_threshold.name(), "0" ) );
         lockManager = dependencies.satisfyDependency(
                 createLockManager( componentSwitcherContainer, config, masterDelegateInvocationHandler,
-                        requestContextFactory, platformModule.availabilityGuard, platformModule.clock, logging ) );
+                        requestContextFactory, platformModule.availabilityGuard, platformModule.clock,
+                        platformModule.jobScheduler, logging ) );
 
         statementLocksFactory = new StatementLocksFactorySelector( lockManager, config, logging ).select();
 
@@ -640,13 +645,15 @@ public class HighlyAvailableEditionModule
 
     private Locks createLockManager( ComponentSwitcherContainer componentSwitcherContainer, Config config,
             DelegateInvocationHandler<Master> masterDelegateInvocationHandler,
-            RequestContextFactory requestContextFactory, AvailabilityGuard availabilityGuard, Clock clock, LogService logService )
+            RequestContextFactory requestContextFactory, AvailabilityGuard availabilityGuard, Clock clock,
+            JobScheduler jobScheduler, LogService logService )
     {
         DelegateInvocationHandler<Locks> lockManagerDelegate = new DelegateInvocationHandler<>( Locks.class );
         Locks lockManager = (Locks) newProxyInstance( Locks.class.getClassLoader(), new Class[]{Locks.class},
                 lockManagerDelegate );
 
-        Factory<Locks> locksFactory = () -> CommunityEditionModule.createLockManager( config, clock, logService );
+        Factory<Locks> locksFactory =
+                () -> CommunityEditionModule.createLockManager( config, clock, jobScheduler, logService );
 
         LockManagerSwitcher lockManagerModeSwitcher = new LockManagerSwitcher(
                 lockManagerDelegate, masterDelegateInvocationHandler, requestContextFactory, availabilityGuard,
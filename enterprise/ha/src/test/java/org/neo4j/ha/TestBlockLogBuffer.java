@@ -19,10 +19,13 @@
  */
 package org.neo4j.ha;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
@@ -280,6 +283,63 @@ public class TestBlockLogBuffer
         assertThat( actual, new ArrayMatches<byte[]>( Arrays.copyOfRange( bytesValue, 510, 600 ) ) );
     }
 
+    @Test
+    public void writeThroughTemporaryBufferMustMatchWriteWithPartialLastBlock() throws Exception
+    {
+        byte[] data = randomBytes( 600 );
+
+        byte[] expected = write( data, null );
+        assertThat( write( data, ByteBuffer.allocate( 100 ) ), new ArrayMatches<>( expected ) );
+        assertThat( write( data, ByteBuffer.allocate( 4096 ) ), new ArrayMatches<>( expected ) );
+        assertThat( write( data, ByteBuffer.allocateDirect( 4096 ) ), new ArrayMatches<>( expected ) );
+    }
+
+    @Test
+    public void writeThroughTemporaryBufferMustMatchWriteWithOnlyFullBlocks() throws Exception
+    {
+        byte[] data = randomBytes( 255 * 3 );
+
+        byte[] expected = write( data, null );
+        assertEquals( (byte) 255, expected[expected.length - 256] );
+        assertThat( write( data, ByteBuffer.allocate( 255 ) ), new ArrayMatches<>( expected ) );
+        assertThat( write( data, ByteBuffer.allocate( 256 ) ), new ArrayMatches<>( expected ) );
+        assertThat( write( data, ByteBuffer.allocate( 4096 ) ), new ArrayMatches<>( expected ) );
+    }
+
+    @Test
+    public void writeThroughTemporaryBufferMustMatchWriteWithSingleBlock() throws Exception
+    {
+        for ( int length : new int[] {1, 254, 255} )
+        {
+            byte[] data = randomBytes( length );
+
+            byte[] expected = write( data, null );
+            assertThat( write( data, ByteBuffer.allocate( 10 ) ), new ArrayMatches<>( expected ) );
+            assertThat( write( data, ByteBuffer.allocate( 4096 ) ), new ArrayMatches<>( expected ) );
+        }
+    }
+
+    private static byte[] randomBytes( int length )
+    {
+        byte[] bytes = new byte[length];
+        ThreadLocalRandom.current().nextBytes( bytes );
+        return bytes;
+    }
+
+    private static byte[] write( byte[] data, ByteBuffer temporaryBuffer ) throws IOException
+    {
+        ChannelBuffer target = ChannelBuffers.dynamicBuffer();
+        BlockLogBuffer buffer = new BlockLogBuffer( target, new Monitors().newMonitor( ByteCounterMonitor.class ) );
+        ReadableByteChannel channel = Channels.newChannel( new ByteArrayInputStream( data ) );
+        long written = temporaryBuffer == null ? buffer.write( channel ) : buffer.write( channel, temporaryBuffer );
+        buffer.close();
+        assertEquals( data.length, written );
+
+        byte[] bytes = new byte[target.readableBytes()];
+        target.readBytes( bytes );
+        return bytes;
+    }
+
     private class ArrayMatches<T> extends BaseMatcher<T>
     {
         private final T expected;
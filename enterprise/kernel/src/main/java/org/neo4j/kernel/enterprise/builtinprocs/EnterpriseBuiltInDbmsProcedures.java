@@ -46,6 +46,7 @@ import org.neo4j.kernel.api.proc.UserFunctionSignature;
 import org.neo4j.kernel.api.security.SecurityContext;
 import org.neo4j.kernel.impl.api.KernelTransactions;
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.impl.locking.LockContentionMonitor;
 import org.neo4j.kernel.impl.proc.Procedures;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.procedure.Context;
@@ -275,6 +276,17 @@ public class EnterpriseBuiltInDbmsProcedures
         }
     }
 
+    @Description( "List the resources that transactions have waited the most times to lock, since the database " +
+                  "started, most waited for first. The counts are estimates, which may be too high by at most " +
+                  "waitsOverestimate." )
+    @Procedure( name = "dbms.listLockContention", mode = DBMS )
+    public Stream<LockContentionResult> listLockContention()
+    {
+        assertAdmin();
+        return resolver.resolveDependency( LockContentionMonitor.class ).mostContendedResources().stream()
+                .map( LockContentionResult::new );
+    }
+
     @Description( "Kill all transactions executing the query with the given query id." )
     @Procedure( name = "dbms.killQuery", mode = DBMS )
     public Stream<QueryTerminationResult> killQuery( @Name( "id" ) String idText )
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.enterprise.builtinprocs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.kernel.impl.locking.ContendedResource;
+
+public class LockContentionResult
+{
+    public final String resourceType;
+    public final long resourceId;
+    public final long waits;
+    public final long waitsOverestimate;
+    public final long waitTimeMillis;
+
+    public LockContentionResult( ContendedResource resource )
+    {
+        this.resourceType = resource.resourceType().name();
+        this.resourceId = resource.resourceId();
+        this.waits = resource.waits();
+        this.waitsOverestimate = resource.overestimate();
+        this.waitTimeMillis = TimeUnit.NANOSECONDS.toMillis( resource.waitNanos() );
+    }
+}
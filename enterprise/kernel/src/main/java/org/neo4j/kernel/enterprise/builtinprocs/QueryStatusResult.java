@@ -65,6 +65,12 @@ public class QueryStatusResult
     public final long activeLockCount;
     /** EXPERIMENTAL: added in Neo4j 3.2 */
     public final long waitTimeMillis; // TODO: we want this field to be of a Duration type (when Cypher supports that)
+    /** EXPERIMENTAL: added in Neo4j 3.2 */
+    public final long pageHits;
+    /** EXPERIMENTAL: added in Neo4j 3.2 */
+    public final long pageFaults;
+    /** EXPERIMENTAL: added in Neo4j 3.2 */
+    public final long allocatedBytes;
     public final Map<String,Object> metaData;
     public final List<Map<String,String>> indexes;
 
@@ -81,7 +87,10 @@ public class QueryStatusResult
                 q.cpuTimeMillis(),
                 q.status(),
                 q.activeLockCount(),
-                q.waitTimeMillis() );
+                q.waitTimeMillis(),
+                q.pageHits(),
+                q.pageFaults(),
+                q.allocatedBytes() );
     }
 
     private QueryStatusResult(
@@ -95,7 +104,10 @@ public class QueryStatusResult
             long cpuTimeMillis,
             Map<String,Object> status,
             long activeLockCount,
-            long waitTimeMillis
+            long waitTimeMillis,
+            long pageHits,
+            long pageFaults,
+            long allocatedBytes
     ) {
         this.queryId = queryId.toString();
         this.username = username;
@@ -113,6 +125,9 @@ public class QueryStatusResult
         this.status = status;
         this.activeLockCount = activeLockCount;
         this.waitTimeMillis = waitTimeMillis;
+        this.pageHits = pageHits;
+        this.pageFaults = pageFaults;
+        this.allocatedBytes = allocatedBytes;
         this.planner = query.planner;
         this.runtime = query.runtime;
         this.indexes = query.indexes();
@@ -25,10 +25,17 @@ import org.neo4j.configuration.Description;
 import org.neo4j.configuration.LoadableConfig;
 import org.neo4j.graphdb.config.Setting;
 import org.neo4j.kernel.configuration.Internal;
+import org.neo4j.kernel.impl.enterprise.lock.forseti.DeadlockVictimPolicy;
 import org.neo4j.kernel.impl.store.id.IdType;
 
+import static org.neo4j.kernel.configuration.Settings.BOOLEAN;
+import static org.neo4j.kernel.configuration.Settings.DURATION;
+import static org.neo4j.kernel.configuration.Settings.FALSE;
+import static org.neo4j.kernel.configuration.Settings.INTEGER;
 import static org.neo4j.kernel.configuration.Settings.STRING;
 import static org.neo4j.kernel.configuration.Settings.list;
+import static org.neo4j.kernel.configuration.Settings.min;
+import static org.neo4j.kernel.configuration.Settings.options;
 import static org.neo4j.kernel.configuration.Settings.optionsIgnoreCase;
 import static org.neo4j.kernel.configuration.Settings.setting;
 import static org.neo4j.kernel.impl.store.id.IdType.NODE;
@@ -47,6 +54,41 @@ public class EnterpriseEditionSettings implements LoadableConfig
             "dbms.ids.reuse.types.override", list( ",", optionsIgnoreCase( NODE, RELATIONSHIP ) ),
             String.join( ",", IdType.RELATIONSHIP.name(), IdType.NODE.name() ) );
 
+    @Internal
+    @Description( "Detect deadlocks between transactions waiting for locks from a dedicated thread, which looks for " +
+                  "cycles in a graph of which transactions wait for which, instead of having the waiting " +
+                  "transactions look for deadlocks themselves while they wait. Only applies to the forseti lock " +
+                  "manager." )
+    public static final Setting<Boolean> lock_wait_for_graph_enabled =
+            setting( "unsupported.dbms.locks.wait_for_graph.enabled", BOOLEAN, FALSE );
+
+    @Internal
+    @Description( "How often the deadlock detection thread looks for deadlocks, when no transaction has started " +
+                  "waiting for a lock in the meantime. Only applies if " +
+                  "unsupported.dbms.locks.wait_for_graph.enabled is set." )
+    public static final Setting<Long> lock_wait_for_graph_interval =
+            setting( "unsupported.dbms.locks.wait_for_graph.interval", DURATION, "10ms" );
+
+    @Internal
+    @Description( "Which transaction the deadlock detection thread aborts, when it finds transactions in a deadlock: " +
+                  "the YOUNGEST one, the one that holds the FEWEST_LOCKS, or the one that has done the LEAST_WORK, " +
+                  "as judged by the number of exclusive locks it holds. Only applies if " +
+                  "unsupported.dbms.locks.wait_for_graph.enabled is set." )
+    public static final Setting<DeadlockVictimPolicy> lock_wait_for_graph_victim = setting(
+            "unsupported.dbms.locks.wait_for_graph.victim", options( DeadlockVictimPolicy.class ),
+            DeadlockVictimPolicy.YOUNGEST.name() );
+
+    @Internal
+    @Description( "How many locks a transaction may take on resources that belong to the same parent resource, such " +
+                  "as the index entries of a label, before the forseti lock manager tries to escalate them to one " +
+                  "exclusive lock on the parent, and stops locking its resources one by one. The escalation is only " +
+                  "tried, never waited for, so it does not make transactions wait for each other or deadlock. " +
+                  "Enabling it makes every lock on such a resource also take a shared lock on its parent. " +
+                  "0 disables lock escalation. It is always disabled on HA clusters, whose slaves lock resources " +
+                  "on the master without locking their parents." )
+    public static final Setting<Integer> lock_escalation_threshold =
+            setting( "unsupported.dbms.locks.escalation_threshold", INTEGER, "0", min( 0 ) );
+
     @Internal
     public static final Setting<String> security_module = setting( "unsupported.dbms.security.module", STRING,
             ENTERPRISE_SECURITY_MODULE_ID );
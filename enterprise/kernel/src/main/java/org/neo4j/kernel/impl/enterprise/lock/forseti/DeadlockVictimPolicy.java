@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.lock.forseti;
+
+import java.util.Comparator;
+
+/**
+ * When the {@link WaitForGraphDeadlockDetector} finds a cycle of clients waiting for each other, it aborts exactly
+ * one of them, the victim, and lets the others continue. The policies order the clients in a cycle such that the
+ * client that is cheapest to abort comes first. Ties are broken by aborting the client with the highest id, so that
+ * every client in the cycle agrees on who the victim is.
+ * <p/>
+ * Unlike {@link DeadlockStrategies}, which are asked about one pair of clients at a time by the clients themselves,
+ * these policies see the whole cycle at once.
+ */
+public enum DeadlockVictimPolicy implements Comparator<ForsetiClient>
+{
+    /**
+     * Abort the client that was most recently handed out by the lock manager, which is usually the one whose
+     * transaction started last.
+     */
+    YOUNGEST
+            {
+                @Override
+                int compareCost( ForsetiClient a, ForsetiClient b )
+                {
+                    return Long.compare( b.startTimeNanos(), a.startTimeNanos() );
+                }
+            },
+
+    /**
+     * Abort the client that holds the fewest locks, such that as few other clients as possible have to wait for
+     * its locks to be taken again.
+     */
+    FEWEST_LOCKS
+            {
+                @Override
+                int compareCost( ForsetiClient a, ForsetiClient b )
+                {
+                    return Integer.compare( a.lockCount(), b.lockCount() );
+                }
+            },
+
+    /**
+     * Abort the client that holds the fewest exclusive locks, which stand in for how much its transaction has
+     * written, and so for how much work would have to be redone. Ties are broken by the total number of locks held.
+     */
+    LEAST_WORK
+            {
+                @Override
+                int compareCost( ForsetiClient a, ForsetiClient b )
+                {
+                    int byExclusiveLocks = Integer.compare( a.exclusiveLockCount(), b.exclusiveLockCount() );
+                    return byExclusiveLocks != 0 ? byExclusiveLocks : FEWEST_LOCKS.compareCost( a, b );
+                }
+            };
+
+    /**
+     * @return a negative number if aborting {@code a} is cheaper than aborting {@code b}, a positive number if it is
+     * more expensive, and zero if it is just as expensive.
+     */
+    abstract int compareCost( ForsetiClient a, ForsetiClient b );
+
+    @Override
+    public int compare( ForsetiClient a, ForsetiClient b )
+    {
+        int byCost = compareCost( a, b );
+        return byCost != 0 ? byCost : Integer.compare( b.id(), a.id() );
+    }
+}
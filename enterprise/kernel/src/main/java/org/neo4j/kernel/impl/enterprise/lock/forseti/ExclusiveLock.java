@@ -36,6 +36,12 @@ class ExclusiveLock implements ForsetiLockManager.Lock
         owner.copyWaitListTo( waitList );
     }
 
+    @Override
+    public void copyHolderIdsInto( SimpleBitSet holders )
+    {
+        holders.put( owner.id() );
+    }
+
     @Override
     public int detectDeadlock( int client )
     {
@@ -22,7 +22,6 @@ package org.neo4j.kernel.impl.enterprise.lock.forseti;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ConcurrentMap;
 import java.util.function.IntFunction;
 import java.util.stream.Stream;
 
@@ -30,9 +29,11 @@ import org.neo4j.collection.pool.Pool;
 import org.neo4j.collection.primitive.Primitive;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongIntMap;
+import org.neo4j.collection.primitive.PrimitiveLongObjectConcurrentMap;
 import org.neo4j.collection.primitive.PrimitiveLongVisitor;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings;
 import org.neo4j.kernel.impl.enterprise.lock.forseti.ForsetiLockManager.DeadlockResolutionStrategy;
 import org.neo4j.kernel.impl.locking.ActiveLock;
 import org.neo4j.kernel.impl.locking.LockAcquisitionTimeoutException;
@@ -68,7 +69,7 @@ public class ForsetiClient implements Locks.Client
     private final int clientId;
 
     /** resourceType -> lock map. These are the global lock maps, shared across all clients. */
-    private final ConcurrentMap<Long,ForsetiLockManager.Lock>[] lockMaps;
+    private final PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock>[] lockMaps;
 
     /** resourceType -> wait strategy */
     private final WaitStrategy<AcquireLockTimeoutException>[] waitStrategies;
@@ -76,6 +77,14 @@ public class ForsetiClient implements Locks.Client
     /** How to resolve deadlocks. */
     private final DeadlockResolutionStrategy deadlockResolutionStrategy;
 
+    /**
+     * Finds deadlocks on behalf of this client, or null if this client finds them itself, by way of its wait list.
+     */
+    private final WaitForGraphDeadlockDetector deadlockDetector;
+
+    /** The lock this client waits for, as registered with the {@link #deadlockDetector}, if any. */
+    private WaitForGraphDeadlockDetector.Wait currentWait;
+
     /** Handle to return client to pool when closed. */
     private final Pool<ForsetiClient> clientPool;
 
@@ -94,6 +103,19 @@ public class ForsetiClient implements Locks.Client
     /** @see {@link #sharedLockCounts} */
     private final PrimitiveLongIntMap[] exclusiveLockCounts;
 
+    /**
+     * How many locks this client has taken within each parent resource, used to decide when to escalate them to one
+     * exclusive lock on the parent. Array[ parentType -> Map( parentId -> num locks taken ) ]
+     */
+    private final PrimitiveLongIntMap[] lockCountsWithin;
+
+    /**
+     * After how many locks within the same parent to try escalating to an exclusive lock on the parent, or 0 to never
+     * escalate, in which case no intention locks are taken either.
+     * @see EnterpriseEditionSettings#lock_escalation_threshold
+     */
+    private final int lockEscalationThreshold;
+
     /**
      * Time within which any particular lock should be acquired.
      * @see GraphDatabaseSettings#lock_acquisition_timeout
@@ -120,25 +142,34 @@ public class ForsetiClient implements Locks.Client
 
     private volatile boolean hasLocks;
 
-    public ForsetiClient( int id, ConcurrentMap<Long,ForsetiLockManager.Lock>[] lockMaps, WaitStrategy<AcquireLockTimeoutException>[] waitStrategies,
-            Pool<ForsetiClient> clientPool, DeadlockResolutionStrategy deadlockResolutionStrategy, IntFunction<ForsetiClient> clientById,
-            long lockAcquisitionTimeoutMillis, Clock clock )
+    /** When this client was last handed out by the lock manager, in {@link System#nanoTime()}. */
+    private volatile long startTimeNanos;
+
+    public ForsetiClient( int id, PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock>[] lockMaps,
+            WaitStrategy<AcquireLockTimeoutException>[] waitStrategies,
+            Pool<ForsetiClient> clientPool, DeadlockResolutionStrategy deadlockResolutionStrategy,
+            WaitForGraphDeadlockDetector deadlockDetector, IntFunction<ForsetiClient> clientById,
+            long lockAcquisitionTimeoutMillis, int lockEscalationThreshold, Clock clock )
     {
         this.clientId = id;
         this.lockMaps = lockMaps;
         this.waitStrategies = waitStrategies;
         this.deadlockResolutionStrategy = deadlockResolutionStrategy;
+        this.deadlockDetector = deadlockDetector;
         this.clientPool = clientPool;
         this.clientById = clientById;
         this.sharedLockCounts = new PrimitiveLongIntMap[lockMaps.length];
         this.exclusiveLockCounts = new PrimitiveLongIntMap[lockMaps.length];
+        this.lockCountsWithin = new PrimitiveLongIntMap[lockMaps.length];
         this.lockAcquisitionTimeoutMillis = lockAcquisitionTimeoutMillis;
+        this.lockEscalationThreshold = lockEscalationThreshold;
         this.clock = clock;
 
         for ( int i = 0; i < sharedLockCounts.length; i++ )
         {
             sharedLockCounts[i] = Primitive.longIntMap();
             exclusiveLockCounts[i] = Primitive.longIntMap();
+            lockCountsWithin[i] = Primitive.longIntMap();
         }
     }
 
@@ -149,6 +180,7 @@ public class ForsetiClient implements Locks.Client
     public void reset()
     {
         stateHolder.reset();
+        startTimeNanos = System.nanoTime();
     }
 
     @Override
@@ -160,7 +192,7 @@ public class ForsetiClient implements Locks.Client
         try
         {
             // Grab the global lock map we will be using
-            ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
 
             // And grab our local lock maps
             PrimitiveLongIntMap heldShareLocks = sharedLockCounts[resourceType.typeId()];
@@ -259,6 +291,7 @@ public class ForsetiClient implements Locks.Client
                     {
                         waitEvent.close();
                     }
+                    stopWaiting();
                 }
 
                 // Got the lock, no longer waiting for anyone.
@@ -282,7 +315,7 @@ public class ForsetiClient implements Locks.Client
 
         try
         {
-            ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
             PrimitiveLongIntMap heldLocks = exclusiveLockCounts[resourceType.typeId()];
 
             for ( long resourceId : resourceIds )
@@ -334,6 +367,7 @@ public class ForsetiClient implements Locks.Client
                     {
                         waitEvent.close();
                     }
+                    stopWaiting();
                 }
 
                 clearWaitList();
@@ -354,7 +388,7 @@ public class ForsetiClient implements Locks.Client
 
         try
         {
-            ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
             PrimitiveLongIntMap heldLocks = exclusiveLockCounts[resourceType.typeId()];
 
             int heldCount = heldLocks.get( resourceId );
@@ -406,7 +440,7 @@ public class ForsetiClient implements Locks.Client
 
         try
         {
-            ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
             PrimitiveLongIntMap heldShareLocks = sharedLockCounts[resourceType.typeId()];
             PrimitiveLongIntMap heldExclusiveLocks = exclusiveLockCounts[resourceType.typeId()];
 
@@ -569,7 +603,7 @@ public class ForsetiClient implements Locks.Client
                 return;
             }
 
-            ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
+            PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap = lockMaps[resourceType.typeId()];
             if ( sharedLockCounts[resourceType.typeId()].containsKey( resourceId ) )
             {
                 // We are still holding a shared lock, so we will release it to be reused
@@ -606,6 +640,101 @@ public class ForsetiClient implements Locks.Client
         }
     }
 
+    @Override
+    public void acquireSharedWithin( LockTracer tracer, ResourceType parentType, long parentId,
+            ResourceType resourceType, long resourceId ) throws AcquireLockTimeoutException
+    {
+        if ( lockEscalationThreshold == 0 )
+        {
+            // Without escalation, no client ever holds the parent exclusively, so there is no need for intention locks
+            acquireShared( tracer, resourceType, resourceId );
+            return;
+        }
+        acquireShared( tracer, parentType, parentId );
+        if ( !isCoveredByParent( parentType, parentId, resourceId, sharedLockCounts[resourceType.typeId()] ) )
+        {
+            acquireShared( tracer, resourceType, resourceId );
+        }
+    }
+
+    @Override
+    public void acquireExclusiveWithin( LockTracer tracer, ResourceType parentType, long parentId,
+            ResourceType resourceType, long resourceId ) throws AcquireLockTimeoutException
+    {
+        if ( lockEscalationThreshold == 0 )
+        {
+            acquireExclusive( tracer, resourceType, resourceId );
+            return;
+        }
+        acquireShared( tracer, parentType, parentId );
+        if ( !isCoveredByParent( parentType, parentId, resourceId, exclusiveLockCounts[resourceType.typeId()] ) )
+        {
+            acquireExclusive( tracer, resourceType, resourceId );
+        }
+    }
+
+    @Override
+    public void releaseSharedWithin( ResourceType parentType, long parentId, ResourceType resourceType,
+            long resourceId )
+    {
+        if ( lockEscalationThreshold == 0 )
+        {
+            releaseShared( resourceType, resourceId );
+            return;
+        }
+        // Locks that were covered by the parent when they were acquired were never taken
+        if ( sharedLockCounts[resourceType.typeId()].containsKey( resourceId ) )
+        {
+            releaseShared( resourceType, resourceId );
+        }
+        releaseShared( parentType, parentId );
+    }
+
+    @Override
+    public void releaseExclusiveWithin( ResourceType parentType, long parentId, ResourceType resourceType,
+            long resourceId )
+    {
+        if ( lockEscalationThreshold == 0 )
+        {
+            releaseExclusive( resourceType, resourceId );
+            return;
+        }
+        if ( exclusiveLockCounts[resourceType.typeId()].containsKey( resourceId ) )
+        {
+            releaseExclusive( resourceType, resourceId );
+        }
+        releaseShared( parentType, parentId );
+    }
+
+    /**
+     * Decide whether a lock on a resource within the given parent, which this client holds an intention lock on, can
+     * be skipped because this client holds the parent exclusively. Every {@link #lockEscalationThreshold} locks
+     * taken within the parent, this tries to get the parent exclusively, without waiting for it. An exclusive lock
+     * on the parent is kept until this client is closed, such that the locks it covers stay covered.
+     *
+     * @param heldLocks the locks of the resource type and mode that is about to be locked, which are taken as usual
+     * if this client already holds the resource, to keep the acquire and release calls of the resource balanced.
+     * @return true if the resource need not be locked.
+     */
+    private boolean isCoveredByParent( ResourceType parentType, long parentId, long resourceId,
+            PrimitiveLongIntMap heldLocks )
+    {
+        if ( heldLocks.containsKey( resourceId ) )
+        {
+            return false;
+        }
+        if ( exclusiveLockCounts[parentType.typeId()].containsKey( parentId ) )
+        {
+            return true;
+        }
+
+        PrimitiveLongIntMap counts = lockCountsWithin[parentType.typeId()];
+        int count = counts.get( parentId );
+        count = count == -1 ? 1 : count + 1;
+        counts.put( parentId, count );
+        return count % lockEscalationThreshold == 0 && tryExclusiveLock( parentType, parentId );
+    }
+
     private void releaseAllClientLocks()
     {
         // Force the release of all locks held.
@@ -614,6 +743,12 @@ public class ForsetiClient implements Locks.Client
             PrimitiveLongIntMap exclusiveLocks = exclusiveLockCounts[i];
             PrimitiveLongIntMap sharedLocks = sharedLockCounts[i];
 
+            // There are few parent resources, such as labels, so this map never grows large
+            if ( lockCountsWithin[i].size() > 0 )
+            {
+                lockCountsWithin[i].clear();
+            }
+
             // Begin releasing exclusive locks, as we may hold both exclusive and shared locks on the same resource,
             // and so releasing exclusive locks means we can "throw away" our shared lock (which would normally have
             // been re-instated after releasing the exclusive lock).
@@ -795,7 +930,7 @@ public class ForsetiClient implements Locks.Client
     }
 
     /** Release a lock from the global pool. */
-    private void releaseGlobalLock( ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap, long resourceId )
+    private void releaseGlobalLock( PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap, long resourceId )
     {
         ForsetiLockManager.Lock lock = lockMap.get( resourceId );
         if ( lock instanceof ExclusiveLock )
@@ -836,7 +971,7 @@ public class ForsetiClient implements Locks.Client
             LockTracer tracer,
             LockWaitEvent waitEvent,
             ResourceType resourceType,
-            ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap,
+            PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap,
             long resourceId,
             SharedLock sharedLock,
             long waitStartMillis )
@@ -927,6 +1062,7 @@ public class ForsetiClient implements Locks.Client
                 {
                     waitEvent.close();
                 }
+                stopWaiting();
             }
         }
         return false;
@@ -942,10 +1078,17 @@ public class ForsetiClient implements Locks.Client
     {
         waitList.clear();
         waitList.put( clientId );
+        stopWaiting();
     }
 
     private void markAsWaitingFor( ForsetiLockManager.Lock lock, ResourceType type, long resourceId )
     {
+        if ( deadlockDetector != null )
+        {
+            markAsWaitingForWithDetector( lock, type, resourceId );
+            return;
+        }
+
         clearWaitList();
         lock.copyHolderWaitListsInto( waitList );
 
@@ -971,6 +1114,35 @@ public class ForsetiClient implements Locks.Client
         }
     }
 
+    /**
+     * Let the deadlock detector know what we are waiting for, the first time we wait for a lock, and check whether
+     * it has found us to be in a deadlock since. This is all the work a waiting client does to detect deadlocks.
+     */
+    private void markAsWaitingForWithDetector( ForsetiLockManager.Lock lock, ResourceType type, long resourceId )
+    {
+        if ( currentWait == null || !currentWait.isFor( lock, type, resourceId ) )
+        {
+            stopWaiting();
+            currentWait = deadlockDetector.startWaiting( this, lock, type, resourceId );
+        }
+
+        String deadlockMessage = currentWait.deadlockMessage();
+        if ( deadlockMessage != null )
+        {
+            stopWaiting();
+            throw new DeadlockDetectedException( deadlockMessage );
+        }
+    }
+
+    private void stopWaiting()
+    {
+        if ( currentWait != null )
+        {
+            deadlockDetector.stopWaiting( currentWait );
+            currentWait = null;
+        }
+    }
+
     /**
      * @return an approximate (assuming data is concurrently being edited) count of the number of locks held by this
      * client.
@@ -989,6 +1161,25 @@ public class ForsetiClient implements Locks.Client
         return count;
     }
 
+    /**
+     * @return an approximate (assuming data is concurrently being edited) count of the number of exclusive locks held
+     * by this client.
+     */
+    public int exclusiveLockCount()
+    {
+        int count = 0;
+        for ( PrimitiveLongIntMap exclusiveLockCount : exclusiveLockCounts )
+        {
+            count += exclusiveLockCount.size();
+        }
+        return count;
+    }
+
+    public long startTimeNanos()
+    {
+        return startTimeNanos;
+    }
+
     public String describeWaitList()
     {
         StringBuilder sb = new StringBuilder( format( "%nClient[%d] waits for [", id() ) );
@@ -1052,9 +1243,10 @@ public class ForsetiClient implements Locks.Client
      */
     private class ReleaseSharedDontCheckExclusiveVisitor implements PrimitiveLongVisitor<RuntimeException>
     {
-        private ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap;
+        private PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap;
 
-        private PrimitiveLongVisitor<RuntimeException> initialize( ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap )
+        private PrimitiveLongVisitor<RuntimeException> initialize(
+                PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap )
         {
             this.lockMap = lockMap;
             return this;
@@ -1075,10 +1267,10 @@ public class ForsetiClient implements Locks.Client
     private class ReleaseExclusiveLocksAndClearSharedVisitor implements PrimitiveLongVisitor<RuntimeException>
     {
         private PrimitiveLongIntMap sharedLockCounts;
-        private ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap;
+        private PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap;
 
         private PrimitiveLongVisitor<RuntimeException> initialize( PrimitiveLongIntMap sharedLockCounts,
-                                                                   ConcurrentMap<Long,ForsetiLockManager.Lock> lockMap )
+                PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock> lockMap )
         {
             this.sharedLockCounts = sharedLockCounts;
             this.lockMap = lockMap;
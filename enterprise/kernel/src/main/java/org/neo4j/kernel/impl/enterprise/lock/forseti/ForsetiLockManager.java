@@ -20,7 +20,6 @@
 package org.neo4j.kernel.impl.enterprise.lock.forseti;
 
 import java.time.Clock;
-import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -29,10 +28,16 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.collection.pool.LinkedQueuePool;
 import org.neo4j.collection.pool.Pool;
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveLongObjectConcurrentMap;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings;
 import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.collection.SimpleBitSet;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.logging.NullLogProvider;
 import org.neo4j.storageengine.api.lock.AcquireLockTimeoutException;
 import org.neo4j.storageengine.api.lock.ResourceType;
 import org.neo4j.storageengine.api.lock.WaitStrategy;
@@ -87,6 +92,22 @@ import org.neo4j.storageengine.api.lock.WaitStrategy;
  * <p/>
  * As it performs this union, B will find itself in A's waiting list, and when it does, it has detected a deadlock.
  * <p/>
+ * Alternatively, if {@link EnterpriseEditionSettings#lock_wait_for_graph_enabled} is set, waiting clients leave
+ * deadlock detection to a {@link WaitForGraphDeadlockDetector}. It keeps a graph of which clients wait for which
+ * locks, and looks for cycles in it from a thread of its own, such that waiting clients do not spend any time
+ * propagating wait lists.
+ * <p/>
+ * <h2>Lock escalation</h2>
+ * <p/>
+ * Lock escalation is off by default. When it is enabled, resources that belong to a parent, such as index entries of
+ * a label, are locked after taking a shared lock, the intention lock, on the parent. When a client has taken
+ * {@link EnterpriseEditionSettings#lock_escalation_threshold} locks within the same parent, it tries to upgrade its
+ * intention lock to an exclusive lock on the parent. That only succeeds if no other client holds an intention lock on
+ * it, and is never waited for. Once a client holds the parent exclusively, it stops locking the resources within it,
+ * since no other client can lock them without an intention lock, which keeps bulk operations on a label from filling
+ * the lock maps with millions of locks. With escalation off, the resources are locked as usual, without intention
+ * locks, so locking them costs no more than any other lock.
+ * <p/>
  * <p/>
  * <h2>Future work</h2>
  * <p/>
@@ -94,8 +115,8 @@ import org.neo4j.storageengine.api.lock.WaitStrategy;
  * be worth investigating fat locks, or in any case optimize the current way SharedLock adds and removes clients from
  * its holder list.
  * <p/>
- * The maps used by Forseti should be replaced by faster concurrent maps, perhaps a striped hopscotch map or something
- * similar.
+ * The lock maps are striped primitive maps, so that locking does not box resource ids or allocate map entries. They
+ * could perhaps be made lock-free, should the stripe locks ever show up as a point of contention.
  */
 public class ForsetiLockManager implements Locks
 {
@@ -108,6 +129,12 @@ public class ForsetiLockManager implements Locks
          */
         void copyHolderWaitListsInto( SimpleBitSet waitList );
 
+        /**
+         * Put the ids of the clients currently holding this lock into the given bitset. This is how the
+         * {@link WaitForGraphDeadlockDetector} finds out who a waiting client is waiting for.
+         */
+        void copyHolderIdsInto( SimpleBitSet holders );
+
         /**
          * Check if anyone holding this lock is currently waiting for the specified client. This
          * check is performed continuously while a client waits for a lock - if the check ever
@@ -164,8 +191,11 @@ public class ForsetiLockManager implements Locks
         boolean shouldAbort( ForsetiClient clientThatsAsking, ForsetiClient clientWereDeadlockedWith );
     }
 
+    /** The number of stripes of each lock map, which bounds the number of concurrent updates to a lock map. */
+    private static final int LOCK_MAP_CONCURRENCY_LEVEL = 128;
+
     /** Pointers to lock maps, one array per resource type. */
-    private final ConcurrentMap<Long,ForsetiLockManager.Lock>[] lockMaps;
+    private final PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock>[] lockMaps;
 
     /** Reverse lookup resource types by id, used for introspection */
     private final ResourceType[] resourceTypes;
@@ -173,13 +203,26 @@ public class ForsetiLockManager implements Locks
     /** Pool forseti clients. */
     private final Pool<ForsetiClient> clientPool;
 
+    /** Finds deadlocks from a job of its own, if configured to, or null if the clients find them themselves. */
+    private final WaitForGraphDeadlockDetector deadlockDetector;
+
     private volatile boolean closed;
 
-    @SuppressWarnings( "unchecked" )
+    /**
+     * Create a lock manager whose clients find deadlocks themselves, which is all it can do without a
+     * {@link JobScheduler} to run a {@link WaitForGraphDeadlockDetector} on.
+     */
     public ForsetiLockManager( Config config, Clock clock, ResourceType... resourceTypes )
+    {
+        this( config, clock, null, NullLogProvider.getInstance(), resourceTypes );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    public ForsetiLockManager( Config config, Clock clock, JobScheduler jobScheduler, LogProvider logProvider,
+            ResourceType... resourceTypes )
     {
         int maxResourceId = findMaxResourceId( resourceTypes );
-        this.lockMaps = new ConcurrentMap[maxResourceId];
+        this.lockMaps = new PrimitiveLongObjectConcurrentMap[maxResourceId];
         this.resourceTypes = new ResourceType[maxResourceId];
 
         /* Wait strategies per resource type */
@@ -187,7 +230,7 @@ public class ForsetiLockManager implements Locks
 
         for ( ResourceType type : resourceTypes )
         {
-            this.lockMaps[type.typeId()] = new ConcurrentHashMap<>( 16, 0.6f, 512 );
+            this.lockMaps[type.typeId()] = Primitive.concurrentLongObjectMap( LOCK_MAP_CONCURRENCY_LEVEL );
             waitStrategies[type.typeId()] = type.waitStrategy();
             this.resourceTypes[type.typeId()] = type;
         }
@@ -196,7 +239,23 @@ public class ForsetiLockManager implements Locks
         // TODO be good enough. In fact, we could add the required fields for such a stack
         // TODO to the ForsetiClient objects themselves, making the stack garbage-free in
         // TODO the (presumably) common case of client re-use.
-        clientPool = new ForsetiClientFlyweightPool( config, clock, lockMaps, waitStrategies );
+        if ( config.get( EnterpriseEditionSettings.lock_wait_for_graph_enabled ) )
+        {
+            if ( jobScheduler == null )
+            {
+                throw new IllegalArgumentException( "Deadlock detection by wait-for graph, as configured by " +
+                        EnterpriseEditionSettings.lock_wait_for_graph_enabled.name() + ", needs a job scheduler" );
+            }
+            deadlockDetector = new WaitForGraphDeadlockDetector( lockMaps,
+                    config.get( EnterpriseEditionSettings.lock_wait_for_graph_victim ),
+                    config.get( EnterpriseEditionSettings.lock_wait_for_graph_interval ), jobScheduler,
+                    logProvider.getLog( getClass() ) );
+        }
+        else
+        {
+            deadlockDetector = null;
+        }
+        clientPool = new ForsetiClientFlyweightPool( config, clock, lockMaps, waitStrategies, deadlockDetector );
     }
 
     /**
@@ -226,11 +285,11 @@ public class ForsetiLockManager implements Locks
             if ( lockMaps[i] != null )
             {
                 ResourceType type = resourceTypes[i];
-                for ( Map.Entry<Long,Lock> entry : lockMaps[i].entrySet() )
+                lockMaps[i].visitEntries( ( resourceId, lock ) ->
                 {
-                    Lock lock = entry.getValue();
-                    out.visit( type, entry.getKey(), lock.describeWaitList(), 0, System.identityHashCode( lock ) );
-                }
+                    out.visit( type, resourceId, lock.describeWaitList(), 0, System.identityHashCode( lock ) );
+                    return false;
+                } );
             }
         }
     }
@@ -249,6 +308,10 @@ public class ForsetiLockManager implements Locks
     public void close()
     {
         this.closed = true;
+        if ( deadlockDetector != null )
+        {
+            deadlockDetector.close();
+        }
     }
 
     private static class ForsetiClientFlyweightPool extends LinkedQueuePool<ForsetiClient>
@@ -263,18 +326,22 @@ public class ForsetiLockManager implements Locks
         private final ConcurrentMap<Integer,ForsetiClient> clientsById = new ConcurrentHashMap<>();
         private final Config config;
         private final Clock clock;
-        private final ConcurrentMap<Long,ForsetiLockManager.Lock>[] lockMaps;
+        private final PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock>[] lockMaps;
         private final WaitStrategy<AcquireLockTimeoutException>[] waitStrategies;
         private final DeadlockResolutionStrategy deadlockResolutionStrategy = DeadlockStrategies.DEFAULT;
+        private final WaitForGraphDeadlockDetector deadlockDetector;
 
-        public ForsetiClientFlyweightPool( Config config, Clock clock, ConcurrentMap<Long,Lock>[] lockMaps,
-                WaitStrategy<AcquireLockTimeoutException>[] waitStrategies )
+        public ForsetiClientFlyweightPool( Config config, Clock clock,
+                PrimitiveLongObjectConcurrentMap<Lock>[] lockMaps,
+                WaitStrategy<AcquireLockTimeoutException>[] waitStrategies,
+                WaitForGraphDeadlockDetector deadlockDetector )
         {
             super( 128, null );
             this.config = config;
             this.clock = clock;
             this.lockMaps = lockMaps;
             this.waitStrategies = waitStrategies;
+            this.deadlockDetector = deadlockDetector;
         }
 
         @Override
@@ -286,8 +353,10 @@ public class ForsetiLockManager implements Locks
                 id = clientIds.getAndIncrement();
             }
             long lockAcquisitionTimeoutMillis = config.get( GraphDatabaseSettings.lock_acquisition_timeout );
+            int lockEscalationThreshold = config.get( EnterpriseEditionSettings.lock_escalation_threshold );
             ForsetiClient client = new ForsetiClient( id, lockMaps, waitStrategies, this,
-                    deadlockResolutionStrategy, clientsById::get, lockAcquisitionTimeoutMillis, clock );
+                    deadlockResolutionStrategy, deadlockDetector, clientsById::get, lockAcquisitionTimeoutMillis,
+                    lockEscalationThreshold, clock );
             clientsById.put( id, client );
             return client;
         }
@@ -25,6 +25,8 @@ import org.neo4j.helpers.Service;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.logging.LogProvider;
 import org.neo4j.storageengine.api.lock.ResourceType;
 
 @Service.Implementation( Locks.Factory.class )
@@ -36,8 +38,9 @@ public class ForsetiLocksFactory extends Locks.Factory
     }
 
     @Override
-    public Locks newInstance( Config config, Clock clock, ResourceType[] resourceTypes )
+    public Locks newInstance( Config config, Clock clock, ResourceType[] resourceTypes, JobScheduler jobScheduler,
+            LogProvider logProvider )
     {
-        return new ForsetiLockManager( config, clock, ResourceTypes.values() );
+        return new ForsetiLockManager( config, clock, jobScheduler, logProvider, ResourceTypes.values() );
     }
 }
@@ -126,6 +126,23 @@ class SharedLock implements ForsetiLockManager.Lock
         }
     }
 
+    @Override
+    public void copyHolderIdsInto( SimpleBitSet holders )
+    {
+        for ( int i = 0; i < clientsHoldingThisLock.length; i++ )
+        {
+            AtomicReferenceArray<ForsetiClient> clients = clientsHoldingThisLock[i];
+            for ( int j = 0; clients != null && j < clients.length(); j++ )
+            {
+                ForsetiClient client = clients.get( j );
+                if ( client != null )
+                {
+                    holders.put( client.id() );
+                }
+            }
+        }
+    }
+
     @Override
     public int detectDeadlock( int clientId )
     {
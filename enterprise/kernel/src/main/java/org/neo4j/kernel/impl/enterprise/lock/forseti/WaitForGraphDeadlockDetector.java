@@ -0,0 +1,436 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.lock.forseti;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.collection.primitive.Primitive;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.collection.primitive.PrimitiveIntObjectMap;
+import org.neo4j.collection.primitive.PrimitiveLongObjectConcurrentMap;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.collection.SimpleBitSet;
+import org.neo4j.logging.Log;
+import org.neo4j.storageengine.api.lock.ResourceType;
+
+/**
+ * Finds deadlocks between Forseti clients from a dedicated thread, instead of having the waiting clients find them
+ * by way of their wait lists, as described in {@link ForsetiLockManager}.
+ * <p/>
+ * A client that has to wait for a lock registers a {@link Wait} here, and removes it once it gets the lock or gives
+ * up. The registered waits are the edges from waiting clients to the locks they wait for, in a wait-for graph that is
+ * kept up to date as clients block and unblock. The edges from locks to the clients holding them change all the
+ * time, so they are read from the locks themselves when looking for cycles. While it waits, a client does nothing
+ * but check whether it has been chosen to abort.
+ * <p/>
+ * The detector thread looks for cycles soon after a client starts waiting while others are already waiting, but no
+ * more often than every {@link #MIN_SCAN_INTERVAL_NANOS}, and otherwise once per scan interval, since a deadlock can
+ * also form by locks changing hands while clients wait for them. For each cycle, one client is picked by the
+ * {@link DeadlockVictimPolicy} and aborted, which it notices the next time it checks on its wait. The graph is read
+ * while it changes, so every edge of a cycle is checked once more before a client is aborted.
+ * <p/>
+ * The detector runs as a {@link JobScheduler.Groups#deadlockDetection} job, which is started when clients start
+ * waiting, and stops once no client has waited for a while, such that a lock manager without contention has no
+ * thread at all.
+ */
+class WaitForGraphDeadlockDetector implements Runnable
+{
+    /** The shortest time between two searches for deadlocks, no matter how many clients start waiting. */
+    static final long MIN_SCAN_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos( 100 );
+    /** For how long there must have been no waiting clients, before the detector thread stops. */
+    private static final long IDLE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+
+    private static final int UNVISITED = 0;
+    private static final int ON_PATH = 1;
+    private static final int VISITED = 2;
+
+    private final PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock>[] lockMaps;
+    private final DeadlockVictimPolicy victimPolicy;
+    private final long scanIntervalNanos;
+    private final JobScheduler jobScheduler;
+    private final Log log;
+
+    /** The waits of the clients that are waiting right now, by client id. */
+    private final PrimitiveLongObjectConcurrentMap<Wait> waits = Primitive.concurrentLongObjectMap( 16 );
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile JobScheduler.JobHandle job;
+    private volatile Thread thread;
+    private volatile boolean closed;
+
+    WaitForGraphDeadlockDetector( PrimitiveLongObjectConcurrentMap<ForsetiLockManager.Lock>[] lockMaps,
+            DeadlockVictimPolicy victimPolicy, long scanIntervalMillis, JobScheduler jobScheduler, Log log )
+    {
+        this.lockMaps = lockMaps;
+        this.victimPolicy = victimPolicy;
+        this.scanIntervalNanos = TimeUnit.MILLISECONDS.toNanos( scanIntervalMillis );
+        this.jobScheduler = jobScheduler;
+        this.log = log;
+    }
+
+    /**
+     * Called by a client that has to wait for the given lock, which it found in the lock map for the given resource.
+     * The client must call {@link #stopWaiting(Wait)} with the returned wait once it no longer waits for that lock.
+     */
+    Wait startWaiting( ForsetiClient client, ForsetiLockManager.Lock lock, ResourceType resourceType,
+            long resourceId )
+    {
+        Wait wait = new Wait( client, lock, resourceType, resourceId );
+        waits.put( client.id(), wait );
+        if ( !running.get() && running.compareAndSet( false, true ) )
+        {
+            startJob();
+        }
+        else if ( waits.size() > 1 )
+        {
+            // It takes at least two waiting clients to deadlock
+            LockSupport.unpark( thread );
+        }
+        return wait;
+    }
+
+    void stopWaiting( Wait wait )
+    {
+        waits.remove( wait.client.id() );
+    }
+
+    void close()
+    {
+        closed = true;
+        LockSupport.unpark( thread );
+        JobScheduler.JobHandle lastJob = job;
+        if ( lastJob != null )
+        {
+            try
+            {
+                lastJob.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( ExecutionException e )
+            {
+                log.error( "Deadlock detector failed", e.getCause() );
+            }
+        }
+    }
+
+    private void startJob()
+    {
+        if ( closed )
+        {
+            running.set( false );
+            return;
+        }
+        try
+        {
+            job = jobScheduler.schedule( JobScheduler.Groups.deadlockDetection, this );
+        }
+        catch ( RuntimeException e )
+        {
+            // Without a detector, the waiting clients still give up once their lock acquisition timeout expires
+            running.set( false );
+            log.error( "Unable to start the deadlock detector, deadlocks will not be detected", e );
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        thread = Thread.currentThread();
+        long lastWaitSeenNanos = System.nanoTime();
+        while ( !closed )
+        {
+            long scanStartNanos = System.nanoTime();
+            if ( waits.size() > 0 )
+            {
+                lastWaitSeenNanos = scanStartNanos;
+            }
+            else if ( scanStartNanos - lastWaitSeenNanos > IDLE_TIMEOUT_NANOS )
+            {
+                running.set( false );
+                // A client that started waiting before we stopped running relies on us to keep running
+                if ( waits.size() == 0 || !running.compareAndSet( false, true ) )
+                {
+                    return;
+                }
+            }
+
+            try
+            {
+                detectDeadlocks();
+            }
+            catch ( RuntimeException e )
+            {
+                // The graph is read while clients change it, so a search can stumble, e.g. on a client that is
+                // being reset. The next search reads the graph anew.
+                log.warn( "Search for deadlocks failed, will search again in the next scan", e );
+            }
+
+            LockSupport.parkNanos( this, scanIntervalNanos );
+            long nanosSinceScan;
+            while ( !closed && (nanosSinceScan = System.nanoTime() - scanStartNanos) < MIN_SCAN_INTERVAL_NANOS )
+            {
+                LockSupport.parkNanos( this, MIN_SCAN_INTERVAL_NANOS - nanosSinceScan );
+            }
+        }
+        running.set( false );
+    }
+
+    /**
+     * Look for cycles in the wait-for graph, and abort one client in each of them.
+     *
+     * @return the number of clients that were aborted.
+     */
+    int detectDeadlocks()
+    {
+        // Take a snapshot of who is waiting, skipping those that are about to stop waiting anyway
+        List<Vertex> vertices = new ArrayList<>();
+        PrimitiveIntObjectMap<Vertex> graph = Primitive.intObjectMap();
+        waits.visitEntries( ( clientId, wait ) ->
+        {
+            if ( wait.deadlockMessage == null && isCurrent( wait ) )
+            {
+                Vertex vertex = new Vertex( (int) clientId, wait );
+                vertices.add( vertex );
+                graph.put( vertex.clientId, vertex );
+            }
+            return false;
+        } );
+        if ( vertices.size() < 2 )
+        {
+            return 0;
+        }
+
+        // Only waiting clients can be part of a cycle, so only edges to them matter
+        SimpleBitSet holders = new SimpleBitSet( 64 );
+        for ( Vertex vertex : vertices )
+        {
+            vertex.waitsFor = waitsFor( vertex, graph, holders );
+        }
+
+        int aborted = 0;
+        List<Vertex> cycle;
+        while ( (cycle = findCycle( vertices, graph )) != null )
+        {
+            Vertex victim = chooseVictim( cycle );
+            if ( isStillDeadlocked( cycle, holders ) )
+            {
+                victim.wait.abort( describeDeadlock( victim, cycle ) );
+                aborted++;
+            }
+            // Either way, the victim no longer takes part in any cycle that we look for in this round
+            vertices.remove( victim );
+            graph.remove( victim.clientId );
+        }
+        return aborted;
+    }
+
+    private boolean isCurrent( Wait wait )
+    {
+        // A client that waits for a lock that is no longer in the lock map will retry, and find another lock
+        return lockMaps[wait.resourceType.typeId()].get( wait.resourceId ) == wait.lock;
+    }
+
+    private static int[] waitsFor( Vertex vertex, PrimitiveIntObjectMap<Vertex> graph, SimpleBitSet holders )
+    {
+        holders.clear();
+        vertex.wait.lock.copyHolderIdsInto( holders );
+        int[] waitsFor = new int[holders.size()];
+        int count = 0;
+        for ( PrimitiveIntIterator iterator = holders.iterator(); iterator.hasNext(); )
+        {
+            int holder = iterator.next();
+            // Clients waiting to upgrade a shared lock hold it themselves
+            if ( holder != vertex.clientId && graph.containsKey( holder ) )
+            {
+                waitsFor[count++] = holder;
+            }
+        }
+        return count == waitsFor.length ? waitsFor : Arrays.copyOf( waitsFor, count );
+    }
+
+    /**
+     * Depth first search for a cycle among the given vertices, without recursion since there can be as many vertices
+     * as there are clients.
+     *
+     * @return the vertices of a cycle, in the order in which they wait for each other, or null if there is no cycle.
+     */
+    private static List<Vertex> findCycle( List<Vertex> vertices, PrimitiveIntObjectMap<Vertex> graph )
+    {
+        for ( Vertex vertex : vertices )
+        {
+            vertex.state = UNVISITED;
+        }
+
+        List<Vertex> path = new ArrayList<>();
+        for ( Vertex root : vertices )
+        {
+            if ( root.state != UNVISITED )
+            {
+                continue;
+            }
+
+            root.visit();
+            path.add( root );
+            while ( !path.isEmpty() )
+            {
+                Vertex top = path.get( path.size() - 1 );
+                if ( top.nextEdge < top.waitsFor.length )
+                {
+                    Vertex next = graph.get( top.waitsFor[top.nextEdge++] );
+                    if ( next == null || next.state == VISITED )
+                    {
+                        continue;
+                    }
+                    if ( next.state == ON_PATH )
+                    {
+                        return new ArrayList<>( path.subList( path.indexOf( next ), path.size() ) );
+                    }
+                    next.visit();
+                    path.add( next );
+                }
+                else
+                {
+                    top.state = VISITED;
+                    path.remove( path.size() - 1 );
+                }
+            }
+        }
+        return null;
+    }
+
+    private Vertex chooseVictim( List<Vertex> cycle )
+    {
+        Vertex victim = cycle.get( 0 );
+        for ( Vertex candidate : cycle )
+        {
+            if ( victimPolicy.compare( candidate.wait.client, victim.wait.client ) < 0 )
+            {
+                victim = candidate;
+            }
+        }
+        return victim;
+    }
+
+    private boolean isStillDeadlocked( List<Vertex> cycle, SimpleBitSet holders )
+    {
+        for ( int i = 0; i < cycle.size(); i++ )
+        {
+            Wait wait = cycle.get( i ).wait;
+            Vertex next = cycle.get( (i + 1) % cycle.size() );
+            if ( waits.get( wait.client.id() ) != wait || wait.deadlockMessage != null || !isCurrent( wait ) )
+            {
+                return false;
+            }
+            holders.clear();
+            wait.lock.copyHolderIdsInto( holders );
+            if ( !holders.contains( next.clientId ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String describeDeadlock( Vertex victim, List<Vertex> cycle )
+    {
+        Wait wait = victim.wait;
+        StringBuilder message = new StringBuilder()
+                .append( wait.client ).append( " can't acquire " ).append( wait.lock )
+                .append( " on " ).append( wait.resourceType ).append( "(" ).append( wait.resourceId )
+                .append( "), because it is part of a cycle of clients waiting for each other:" );
+        int start = cycle.indexOf( victim );
+        for ( int i = 0; i < cycle.size(); i++ )
+        {
+            Wait waiter = cycle.get( (start + i) % cycle.size() ).wait;
+            Vertex holder = cycle.get( (start + i + 1) % cycle.size() );
+            message.append( "\n " ).append( waiter.client ).append( " waits for " ).append( waiter.resourceType )
+                    .append( "(" ).append( waiter.resourceId ).append( ") held by " ).append( holder.wait.client );
+        }
+        return message.toString();
+    }
+
+    /**
+     * A client waiting for a lock, from the time it found that it had to wait until it gets the lock or gives up.
+     */
+    static class Wait
+    {
+        private final ForsetiClient client;
+        private final ForsetiLockManager.Lock lock;
+        private final ResourceType resourceType;
+        private final long resourceId;
+        private volatile String deadlockMessage;
+
+        Wait( ForsetiClient client, ForsetiLockManager.Lock lock, ResourceType resourceType, long resourceId )
+        {
+            this.client = client;
+            this.lock = lock;
+            this.resourceType = resourceType;
+            this.resourceId = resourceId;
+        }
+
+        boolean isFor( ForsetiLockManager.Lock lock, ResourceType resourceType, long resourceId )
+        {
+            return this.lock == lock && this.resourceType == resourceType && this.resourceId == resourceId;
+        }
+
+        /**
+         * @return a description of the deadlock that this wait is part of, if the client has been chosen to abort
+         * because of it, or null if the client should keep waiting.
+         */
+        String deadlockMessage()
+        {
+            return deadlockMessage;
+        }
+
+        private void abort( String message )
+        {
+            deadlockMessage = message;
+        }
+    }
+
+    private static class Vertex
+    {
+        final int clientId;
+        final Wait wait;
+        int[] waitsFor;
+        int state;
+        int nextEdge;
+
+        Vertex( int clientId, Wait wait )
+        {
+            this.clientId = clientId;
+            this.wait = wait;
+        }
+
+        void visit()
+        {
+            state = ON_PATH;
+            nextEdge = 0;
+        }
+    }
+}
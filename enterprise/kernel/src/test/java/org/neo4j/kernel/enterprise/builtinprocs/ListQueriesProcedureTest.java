@@ -45,6 +45,7 @@ import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
@@ -55,6 +56,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.neo4j.graphdb.Label.label;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.cypher_hints_error;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.transaction_max_memory;
 import static org.neo4j.test.rule.concurrent.ThreadingRule.waitingWhileIn;
 
 public class ListQueriesProcedureTest
@@ -66,6 +68,8 @@ public class ListQueriesProcedureTest
         protected void configure( GraphDatabaseBuilder builder )
         {
             builder.setConfig( cypher_hints_error, "true" );
+            // memory is only accounted when there is a limit to account it against
+            builder.setConfig( transaction_max_memory, "1g" );
         }
     };
     @Rule
@@ -127,6 +131,45 @@ public class ListQueriesProcedureTest
         }
     }
 
+    @Test
+    public void shouldProvidePageHitsAndFaults() throws Exception
+    {
+        // given
+        String query = "MATCH (n) SET n.v = n.v * 2";
+        try ( Resource<Node> test = test( db::createNode, Transaction::acquireWriteLock, query ) )
+        {
+            // when
+            Map<String,Object> data = getQueryListing( query );
+
+            // then
+            assertThat( data, hasKey( "pageHits" ) );
+            assertThat( data.get( "pageHits" ), instanceOf( Long.class ) );
+            assertThat( data, hasKey( "pageFaults" ) );
+            assertThat( data.get( "pageFaults" ), instanceOf( Long.class ) );
+            long pins = (Long) data.get( "pageHits" ) + (Long) data.get( "pageFaults" );
+            assertThat( "the query must have read the node store before waiting for the lock",
+                    pins, greaterThanOrEqualTo( 1L ) );
+        }
+    }
+
+    @Test
+    public void shouldProvideAllocatedBytes() throws Exception
+    {
+        // given
+        String query = "CREATE (m:Marker) WITH m MATCH (n) WHERE n <> m SET n.v = 1";
+        try ( Resource<Node> test = test( db::createNode, Transaction::acquireWriteLock, query ) )
+        {
+            // when
+            Map<String,Object> data = getQueryListing( query );
+
+            // then
+            assertThat( data, hasKey( "allocatedBytes" ) );
+            assertThat( data.get( "allocatedBytes" ), instanceOf( Long.class ) );
+            assertThat( "the query must have created a node before waiting for the lock",
+                    (Long) data.get( "allocatedBytes" ), greaterThan( 0L ) );
+        }
+    }
+
     @Test
     public void shouldListPlannerAndRuntimeUsed() throws Exception
     {
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.lock.forseti;
+
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.LockTracer;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.time.Clocks;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings.lock_wait_for_graph_enabled;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+import static org.neo4j.time.CpuClock.CPU_CLOCK;
+
+/**
+ * Compares Forseti clients finding deadlocks by way of their wait lists, with the {@link WaitForGraphDeadlockDetector}
+ * finding them for them.
+ * <p/>
+ * {@link #detectDeadlocks()} makes {@code rounds} deadlocks, 1000 by default, for each of the cycle lengths in
+ * {@code cycles}, "2,4,16" by default. In each round, every client locks a node of its own, and then the node of
+ * the next client. It reports how long it took from the clients starting to lock the nodes of the others until one of
+ * them was aborted, and how much CPU time the clients and the detector used per deadlock.
+ * <p/>
+ * {@link #waitForContendedLocks()} has each of the thread counts in {@code threads}, "8,64" by default, lock one of
+ * {@code hotLocks} nodes at random, 4 by default, and hold it for {@code holdMicros} microseconds, 50 by default,
+ * for {@code seconds} seconds, 5 by default. There are no deadlocks, so this is the price of waiting for locks while
+ * looking for deadlocks. It reports the locks acquired per second, and the CPU time used per lock.
+ */
+@Ignore( "Not a test. A benchmark" )
+public class DeadlockDetectionBenchmark
+{
+    private static final int ROUNDS = Integer.getInteger( "rounds", 1000 );
+    private static final String CYCLES = System.getProperty( "cycles", "2,4,16" );
+    private static final String THREADS = System.getProperty( "threads", "8,64" );
+    private static final int HOT_LOCKS = Integer.getInteger( "hotLocks", 4 );
+    private static final long HOLD_MICROS = Long.getLong( "holdMicros", 50 );
+    private static final long SECONDS = Long.getLong( "seconds", 5 );
+
+    @Rule
+    public final LifeRule life = new LifeRule( true );
+    private final JobScheduler jobScheduler = life.add( new Neo4jJobScheduler() );
+
+    @Test
+    public void detectDeadlocks() throws Exception
+    {
+        for ( String cycle : CYCLES.split( "," ) )
+        {
+            int cycleLength = Integer.parseInt( cycle.trim() );
+            for ( boolean waitForGraph : new boolean[]{false, true} )
+            {
+                Locks locks = newLockManager( waitForGraph );
+                try
+                {
+                    DeadlockResult result = measureDeadlocks( locks, cycleLength );
+                    System.out.printf( "%-14s cycle of %2d: detected after %,8d us (median), %,8d us (99th " +
+                                       "percentile), %,6d us CPU per deadlock, %.2f aborts per deadlock%n",
+                            name( waitForGraph ), cycleLength, result.percentile( 0.5 ), result.percentile( 0.99 ),
+                            result.cpuNanos / 1000 / ROUNDS, result.aborts / (double) ROUNDS );
+                }
+                finally
+                {
+                    locks.close();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void waitForContendedLocks() throws Exception
+    {
+        for ( String threads : THREADS.split( "," ) )
+        {
+            int threadCount = Integer.parseInt( threads.trim() );
+            for ( boolean waitForGraph : new boolean[]{false, true} )
+            {
+                Locks locks = newLockManager( waitForGraph );
+                try
+                {
+                    long[] result = measureContention( locks, threadCount );
+                    System.out.printf( "%-14s %,4d threads: %,8d locks/s, %,6d ns CPU per lock%n",
+                            name( waitForGraph ), threadCount, result[0] / SECONDS, result[1] / Math.max( result[0], 1 ) );
+                }
+                finally
+                {
+                    locks.close();
+                }
+            }
+        }
+    }
+
+    private DeadlockResult measureDeadlocks( Locks locks, int cycleLength ) throws Exception
+    {
+        long[] detectionNanos = new long[ROUNDS];
+        LongAdder aborts = new LongAdder();
+        LongAdder cpuNanos = new LongAdder();
+        long[] roundStartNanos = new long[1];
+        CyclicBarrier lockNext = new CyclicBarrier( cycleLength, () -> roundStartNanos[0] = System.nanoTime() );
+        CyclicBarrier done = new CyclicBarrier( cycleLength );
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for ( int i = 0; i < cycleLength; i++ )
+        {
+            long own = i;
+            long next = (i + 1) % cycleLength;
+            Thread thread = new Thread( () ->
+            {
+                long cpuStart = CPU_CLOCK.cpuTimeNanos( Thread.currentThread() );
+                try
+                {
+                    for ( int round = 0; round < ROUNDS; round++ )
+                    {
+                        try ( Locks.Client client = locks.newClient() )
+                        {
+                            client.acquireExclusive( LockTracer.NONE, NODE, own );
+                            lockNext.await();
+                            try
+                            {
+                                client.acquireExclusive( LockTracer.NONE, NODE, next );
+                            }
+                            catch ( DeadlockDetectedException e )
+                            {
+                                long elapsed = System.nanoTime() - roundStartNanos[0];
+                                synchronized ( detectionNanos )
+                                {
+                                    // The first client to be aborted is when the deadlock was detected
+                                    if ( detectionNanos[round] == 0 )
+                                    {
+                                        detectionNanos[round] = elapsed;
+                                    }
+                                }
+                                aborts.increment();
+                            }
+                        }
+                        done.await();
+                    }
+                }
+                catch ( Throwable e )
+                {
+                    synchronized ( failures )
+                    {
+                        failures.add( e );
+                    }
+                }
+                cpuNanos.add( CPU_CLOCK.cpuTimeNanos( Thread.currentThread() ) - cpuStart );
+            } );
+            thread.start();
+            threads.add( thread );
+        }
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        if ( !failures.isEmpty() )
+        {
+            throw new AssertionError( failures.get( 0 ) );
+        }
+        return new DeadlockResult( detectionNanos, aborts.sum(), cpuNanos.sum() + detectorCpuNanos() );
+    }
+
+    private long[] measureContention( Locks locks, int threadCount ) throws Exception
+    {
+        AtomicBoolean end = new AtomicBoolean();
+        LongAdder acquired = new LongAdder();
+        LongAdder cpuNanos = new LongAdder();
+        List<Thread> threads = new ArrayList<>();
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            Thread thread = new Thread( () ->
+            {
+                long cpuStart = CPU_CLOCK.cpuTimeNanos( Thread.currentThread() );
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while ( !end.get() )
+                {
+                    try ( Locks.Client client = locks.newClient() )
+                    {
+                        client.acquireExclusive( LockTracer.NONE, NODE, random.nextInt( HOT_LOCKS ) );
+                        LockSupport.parkNanos( TimeUnit.MICROSECONDS.toNanos( HOLD_MICROS ) );
+                    }
+                    acquired.increment();
+                }
+                cpuNanos.add( CPU_CLOCK.cpuTimeNanos( Thread.currentThread() ) - cpuStart );
+            } );
+            thread.start();
+            threads.add( thread );
+        }
+        Thread.sleep( TimeUnit.SECONDS.toMillis( SECONDS ) );
+        end.set( true );
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+        return new long[]{acquired.sum(), cpuNanos.sum() + detectorCpuNanos()};
+    }
+
+    private static long detectorCpuNanos()
+    {
+        long cpuNanos = 0;
+        for ( Thread thread : Thread.getAllStackTraces().keySet() )
+        {
+            if ( thread.getName().startsWith( "neo4j." + JobScheduler.Groups.deadlockDetection.name() ) )
+            {
+                cpuNanos += CPU_CLOCK.cpuTimeNanos( thread );
+            }
+        }
+        return cpuNanos;
+    }
+
+    private Locks newLockManager( boolean waitForGraph )
+    {
+        Config config = Config.defaults().with(
+                stringMap( lock_wait_for_graph_enabled.name(), String.valueOf( waitForGraph ) ) );
+        return new ForsetiLockManager( config, Clocks.systemClock(), jobScheduler, NullLogProvider.getInstance(),
+                ResourceTypes.values() );
+    }
+
+    private static String name( boolean waitForGraph )
+    {
+        return waitForGraph ? "wait-for graph" : "wait lists";
+    }
+
+    private static class DeadlockResult
+    {
+        final long[] detectionNanos;
+        final long aborts;
+        final long cpuNanos;
+
+        DeadlockResult( long[] detectionNanos, long aborts, long cpuNanos )
+        {
+            this.detectionNanos = detectionNanos.clone();
+            Arrays.sort( this.detectionNanos );
+            this.aborts = aborts;
+            this.cpuNanos = cpuNanos;
+        }
+
+        long percentile( double percentile )
+        {
+            return detectionNanos[(int) ((detectionNanos.length - 1) * percentile)] / 1000;
+        }
+    }
+}
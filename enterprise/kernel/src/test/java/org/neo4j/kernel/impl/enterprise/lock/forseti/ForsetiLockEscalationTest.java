@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.lock.forseti;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.ActiveLock;
+import org.neo4j.kernel.impl.locking.LockTracer;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.storageengine.api.lock.ResourceType;
+import org.neo4j.time.Clocks;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings.lock_escalation_threshold;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.INDEX_ENTRY;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.LABEL;
+
+public class ForsetiLockEscalationTest
+{
+    private final Locks locks = new ForsetiLockManager(
+            Config.defaults().with( stringMap( lock_escalation_threshold.name(), "3" ) ), Clocks.systemClock(),
+            ResourceTypes.values() );
+    private final Locks.Client clientA = locks.newClient();
+    private final Locks.Client clientB = locks.newClient();
+
+    @After
+    public void tearDown()
+    {
+        clientA.close();
+        clientB.close();
+        locks.close();
+    }
+
+    @Test
+    public void shouldEscalateToExclusiveLockOnParentAfterThreshold() throws Exception
+    {
+        // When
+        for ( long indexEntry = 1; indexEntry <= 10; indexEntry++ )
+        {
+            clientA.acquireExclusiveWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, indexEntry );
+        }
+
+        // Then
+        assertTrue( holds( clientA, ActiveLock.EXCLUSIVE_MODE, LABEL, 1 ) );
+        assertEquals( 2, countLocks( clientA, INDEX_ENTRY ) );
+        assertFalse( clientB.trySharedLock( LABEL, 1 ) );
+        assertTrue( clientB.trySharedLock( LABEL, 2 ) );
+    }
+
+    @Test
+    public void shouldNotEscalateWhileOtherClientsHoldLocksWithinParent() throws Exception
+    {
+        // Given
+        clientB.acquireSharedWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, 100 );
+
+        // When
+        for ( long indexEntry = 1; indexEntry <= 10; indexEntry++ )
+        {
+            clientA.acquireExclusiveWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, indexEntry );
+        }
+
+        // Then
+        assertFalse( holds( clientA, ActiveLock.EXCLUSIVE_MODE, LABEL, 1 ) );
+        assertEquals( 10, countLocks( clientA, INDEX_ENTRY ) );
+    }
+
+    @Test
+    public void shouldKeepAcquireAndReleaseBalancedAcrossEscalation() throws Exception
+    {
+        // Given
+        clientA.acquireSharedWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, 1 );
+        clientA.acquireSharedWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, 2 );
+        clientA.acquireSharedWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, 3 );
+        assertTrue( holds( clientA, ActiveLock.EXCLUSIVE_MODE, LABEL, 1 ) );
+
+        // When
+        clientA.acquireSharedWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, 1 );
+        clientA.acquireSharedWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, 4 );
+        clientA.releaseSharedWithin( LABEL, 1, INDEX_ENTRY, 4 );
+        clientA.releaseSharedWithin( LABEL, 1, INDEX_ENTRY, 1 );
+        clientA.releaseSharedWithin( LABEL, 1, INDEX_ENTRY, 1 );
+        clientA.releaseSharedWithin( LABEL, 1, INDEX_ENTRY, 2 );
+
+        // Then
+        assertEquals( 0, countLocks( clientA, INDEX_ENTRY ) );
+        assertTrue( holds( clientA, ActiveLock.EXCLUSIVE_MODE, LABEL, 1 ) );
+    }
+
+    @Test
+    public void locksWithinParentShouldHoldIntentionLockOnParent() throws Exception
+    {
+        // Given
+        clientA.acquireSharedWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, 1 );
+
+        // Then
+        assertFalse( clientB.tryExclusiveLock( LABEL, 1 ) );
+        assertTrue( clientB.tryExclusiveLock( LABEL, 2 ) );
+
+        // When
+        clientA.releaseSharedWithin( LABEL, 1, INDEX_ENTRY, 1 );
+
+        // Then
+        assertTrue( clientB.tryExclusiveLock( LABEL, 1 ) );
+    }
+
+    @Test
+    public void shouldNotTakeIntentionLocksWhenEscalationIsDisabled() throws Exception
+    {
+        // Given
+        Locks disabled = new ForsetiLockManager( Config.defaults(), Clocks.systemClock(), ResourceTypes.values() );
+        try ( Locks.Client client = disabled.newClient() )
+        {
+            // When
+            for ( long indexEntry = 1; indexEntry <= 10; indexEntry++ )
+            {
+                client.acquireExclusiveWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, indexEntry );
+            }
+            client.releaseExclusiveWithin( LABEL, 1, INDEX_ENTRY, 10 );
+
+            // Then
+            assertEquals( 0, countLocks( client, LABEL ) );
+            assertEquals( 9, countLocks( client, INDEX_ENTRY ) );
+        }
+        finally
+        {
+            disabled.close();
+        }
+    }
+
+    @Test
+    public void shouldReleaseEscalatedLockOnClose() throws Exception
+    {
+        // Given
+        Locks.Client client = locks.newClient();
+        for ( long indexEntry = 1; indexEntry <= 3; indexEntry++ )
+        {
+            client.acquireExclusiveWithin( LockTracer.NONE, LABEL, 1, INDEX_ENTRY, indexEntry );
+        }
+        assertFalse( clientB.trySharedLock( LABEL, 1 ) );
+
+        // When
+        client.close();
+
+        // Then
+        assertTrue( clientB.trySharedLock( LABEL, 1 ) );
+    }
+
+    private static boolean holds( Locks.Client client, String mode, ResourceType resourceType, long resourceId )
+    {
+        return client.activeLocks().anyMatch( lock -> lock.mode().equals( mode ) &&
+                lock.resourceType() == resourceType && lock.resourceId() == resourceId );
+    }
+
+    private static long countLocks( Locks.Client client, ResourceType resourceType )
+    {
+        return client.activeLocks().filter( lock -> lock.resourceType() == resourceType ).count();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.lock.forseti;
+
+import java.time.Clock;
+
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.LockingCompatibilityTestSuite;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.test.OtherThreadExecutor.WaitDetails;
+
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings.lock_wait_for_graph_enabled;
+
+public class ForsetiWaitForGraphLocksTest extends LockingCompatibilityTestSuite
+{
+    /** Shared by all lock managers of the suite, which has no hook for shutting it down; its threads are daemons. */
+    private static final Neo4jJobScheduler jobScheduler = startedJobScheduler();
+
+    @Override
+    protected Locks createLockManager( Config config, Clock clock )
+    {
+        return new ForsetiLockManager( config.with( stringMap( lock_wait_for_graph_enabled.name(), "true" ) ), clock,
+                jobScheduler, NullLogProvider.getInstance(), ResourceTypes.values() );
+    }
+
+    private static Neo4jJobScheduler startedJobScheduler()
+    {
+        Neo4jJobScheduler jobScheduler = new Neo4jJobScheduler();
+        jobScheduler.init();
+        return jobScheduler;
+    }
+
+    @Override
+    protected boolean isAwaitingLockAcquisition( WaitDetails details )
+    {
+        return details.isAt( ForsetiClient.class, "applyWaitStrategy" );
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.enterprise.lock.forseti;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import org.neo4j.kernel.DeadlockDetectedException;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.locking.LockTracer;
+import org.neo4j.kernel.impl.locking.Locks;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.util.JobScheduler;
+import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
+import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.time.Clocks;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings.lock_wait_for_graph_enabled;
+import static org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings.lock_wait_for_graph_interval;
+import static org.neo4j.kernel.impl.enterprise.configuration.EnterpriseEditionSettings.lock_wait_for_graph_victim;
+import static org.neo4j.kernel.impl.locking.ResourceTypes.NODE;
+
+public class WaitForGraphDeadlockDetectorTest
+{
+    @Rule
+    public final LifeRule life = new LifeRule( true );
+    private final JobScheduler jobScheduler = life.add( new Neo4jJobScheduler() );
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Set<Locks.Client> openClients = ConcurrentHashMap.newKeySet();
+    private Locks locks;
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        openClients.forEach( Locks.Client::close );
+        if ( locks != null )
+        {
+            locks.close();
+        }
+    }
+
+    @Test
+    public void shouldAbortTheYoungestClientOfATwoClientDeadlock() throws Exception
+    {
+        // Given
+        locks = newLockManager( DeadlockVictimPolicy.YOUNGEST );
+        Locks.Client older = newClient();
+        Locks.Client younger = newClient();
+        older.acquireExclusive( LockTracer.NONE, NODE, 1 );
+        younger.acquireExclusive( LockTracer.NONE, NODE, 2 );
+
+        // When
+        Future<Void> olderWaits = acquireExclusiveInOtherThread( older, 2 );
+        Future<Void> youngerWaits = acquireExclusiveInOtherThread( younger, 1 );
+
+        // Then
+        assertDeadlockDetected( youngerWaits );
+        olderWaits.get( 10, SECONDS );
+    }
+
+    @Test
+    public void shouldAbortOneClientOfAThreeClientDeadlock() throws Exception
+    {
+        // Given
+        locks = newLockManager( DeadlockVictimPolicy.YOUNGEST );
+        Locks.Client first = newClient();
+        Locks.Client second = newClient();
+        Locks.Client third = newClient();
+        first.acquireExclusive( LockTracer.NONE, NODE, 1 );
+        second.acquireExclusive( LockTracer.NONE, NODE, 2 );
+        third.acquireExclusive( LockTracer.NONE, NODE, 3 );
+
+        // When
+        Future<Void> firstWaits = acquireExclusiveInOtherThread( first, 2 );
+        Future<Void> secondWaits = acquireExclusiveInOtherThread( second, 3 );
+        Future<Void> thirdWaits = acquireExclusiveInOtherThread( third, 1 );
+
+        // Then
+        assertDeadlockDetected( thirdWaits );
+        secondWaits.get( 10, SECONDS );
+        second.releaseExclusive( NODE, 2 );
+        firstWaits.get( 10, SECONDS );
+    }
+
+    @Test
+    public void shouldAbortTheClientHoldingTheFewestLocks() throws Exception
+    {
+        // Given
+        locks = newLockManager( DeadlockVictimPolicy.FEWEST_LOCKS );
+        Locks.Client older = newClient();
+        Locks.Client younger = newClient();
+        older.acquireExclusive( LockTracer.NONE, NODE, 1 );
+        younger.acquireExclusive( LockTracer.NONE, NODE, 2, 10, 11 );
+
+        // When
+        Future<Void> olderWaits = acquireExclusiveInOtherThread( older, 2 );
+        Future<Void> youngerWaits = acquireExclusiveInOtherThread( younger, 1 );
+
+        // Then
+        assertDeadlockDetected( olderWaits );
+        youngerWaits.get( 10, SECONDS );
+    }
+
+    @Test
+    public void shouldAbortTheClientHoldingTheFewestExclusiveLocksWhenAbortingTheOneWithLeastWork() throws Exception
+    {
+        // Given
+        locks = newLockManager( DeadlockVictimPolicy.LEAST_WORK );
+        Locks.Client older = newClient();
+        Locks.Client younger = newClient();
+        older.acquireExclusive( LockTracer.NONE, NODE, 1 );
+        older.acquireShared( LockTracer.NONE, NODE, 10, 11, 12 );
+        younger.acquireExclusive( LockTracer.NONE, NODE, 2, 13 );
+
+        // When
+        Future<Void> olderWaits = acquireExclusiveInOtherThread( older, 2 );
+        Future<Void> youngerWaits = acquireExclusiveInOtherThread( younger, 1 );
+
+        // Then
+        assertDeadlockDetected( olderWaits );
+        youngerWaits.get( 10, SECONDS );
+    }
+
+    @Test
+    public void shouldAbortOneOfTwoClientsUpgradingTheSameSharedLock() throws Exception
+    {
+        // Given
+        locks = newLockManager( DeadlockVictimPolicy.YOUNGEST );
+        Locks.Client older = newClient();
+        Locks.Client younger = newClient();
+        older.acquireShared( LockTracer.NONE, NODE, 1 );
+        younger.acquireShared( LockTracer.NONE, NODE, 1 );
+
+        // When
+        Future<Void> olderWaits = acquireExclusiveInOtherThread( older, 1 );
+        Future<Void> youngerWaits = acquireExclusiveInOtherThread( younger, 1 );
+
+        // Then
+        assertDeadlockDetected( youngerWaits );
+        olderWaits.get( 10, SECONDS );
+    }
+
+    @Test
+    public void shouldNotAbortClientsThatAreWaitingWithoutBeingDeadlocked() throws Exception
+    {
+        // Given
+        locks = newLockManager( DeadlockVictimPolicy.YOUNGEST );
+        Locks.Client holder = newClient();
+        Locks.Client first = newClient();
+        Locks.Client second = newClient();
+        holder.acquireExclusive( LockTracer.NONE, NODE, 1 );
+        first.acquireExclusive( LockTracer.NONE, NODE, 2 );
+
+        // When
+        Future<Void> firstWaits = acquireExclusiveInOtherThread( first, 1 );
+        Future<Void> secondWaits = acquireExclusiveInOtherThread( second, 2 );
+
+        // Then
+        try
+        {
+            secondWaits.get( 200, MILLISECONDS );
+            fail( "Should still be waiting" );
+        }
+        catch ( TimeoutException e )
+        {
+            assertFalse( firstWaits.isDone() );
+        }
+        holder.releaseExclusive( NODE, 1 );
+        firstWaits.get( 10, SECONDS );
+        first.releaseExclusive( NODE, 2 );
+        secondWaits.get( 10, SECONDS );
+    }
+
+    private Locks newLockManager( DeadlockVictimPolicy victimPolicy )
+    {
+        Config config = Config.defaults().with( stringMap(
+                lock_wait_for_graph_enabled.name(), "true",
+                lock_wait_for_graph_victim.name(), victimPolicy.name(),
+                lock_wait_for_graph_interval.name(), "1ms" ) );
+        return new ForsetiLockManager( config, Clocks.systemClock(), jobScheduler, NullLogProvider.getInstance(),
+                ResourceTypes.values() );
+    }
+
+    private Locks.Client newClient()
+    {
+        Locks.Client client = locks.newClient();
+        openClients.add( client );
+        return client;
+    }
+
+    private Future<Void> acquireExclusiveInOtherThread( Locks.Client client, long resourceId )
+    {
+        return executor.submit( () ->
+        {
+            try
+            {
+                client.acquireExclusive( LockTracer.NONE, NODE, resourceId );
+                return null;
+            }
+            catch ( DeadlockDetectedException e )
+            {
+                // Like a transaction would, give up all locks, so that the other clients can continue
+                openClients.remove( client );
+                client.close();
+                throw e;
+            }
+        } );
+    }
+
+    private static void assertDeadlockDetected( Future<Void> future ) throws Exception
+    {
+        try
+        {
+            future.get( 10, SECONDS );
+            fail( "Should have been aborted because of a deadlock" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertTrue( e.getCause() instanceof DeadlockDetectedException );
+            assertTrue( e.getCause().getMessage(), e.getCause().getMessage().contains( "waiting for each other" ) );
+        }
+    }
+}
@@ -76,6 +76,9 @@ public class MetricsSettings implements LoadableConfig
                   + "complete." )
     public static Setting<Boolean> neoLogRotationEnabled = setting(
             "metrics.neo4j.logrotation.enabled", Settings.BOOLEAN, neoEnabled );
+    @Description( "Enable reporting metrics about how long transactions wait for locks, per type of resource." )
+    public static Setting<Boolean> neoLocksEnabled = setting(
+            "metrics.neo4j.locks.enabled", Settings.BOOLEAN, neoEnabled );
     @Description( "Enable reporting metrics about HA cluster info." )
     public static Setting<Boolean> neoClusterEnabled = setting(
             "metrics.neo4j.cluster.enabled", Settings.BOOLEAN, neoEnabled );
@@ -27,14 +27,18 @@ import org.neo4j.causalclustering.core.consensus.CoreMetaData;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.ha.cluster.member.ClusterMembers;
+import org.neo4j.kernel.impl.api.CommitLatencyMonitor;
 import org.neo4j.kernel.impl.api.LogRotationMonitor;
 import org.neo4j.kernel.impl.factory.OperationalMode;
+import org.neo4j.kernel.impl.locking.LockContentionMonitor;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.spi.KernelContext;
 import org.neo4j.kernel.impl.store.stats.StoreEntityCounters;
 import org.neo4j.kernel.impl.transaction.TransactionCounters;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerMonitor;
+import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.metrics.MetricsSettings;
@@ -45,8 +49,10 @@ import org.neo4j.metrics.source.cluster.ClusterMetrics;
 import org.neo4j.metrics.source.cluster.NetworkMetrics;
 import org.neo4j.metrics.source.db.BoltMetrics;
 import org.neo4j.metrics.source.db.CheckPointingMetrics;
+import org.neo4j.metrics.source.db.CommitLatencyMetrics;
 import org.neo4j.metrics.source.db.CypherMetrics;
 import org.neo4j.metrics.source.db.EntityCountMetrics;
+import org.neo4j.metrics.source.db.LockContentionMetrics;
 import org.neo4j.metrics.source.db.LogRotationMetrics;
 import org.neo4j.metrics.source.db.PageCacheMetrics;
 import org.neo4j.metrics.source.db.TransactionMetrics;
@@ -74,10 +80,16 @@ public class Neo4jMetricsBuilder
 
         PageCacheCounters pageCacheCounters();
 
+        JobScheduler scheduler();
+
         CheckPointerMonitor checkPointerMonitor();
 
         LogRotationMonitor logRotationMonitor();
 
+        CommitLatencyMonitor commitLatencyMonitor();
+
+        LockContentionMonitor lockContentionMonitor();
+
         StoreEntityCounters entityCountStats();
 
         Supplier<ClusterMembers> clusterMembers();
@@ -85,6 +97,8 @@ public class Neo4jMetricsBuilder
         Supplier<CoreMetaData> raft();
 
         Supplier<TransactionIdStore> transactionIdStore();
+
+        Supplier<LogPruning> logPruning();
     }
 
     public Neo4jMetricsBuilder( MetricRegistry registry, EventReporter reporter, Config config, LogService logService,
@@ -106,12 +120,14 @@ public class Neo4jMetricsBuilder
         {
             life.add( new TransactionMetrics( registry, dependencies.transactionIdStore(),
                     dependencies.transactionCounters() ) );
+            life.add( new CommitLatencyMetrics( registry, dependencies.commitLatencyMonitor() ) );
             result = true;
         }
 
         if ( config.get( MetricsSettings.neoPageCacheEnabled ) )
         {
-            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters() ) );
+            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters(), dependencies.scheduler(),
+                    kernelContext.storeDir() ) );
             result = true;
         }
 
@@ -125,7 +141,13 @@ public class Neo4jMetricsBuilder
         if ( config.get( MetricsSettings.neoLogRotationEnabled ) )
         {
             life.add( new LogRotationMetrics( reporter, registry, dependencies.monitors(),
-                    dependencies.logRotationMonitor() ) );
+                    dependencies.logRotationMonitor(), dependencies.logPruning() ) );
+            result = true;
+        }
+
+        if ( config.get( MetricsSettings.neoLocksEnabled ) )
+        {
+            life.add( new LockContentionMetrics( registry, dependencies.lockContentionMonitor() ) );
             result = true;
         }
 
@@ -44,6 +44,9 @@ public class CheckPointingMetrics extends LifecycleAdapter
     public static final String CHECK_POINT_EVENTS = name( CHECK_POINT_PREFIX, "events" );
     @Documented( "The total time spent in check pointing so far" )
     public static final String CHECK_POINT_TOTAL_TIME = name( CHECK_POINT_PREFIX, "total_time" );
+    @Documented( "The total number of dirty pages written by background flushing in between check points so far" )
+    public static final String CHECK_POINT_BACKGROUND_FLUSHED_PAGES =
+            name( CHECK_POINT_PREFIX, "background_flushed_pages" );
     @Documented( "The duration of the check point event" )
     public static final String CHECK_POINT_DURATION = name( CHECK_POINT_PREFIX, "check_point_duration" );
 
@@ -73,6 +76,8 @@ public class CheckPointingMetrics extends LifecycleAdapter
         registry.register( CHECK_POINT_EVENTS, (Gauge<Long>) checkPointerMonitor::numberOfCheckPointEvents );
         registry.register( CHECK_POINT_TOTAL_TIME,
                 (Gauge<Long>) checkPointerMonitor::checkPointAccumulatedTotalTimeMillis );
+        registry.register( CHECK_POINT_BACKGROUND_FLUSHED_PAGES,
+                (Gauge<Long>) checkPointerMonitor::numberOfPagesFlushedInBackground );
     }
 
     @Override
@@ -82,5 +87,6 @@ public class CheckPointingMetrics extends LifecycleAdapter
 
         registry.remove( CHECK_POINT_EVENTS );
         registry.remove( CHECK_POINT_TOTAL_TIME );
+        registry.remove( CHECK_POINT_BACKGROUND_FLUSHED_PAGES );
     }
 }
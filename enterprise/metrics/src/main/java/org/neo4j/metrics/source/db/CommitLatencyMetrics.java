@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.api.CommitLatencyMonitor;
+import org.neo4j.kernel.impl.api.CommitPhase;
+import org.neo4j.kernel.impl.util.LatencyHistogram;
+import org.neo4j.kernel.impl.util.LatencyHistogramInterval;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Documented( ".Database Commit Latency Metrics" )
+public class CommitLatencyMetrics extends LifecycleAdapter
+{
+    private static final String COMMIT_PREFIX = "neo4j.transaction.commit";
+
+    @Documented( "The median time in microseconds spent in each commit phase since the previous report, " +
+                 "one metric per phase (locks, commands, log_write, log_force, store_apply, index_updates, total)" )
+    public static final String COMMIT_PHASE_P50 = name( COMMIT_PREFIX, "p50" );
+    @Documented( "The 99th percentile time in microseconds spent in each commit phase since the previous report" )
+    public static final String COMMIT_PHASE_P99 = name( COMMIT_PREFIX, "p99" );
+    @Documented( "The 99.9th percentile time in microseconds spent in each commit phase since the previous report" )
+    public static final String COMMIT_PHASE_P999 = name( COMMIT_PREFIX, "p999" );
+    @Documented( "The longest time in microseconds spent in each commit phase since the previous report" )
+    public static final String COMMIT_PHASE_MAX = name( COMMIT_PREFIX, "max" );
+
+    /**
+     * All gauges of one report read the same interval; a new interval is only cut when this much time has passed
+     * since the last one.
+     */
+    private static final long INTERVAL_REFRESH_MILLIS = 1000;
+
+    private final MetricRegistry registry;
+    private final CommitLatencyMonitor commitLatencyMonitor;
+    private final Map<CommitPhase,LatencyHistogramInterval> intervals = new EnumMap<>( CommitPhase.class );
+
+    public CommitLatencyMetrics( MetricRegistry registry, CommitLatencyMonitor commitLatencyMonitor )
+    {
+        this.registry = registry;
+        this.commitLatencyMonitor = commitLatencyMonitor;
+    }
+
+    @Override
+    public void start()
+    {
+        for ( CommitPhase phase : CommitPhase.values() )
+        {
+            LatencyHistogramInterval interval = new LatencyHistogramInterval(
+                    commitLatencyMonitor.latencies( phase ), INTERVAL_REFRESH_MILLIS, Clock.systemUTC() );
+            intervals.put( phase, interval );
+            register( COMMIT_PHASE_P50, phase, interval, snapshot -> snapshot.valueAtPercentile( 50 ) );
+            register( COMMIT_PHASE_P99, phase, interval, snapshot -> snapshot.valueAtPercentile( 99 ) );
+            register( COMMIT_PHASE_P999, phase, interval, snapshot -> snapshot.valueAtPercentile( 99.9 ) );
+            register( COMMIT_PHASE_MAX, phase, interval, LatencyHistogram.Snapshot::max );
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        registry.removeMatching( ( name, metric ) -> name.startsWith( COMMIT_PREFIX + "." ) );
+        intervals.clear();
+    }
+
+    private void register( String metric, CommitPhase phase, LatencyHistogramInterval interval,
+            ToLongFunction<LatencyHistogram.Snapshot> value )
+    {
+        registry.register( name( metric, phase.metricName() ),
+                (Gauge<Long>) () -> TimeUnit.NANOSECONDS.toMicros( value.applyAsLong( interval.current() ) ) );
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.locking.LockContentionMonitor;
+import org.neo4j.kernel.impl.locking.ResourceTypes;
+import org.neo4j.kernel.impl.util.LatencyHistogram;
+import org.neo4j.kernel.impl.util.LatencyHistogramInterval;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Documented( ".Database Lock Contention Metrics" )
+public class LockContentionMetrics extends LifecycleAdapter
+{
+    private static final String LOCK_WAIT_PREFIX = "neo4j.locks.wait";
+
+    @Documented( "The number of times transactions had to wait for a lock since the previous report, one metric per " +
+                 "resource type (node, relationship, graph_props, schema, index_entry, legacy_index, label)" )
+    public static final String LOCK_WAITS = name( LOCK_WAIT_PREFIX, "count" );
+    @Documented( "The median time in microseconds that transactions waited for a lock of each resource type since " +
+                 "the previous report" )
+    public static final String LOCK_WAIT_P50 = name( LOCK_WAIT_PREFIX, "p50" );
+    @Documented( "The 99th percentile time in microseconds that transactions waited for a lock of each resource type " +
+                 "since the previous report" )
+    public static final String LOCK_WAIT_P99 = name( LOCK_WAIT_PREFIX, "p99" );
+    @Documented( "The longest time in microseconds that a transaction waited for a lock of each resource type since " +
+                 "the previous report" )
+    public static final String LOCK_WAIT_MAX = name( LOCK_WAIT_PREFIX, "max" );
+
+    /**
+     * All gauges of one report read the same interval; a new interval is only cut when this much time has passed
+     * since the last one.
+     */
+    private static final long INTERVAL_REFRESH_MILLIS = 1000;
+
+    private final MetricRegistry registry;
+    private final LockContentionMonitor lockContentionMonitor;
+    private final Map<ResourceTypes,LatencyHistogramInterval> intervals = new EnumMap<>( ResourceTypes.class );
+
+    public LockContentionMetrics( MetricRegistry registry, LockContentionMonitor lockContentionMonitor )
+    {
+        this.registry = registry;
+        this.lockContentionMonitor = lockContentionMonitor;
+    }
+
+    @Override
+    public void start()
+    {
+        for ( ResourceTypes type : ResourceTypes.values() )
+        {
+            LatencyHistogramInterval interval = new LatencyHistogramInterval(
+                    lockContentionMonitor.waitTimes( type ), INTERVAL_REFRESH_MILLIS, Clock.systemUTC() );
+            intervals.put( type, interval );
+            String typeName = type.name().toLowerCase( Locale.ROOT );
+            registry.register( name( LOCK_WAITS, typeName ), (Gauge<Long>) () -> interval.current().count() );
+            register( LOCK_WAIT_P50, typeName, interval, snapshot -> snapshot.valueAtPercentile( 50 ) );
+            register( LOCK_WAIT_P99, typeName, interval, snapshot -> snapshot.valueAtPercentile( 99 ) );
+            register( LOCK_WAIT_MAX, typeName, interval, LatencyHistogram.Snapshot::max );
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        registry.removeMatching( ( name, metric ) -> name.startsWith( LOCK_WAIT_PREFIX + "." ) );
+        intervals.clear();
+    }
+
+    private void register( String metric, String typeName, LatencyHistogramInterval interval,
+            ToLongFunction<LatencyHistogram.Snapshot> value )
+    {
+        registry.register( name( metric, typeName ),
+                (Gauge<Long>) () -> TimeUnit.NANOSECONDS.toMicros( value.applyAsLong( interval.current() ) ) );
+    }
+}
@@ -25,10 +25,12 @@ import com.codahale.metrics.MetricRegistry;
 import java.io.IOException;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Supplier;
 
 import org.neo4j.kernel.impl.annotations.Documented;
 import org.neo4j.kernel.impl.api.DefaultTransactionTracer;
 import org.neo4j.kernel.impl.api.LogRotationMonitor;
+import org.neo4j.kernel.impl.transaction.log.pruning.LogPruning;
 import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.kernel.monitoring.Monitors;
@@ -48,18 +50,22 @@ public class LogRotationMetrics extends LifecycleAdapter implements Lifecycle
     public static final String LOG_ROTATION_TOTAL_TIME = name( LOG_ROTATION_PREFIX, "total_time" );
     @Documented( "The duration of the log rotation event" )
     public static final String LOG_ROTATION_DURATION = name( LOG_ROTATION_PREFIX, "log_rotation_duration" );
+    @Documented( "The number of bytes of transaction logs that are due to be pruned, but are not removed yet" )
+    public static final String LOG_PRUNING_LAG = name( LOG_ROTATION_PREFIX, "pruning_lag" );
 
     private final MetricRegistry registry;
     private final Monitors monitors;
     private final LogRotationMonitor logRotationMonitor;
+    private final Supplier<LogPruning> logPruning;
     private final DefaultTransactionTracer.Monitor listener;
 
     public LogRotationMetrics( EventReporter reporter, MetricRegistry registry,
-            Monitors monitors, LogRotationMonitor logRotationMonitor )
+            Monitors monitors, LogRotationMonitor logRotationMonitor, Supplier<LogPruning> logPruning )
     {
         this.registry = registry;
         this.monitors = monitors;
         this.logRotationMonitor = logRotationMonitor;
+        this.logPruning = logPruning;
         this.listener = ( durationMillis ) -> {
             final SortedMap<String,Gauge> gauges = new TreeMap<>();
             gauges.put( LOG_ROTATION_DURATION, () -> durationMillis );
@@ -75,6 +81,7 @@ public class LogRotationMetrics extends LifecycleAdapter implements Lifecycle
         registry.register( LOG_ROTATION_EVENTS, (Gauge<Long>) logRotationMonitor::numberOfLogRotationEvents );
         registry.register( LOG_ROTATION_TOTAL_TIME,
                 (Gauge<Long>) logRotationMonitor::logRotationAccumulatedTotalTimeMillis );
+        registry.register( LOG_PRUNING_LAG, (Gauge<Long>) () -> logPruning.get().bytesAwaitingPruning() );
     }
 
     @Override
@@ -84,5 +91,6 @@ public class LogRotationMetrics extends LifecycleAdapter implements Lifecycle
 
         registry.remove( LOG_ROTATION_EVENTS );
         registry.remove( LOG_ROTATION_TOTAL_TIME );
+        registry.remove( LOG_PRUNING_LAG );
     }
 }
@@ -22,11 +22,21 @@ package org.neo4j.metrics.source.db;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
 import static com.codahale.metrics.MetricRegistry.name;
+import static java.lang.String.format;
 
 @Documented( ".Database PageCache Metrics" )
 public class PageCacheMetrics extends LifecycleAdapter
@@ -45,14 +55,41 @@ public class PageCacheMetrics extends LifecycleAdapter
     public static final String PC_EVICTIONS = name( PAGE_CACHE_PREFIX, "evictions" );
     @Documented( "The total number of page faults happened in the page cache" )
     public static final String PC_PAGE_FAULTS = name( PAGE_CACHE_PREFIX, "page_faults" );
+    @Documented( "The total number of pages loaded into the page cache by warmup" )
+    public static final String PC_WARMED_UP_PAGES = name( PAGE_CACHE_PREFIX, "warmed_up_pages" );
+    @Documented( "The total number of page faults served from the compressed page tier" )
+    public static final String PC_COMPRESSED_TIER_HITS = name( PAGE_CACHE_PREFIX, "compressed_tier_hits" );
+    @Documented( "The total number of page faults that missed the compressed page tier" )
+    public static final String PC_COMPRESSED_TIER_MISSES = name( PAGE_CACHE_PREFIX, "compressed_tier_misses" );
+    @Documented( "The number of page pins that found their page in memory, for the mapped file at the path %s, " +
+            "relative to the store directory" )
+    public static final String PC_FILE_HITS = name( PAGE_CACHE_PREFIX, "file", "%s", "hits" );
+    @Documented( "The number of page pins that had to fault their page into memory, for the mapped file at the path " +
+            "%s, relative to the store directory" )
+    public static final String PC_FILE_PAGE_FAULTS = name( PAGE_CACHE_PREFIX, "file", "%s", "page_faults" );
+    @Documented( "The number of page evictions from the mapped file at the path %s, relative to the store directory" )
+    public static final String PC_FILE_EVICTIONS = name( PAGE_CACHE_PREFIX, "file", "%s", "evictions" );
+
+    // Files can be mapped and unmapped at any time, so we periodically look for changes to the mapped files.
+    private static final long FILE_REGISTRATION_INTERVAL_SECONDS = 10;
 
     private final MetricRegistry registry;
     private final PageCacheCounters pageCacheCounters;
+    private final JobScheduler scheduler;
+    private final Path storeDir;
+    // The counters we have registered metrics for, by metric file name. This and the fields below are guarded by the
+    // monitor.
+    private final Map<String,PageCursorCounters> registeredFiles = new HashMap<>();
+    private boolean fileMetricsStarted;
+    private JobScheduler.JobHandle fileRegistrationJob;
 
-    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters )
+    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters, JobScheduler scheduler,
+            File storeDir )
     {
         this.registry = registry;
         this.pageCacheCounters = pageCacheCounters;
+        this.scheduler = scheduler;
+        this.storeDir = storeDir.toPath().toAbsolutePath().normalize();
     }
 
     @Override
@@ -64,6 +101,85 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.register( PC_UNPINS, (Gauge<Long>) pageCacheCounters::unpins );
         registry.register( PC_FLUSHES, (Gauge<Long>) pageCacheCounters::flushes );
         registry.register( PC_EVICTION_EXCEPTIONS, (Gauge<Long>) pageCacheCounters::evictionExceptions );
+        registry.register( PC_WARMED_UP_PAGES, (Gauge<Long>) pageCacheCounters::warmedUpPages );
+        registry.register( PC_COMPRESSED_TIER_HITS, (Gauge<Long>) pageCacheCounters::compressedTierHits );
+        registry.register( PC_COMPRESSED_TIER_MISSES, (Gauge<Long>) pageCacheCounters::compressedTierMisses );
+
+        startFileMetrics();
+    }
+
+    private synchronized void startFileMetrics()
+    {
+        fileMetricsStarted = true;
+        registerFileMetrics();
+        fileRegistrationJob = scheduler.scheduleRecurring( JobScheduler.Groups.metricsEvent,
+                this::registerFileMetrics, FILE_REGISTRATION_INTERVAL_SECONDS, TimeUnit.SECONDS );
+    }
+
+    private synchronized void registerFileMetrics()
+    {
+        if ( !fileMetricsStarted )
+        {
+            return; // We have been stopped while this job was waiting for the monitor lock.
+        }
+        Map<String,PageCursorCounters> mappedFiles = new HashMap<>();
+        for ( Map.Entry<File,PageCursorCounters> entry : pageCacheCounters.fileCounters().entrySet() )
+        {
+            mappedFiles.put( metricFileName( entry.getKey() ), entry.getValue() );
+        }
+
+        // Files that have been unmapped since, possibly to be mapped again with new counters, lose their metrics.
+        Iterator<Map.Entry<String,PageCursorCounters>> registered = registeredFiles.entrySet().iterator();
+        while ( registered.hasNext() )
+        {
+            Map.Entry<String,PageCursorCounters> entry = registered.next();
+            if ( mappedFiles.get( entry.getKey() ) != entry.getValue() )
+            {
+                unregisterFileMetrics( entry.getKey() );
+                registered.remove();
+            }
+        }
+
+        for ( Map.Entry<String,PageCursorCounters> entry : mappedFiles.entrySet() )
+        {
+            String fileName = entry.getKey();
+            PageCursorCounters counters = entry.getValue();
+            if ( registeredFiles.putIfAbsent( fileName, counters ) == null )
+            {
+                registry.register( format( PC_FILE_HITS, fileName ), (Gauge<Long>) counters::hits );
+                registry.register( format( PC_FILE_PAGE_FAULTS, fileName ), (Gauge<Long>) counters::faults );
+                registry.register( format( PC_FILE_EVICTIONS, fileName ), (Gauge<Long>) counters::evictions );
+            }
+        }
+    }
+
+    /**
+     * Files are named by their path relative to the store directory, so that files with the same name in different
+     * directories, such as those of different indexes, get metrics of their own.
+     */
+    private String metricFileName( File file )
+    {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if ( path.startsWith( storeDir ) )
+        {
+            path = storeDir.relativize( path );
+        }
+        return path.toString().replace( File.separatorChar, '/' );
+    }
+
+    private void unregisterFileMetrics( String fileName )
+    {
+        registry.remove( format( PC_FILE_HITS, fileName ) );
+        registry.remove( format( PC_FILE_PAGE_FAULTS, fileName ) );
+        registry.remove( format( PC_FILE_EVICTIONS, fileName ) );
+    }
+
+    private synchronized void stopFileMetrics()
+    {
+        fileMetricsStarted = false;
+        fileRegistrationJob.cancel( false );
+        registeredFiles.keySet().forEach( this::unregisterFileMetrics );
+        registeredFiles.clear();
     }
 
     @Override
@@ -75,5 +191,10 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.remove( PC_UNPINS );
         registry.remove( PC_FLUSHES );
         registry.remove( PC_EVICTION_EXCEPTIONS );
+        registry.remove( PC_WARMED_UP_PAGES );
+        registry.remove( PC_COMPRESSED_TIER_HITS );
+        registry.remove( PC_COMPRESSED_TIER_MISSES );
+
+        stopFileMetrics();
     }
 }
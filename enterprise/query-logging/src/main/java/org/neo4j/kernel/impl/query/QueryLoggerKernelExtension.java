@@ -23,7 +23,9 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.OutputStream;
 import java.time.Clock;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Service;
@@ -32,6 +34,8 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.kernel.api.ExecutingQuery;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.extension.KernelExtensionFactory;
+import org.neo4j.kernel.impl.api.CommitLatencyMonitor;
+import org.neo4j.kernel.impl.api.CommitPhase;
 import org.neo4j.kernel.impl.logging.LogService;
 import org.neo4j.kernel.impl.spi.KernelContext;
 import org.neo4j.kernel.impl.util.JobScheduler;
@@ -60,6 +64,8 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
         LogService logger();
 
         JobScheduler jobScheduler();
+
+        CommitLatencyMonitor commitLatencyMonitor();
     }
 
     public QueryLoggerKernelExtension()
@@ -77,6 +83,7 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
         final FileSystemAbstraction fileSystem = dependencies.fileSystem();
         final JobScheduler jobScheduler = dependencies.jobScheduler();
         final Monitors monitoring = dependencies.monitoring();
+        final CommitLatencyMonitor commitLatencyMonitor = dependencies.commitLatencyMonitor();
 
         if (!queryLogEnabled)
         {
@@ -86,6 +93,7 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
         return new LifecycleAdapter()
         {
             Closeable closable;
+            SlowCommitLogger slowCommitLogger;
 
             @Override
             public void init() throws Throwable
@@ -115,11 +123,23 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
 
                 QueryLogger logger = new QueryLogger( Clocks.systemClock(), log, thresholdMillis, logQueryParameters );
                 monitoring.addMonitorListener( logger );
+
+                Long commitThresholdMillis = config.get( GraphDatabaseSettings.log_queries_commit_threshold );
+                if ( commitThresholdMillis > 0 )
+                {
+                    slowCommitLogger = new SlowCommitLogger( log );
+                    commitLatencyMonitor.addSlowCommitListener(
+                            TimeUnit.MILLISECONDS.toNanos( commitThresholdMillis ), slowCommitLogger );
+                }
             }
 
             @Override
             public void shutdown() throws Throwable
             {
+                if ( slowCommitLogger != null )
+                {
+                    commitLatencyMonitor.removeSlowCommitListener( slowCommitLogger );
+                }
                 closable.close();
             }
         };
@@ -221,4 +241,36 @@ public class QueryLoggerKernelExtension extends KernelExtensionFactory<QueryLogg
             return Strings.prettyPrint( value );
         }
     }
+
+    /**
+     * Logs the time that slow commits spent in each phase of the commit.
+     */
+    static class SlowCommitLogger implements CommitLatencyMonitor.SlowCommitListener
+    {
+        private final Log log;
+
+        SlowCommitLogger( Log log )
+        {
+            this.log = log;
+        }
+
+        @Override
+        public void slowCommit( long[] phaseNanos )
+        {
+            StringBuilder builder = new StringBuilder();
+            builder.append( TimeUnit.NANOSECONDS.toMillis( phaseNanos[CommitPhase.TOTAL.ordinal()] ) )
+                    .append( " ms: slow commit -" );
+            String sep = " ";
+            for ( CommitPhase phase : CommitPhase.values() )
+            {
+                if ( phase != CommitPhase.TOTAL )
+                {
+                    builder.append( sep ).append( phase.metricName() ).append( ": " )
+                            .append( format( Locale.ROOT, "%.3f ms", phaseNanos[phase.ordinal()] / 1_000_000.0 ) );
+                    sep = ", ";
+                }
+            }
+            log.info( builder.toString() );
+        }
+    }
 }
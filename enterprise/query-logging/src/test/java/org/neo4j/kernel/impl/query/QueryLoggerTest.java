@@ -27,8 +27,11 @@ import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
+import org.neo4j.io.pagecache.tracing.PageCursorCounters;
 import org.neo4j.kernel.api.ExecutingQuery;
+import org.neo4j.kernel.impl.api.CommitPhase;
 import org.neo4j.kernel.impl.query.QueryLoggerKernelExtension.QueryLogger;
+import org.neo4j.kernel.impl.query.QueryLoggerKernelExtension.SlowCommitLogger;
 import org.neo4j.kernel.impl.query.clientconnection.ClientConnectionInfo;
 import org.neo4j.kernel.impl.query.clientconnection.ShellConnectionInfo;
 import org.neo4j.logging.AssertableLogProvider;
@@ -271,6 +274,27 @@ public class QueryLoggerTest
         );
     }
 
+    @Test
+    public void shouldLogTimeSpentInEachPhaseOfSlowCommit() throws Exception
+    {
+        // given
+        final AssertableLogProvider logProvider = new AssertableLogProvider();
+        SlowCommitLogger slowCommitLogger = new SlowCommitLogger( logProvider.getLog( getClass() ) );
+        long[] phaseNanos = new long[CommitPhase.values().length];
+        phaseNanos[CommitPhase.LOCKS.ordinal()] = 1_500_000;
+        phaseNanos[CommitPhase.LOG_FORCE.ordinal()] = 20_000_000;
+        phaseNanos[CommitPhase.TOTAL.ordinal()] = 23_000_000;
+
+        // when
+        slowCommitLogger.slowCommit( phaseNanos );
+
+        // then
+        logProvider.assertExactly(
+            inLog( getClass() ).info( "23 ms: slow commit - locks: 1.500 ms, commands: 0.000 ms, " +
+                    "log_write: 0.000 ms, log_force: 20.000 ms, store_apply: 0.000 ms, index_updates: 0.000 ms" )
+        );
+    }
+
     private QueryLogger queryLoggerWithoutParams( LogProvider logProvider, Clock clock )
     {
         return new QueryLogger( clock, logProvider.getLog( getClass() ), 10/*ms*/, false );
@@ -310,8 +334,10 @@ public class QueryLoggerTest
                 params,
                 metaData,
                 () -> 0,
+                () -> 0,
                 Thread.currentThread(),
                 clock,
-                CpuClock.CPU_CLOCK );
+                CpuClock.CPU_CLOCK,
+                PageCursorCounters.NULL );
     }
 }
@@ -26,6 +26,8 @@ import java.util.concurrent.TimeUnit;
 
 import org.neo4j.kernel.impl.transaction.tracing.CheckPointTracer;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CommitLocksEvent;
+import org.neo4j.kernel.impl.transaction.tracing.CreateCommandsEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
@@ -148,6 +150,18 @@ public class TimerTransactionTracer implements TransactionTracer, CheckPointTrac
         {
         }
 
+        @Override
+        public CommitLocksEvent beginCommitLocks()
+        {
+            return CommitLocksEvent.NULL;
+        }
+
+        @Override
+        public CreateCommandsEvent beginCreateCommands()
+        {
+            return CreateCommandsEvent.NULL;
+        }
+
         @Override
         public LogAppendEvent beginLogAppend()
         {
@@ -207,4 +221,9 @@ public class TimerTransactionTracer implements TransactionTracer, CheckPointTrac
         logCheckPointBegin = System.nanoTime();
         return LOG_CHECK_POINT_EVENT;
     }
+
+    @Override
+    public void pagesFlushedInBackground( long pages )
+    {
+    }
 }